@@ -66,6 +66,10 @@ public class ITDMCLogsumCalculatorTask extends MCLogsumCalculatorTask {
     }
 
     public void onMessage(Message msg) {
+        if (msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)) {
+            reportModelTimings();
+            return;
+        }
         mcLogger.info(getName() + ", Received messageId=" + msg.getId()
                 + " message from=" + msg.getSender() + ". MsgNum: " + msg.getIntValue("msgNum"));
         ActivityPurpose purpose = (ActivityPurpose)(msg.getValue("purpose"));
@@ -26,11 +26,11 @@ import com.pb.common.matrix.Matrix;
 import com.pb.common.model.Alternative;
 import com.pb.common.model.ConcreteAlternative;
 import com.pb.common.model.DiscreteChoiceModel;
-import com.pb.common.model.LogitModel;
 import com.pb.common.model.ModelException;
 import com.pb.common.util.ResourceUtil;
 import com.pb.models.pt.*;
 import com.pb.models.pt.daf.MessageID;
+import com.pb.models.pt.daf.WorkplaceLocationResults;
 import com.pb.models.pt.util.MCLogsumsInMemory;
 import com.pb.models.pt.util.SkimsInMemory;
 import com.pb.idaho.pt.PTOccupation;
@@ -72,7 +72,8 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 	protected static String debugDirPath;
 	protected static int[] aZones;
 	private ConcreteAlternative[] alts;
-	private LogitModel model;
+	private ChoiceDistribution distribution;
+	private Random random = new Random();
 	protected static float logsumParam;
 	protected static float distParam;
 	protected static float dist2Param;
@@ -82,12 +83,27 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 	protected static float [][][] districtConstants;
 	
 	protected static int totalDCDistricts;
+	protected static int minAliasGroupPersons;
+	protected static boolean keepPersons;
+	protected static int maxUtilityGroups;
 	
 	private TazManager tazManager;
+	
+	//utility terms that do not change across shadow price iterations
+	private double[][] segEmpByOccupation;
+	private HashMap<Integer, float[]> baseUtilityByGroup;     //by home taz and segment, for the first groups seen
+	
+	//persons of the rows last worked on, sorted, for the following iterations
+	private int personsStartRow;
+	private int personsEndRow;
+	private PTPerson[] sortedPersons;
+	private int[] segmentByHhId;
+	private int[] homeTazByHhId;
 	boolean debugTaz = true;
 	
 	PTOccupationReferencer occReferencer;
 	long workplaceLocationModelSeed = Long.MIN_VALUE/243;	
+	LatencyHistogram workplaceLocationTimes = new LatencyHistogram();
 
 	public void onStart(){
 		onStart(PTOccupation.NONE);
@@ -162,6 +178,15 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 				//get the total number of districts defined for the dc calibration constants
 				totalDCDistricts = Integer.parseInt(ptRb.getString("total.destination.choice.districts"));
 				
+				//keep the sorted persons between shadow price iterations
+				keepPersons = ResourceUtil.getBooleanProperty(ptRb, "sdt.workplace.keep.persons", true);
+				
+				//groups with at least this many persons draw from alias tables
+				minAliasGroupPersons = ResourceUtil.getIntegerProperty(ptRb, "sdt.workplace.alias.group.persons", 256);
+				
+				//home taz / segment groups whose base utilities are kept between shadow price iterations
+				maxUtilityGroups = ResourceUtil.getIntegerProperty(ptRb, "sdt.workplace.utility.cache.groups", 2048);
+				
 				initialized = true;
 			}
 
@@ -184,10 +209,44 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 
 		if(msg.getId().equals(MessageID.CALCULATE_WORKPLACE_LOCATIONS)){
 			readData();
+			long start = System.nanoTime();
 			runWorkplaceLocationModel(msg);
+			workplaceLocationTimes.record(System.nanoTime() - start);
+		} else if(msg.getId().equals(MessageID.WORKPLACE_LOCATIONS_FINISHED)){
+			releaseIterationData();
+		} else if(msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)){
+			reportModelTimings(msg);
 		}
 	}
 
+	/**
+	 * Send the durations of the workplace location messages handled so far.
+	 *
+	 * @param msg REPORT_MODEL_TIMINGS message with the reply queue
+	 */
+	private void reportModelTimings(Message msg) {
+		HashMap<String, LatencyHistogram> histograms = new HashMap<String, LatencyHistogram>();
+		histograms.put("workplaceLocation", workplaceLocationTimes);
+
+		Message timings = createMessage();
+		timings.setId(MessageID.MODEL_TIMINGS);
+		timings.setValue("histograms", histograms);
+		wlLogger.info(getName() + ", Sending model timings to " + msg.getValue("replyQueue"));
+		sendTo((String) msg.getValue("replyQueue"), timings);
+	}
+
+	/**
+	 * The shadow price iterations are over, so drop what was kept for them.
+	 */
+	private void releaseIterationData() {
+		wlLogger.info(getName() + ", Releasing the workplace location persons and utilities");
+		baseUtilityByGroup = null;
+		segEmpByOccupation = null;
+		sortedPersons = null;
+		segmentByHhId = null;
+		homeTazByHhId = null;
+	}
+
 	public void readData(){
 		synchronized (lock) {
 			if (!dataRead) {
@@ -269,35 +328,25 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 	 * @param msg Message
 	 */
 	public void runWorkplaceLocationModel(Message msg) {
-		PTDataReader reader = new PTDataReader(ptRb, globalRb, occReferencer, BASE_YEAR);
-
 		int startRow = (Integer) msg.getValue("startRow");
 		int endRow = (Integer) msg.getValue("endRow");
-		int[] segmentByHhId = (int[]) msg.getValue("segmentByHhId");
-		int[] homeTazByHhId = (int[]) msg.getValue("homeTazbyHhId");
 		double[] shadowPriceByTaz = (double[]) msg.getValue("shadowPriceByTaz");
 		
-		wlLogger.info(getName() + ", Running the WorkplaceLocationModel on rows " +
-				startRow + " - " + endRow);
-		PTPerson[] persons = reader.readPersonsForWorkplaceLocation(startRow, endRow);
-
-		for(PTPerson person : persons){
-			person.segment = (byte) segmentByHhId[person.hhID];
-			person.homeTaz = (short) homeTazByHhId[person.hhID];
+		//the segment and homeTaz per HH only come with the first iteration
+		if(msg.getValue("segmentByHhId") != null){
+			segmentByHhId = (int[]) msg.getValue("segmentByHhId");
+			homeTazByHhId = (int[]) msg.getValue("homeTazbyHhId");
 		}
 		
-		segmentByHhId = null;
-		homeTazByHhId = null;
-
-		//sort by homeTaz, segment and work_occupation
-		Arrays.sort(persons);     
+		wlLogger.info(getName() + ", Running the WorkplaceLocationModel on rows " +
+				startRow + " - " + endRow);
+		PTPerson[] persons = getSortedPersons(startRow, endRow);
 		
 		// We want to find all persons that match a particular segment/homeTaz/work_occ pair and process those and then do the next segment/homeTaz/work_occ pair
 		int index = 0; // index will keep track of where we are in the person array
 		int nPersonsUnemployed = 0;
 		int nPersonsWithWorkplace = 0;
-		HashMap<String, int[]> workersByIndByTazId = new HashMap<String, int[]>(1000);
-		HashMap<String, Short> workplaceByPersonId = new HashMap<String, Short>(1000000);
+		WorkplaceLocationResults results = new WorkplaceLocationResults(persons.length, MAX_ALPHAZONE_NUMBER);
 
 		ArrayList<PTPerson> personList = new ArrayList<PTPerson>();
 		
@@ -328,7 +377,7 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 				calculateWorkplaceLocation(personList, segment, homeTaz, occ, shadowPriceByTaz);						
 
 				wlLogger.debug(getName() + ", Storing results to send back to TaskMasterQueue");
-				storeResultsInHashMaps(personList, workersByIndByTazId, workplaceByPersonId);
+				storeResults(personList, results);
 
 				nPersonsWithWorkplace += nPersons;
 			}
@@ -340,15 +389,53 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 
 		Message workLocations = createMessage();
 		workLocations.setId(MessageID.WORKPLACE_LOCATIONS_CALCULATED);
-		workLocations.setValue("empInTazs", workersByIndByTazId);
-		workLocations.setValue("workplaceByPersonId", workplaceByPersonId);
+		results.setValues(workLocations);
 		workLocations.setValue("nPersonsProcessed", persons.length);
 		sendTo(sendQueue, workLocations);
 	}
 
+	/**
+	 * Read the persons on the rows and sort them by homeTaz, segment and work
+	 * occupation.  The persons of the last rows read are kept, so later shadow
+	 * price iterations on the same rows do not read and sort them again, until
+	 * the master sends WORKPLACE_LOCATIONS_FINISHED.
+	 */
+	private PTPerson[] getSortedPersons(int startRow, int endRow) {
+		if(sortedPersons != null && personsStartRow == startRow && personsEndRow == endRow){
+			wlLogger.info(getName() + ", Using the " + sortedPersons.length + " persons read in an earlier iteration");
+			return sortedPersons;
+		}
+		sortedPersons = null;
+		
+		if(segmentByHhId == null || homeTazByHhId == null){
+			throw new RuntimeException(getName() + ", No segment or homeTaz by HH for rows " + startRow + " - " + endRow);
+		}
+		
+		PTDataReader reader = new PTDataReader(ptRb, globalRb, occReferencer, BASE_YEAR);
+		PTPerson[] persons = reader.readPersonsForWorkplaceLocation(startRow, endRow);
+
+		for(PTPerson person : persons){
+			person.segment = (byte) segmentByHhId[person.hhID];
+			person.homeTaz = (short) homeTazByHhId[person.hhID];
+		}
+
+		//sort by homeTaz, segment and work_occupation
+		Arrays.sort(persons);     
+		
+		if(keepPersons){
+			sortedPersons = persons;
+			personsStartRow = startRow;
+			personsEndRow = endRow;
+		}
+		return persons;
+	}
+
 	/**
 	 * Calculate work place locations for the array of persons 
 	 *
+	 * The persons all share the home taz, segment and work occupation, so the
+	 * choice distribution is built once for the group and every person draws
+	 * from it with their own seed.
 	 */
 	
 	public void calculateWorkplaceLocation(ArrayList<PTPerson> persons, int segment, int homeTaz, int work_occupation, double[] shadowPriceByTaz) {    
@@ -357,12 +444,18 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 		Matrix logsumMatrix = MCLogsumsInMemory.mcLogsumsInMemory[ActivityPurpose.WORK.ordinal()][segment];
 		boolean trace = false;
 
-		calculateUtility(homeTaz, work_occupation, distanceMatrix, logsumMatrix, shadowPriceByTaz, trace);
-		model.calculateExpUtilities();
-		model.calculateProbabilities();
+		calculateUtility(homeTaz, segment, work_occupation, distanceMatrix, logsumMatrix, shadowPriceByTaz, trace);
+		
+		//exponentiated utilities by alternative, drawn from by binary search
+		//or, for large groups, from the alias tables
+		distribution.clear();
+		for (ConcreteAlternative alt : alts) {
+			distribution.addUtility(alt.isAvailable(), alt.getUtility());
+		}
+		if (persons.size() >= minAliasGroupPersons)
+			distribution.buildAliasTable();
 		
 		for (PTPerson person : persons) {			
-			Random random = new Random();
 			random.setSeed(workplaceLocationModelSeed + person.randomSeed);
 			int workPlace;
 
@@ -404,23 +497,30 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 			tazManager.updateWorkersFromSummary(filePath);
 		}
 		
-		alts = new ConcreteAlternative[aZones.length-1];
 		
-		model = new LogitModel("Workplace Location Choice");
-		model.setAvailability(true);
+		//the alternatives are the same for every group; calculateUtility sets
+		//the utility and availability of each
+		if(alts != null)
+			return;
+		
+		alts = new ConcreteAlternative[aZones.length-1];
+		distribution = new ChoiceDistribution(alts.length);
 		
 		for (int i = 1; i < aZones.length; i++) {
 			Integer taz = aZones[i];
 			
 			alts[i-1] = new ConcreteAlternative(taz.toString(), taz);
-			model.addAlternative(alts[i-1]);
 		}
 	}
 
 	/**
 	 * Calculate utilities for all possible work place TAZs from home TAZ for a person
+	 * 
+	 * Only the size term depends on the shadow prices.  The segmented employment
+	 * of each occupation and the rest of the utility of each home taz and segment
+	 * are kept, so later shadow price iterations only recalculate the size term.
 	 */
-	private void calculateUtility(int homeTaz, int work_occupation, Matrix distanceMatrix, Matrix logsumMatrix, double[] shadowPriceByTaz, boolean trace) {
+	private void calculateUtility(int homeTaz, int segment, int work_occupation, Matrix distanceMatrix, Matrix logsumMatrix, double[] shadowPriceByTaz, boolean trace) {
 		
 		if(trace){
 			logger.info("Tracing Utility Calculations");
@@ -429,26 +529,16 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 			logger.info("  *Alternatives*  ");
 		}
 	    
-		int originDistrict = (int) tazManager.getTaz(homeTaz).dcDistrict;
+		double[] segEmpByAlt = getSegmentedEmployment(work_occupation);
+		float[] baseUtilityByAlt = getBaseUtility(homeTaz, segment, distanceMatrix, logsumMatrix, trace);
 		
 		//for each alternative
 		for (int i = 0; i < alts.length; i++) {
-			Integer taz = (Integer) alts[i].getAlternative(); 
-			int destinationDistrict = (int) tazManager.getTaz(taz).dcDistrict;
-			float utilityConstant = districtConstants[originDistrict][destinationDistrict][ActivityPurpose.WORK.ordinal()];
-		
-			double totEmp = tazManager.getTaz(taz).employment.get("TotEmp"); 
-			double segEmp = 0;
-			for (int l = 0; l < industryLabels.length; l++){
-				if(work_occupation > 0 && tazManager.getTaz(taz).employment.containsKey(industryLabels[l])) 
-					segEmp += tazManager.getTaz(taz).employment.get(industryLabels[l]) * occEmpShares.getValueAt(l+1, work_occupation+1) / 100;	
-			}
+			double segEmp = segEmpByAlt[i];
 			
 			//TAZ is available as work place only if the segmented employment for the zone is positive. 	
 			if (segEmp > 0) {
-	            float mcLogsum = logsumMatrix.getValueAt(homeTaz,taz);
-	            float distance = distanceMatrix.getValueAt(homeTaz,taz);
-	            
+				Integer taz = (Integer) alts[i].getAlternative(); 
 	            float sizeTerm = (float) (segEmp * shadowPriceByTaz[taz]);			
 	            
 	            if(sizeTerm >0)
@@ -456,14 +546,13 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 	            else
 	            	sizeTerm = 0;
 	            
-	            distance = Math.min(distance, maxDist);         
-				double utility =  utilityConstant + sizeTerm +  (logsumParam * mcLogsum) + (distParam * distance) + (dist2Param * Math.pow(distance, 2)) + (dist3Param * Math.pow(distance, 3)) + (distLogParam * Math.log(distance + 1));
+				double utility = baseUtilityByAlt[i] + sizeTerm;
 				
 				alts[i].setUtility(utility);  
 				alts[i].setAvailability(true); 
 
 				if(trace)
-					logger.info("taz " + taz + ", totalEmp " + totEmp +  ", segEmp " + segEmp + ", sizeTerm " + sizeTerm + ", mcLogsum " + mcLogsum + ", distance " + distance + ", utility " + utility);
+					logger.info("taz " + taz + ", segEmp " + segEmp + ", sizeTerm " + sizeTerm + ", utility " + utility);
 			}
 			else {
 				alts[i].setAvailability(false);
@@ -472,11 +561,77 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 		if(trace)
 			logger.info("End Tracing");
 	}
+	
+	/**
+	 * Segmented employment of each alternative for a work occupation.  It only
+	 * depends on the employment by taz, so it is calculated once per occupation.
+	 */
+	private double[] getSegmentedEmployment(int work_occupation) {
+		if(segEmpByOccupation == null)
+			segEmpByOccupation = new double[occEmpShares.getColumnCount()][];
+		
+		double[] segEmpByAlt = segEmpByOccupation[work_occupation];
+		if(segEmpByAlt == null){
+			segEmpByAlt = new double[alts.length];
+			for (int i = 0; i < alts.length; i++) {
+				Integer taz = (Integer) alts[i].getAlternative(); 
+				double segEmp = 0;
+				for (int l = 0; l < industryLabels.length; l++){
+					if(work_occupation > 0 && tazManager.getTaz(taz).employment.containsKey(industryLabels[l])) 
+						segEmp += tazManager.getTaz(taz).employment.get(industryLabels[l]) * occEmpShares.getValueAt(l+1, work_occupation+1) / 100;	
+				}
+				segEmpByAlt[i] = segEmp;
+			}
+			segEmpByOccupation[work_occupation] = segEmpByAlt;
+		}
+		return segEmpByAlt;
+	}
+	
+	/**
+	 * The district constant, logsum and distance terms of the utility of each
+	 * alternative from a home taz.  The terms of the first home taz / segment
+	 * groups, up to sdt.workplace.utility.cache.groups, are kept for the
+	 * following iterations.  The groups come in the same order in every
+	 * iteration, so keeping the first ones rather than the last ones used
+	 * means the kept ones are still there when they come round again.
+	 */
+	private float[] getBaseUtility(int homeTaz, int segment, Matrix distanceMatrix, Matrix logsumMatrix, boolean trace) {
+		if(baseUtilityByGroup == null)
+			baseUtilityByGroup = new HashMap<Integer, float[]>();
+		
+		Integer group = homeTaz * TourModeChoiceLogsumManager.TOTALSEGMENTS + segment;
+		float[] baseUtilityByAlt = trace ? null : baseUtilityByGroup.get(group);
+		if(baseUtilityByAlt != null)
+			return baseUtilityByAlt;
+		
+		baseUtilityByAlt = new float[alts.length];
+		int originDistrict = (int) tazManager.getTaz(homeTaz).dcDistrict;
+		for (int i = 0; i < alts.length; i++) {
+			Integer taz = (Integer) alts[i].getAlternative(); 
+			int destinationDistrict = (int) tazManager.getTaz(taz).dcDistrict;
+			float utilityConstant = districtConstants[originDistrict][destinationDistrict][ActivityPurpose.WORK.ordinal()];
+			
+            float mcLogsum = logsumMatrix.getValueAt(homeTaz,taz);
+            float distance = distanceMatrix.getValueAt(homeTaz,taz);
+            distance = Math.min(distance, maxDist);         
+			baseUtilityByAlt[i] = (float) (utilityConstant + (logsumParam * mcLogsum) + (distParam * distance) + (dist2Param * Math.pow(distance, 2)) + (dist3Param * Math.pow(distance, 3)) + (distLogParam * Math.log(distance + 1)));
+			
+			if(trace)
+				logger.info("taz " + taz + ", totalEmp " + tazManager.getTaz(taz).employment.get("TotEmp") + ", mcLogsum " + mcLogsum + ", distance " + distance + ", base utility " + baseUtilityByAlt[i]);
+		}
+		
+		if(!trace && baseUtilityByGroup.size() < maxUtilityGroups){
+			baseUtilityByGroup.put(group, baseUtilityByAlt);
+			if(baseUtilityByGroup.size() == maxUtilityGroups)
+				wlLogger.info(getName() + ", Keeping the base utilities of the first " + maxUtilityGroups + " groups only");
+		}
+		return baseUtilityByAlt;
+	}
 
 	public int chooseWorkplace(Random random) {
 		Integer chosenTaz;        
 		try {
-			ConcreteAlternative chosen = (ConcreteAlternative) model.chooseAlternative(random.nextDouble());
+			ConcreteAlternative chosen = alts[distribution.choose(random)];
 			chosenTaz = (Integer) chosen.getAlternative(); 
 		} catch (Exception e) {
 			wlLogger.info("Error in workplace location choice: no alts available");
@@ -485,21 +640,9 @@ public class ITDWorkplaceLocationTask extends MessageProcessingTask {
 		return chosenTaz;
 	}
 
-	public void storeResultsInHashMaps(ArrayList<PTPerson> personsBeingProcessed, HashMap<String, int[]> workersByIndByTazId,
-			HashMap<String, Short> workplaceByPersonId ){
-		
+	public void storeResults(ArrayList<PTPerson> personsBeingProcessed, WorkplaceLocationResults results){
 		for(PTPerson person : personsBeingProcessed){
-			String industryLabel = "TotEmp";
-			int[] employmentByTaz = workersByIndByTazId.get(industryLabel);
-			if(employmentByTaz == null){
-				employmentByTaz = new int[MAX_ALPHAZONE_NUMBER + 1];
-				employmentByTaz[person.workTaz] = 1;
-				workersByIndByTazId.put(industryLabel, employmentByTaz);
-			}else{
-				employmentByTaz[person.workTaz]++;
-				workersByIndByTazId.put(industryLabel, employmentByTaz);
-			}
-			workplaceByPersonId.put(person.hhID + "_" + person.memberID, person.workTaz);
+			results.add(person);
 		}
 	}
 
@@ -18,6 +18,10 @@ package com.pb.models.pt;
 
 import org.apache.log4j.Logger;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.util.Vector;
@@ -28,7 +32,7 @@ import java.util.Vector;
  * @version 1.0 12/01/2003
  */
 
-public class Activity implements Serializable{
+public class Activity implements Externalizable{
     final transient Logger logger = Logger.getLogger(Activity.class);
     // Attributes  (they are ints because they are multiplied by params in the Duration Model!)
     public class Location implements Serializable {
@@ -67,6 +71,17 @@ public class Activity implements Serializable{
     public Activity() {
     }
 
+    /**
+     * Copy the number, purpose and type of an activity of a tour template.
+     * 
+     * @param template Activity of a tour created from a tour string.
+     */
+    Activity(Activity template) {
+        activityNumber = template.activityNumber;
+        activityPurpose = template.activityPurpose;
+        activityType = template.activityType;
+    }
+
     public void setNominalLocation() {
     }
 
@@ -333,4 +348,43 @@ public class Activity implements Serializable{
                                
             return activityPurposeReturn;            
     }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeBoolean(location != null);
+        if (location != null) {
+            out.writeInt(location.zoneNumber);
+            out.writeInt(location.gridCell);
+        }
+        out.writeInt(activityNumber);
+        ExternalizableUtil.writeEnum(out, activityPurpose);
+        ExternalizableUtil.writeEnum(out, activityType);
+        out.writeShort(duration);
+        out.writeShort(startTime);
+        out.writeShort(endTime);
+        out.writeShort(timeToActivity);
+        ExternalizableUtil.writeEnum(out, tripMode);
+        out.writeFloat(distanceToActivity);
+        out.writeObject(myPersonTimeSlot);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        if (in.readBoolean()) {
+            location = new Location();
+            location.zoneNumber = in.readInt();
+            location.gridCell = in.readInt();
+        } else {
+            location = null;
+        }
+        activityNumber = in.readInt();
+        activityPurpose = ExternalizableUtil.readEnum(in, ActivityPurpose.values());
+        activityType = ExternalizableUtil.readEnum(in, ActivityType.values());
+        duration = in.readShort();
+        startTime = in.readShort();
+        endTime = in.readShort();
+        timeToActivity = in.readShort();
+        tripMode = ExternalizableUtil.readEnum(in, TripModeType.values());
+        distanceToActivity = in.readFloat();
+        myPersonTimeSlot = (Vector) in.readObject();
+    }
 } /* end class Activity */
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.util.Random;
+
+import com.pb.common.model.ModelException;
+
+/**
+ * The probabilities of a logit choice held in primitive arrays, for drawing
+ * from thousands of alternatives without going through the Alternative
+ * objects of a LogitModel.
+ *
+ * The exponentiated utilities of the alternatives are added in order, and a
+ * draw is a binary search of their running sum.  A distribution that is drawn
+ * from many times can build Vose's alias tables with buildAliasTable(), after
+ * which each draw takes constant time.  Either way a draw takes one uniform
+ * random number, which selects the same alternative as the cumulative
+ * probabilities of the LogitModel, apart from the alias tables.
+ *
+ * A distribution belongs to one caller at a time and is reused for every
+ * choice.
+ */
+public class ChoiceDistribution {
+
+    private double[] weight;
+
+    private double[] cumulative;
+
+    private int size;
+
+    private double sum;
+
+    // Vose's alias tables, null until built for the current weights
+    private double[] aliasProbability;
+
+    private int[] alias;
+
+    private boolean aliased;
+
+    /**
+     * @param capacity The number of alternatives to make room for; the
+     *            arrays grow if more are added.
+     */
+    public ChoiceDistribution(int capacity) {
+        weight = new double[Math.max(1, capacity)];
+        cumulative = new double[weight.length];
+    }
+
+    /**
+     * Remove all the alternatives.
+     */
+    public void clear() {
+        size = 0;
+        sum = 0;
+        aliased = false;
+    }
+
+    /**
+     * Add the next alternative.
+     *
+     * @param w Weight of the alternative, such as its exponentiated utility.
+     *            A weight that is not positive, or not a number, is 0 and
+     *            the alternative is never chosen.
+     */
+    public void add(double w) {
+        if (size == weight.length) {
+            double[] newWeight = new double[2 * size];
+            System.arraycopy(weight, 0, newWeight, 0, size);
+            weight = newWeight;
+            double[] newCumulative = new double[2 * size];
+            System.arraycopy(cumulative, 0, newCumulative, 0, size);
+            cumulative = newCumulative;
+        }
+        if (!(w > 0) || Double.isInfinite(w)) {
+            w = 0;
+        }
+        sum += w;
+        weight[size] = w;
+        cumulative[size] = sum;
+        ++size;
+        aliased = false;
+    }
+
+    /**
+     * Add the next alternative by its utility.
+     *
+     * @param available False for an alternative that is never chosen.
+     * @param utility The utility of the alternative.
+     */
+    public void addUtility(boolean available, double utility) {
+        add(available ? Math.exp(utility) : 0);
+    }
+
+    /**
+     * @return The number of alternatives.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The sum of the weights.
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The log of the sum of the exponentiated utilities, -999 if no
+     *         alternative is available.
+     */
+    public double getLogsum() {
+        return sum > 0 ? Math.log(sum) : -999;
+    }
+
+    /**
+     * @param i Alternative index.
+     * @return The probability of the alternative.
+     */
+    public double getProbability(int i) {
+        return sum > 0 ? weight[i] / sum : 0;
+    }
+
+    /**
+     * Choose an alternative.
+     *
+     * @param random Random number generator, drawn from once.
+     * @return The index of the chosen alternative.
+     */
+    public int choose(Random random) {
+        return choose(random.nextDouble());
+    }
+
+    /**
+     * Choose an alternative.
+     *
+     * @param selector A uniform random number in [0, 1).
+     * @return The index of the chosen alternative.
+     * @throws ModelException if no alternative has a positive weight.
+     */
+    public int choose(double selector) {
+        if (!(sum > 0)) {
+            throw new ModelException("No alternatives available");
+        }
+        if (aliased) {
+            double x = selector * size;
+            int i = Math.min((int) x, size - 1);
+            return x - i < aliasProbability[i] ? i : alias[i];
+        }
+        return search(cumulative, size, selector * sum);
+    }
+
+    /**
+     * Build Vose's alias tables for the alternatives added so far, so that
+     * every following draw takes constant time.  Adding an alternative drops
+     * the tables.
+     */
+    public void buildAliasTable() {
+        if (aliasProbability == null || aliasProbability.length < size) {
+            aliasProbability = new double[weight.length];
+            alias = new int[weight.length];
+        }
+        if (!(sum > 0)) {
+            aliased = false;
+            return;
+        }
+
+        // the work lists share one array: small from the front, large from
+        // the back; a large alternative that becomes small moves into the
+        // slot freed at the front of the large list
+        int[] work = new int[size];
+        int small = 0;
+        int large = size;
+        int anyPositive = 0;
+        for (int i = 0; i < size; ++i) {
+            aliasProbability[i] = weight[i] * size / sum;
+            if (aliasProbability[i] < 1) {
+                work[small++] = i;
+            } else {
+                work[--large] = i;
+            }
+            if (weight[i] > 0) {
+                anyPositive = i;
+            }
+        }
+
+        int s = 0;
+        int l = large;
+        while (s < small && l < size) {
+            int less = work[s++];
+            int more = work[l];
+            alias[less] = more;
+            aliasProbability[more] += aliasProbability[less] - 1;
+            if (aliasProbability[more] < 1) {
+                ++l;
+                work[small++] = more;
+            }
+        }
+        for (; l < size; ++l) {
+            aliasProbability[work[l]] = 1;
+        }
+        // left over by rounding; an alternative without weight is never chosen
+        for (; s < small; ++s) {
+            int i = work[s];
+            if (weight[i] > 0) {
+                aliasProbability[i] = 1;
+            } else {
+                aliasProbability[i] = 0;
+                alias[i] = anyPositive;
+            }
+        }
+        aliased = true;
+    }
+
+    /**
+     * @param cumulative Running sums of the weights.
+     * @param n The number of alternatives.
+     * @param target A number in [0, the sum of the weights).
+     * @return The first position whose running sum exceeds the target, or
+     *         the last position with weight if the target is not below the
+     *         sum, as a uniform random number just below 1 times the sum can
+     *         round up to the sum.
+     */
+    public static int search(double[] cumulative, int n, double target) {
+        int low = 0;
+        int high = n - 1;
+        double total = cumulative[high];
+        boolean last = !(target < total);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (last ? cumulative[middle] >= total : cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
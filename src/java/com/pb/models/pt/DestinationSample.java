@@ -0,0 +1,115 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.util.Arrays;
+
+/**
+ * A sample of destination zones drawn by a DestinationSampler: the distinct
+ * zones, each with the correction to add to its utility, and the scratch
+ * arrays of the draws.
+ *
+ * A sample belongs to one caller at a time and is reused for every draw.
+ */
+public class DestinationSample {
+
+    int size;
+
+    // zone indexes, the anchors first
+    final int[] zone;
+
+    final double[] correction;
+
+    // [zone index]
+    final int[] count;
+
+    final boolean[] inSample;
+
+    final double[] probability;
+
+    // [zone index], the sizes of all zones
+    final double[] cumulative;
+
+    // [neighbor]
+    final double[] cumulative1;
+
+    final double[] cumulative2;
+
+    DestinationSample(int zones, int neighbors) {
+        zone = new int[zones];
+        correction = new double[zones];
+        count = new int[zones];
+        inSample = new boolean[zones];
+        probability = new double[zones];
+        cumulative = new double[zones];
+        cumulative1 = new double[neighbors];
+        cumulative2 = new double[neighbors];
+    }
+
+    void clear() {
+        for (int k = 0; k < size; ++k) {
+            count[zone[k]] = 0;
+            inSample[zone[k]] = false;
+        }
+        Arrays.fill(correction, 0, size, 0);
+        size = 0;
+    }
+
+    void addAnchor(int z) {
+        if (z >= 0 && !inSample[z]) {
+            inSample[z] = true;
+            zone[size++] = z;
+        }
+    }
+
+    /**
+     * Count a draw of a zone; draws of the anchors are not counted.
+     */
+    void addDraw(int z) {
+        if (!inSample[z]) {
+            inSample[z] = true;
+            zone[size++] = z;
+            count[z] = 1;
+        } else if (count[z] > 0) {
+            count[z]++;
+        }
+    }
+
+    /**
+     * @return The number of distinct zones in the sample.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param k Position in the sample.
+     * @return The zone index, for DestinationSampler.getTaz.
+     */
+    public int getZone(int k) {
+        return zone[k];
+    }
+
+    /**
+     * @param k Position in the sample.
+     * @return The correction to add to the utility of the zone, 0 for the
+     *         anchors.
+     */
+    public double getCorrection(int k) {
+        return correction[k];
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+import com.pb.common.matrix.Matrix;
+
+/**
+ * Draws samples of destination zones for a destination choice around one or
+ * two anchor zones, such as the ends of the leg that a stop is inserted in.
+ *
+ * For every zone the sampler keeps its nearest zones with a weight that falls
+ * exponentially with distance.  Most draws pick a zone from the neighbors of
+ * an anchor, picked with equal chance, in proportion to its size times its
+ * weight.  The residual share of the draws picks a zone from all of the zones
+ * in proportion to its size, so that a zone far from the anchors can still be
+ * drawn.
+ *
+ * The anchors are always in the sample.  Every other sampled zone gets the
+ * correction ln(n / (R q)), where n is the number of times it was drawn, R
+ * the number of draws and q its probability in one draw, which is added to
+ * its utility in the logit choice.  Draws of an anchor are not counted.  With
+ * a residual share above 0, q is positive for every zone with a size, so the
+ * corrected exponentiated utilities of the sampled zones are an unbiased
+ * estimate of those of all the other zones with a size.  With a residual
+ * share of 0 the zones beyond the nearest neighbors of the anchors can not be
+ * chosen at all.
+ *
+ * The tables never change after they are built, so one sampler can be
+ * shared by any number of threads, each with its own DestinationSample.
+ */
+public class DestinationSampler {
+    final static Logger logger = Logger.getLogger(DestinationSampler.class);
+
+    private final Taz[] taz;
+
+    // zone index by zone number, -1 if not a zone
+    private final int[] index;
+
+    // [zone][n], the nearest zones first
+    private final int[][] neighbors;
+
+    // [zone][n], exp(-decay * distance)
+    private final float[][] weights;
+
+    // share of the draws from all of the zones
+    private final double residualShare;
+
+    /**
+     * Find the nearest zones of every zone.
+     *
+     * @param tazs The zones.
+     * @param distance Distances between the zones.
+     * @param neighborCount The number of nearest zones to keep for each zone,
+     *            including the zone itself.
+     * @param decay Fall of the weight per unit of distance.
+     * @param residualShare Share of the draws made from all of the zones in
+     *            proportion to their size, from 0 to 1.
+     */
+    public DestinationSampler(TazManager tazs, Matrix distance,
+            int neighborCount, double decay, double residualShare) {
+        long start = System.currentTimeMillis();
+        int size = tazs.size();
+        neighborCount = Math.min(neighborCount, size);
+        if (residualShare < 0 || residualShare > 1) {
+            throw new RuntimeException("Destination sample residual share "
+                    + residualShare + " is not between 0 and 1.");
+        }
+        this.residualShare = residualShare;
+
+        taz = new Taz[size];
+        int maxZone = 0;
+        Enumeration<Taz> tazEnum = tazs.elements();
+        for (int i = 0; i < size; ++i) {
+            taz[i] = tazEnum.nextElement();
+            maxZone = Math.max(maxZone, taz[i].zoneNumber);
+        }
+        index = new int[maxZone + 1];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < size; ++i) {
+            index[taz[i].zoneNumber] = i;
+        }
+
+        // sort each row by distance, packed with the zone index; distances are
+        // not negative, so their bits sort in the same order
+        neighbors = new int[size][neighborCount];
+        weights = new float[size][neighborCount];
+        long[] keys = new long[size];
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                float d = Math.max(0, distance.getValueAt(taz[i].zoneNumber,
+                        taz[j].zoneNumber));
+                keys[j] = (long) Float.floatToIntBits(d) << 32 | j;
+            }
+            Arrays.sort(keys);
+            for (int n = 0; n < neighborCount; ++n) {
+                float d = Float.intBitsToFloat((int) (keys[n] >>> 32));
+                neighbors[i][n] = (int) keys[n];
+                weights[i][n] = (float) Math.exp(-decay * d);
+            }
+        }
+
+        logger.info("Found the " + neighborCount + " nearest of " + size
+                + " zones in " + (System.currentTimeMillis() - start) + " ms.");
+        if (residualShare > 0) {
+            logger.info("Drawing " + residualShare
+                    + " of the destination sample from all zones.");
+        } else if (neighborCount < size) {
+            logger.warn("The destination sample has no residual share, so only the "
+                    + neighborCount + " zones nearest the anchors can be chosen.");
+        }
+    }
+
+    /**
+     * @return The number of zones.
+     */
+    public int size() {
+        return taz.length;
+    }
+
+    /**
+     * @param i Zone index.
+     * @return The Taz object at the index.
+     */
+    public Taz getTaz(int i) {
+        return taz[i];
+    }
+
+    /**
+     * @param zoneNumber A zone number.
+     * @return The index of the zone, or -1 if it is not a zone.
+     */
+    public int getIndex(int zoneNumber) {
+        return zoneNumber < index.length ? index[zoneNumber] : -1;
+    }
+
+    /**
+     * Create a sample for the sample method.
+     */
+    public DestinationSample createSample() {
+        return new DestinationSample(taz.length, neighbors[0].length);
+    }
+
+    /**
+     * Draw a sample of zones.
+     *
+     * @param anchor1 First anchor zone number.
+     * @param anchor2 Second anchor zone number; the same as the first if there
+     *            is only one.
+     * @param size Size of each zone, by zone index.
+     * @param draws The number of draws.
+     * @param random Random number generator.
+     * @param sample Filled with the anchors and the drawn zones.
+     */
+    public void sample(int anchor1, int anchor2, double[] size, int draws,
+            Random random, DestinationSample sample) {
+        sample.clear();
+        int a = getIndex(anchor1);
+        int b = getIndex(anchor2);
+        sample.addAnchor(a);
+        sample.addAnchor(b);
+
+        double totalA = cumulate(a, size, sample.cumulative1);
+        double totalB = b == a ? 0 : cumulate(b, size, sample.cumulative2);
+        double total = cumulateAll(size, sample.cumulative);
+        if (total <= 0) {
+            return;
+        }
+
+        // the residual draws are from all of the zones, the others from the
+        // neighbors of each anchor with a size, with equal chance
+        double residual = totalA <= 0 && totalB <= 0 ? 1 : residualShare;
+        double shareA = totalB <= 0 ? 1 : totalA <= 0 ? 0 : 0.5;
+        addProbabilities(a, size, (1 - residual) * shareA / totalA,
+                sample.probability);
+        addProbabilities(b, size, (1 - residual) * (1 - shareA) / totalB,
+                sample.probability);
+
+        for (int d = 0; d < draws; ++d) {
+            int z;
+            if (residual > 0 && random.nextDouble() < residual) {
+                z = search(sample.cumulative, random.nextDouble() * total);
+            } else if (random.nextDouble() < shareA) {
+                z = neighbors[a][search(sample.cumulative1, random.nextDouble()
+                        * totalA)];
+            } else {
+                z = neighbors[b][search(sample.cumulative2, random.nextDouble()
+                        * totalB)];
+            }
+            sample.addDraw(z);
+        }
+
+        for (int k = 0; k < sample.size; ++k) {
+            int z = sample.zone[k];
+            if (sample.count[z] > 0) {
+                double q = sample.probability[z] + residual * size[z] / total;
+                sample.correction[k] = Math.log(sample.count[z] / (draws * q));
+            }
+        }
+
+        // leave the zone arrays clear for the next sample
+        clearProbabilities(a, sample.probability);
+        clearProbabilities(b, sample.probability);
+    }
+
+    /**
+     * Fill the cumulative weights of the neighbors of a zone.
+     *
+     * @return The total weight, 0 if the zone is not in the sampler.
+     */
+    private double cumulate(int zone, double[] size, double[] cumulative) {
+        if (zone < 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int n = 0; n < neighbors[zone].length; ++n) {
+            sum += size[neighbors[zone][n]] * weights[zone][n];
+            cumulative[n] = sum;
+        }
+        return sum;
+    }
+
+    /**
+     * Fill the cumulative sizes of all of the zones.
+     *
+     * @return The total size.
+     */
+    private static double cumulateAll(double[] size, double[] cumulative) {
+        double sum = 0;
+        for (int z = 0; z < size.length; ++z) {
+            sum += size[z];
+            cumulative[z] = sum;
+        }
+        return sum;
+    }
+
+    private void addProbabilities(int zone, double[] size, double scale,
+            double[] probability) {
+        if (zone < 0 || !(scale > 0) || Double.isInfinite(scale)) {
+            return;
+        }
+        for (int n = 0; n < neighbors[zone].length; ++n) {
+            int z = neighbors[zone][n];
+            probability[z] += scale * size[z] * weights[zone][n];
+        }
+    }
+
+    private void clearProbabilities(int zone, double[] probability) {
+        if (zone < 0) {
+            return;
+        }
+        for (int z : neighbors[zone]) {
+            probability[z] = 0;
+        }
+    }
+
+    /**
+     * @return the first position whose cumulative weight exceeds the target
+     */
+    private static int search(double[] cumulative, double target) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
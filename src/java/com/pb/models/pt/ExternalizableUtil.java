@@ -0,0 +1,80 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ * Helpers for the writeExternal and readExternal methods of the classes that
+ * travel between tasks in household blocks.
+ */
+final class ExternalizableUtil {
+
+    private ExternalizableUtil() {
+    }
+
+    /**
+     * Write an enum of a known type as its ordinal, or -1 if it is null.
+     */
+    static void writeEnum(ObjectOutput out, Enum value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    /**
+     * @param values the values of the enum type
+     * @return the enum written by writeEnum
+     */
+    static <E extends Enum<E>> E readEnum(ObjectInput in, E[] values)
+            throws IOException {
+        int ordinal = in.readByte();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * Write an array of objects, keeping shared objects shared.
+     */
+    static void writeArray(ObjectOutput out, Object[] array) throws IOException {
+        out.writeInt(array == null ? -1 : array.length);
+        if (array != null) {
+            for (Object o : array) {
+                out.writeObject(o);
+            }
+        }
+    }
+
+    /**
+     * Read the objects written by writeArray into an array.
+     * @return the array, or null if null was written
+     */
+    static <T> T[] readArray(ObjectInput in, T[] empty) throws IOException,
+            ClassNotFoundException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        T[] array = Arrays.copyOf(empty, length);
+        for (int i = 0; i < length; ++i) {
+            @SuppressWarnings("unchecked")
+            T t = (T) in.readObject();
+            array[i] = t;
+        }
+        return array;
+    }
+}
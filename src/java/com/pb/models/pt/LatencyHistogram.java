@@ -0,0 +1,175 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.io.Serializable;
+
+/**
+ * Counts of call durations in nanoseconds, in buckets whose width grows with
+ * the duration so that every value is kept to within 1/16 of itself.  Each
+ * power of two is split into 16 buckets.
+ *
+ * Histograms from different models, threads and nodes are combined with
+ * <code>add</code>.  A histogram is not synchronized; each one should be
+ * recorded into by one thread.
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1;
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long count;
+
+    private long total;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max;
+
+    /**
+     * Record one call.
+     * @param nanos duration of the call
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucket(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos < min) {
+            min = nanos;
+        }
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    /**
+     * Add the calls of another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return number of calls recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return sum of the call durations in nanoseconds
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return longest call in nanoseconds, 0 if there were none
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return shortest call in nanoseconds, 0 if there were none
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return mean call duration in nanoseconds, 0 if there were none
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return duration in nanoseconds that the percentile of calls do not
+     *         exceed, to within the bucket width
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        rank = Math.max(1, Math.min(count, rank));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long highest = i + 1 < BUCKETS ? lowestValue(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.max(getMin(), Math.min(max, highest));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Summarize the histogram in microseconds.
+     */
+    public String summary() {
+        return "calls " + count
+                + ", total " + format(total / 1e9) + " s"
+                + ", mean " + format(getMean() / 1e3)
+                + ", p50 " + format(getValueAtPercentile(50) / 1e3)
+                + ", p90 " + format(getValueAtPercentile(90) / 1e3)
+                + ", p99 " + format(getValueAtPercentile(99) / 1e3)
+                + ", max " + format(max / 1e3) + " us";
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+}
@@ -22,10 +22,14 @@ import com.pb.common.util.ResourceUtil;
 import com.pb.common.util.SeededRandom;
 import com.pb.models.pt.ldt.LDTourPatternType;
 import com.pb.models.pt.ldt.LDTourPurpose;
+import com.pb.models.pt.util.CSVRecordReader;
+import com.pb.models.pt.util.PersonFileIndex;
+import com.pb.models.pt.util.SynPopCache;
 
 import org.apache.log4j.Logger;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -53,9 +57,9 @@ public class PTDataReader {
     protected ResourceBundle ptRb;
     protected ResourceBundle globalRb;
 
-    protected BufferedReader householdReader;
+    protected CSVRecordReader householdReader;
 
-    protected BufferedReader personReader;
+    protected CSVRecordReader personReader;
 
     PTOccupationReferencer myOccReferencer;
 
@@ -92,8 +96,23 @@ public class PTDataReader {
     static String EMP_FIELD;
     static String WORK_OCC_FIELD;
 
-    HashMap<String, Integer> personFieldPositions;
-    HashMap<String, Integer> householdFieldPositions;
+    PersonColumns personColumns;
+    HouseholdColumns householdColumns;
+
+    // binary copy of SynPopH and SynPopP, when sdt.synpop.cache is set
+    private SynPopCache synPopCache;
+    private boolean synPopCacheOpened = false;
+
+    // the household block last read from the cache, with its persons, and
+    // the household reached by readPersonsForTravelModels
+    private SynPopCache.Households cachedHouseholds;
+    private SynPopCache.Persons cachedPersons;
+    private int cachedHousehold;
+
+    // where the persons of each household are in the person file, when
+    // sdt.person.index is true
+    private PersonFileIndex personIndex;
+    private boolean personIndexOpened = false;
 
     int hhCount = 0;
     int rowPointerPosition = 2;
@@ -155,7 +174,7 @@ public class PTDataReader {
         Exception ex = null;
         while (retryCount < maxRetryCount) {
             try {
-                householdReader = new BufferedReader(new FileReader(hhFileName));
+                householdReader = new CSVRecordReader(hhFileName);
                 ex = null;
                 break;
             } catch (IOException e) {
@@ -190,7 +209,7 @@ public class PTDataReader {
         Exception ex = null;
         while (retryCount < maxRetryCount) {
             try {
-                personReader = new BufferedReader(new FileReader(perFileName));
+                personReader = new CSVRecordReader(perFileName);
                 ex = null;
                 break;
             } catch (IOException e) {
@@ -242,6 +261,10 @@ public class PTDataReader {
     }
 
     public PTHousehold[] readHouseholds(int startRow, int endRow, int sampleRate, boolean visitor) {
+        if (getSynPopCache() != null) {
+            return readCachedHouseholds(startRow, endRow, sampleRate, visitor);
+        }
+
         logger.info("Sample Rate: " + sampleRate);
         ArrayList<PTHousehold> households = new ArrayList<PTHousehold>();
         int rowPointerPosition = 1;
@@ -249,34 +272,31 @@ public class PTDataReader {
 
         openHouseholdFile();
         try {
-            // create a lookup table for field positions from header row
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = householdReader.readLine().split(",");
+            // resolve the field positions from header row
+            householdReader.readHeader();
+            HouseholdColumns columns = new HouseholdColumns(householdReader);
             rowPointerPosition++;
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
 
             //skip the rows that are not the ones you want
             while(rowPointerPosition < startRow){
-                householdReader.readLine();
+                householdReader.skip();
                 rowPointerPosition++;
                 hhCount++;
             }
 
 
-            String line = householdReader.readLine();
+            boolean read = householdReader.next();
             rowPointerPosition++;
             hhCount++;
-            while (line != null && rowPointerPosition <= endRow + 1) {
+            while (read && rowPointerPosition <= endRow + 1) {
                 if (hhCount % sampleRate==0) {
                     PTHousehold household = new PTHousehold();
-                    parseHhLine(household, line, positions);  //this will set the household members
+                    parseHousehold(household, householdReader, columns);  //this will set the household members
                     household.setVisitor(visitor);
                     households.add(household);
                     hhCount=0;   //reset counter cause it only needs to count up to sample rate
                 }
-                line = householdReader.readLine();
+                read = householdReader.next();
                 rowPointerPosition++;
                 hhCount++;
             }
@@ -316,12 +336,9 @@ public class PTDataReader {
 
     public void readHouseholdHeader(){
             try {
-                // create a lookup table for field positions
-                householdFieldPositions = new HashMap<String, Integer>();
-                String[] header = householdReader.readLine().split(",");
-                for (int i = 0; i < header.length; ++i) {
-                    householdFieldPositions.put(header[i], i);
-                }
+                // resolve the field positions
+                householdReader.readHeader();
+                householdColumns = new HouseholdColumns(householdReader);
 
             } catch (IOException e) {
                 logger.fatal("Error reading household file.");
@@ -341,22 +358,22 @@ public class PTDataReader {
         try {
             //skip the rows that are not the ones you want
             while(rowPointerPosition < startRow){
-                householdReader.readLine();
+                householdReader.skip();
                 hhCount++;
                 rowPointerPosition++;
             }
 
-            String line = householdReader.readLine();
+            boolean read = householdReader.next();
             rowPointerPosition++;
 
-            while (line != null && rowPointerPosition <= endRow + 1) {
+            while (read && rowPointerPosition <= endRow + 1) {
                 if (hhCount % sampleRate==0) {
                     PTHousehold household = new PTHousehold();
-                    parseHhLine(household, line, householdFieldPositions);  //this will set the household members
+                    parseHousehold(household, householdReader, householdColumns);  //this will set the household members
                     households.add(household);
                     hhCount = 0;    //reset counter cause it only needs to count up to sample rate
                 }
-                line = householdReader.readLine();
+                read = householdReader.next();
                 rowPointerPosition++;
                 hhCount++;
             }
@@ -371,15 +388,61 @@ public class PTDataReader {
         return households.toArray(new PTHousehold[households.size()]);
     }
 
-    private void parseHhLine(PTHousehold household, String line, HashMap<String, Integer> positions){
-        boolean readAutos = positions.containsKey(AUTO_FIELD);
+    /**
+     * Household file field positions, resolved once from the header.
+     */
+    static class HouseholdColumns {
+        final int hhId;
+        final int persons;
+        final int unit;
+        final int income;
+        final int taz;
+        final int autos;
+        final int ldTour;
+        final int ldPattern;
+
+        HouseholdColumns(CSVRecordReader reader) {
+            hhId = reader.getRequiredColumn(HH_ID_FIELD);
+            persons = reader.getRequiredColumn(PERSONS_FIELD);
+            unit = reader.getRequiredColumn(UNIT_FIELD);
+            income = reader.getRequiredColumn(INC_FIELD);
+            taz = reader.getRequiredColumn(TAZ_FIELD);
+            autos = reader.getColumn(AUTO_FIELD);
+            if (reader.getColumn(LD_TOUR_FIELD) >= 0) {
+                ldTour = reader.getColumn(LD_TOUR_FIELD);
+                ldPattern = reader.getRequiredColumn(LD_PATTERN_FIELD);
+            } else {
+                ldTour = -1;
+                ldPattern = -1;
+            }
+        }
+    }
+
+    private void parseHousehold(PTHousehold household, CSVRecordReader fields, HouseholdColumns columns){
+        boolean readAutos = columns.autos >= 0;
 
-        boolean readLDT = positions.containsKey(LD_TOUR_FIELD);
+        boolean readLDT = columns.ldTour >= 0;
 
-        String[] fields = line.split(",");
+        setHousehold(household, fields.getInt(columns.hhId),
+                fields.getByte(columns.persons), fields.getInt(columns.unit),
+                (int) fields.getDouble(columns.income),
+                fields.getShort(columns.taz));
 
-        household.ID = Integer.parseInt(fields[positions.get(HH_ID_FIELD)]);
-        household.size = Byte.parseByte(fields[positions.get(PERSONS_FIELD)]);
+        if (readAutos) {
+            household.autos = fields.getByte(columns.autos);
+        }
+
+        if (readLDT) {
+            household.ldHouseholdTourIndicator = fields.getBoolean(columns.ldTour);
+            household.ldHouseholdTourPattern = LDTourPatternType
+                    .getType(fields.getInt(columns.ldPattern));
+        }
+    }
+
+    private void setHousehold(PTHousehold household, int id, byte size,
+            int type, int income, short homeTaz) {
+        household.ID = id;
+        household.size = size;
 
         // housing type
         // 1. mobile home,
@@ -389,66 +452,50 @@ public class PTDataReader {
         // 5. 3-4 apartments
         // 6. etc.
         //
-        int type = Integer.parseInt(fields[positions.get(UNIT_FIELD)]);
         household.singleFamily = type == 1 || type == 2 || type == 3;
         household.multiFamily = !household.singleFamily;
 
         
         // code income into segments
         //household.income = (int)(Integer.parseInt(fields[positions.get(INC_FIELD)])*incomeConversionFactor);
-        household.income = priceConverter.convertPrice((int) Double.parseDouble(fields[positions.get(INC_FIELD)]),PriceConverter.ConversionType.INCOME);
-
-        household.homeTaz = Short.parseShort(fields[positions.get(TAZ_FIELD)]);
-
-        if (readAutos) {
-            household.autos = Byte.parseByte(fields[positions.get(AUTO_FIELD)]);
-        }
+        household.income = priceConverter.convertPrice(income,PriceConverter.ConversionType.INCOME);
 
-        if (readLDT) {
-            household.ldHouseholdTourIndicator = Boolean.parseBoolean(fields[positions
-                    .get(LD_TOUR_FIELD)]);
-            household.ldHouseholdTourPattern = LDTourPatternType
-                    .getType(Integer.parseInt(fields[positions
-                            .get(LD_PATTERN_FIELD)]));
-        }
+        household.homeTaz = homeTaz;
     }
 
     //public int[][] getInfoFromHouseholdFile(float incomeConversionFactor){
     public int[][] getInfoFromHouseholdFile(PriceConverter priceConverter){
+        if (getSynPopCache() != null) {
+            return getInfoFromCachedHouseholds(priceConverter);
+        }
+
         openHouseholdFile();
         try {
             int lowestIdNum = Integer.MAX_VALUE;
             int nHhsInFile = 0;
-            // create a lookup table for field positions
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = householdReader.readLine().split(",");
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
+            // resolve the field positions
+            CSVRecordReader fields = householdReader;
+            fields.readHeader();
 
-            int hhIdIndex = positions.get(HH_ID_FIELD);
-            int incomeIndex = positions.get(INC_FIELD);
-            int homeTazIndex = positions.get(TAZ_FIELD);
+            int hhIdIndex = fields.getRequiredColumn(HH_ID_FIELD);
+            int incomeIndex = fields.getRequiredColumn(INC_FIELD);
+            int homeTazIndex = fields.getRequiredColumn(TAZ_FIELD);
             int currentId = -1;
             int currentIncome;
             short homeTaz;
             HashMap<Integer, Integer> incomesByHhId = new HashMap<Integer, Integer>();
             HashMap<Integer, Short> homeTazByHhId = new HashMap<Integer, Short>();
-            String line = householdReader.readLine();
 
-            while (line != null) {
-                String[] fields = line.split(",");
-                currentId = Integer.parseInt(fields[hhIdIndex]);
+            while (fields.next()) {
+                currentId = fields.getInt(hhIdIndex);
                 if(currentId < lowestIdNum) lowestIdNum = currentId;
                 nHhsInFile++;
 //                currentIncome = (int) (Integer.parseInt(fields[incomeIndex]) * incomeConversionFactor);
-                currentIncome = priceConverter.convertPrice((int) Double.parseDouble(fields[incomeIndex]), PriceConverter.ConversionType.INCOME);
+                currentIncome = priceConverter.convertPrice((int) fields.getDouble(incomeIndex), PriceConverter.ConversionType.INCOME);
                 incomesByHhId.put(currentId, currentIncome);
 
-                homeTaz = Short.parseShort(fields[homeTazIndex]);
+                homeTaz = fields.getShort(homeTazIndex);
                 homeTazByHhId.put(currentId, homeTaz);
-
-                line = householdReader.readLine();
             }
 
             closeHouseholdFile();
@@ -506,21 +553,15 @@ public class PTDataReader {
 
         openPersonFile();
         try {
-            // create a lookup table for field positions
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = personReader.readLine().split(",");
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
-
-            String line = personReader.readLine();
+            // resolve the field positions
+            personReader.readHeader();
+            PersonColumns columns = new PersonColumns(personReader);
 
-            while (line != null) {
+            while (personReader.next()) {
                 PTPerson person = new PTPerson();
-                parsePersonLine(person, line, positions);
+                parsePerson(person, personReader, columns);
 
                 persons.add(person);
-                line = personReader.readLine();
             }
 
             closePersonFile();
@@ -536,15 +577,11 @@ public class PTDataReader {
 
     public void readPersonHeader(){
         try{
-            // create a lookup table for field positions
-            personFieldPositions = new HashMap<String, Integer>();
-            String[] header = personReader.readLine().split(",");
+            // resolve the field positions
+            personReader.readHeader();
+            personColumns = new PersonColumns(personReader);
 
-            for (int i = 0; i < header.length; ++i) {
-                personFieldPositions.put(header[i], i);
-            }
-
-            if(personFieldPositions.containsKey(WORK_TAZ_FIELD)){
+            if(personColumns.workTaz >= 0){
                 logger.info("Reading workplace taz from SynPopP");
             }
         }catch (Exception e){
@@ -585,30 +622,38 @@ public class PTDataReader {
      * @return An array of all persons.
      */
     public PTPerson[] readPersonsForTravelModels(int hhSize, int hhId) {
+        if (cachedHouseholds != null) {
+            return readCachedPersons(hhSize, hhId);
+        }
+        if (getPersonIndex() != null) {
+            return readIndexedPersons(hhSize, hhId);
+        }
+
         PTPerson[] persons = new PTPerson[hhSize];
         try {
-            int hhIdPos = personFieldPositions.get(HH_ID_FIELD);
+            int hhIdPos = personColumns.hhId;
 
             int idRead = -1;
-            String line = null;
             while (idRead != hhId){
-                line = personReader.readLine();
-                if(line != null){
-                    idRead = Integer.parseInt(line.split(",")[hhIdPos]);
+                if(personReader.next()){
+                    idRead = personReader.getInt(hhIdPos);
                 }else throw new RuntimeException("At end of file and no persons with hhId: " + hhId);
             }
 
             PTPerson person = new PTPerson();
-            parsePersonLine(person, line, personFieldPositions);
+            parsePerson(person, personReader, personColumns);
             //assign a unique random number seed that is a combination
             //of the persons HHID and their member ID
             person.randomSeed = person.hhID*100 + person.memberID;
             persons[0] = person;
 
             for(int personCount = 1; personCount < hhSize; personCount++) {
-                line = personReader.readLine();
+                if(!personReader.next()){
+                    throw new RuntimeException("At end of file and household " + hhId
+                            + " has only " + personCount + " of " + hhSize + " persons");
+                }
                 person = new PTPerson();
-                parsePersonLine(person, line, personFieldPositions);
+                parsePerson(person, personReader, personColumns);
                 //assign a unique random number seed that is a combination
                 //of the persons HHID and their member ID
                 person.randomSeed = person.hhID*100 + person.memberID;
@@ -628,45 +673,96 @@ public class PTDataReader {
         return persons;
     }
 
-    public void parsePersonLine(PTPerson person, String line, HashMap<String, Integer> positions){
-        // look for long distance variables
-        boolean ldtRead = positions.containsKey(LD_INDICATOR_PREFIX
-                + LDTourPurpose.HOUSEHOLD);
-
-        boolean workTazRead = positions.containsKey(WORK_TAZ_FIELD);
-        int hhIdPos = positions.get(HH_ID_FIELD);
-        int memberPos =positions.get(PERSON_ID_FIELD);
-        int femalePos = positions.get(GENDER_FIELD);
-        int agePos = positions.get(AGE_FIELD);
-        int schoolPos = positions.get(SCHOOL_FIELD);
-        int empPos =positions.get(EMP_FIELD);
-        int splitIndPos = positions.get(SPLIT_IND_FIELD);
-        int occPos = positions.get(OCC_FIELD);
-        int workTazPos = -1;
-        if(positions.containsKey(WORK_TAZ_FIELD)){
-            workTazPos = positions.get(WORK_TAZ_FIELD);
+    /**
+     * Person file field positions, resolved once from the header.
+     */
+    static class PersonColumns {
+        final int hhId;
+        final int member;
+        final int female;
+        final int age;
+        final int school;
+        final int emp;
+        final int occ;
+        final int workTaz;
+        // by LDTourPurpose, null if the file has no long distance fields
+        final int[] ldIndicator;
+        final int[] ldPattern;
+
+        PersonColumns(CSVRecordReader reader) {
+            hhId = reader.getRequiredColumn(HH_ID_FIELD);
+            member = reader.getRequiredColumn(PERSON_ID_FIELD);
+            female = reader.getRequiredColumn(GENDER_FIELD);
+            age = reader.getRequiredColumn(AGE_FIELD);
+            school = reader.getRequiredColumn(SCHOOL_FIELD);
+            emp = reader.getRequiredColumn(EMP_FIELD);
+            reader.getRequiredColumn(SPLIT_IND_FIELD);
+            occ = reader.getRequiredColumn(OCC_FIELD);
+            workTaz = reader.getColumn(WORK_TAZ_FIELD);
+
+            // look for long distance variables
+            if (reader.getColumn(LD_INDICATOR_PREFIX + LDTourPurpose.HOUSEHOLD) >= 0) {
+                LDTourPurpose[] purposes = LDTourPurpose.values();
+                ldIndicator = new int[purposes.length];
+                ldPattern = new int[purposes.length];
+                for (LDTourPurpose purpose : purposes) {
+                    ldIndicator[purpose.ordinal()] = reader.getRequiredColumn(LD_INDICATOR_PREFIX + purpose);
+                    ldPattern[purpose.ordinal()] = reader.getRequiredColumn(LD_PATTERN_FIELD + purpose);
+                }
+            } else {
+                ldIndicator = null;
+                ldPattern = null;
+            }
         }
+    }
+
+    private void parsePerson(PTPerson person, CSVRecordReader fields, PersonColumns columns){
+        boolean ldtRead = columns.ldIndicator != null;
+
+        boolean workTazRead = columns.workTaz >= 0;
+
+        setPerson(person, fields.getInt(columns.hhId),
+                fields.getInt(columns.member), fields.getInt(columns.female),
+                fields.getByte(columns.age), fields.getByte(columns.school),
+                fields.getInt(columns.emp), fields.getInt(columns.occ));
+
+        // when LDT is reading the file, whether a long distance trip
+        // happens is already known
+        if (ldtRead) {
+
+            for (LDTourPurpose purpose : LDTourPurpose.values()) {
+                person.ldTourIndicator[purpose.ordinal()] = fields.getBoolean(columns.ldIndicator[purpose.ordinal()]);
+            }
 
-        String[] fields = line.split(",");
+            for (LDTourPurpose purpose : LDTourPurpose.values()) {
+                person.ldTourPattern[purpose .ordinal()] = LDTourPatternType
+                        .getType(fields.getString(columns.ldPattern[purpose.ordinal()]));
+            }
+        }
 
-        person.hhID = Integer.parseInt(fields[hhIdPos]);
-        person.memberID = Integer.parseInt(fields[memberPos]);
+        if (workTazRead) {
+            person.workTaz = fields.getShort(columns.workTaz);
+        }
+    }
+
+    private void setPerson(PTPerson person, int hhId, int memberId, int sex,
+            byte age, int school, int employ, int occupation) {
+        person.hhID = hhId;
+        person.memberID = memberId;
         if(baseYear == 1990){
-            person.female = Integer.parseInt(fields[femalePos]) == 1;
+            person.female = sex == 1;
         }else {
-            person.female = Integer.parseInt(fields[femalePos]) == 2;    
+            person.female = sex == 2;    
         }
 
-        person.age = Byte.parseByte(fields[agePos]);
+        person.age = age;
 
-        int school = Byte.parseByte(fields[schoolPos]);
         person.student = school == 2 || school == 3;
 
-        int employ = Integer.parseInt(fields[empPos]);
         person.employed = employ == 1 || employ == 2 || employ == 4
                 || employ == 5;
        
-        person.occupation = myOccReferencer.getOccupation(Integer.parseInt(fields[occPos]));
+        person.occupation = myOccReferencer.getOccupation(occupation);
         
         // code the person type
         if (person.age <= 5) person.personType = PersonType.PRESCHOOL;
@@ -674,27 +770,6 @@ public class PTDataReader {
         else if (person.student) person.personType = PersonType.STUDENTCOLLEGE;
         else if (person.employed) person.personType = PersonType.WORKER;
         else person.personType = PersonType.NONWORKER;
-
-        // when LDT is reading the file, whether a long distance trip
-        // happens is already known
-        if (ldtRead) {
-
-            for (LDTourPurpose purpose : LDTourPurpose.values()) {
-                String label = LD_INDICATOR_PREFIX + purpose;
-                person.ldTourIndicator[purpose.ordinal()] = Boolean.parseBoolean(fields[positions
-                        .get(label)]);
-            }
-
-            for (LDTourPurpose purpose : LDTourPurpose.values()) {
-                String label = LD_PATTERN_FIELD + purpose;
-                person.ldTourPattern[purpose .ordinal()] = LDTourPatternType
-                        .getType(fields[positions.get(label)]);
-            }
-        }
-
-        if (workTazRead) {
-            person.workTaz = Short.parseShort(fields[workTazPos]);
-        }
     }
 
     /**
@@ -723,52 +798,51 @@ public class PTDataReader {
      * @return An array of all persons.
      */
     public PTPerson[] readPersonsForWorkplaceLocation(int startRow, int endRow) {
+        if (getSynPopCache() != null) {
+            return readCachedPersonsForWorkplaceLocation(startRow, endRow);
+        }
 
         ArrayList<PTPerson> persons = new ArrayList<PTPerson>();
         int rowPointerPosition = 1;
         openPersonFile();
         try {
-            // create a lookup table for field positions
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = personReader.readLine().split(",");
+            // resolve the field positions
+            CSVRecordReader fields = personReader;
+            fields.readHeader();
             rowPointerPosition++;
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
 
-            int hhIdPos = positions.get(HH_ID_FIELD);
-            int memberPos =positions.get(PERSON_ID_FIELD);
-            int empPos =positions.get(EMP_FIELD);
-            int workOccPos = positions.get(WORK_OCC_FIELD);
+            int hhIdPos = fields.getRequiredColumn(HH_ID_FIELD);
+            int memberPos = fields.getRequiredColumn(PERSON_ID_FIELD);
+            int empPos = fields.getRequiredColumn(EMP_FIELD);
+            int workOccPos = fields.getRequiredColumn(WORK_OCC_FIELD);
             
             //skip the rows that are not the ones you want
             while(rowPointerPosition < startRow){
-                personReader.readLine();
+                fields.skip();
                 rowPointerPosition++;
             }
 
-            String line = personReader.readLine();
+            boolean read = fields.next();
             rowPointerPosition++;
             
-            while (line != null && rowPointerPosition <= endRow + 1) {                
+            while (read && rowPointerPosition <= endRow + 1) {                
             	PTPerson person = new PTPerson();
-                String[] fields = line.split(",");
                 
-                person.hhID = Integer.parseInt(fields[hhIdPos]);
-                person.memberID = Integer.parseInt(fields[memberPos]);
+                person.hhID = fields.getInt(hhIdPos);
+                person.memberID = fields.getInt(memberPos);
 
-                int employ = Integer.parseInt(fields[empPos]);
+                int employ = fields.getInt(empPos);
                 
                 person.employed = employ == 1 || employ == 2 || employ == 4
                 || employ == 5;
                 
-                person.workOccupation = Integer.parseInt(fields[workOccPos]);		
+                person.workOccupation = fields.getInt(workOccPos);		
                 
                 person.randomSeed = person.hhID*100 + person.memberID;
 
                 persons.add(person);
 
-                line = personReader.readLine();
+                read = fields.next();
                 rowPointerPosition++;
             }
             
@@ -794,37 +868,33 @@ public class PTDataReader {
      * @return total number of persons (nWorkersPerHh array is also populated)
      */
     public int getInfoFromPersonFile (int[] nWorkersPerHh){
+        if (getSynPopCache() != null) {
+            return getInfoFromCachedPersons(nWorkersPerHh);
+        }
+
         openPersonFile();
         try {
-            // create a lookup table for field positions
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = personReader.readLine().split(",");
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
+            // resolve the field positions
+            CSVRecordReader fields = personReader;
+            fields.readHeader();
 
-            int hhIdPos = positions.get(HH_ID_FIELD);
-            int empPos =positions.get(EMP_FIELD);
+            int hhIdPos = fields.getRequiredColumn(HH_ID_FIELD);
+            int empPos = fields.getRequiredColumn(EMP_FIELD);
 
             int hhId = -1;
             int empCode = -1;
 
             int nPersons = 0;
-            String line = personReader.readLine();
-
-            String[] fields = null;
-            while (line != null) {
-                fields = line.split(",");
 
-                hhId = Integer.parseInt(fields[hhIdPos]);
-                empCode = Integer.parseInt(fields[empPos]);
+            while (fields.next()) {
+                hhId = fields.getInt(hhIdPos);
+                empCode = fields.getInt(empPos);
 
                 if(empCode ==1  || empCode == 2 || empCode == 4 || empCode == 5){
                     nWorkersPerHh[hhId]++;
                 }
 
                 nPersons++;
-                line = personReader.readLine();
             }
 
             closePersonFile();
@@ -837,6 +907,411 @@ public class PTDataReader {
 
     }
 
+    /**
+     * Convert SynPopH and SynPopP into the binary population cache named by
+     * sdt.synpop.cache, unless the cache is already current.  Once the cache
+     * exists, readers on every node read their row ranges from it instead of
+     * the text files.
+     *
+     * Called by the master before any household work is sent out.
+     */
+    public void createSynPopCache() {
+        String cacheName = ResourceUtil.getProperty(ptRb, "sdt.synpop.cache", null);
+        if (cacheName == null) {
+            return;
+        }
+
+        File hhFile = new File(ResourceUtil.getProperty(ptRb, "spg2.synpopH"));
+        File perFile = new File(ResourceUtil.getProperty(ptRb, "spg2.synpopP"));
+        synPopCache = SynPopCache.open(new File(cacheName), hhFile, perFile);
+        synPopCacheOpened = true;
+        if (synPopCache != null) {
+            return;
+        }
+
+        logger.info("Creating population cache " + cacheName);
+        try {
+            int flags = 0;
+
+            // households
+            openHouseholdFile();
+            householdReader.readHeader();
+            int nHouseholds = 0;
+            while (householdReader.skip()) {
+                nHouseholds++;
+            }
+            closeHouseholdFile();
+
+            openHouseholdFile();
+            householdReader.readHeader();
+            HouseholdColumns hhColumns = new HouseholdColumns(householdReader);
+            if (hhColumns.autos >= 0) flags |= SynPopCache.AUTOS;
+            if (hhColumns.ldTour >= 0) flags |= SynPopCache.HOUSEHOLD_LD;
+
+            SynPopCache.Households households = new SynPopCache.Households(0, nHouseholds);
+            for (int h = 0; h < nHouseholds && householdReader.next(); ++h) {
+                households.id[h] = householdReader.getInt(hhColumns.hhId);
+                households.size[h] = householdReader.getByte(hhColumns.persons);
+                households.unit[h] = householdReader.getInt(hhColumns.unit);
+                households.income[h] = (int) householdReader.getDouble(hhColumns.income);
+                households.homeTaz[h] = householdReader.getShort(hhColumns.taz);
+                if (hhColumns.autos >= 0) {
+                    households.autos[h] = householdReader.getByte(hhColumns.autos);
+                }
+                if (hhColumns.ldTour >= 0) {
+                    households.ldTour[h] = householdReader.getBoolean(hhColumns.ldTour);
+                    households.ldPattern[h] = (byte) LDTourPatternType.getType(
+                            householdReader.getInt(hhColumns.ldPattern)).ordinal();
+                }
+            }
+            closeHouseholdFile();
+
+            // persons
+            openPersonFile();
+            personReader.readHeader();
+            int nPersons = 0;
+            while (personReader.skip()) {
+                nPersons++;
+            }
+            closePersonFile();
+
+            openPersonFile();
+            personReader.readHeader();
+            PersonColumns perColumns = new PersonColumns(personReader);
+            int workOccPos = personReader.getColumn(WORK_OCC_FIELD);
+            if (perColumns.ldIndicator != null) flags |= SynPopCache.PERSON_LD;
+            if (perColumns.workTaz >= 0) flags |= SynPopCache.WORK_TAZ;
+            if (workOccPos >= 0) flags |= SynPopCache.WORK_OCCUPATION;
+
+            int purposes = LDTourPurpose.values().length;
+            SynPopCache.Persons persons = new SynPopCache.Persons(0, nPersons, purposes);
+            for (int i = 0; i < nPersons && personReader.next(); ++i) {
+                persons.hhId[i] = personReader.getInt(perColumns.hhId);
+                persons.member[i] = personReader.getInt(perColumns.member);
+                persons.sex[i] = personReader.getByte(perColumns.female);
+                persons.age[i] = personReader.getByte(perColumns.age);
+                persons.school[i] = personReader.getByte(perColumns.school);
+                persons.employment[i] = personReader.getByte(perColumns.emp);
+                persons.occupation[i] = personReader.getInt(perColumns.occ);
+                if (workOccPos >= 0) {
+                    persons.workOccupation[i] = personReader.getInt(workOccPos);
+                }
+                if (perColumns.workTaz >= 0) {
+                    persons.workTaz[i] = personReader.getShort(perColumns.workTaz);
+                }
+                if (perColumns.ldIndicator != null) {
+                    for (int p = 0; p < purposes; ++p) {
+                        persons.ldIndicator[p][i] = personReader.getBoolean(perColumns.ldIndicator[p]);
+                        persons.ldPattern[p][i] = (byte) LDTourPatternType.getType(
+                                personReader.getString(perColumns.ldPattern[p])).ordinal();
+                    }
+                }
+            }
+            closePersonFile();
+
+            // the persons of each household follow one another, in household order
+            if (nHouseholds == 0 && nPersons > 0) {
+                throw new RuntimeException("SynPop files do not match: " + nPersons
+                        + " persons and no households");
+            }
+            int h = 0;
+            for (int i = 0; i < nPersons; ++i) {
+                while (households.id[h] != persons.hhId[i]) {
+                    if (++h == nHouseholds) {
+                        throw new RuntimeException("SynPop files are not sorted correctly: person "
+                                + persons.hhId[i] + "_" + persons.member[i]
+                                + " is not in household order");
+                    }
+                    households.personStart[h] = i;
+                }
+            }
+            while (h < nHouseholds) {
+                households.personStart[++h] = nPersons;
+            }
+
+            SynPopCache.write(new File(cacheName), hhFile, perFile, flags,
+                    households, persons);
+
+        } catch (IOException e) {
+            logger.fatal("Error converting the population files.");
+            throw new RuntimeException(e);
+        }
+
+        synPopCache = SynPopCache.open(new File(cacheName), hhFile, perFile);
+    }
+
+    /**
+     * @return The name of the person file this reader reads.
+     */
+    protected String getPersonFileName() {
+        return ResourceUtil.getProperty(ptRb, "spg2.synpopP");
+    }
+
+    /**
+     * Index the person file by household id, if sdt.person.index is true and
+     * the index is not already current.  With the index,
+     * readPersonsForTravelModels seeks straight to the persons of a household
+     * instead of reading the person file in step with the households.
+     *
+     * Called by the master before any household work is sent out.
+     */
+    public void createPersonIndex() {
+        if (!ResourceUtil.getBooleanProperty(ptRb, "sdt.person.index", false)) {
+            return;
+        }
+        File perFile = new File(getPersonFileName());
+        personIndex = PersonFileIndex.open(perFile);
+        if (personIndex == null) {
+            logger.info("Indexing person file " + perFile);
+            personIndex = PersonFileIndex.create(perFile, HH_ID_FIELD);
+        }
+        personIndexOpened = true;
+    }
+
+    /**
+     * Read the person file index the first time it is needed.
+     *
+     * @return The index, or null if sdt.person.index is false or the index
+     *         does not match the person file.
+     */
+    protected PersonFileIndex getPersonIndex() {
+        if (!personIndexOpened) {
+            personIndexOpened = true;
+            if (ResourceUtil.getBooleanProperty(ptRb, "sdt.person.index", false)) {
+                personIndex = PersonFileIndex.open(new File(getPersonFileName()));
+                if (personIndex == null) {
+                    logger.warn("Person file index is not current, reading "
+                            + getPersonFileName() + " in household order.");
+                }
+            }
+        }
+        return personIndex;
+    }
+
+    /**
+     * Seek to the persons of a household in the person file.  Households can
+     * be asked for in any order.
+     */
+    private PTPerson[] readIndexedPersons(int hhSize, int hhId) {
+        long offset = personIndex.getOffset(hhId);
+        if (offset < 0) {
+            throw new RuntimeException("No persons with hhId: " + hhId);
+        }
+        if (personIndex.getCount(hhId) < hhSize) {
+            throw new RuntimeException("SynPop files are not sorted correctly: household "
+                    + hhId + " has " + personIndex.getCount(hhId)
+                    + " persons in the person file and size " + hhSize);
+        }
+
+        PTPerson[] persons = new PTPerson[hhSize];
+        try {
+            personReader.seek(offset);
+            for (int i = 0; i < hhSize; ++i) {
+                personReader.next();
+                PTPerson person = new PTPerson();
+                parsePerson(person, personReader, personColumns);
+                //assign a unique random number seed that is a combination
+                //of the persons HHID and their member ID
+                person.randomSeed = person.hhID*100 + person.memberID;
+                persons[i] = person;
+            }
+        } catch (IOException e) {
+            logger.fatal("Error reading person file.");
+            throw new RuntimeException(e);
+        }
+        return persons;
+    }
+
+    /**
+     * Open the binary population cache named by sdt.synpop.cache, the first
+     * time it is needed.
+     *
+     * @return The cache, or null if none is configured or it does not match
+     *         the population files.
+     */
+    protected SynPopCache getSynPopCache() {
+        if (!synPopCacheOpened) {
+            synPopCacheOpened = true;
+            String cacheName = ResourceUtil.getProperty(ptRb, "sdt.synpop.cache", null);
+            if (cacheName != null) {
+                synPopCache = SynPopCache.open(new File(cacheName),
+                        new File(ResourceUtil.getProperty(ptRb, "spg2.synpopH")),
+                        new File(ResourceUtil.getProperty(ptRb, "spg2.synpopP")));
+                if (synPopCache == null) {
+                    logger.warn("Population cache " + cacheName
+                            + " is not current, reading the population files.");
+                }
+            }
+        }
+        return synPopCache;
+    }
+
+    /**
+     * Read households from the cache.  Rows are numbered as in the household
+     * file, where row 1 is the header, and the sample is drawn the same way.
+     * The persons of the block are read as well, for
+     * readPersonsForTravelModels.
+     */
+    private PTHousehold[] readCachedHouseholds(int startRow, int endRow, int sampleRate, boolean visitor) {
+        logger.info("Sample Rate: " + sampleRate);
+        SynPopCache cache = getSynPopCache();
+
+        int first = Math.max(startRow, 2) - 2;
+        int last = Math.min(endRow - 2, cache.getHouseholdCount() - 1);
+        SynPopCache.Households block = cache.readHouseholds(first, last - first + 1);
+
+        ArrayList<PTHousehold> households = new ArrayList<PTHousehold>();
+        int hhCount = first;
+        for (int h = 0; h < block.count; ++h) {
+            hhCount++;
+            if (hhCount % sampleRate == 0) {
+                PTHousehold household = new PTHousehold();
+                setHousehold(household, block.id[h], block.size[h],
+                        block.unit[h], block.income[h], block.homeTaz[h]);
+                if (cache.has(SynPopCache.AUTOS)) {
+                    household.autos = block.autos[h];
+                }
+                if (cache.has(SynPopCache.HOUSEHOLD_LD)) {
+                    household.ldHouseholdTourIndicator = block.ldTour[h];
+                    household.ldHouseholdTourPattern = LDTourPatternType
+                            .getType(block.ldPattern[h]);
+                }
+                household.setVisitor(visitor);
+                households.add(household);
+                hhCount = 0;
+            }
+        }
+
+        cachedHouseholds = block;
+        cachedPersons = cache.readPersons(block.personStart[0],
+                block.personStart[block.count] - block.personStart[0]);
+        cachedHousehold = 0;
+
+        logger.info("Read in " + households.size() + " households");
+
+        return households.toArray(new PTHousehold[households.size()]);
+    }
+
+    /**
+     * Take the persons of a household from the block read with the
+     * households.  As with the person file, households are asked for in file
+     * order.
+     */
+    private PTPerson[] readCachedPersons(int hhSize, int hhId) {
+        while (cachedHousehold < cachedHouseholds.count
+                && cachedHouseholds.id[cachedHousehold] != hhId) {
+            cachedHousehold++;
+        }
+        if (cachedHousehold == cachedHouseholds.count) {
+            throw new RuntimeException("At end of household block and no persons with hhId: " + hhId);
+        }
+        if (cachedHouseholds.getPersonCount(cachedHousehold) < hhSize) {
+            throw new RuntimeException("SynPop files are not sorted correctly: household "
+                    + hhId + " has " + cachedHouseholds.getPersonCount(cachedHousehold)
+                    + " persons in the person file and size " + hhSize);
+        }
+
+        PTPerson[] persons = new PTPerson[hhSize];
+        int row = cachedHouseholds.personStart[cachedHousehold] - cachedPersons.first;
+        for (int i = 0; i < hhSize; ++i) {
+            PTPerson person = createPerson(cachedPersons, row + i);
+            //assign a unique random number seed that is a combination
+            //of the persons HHID and their member ID
+            person.randomSeed = person.hhID*100 + person.memberID;
+            persons[i] = person;
+        }
+        return persons;
+    }
+
+    private PTPerson createPerson(SynPopCache.Persons persons, int i) {
+        PTPerson person = new PTPerson();
+        setPerson(person, persons.hhId[i], persons.member[i], persons.sex[i],
+                persons.age[i], persons.school[i], persons.employment[i],
+                persons.occupation[i]);
+
+        if (synPopCache.has(SynPopCache.PERSON_LD)) {
+            for (LDTourPurpose purpose : LDTourPurpose.values()) {
+                int p = purpose.ordinal();
+                person.ldTourIndicator[p] = persons.ldIndicator[p][i];
+                person.ldTourPattern[p] = LDTourPatternType.getType(persons.ldPattern[p][i]);
+            }
+        }
+
+        if (synPopCache.has(SynPopCache.WORK_TAZ)) {
+            person.workTaz = persons.workTaz[i];
+        }
+        return person;
+    }
+
+    private PTPerson[] readCachedPersonsForWorkplaceLocation(int startRow, int endRow) {
+        SynPopCache cache = getSynPopCache();
+        if (!cache.has(SynPopCache.WORK_OCCUPATION)) {
+            throw new RuntimeException("Person file has no " + WORK_OCC_FIELD + " field.");
+        }
+
+        int first = Math.max(startRow, 2) - 2;
+        int last = Math.min(endRow - 2, cache.getPersonCount() - 1);
+        SynPopCache.Persons block = cache.readPersons(first, last - first + 1);
+
+        PTPerson[] persons = new PTPerson[block.count];
+        for (int i = 0; i < block.count; ++i) {
+            PTPerson person = new PTPerson();
+            person.hhID = block.hhId[i];
+            person.memberID = block.member[i];
+
+            int employ = block.employment[i];
+            person.employed = employ == 1 || employ == 2 || employ == 4
+            || employ == 5;
+
+            person.workOccupation = block.workOccupation[i];
+
+            person.randomSeed = person.hhID*100 + person.memberID;
+            persons[i] = person;
+        }
+        logger.info("Read " + persons.length + " persons.");
+
+        return persons;
+    }
+
+    private int[][] getInfoFromCachedHouseholds(PriceConverter priceConverter) {
+        SynPopCache cache = getSynPopCache();
+        SynPopCache.Households households = cache.readHouseholds(0, cache.getHouseholdCount());
+
+        int lowestIdNum = Integer.MAX_VALUE;
+        int nHhsInFile = households.count;
+        for (int h = 0; h < nHhsInFile; ++h) {
+            if (households.id[h] < lowestIdNum) lowestIdNum = households.id[h];
+        }
+
+        int[] incomesByHh = new int[nHhsInFile + lowestIdNum];
+        int[] homeTazsByHh = new int[nHhsInFile + lowestIdNum];
+        for (int h = 0; h < nHhsInFile; ++h) {
+            incomesByHh[households.id[h]] = priceConverter.convertPrice(households.income[h],
+                    PriceConverter.ConversionType.INCOME);
+            homeTazsByHh[households.id[h]] = households.homeTaz[h];
+        }
+
+        return new int[][] {{lowestIdNum}, {nHhsInFile}, incomesByHh, homeTazsByHh};
+    }
+
+    private int getInfoFromCachedPersons(int[] nWorkersPerHh) {
+        SynPopCache cache = getSynPopCache();
+        int nPersons = cache.getPersonCount();
+
+        // a chunk at a time, to keep the whole population off the heap
+        int chunk = 100000;
+        for (int first = 0; first < nPersons; first += chunk) {
+            SynPopCache.Persons persons = cache.readPersons(first, chunk);
+            for (int i = 0; i < persons.count; ++i) {
+                int empCode = persons.employment[i];
+                if(empCode ==1  || empCode == 2 || empCode == 4 || empCode == 5){
+                    nWorkersPerHh[persons.hhId[i]]++;
+                }
+            }
+        }
+        return nPersons;
+    }
+
     /**
      * Populate the household with person characteristics and vice versa.
      *
@@ -19,17 +19,23 @@ package com.pb.models.pt;
 import com.pb.models.pt.ldt.LDTourPatternType;
 import org.apache.log4j.Logger;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.PrintWriter;
-import java.io.Serializable;
 
 /** 
  * A class for a Household in PT
  * 
+ * Households are sent between tasks in blocks, so they write their own
+ * compact records instead of using default serialization.
+ * 
  * @author Joel Freedman
  * @version 1.0 12/01/2003
  * 
  */
-public class PTHousehold implements Comparable, Serializable{
+public class PTHousehold implements Comparable, Externalizable{
 
 //     public static int numberOfCurrentHousehold;
      final transient Logger logger = Logger.getLogger(PTHousehold.class);
@@ -229,6 +235,40 @@ public class PTHousehold implements Comparable, Serializable{
         return ldHouseholdTourPattern != null && !ldHouseholdTourPattern.equals(LDTourPatternType.NO_TOUR);
     }
      
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(ID);
+        out.writeByte(size);
+        out.writeByte(autos);
+        out.writeByte(workers);
+        out.writeInt(income);
+        out.writeBoolean(singleFamily);
+        out.writeBoolean(multiFamily);
+        out.writeShort(homeTaz);
+        out.writeBoolean(visitor);
+        out.writeBoolean(ldHouseholdTourIndicator);
+        ExternalizableUtil.writeEnum(out, ldHouseholdTourPattern);
+        out.writeBoolean(idSort);
+        out.writeBoolean(segmentSort);
+        ExternalizableUtil.writeArray(out, persons);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        ID = in.readInt();
+        size = in.readByte();
+        autos = in.readByte();
+        workers = in.readByte();
+        income = in.readInt();
+        singleFamily = in.readBoolean();
+        multiFamily = in.readBoolean();
+        homeTaz = in.readShort();
+        visitor = in.readBoolean();
+        ldHouseholdTourIndicator = in.readBoolean();
+        ldHouseholdTourPattern = ExternalizableUtil.readEnum(in, LDTourPatternType.values());
+        idSort = in.readBoolean();
+        segmentSort = in.readBoolean();
+        persons = ExternalizableUtil.readArray(in, new PTPerson[0]);
+    }
+     
     public static void main(String[] args){
          
     }
@@ -23,8 +23,11 @@ import com.pb.models.pt.ldt.LDTourPurpose;
 import com.pb.models.pt.tests.PTOccupation;
 import org.apache.log4j.Logger;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.PrintWriter;
-import java.io.Serializable;
 
 /**
  * A class containing all information about a person
@@ -33,7 +36,7 @@ import java.io.Serializable;
  * @version 1.0 12/01/2003
  * 
  */
-public class PTPerson implements Serializable, Comparable {
+public class PTPerson implements Externalizable, Comparable {
     private transient Logger logger = Logger.getLogger(PTPerson.class);
 
     public final static int ADULT_AGE = 18;
@@ -422,6 +425,75 @@ public class PTPerson implements Serializable, Comparable {
         return person;
     }
 
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeBoolean(employed);
+        out.writeBoolean(student);
+        out.writeByte(age);
+        out.writeBoolean(female);
+        out.writeObject(occupation);    // of the project's occupation type
+        out.writeByte(industry);
+        out.writeInt(memberID);
+        out.writeInt(hhID);
+        ExternalizableUtil.writeEnum(out, personType);
+        out.writeInt(workOccupation);
+        out.writeShort(workTaz);
+        out.writeObject(weekdayPattern);
+        out.writeDouble(weekdayPatternLogsum);
+        ExternalizableUtil.writeArray(out, weekdayTours);
+        ExternalizableUtil.writeArray(out, weekdayWorkBasedTours);
+        out.writeInt(ldTourIndicator == null ? -1 : ldTourIndicator.length);
+        if (ldTourIndicator != null) {
+            for (boolean indicator : ldTourIndicator) {
+                out.writeBoolean(indicator);
+            }
+        }
+        out.writeInt(ldTourPattern == null ? -1 : ldTourPattern.length);
+        if (ldTourPattern != null) {
+            for (LDTourPatternType pattern : ldTourPattern) {
+                ExternalizableUtil.writeEnum(out, pattern);
+            }
+        }
+        out.writeShort(homeTaz);
+        out.writeByte(segment);
+        out.writeObject(scheduler);
+        out.writeObject(priority);
+        out.writeLong(randomSeed);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        employed = in.readBoolean();
+        student = in.readBoolean();
+        age = in.readByte();
+        female = in.readBoolean();
+        occupation = (Enum) in.readObject();
+        industry = in.readByte();
+        memberID = in.readInt();
+        hhID = in.readInt();
+        personType = ExternalizableUtil.readEnum(in, PersonType.values());
+        workOccupation = in.readInt();
+        workTaz = in.readShort();
+        weekdayPattern = (Pattern) in.readObject();
+        weekdayPatternLogsum = in.readDouble();
+        weekdayTours = ExternalizableUtil.readArray(in, new Tour[0]);
+        weekdayWorkBasedTours = ExternalizableUtil.readArray(in, new Tour[0]);
+        int n = in.readInt();
+        ldTourIndicator = n < 0 ? null : new boolean[n];
+        for (int i = 0; i < n; ++i) {
+            ldTourIndicator[i] = in.readBoolean();
+        }
+        n = in.readInt();
+        ldTourPattern = n < 0 ? null : new LDTourPatternType[n];
+        LDTourPatternType[] patterns = LDTourPatternType.values();
+        for (int i = 0; i < n; ++i) {
+            ldTourPattern[i] = ExternalizableUtil.readEnum(in, patterns);
+        }
+        homeTaz = in.readShort();
+        segment = in.readByte();
+        scheduler = (Scheduler) in.readObject();
+        priority = (int[]) in.readObject();
+        randomSeed = in.readLong();
+    }
+
     public static void main(String[] args) {
         PTPerson person = PTPerson.createDummy();
         person.logger.info("Size of person: " + ObjectUtil.sizeOf(person));
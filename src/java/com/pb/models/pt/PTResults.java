@@ -61,6 +61,17 @@ public class PTResults {
     PrintWriter visitorHouseholdData;
     PrintWriter visitorPersonData;
 
+    // background writers, one per file, when started
+    PTResultsFileWriter weekdayTourWriter;
+    PTResultsFileWriter weekdayTripWriter;
+    PTResultsFileWriter weekdayPatternWriter;
+    PTResultsFileWriter householdDataWriter;
+    PTResultsFileWriter personDataWriter;
+
+    PTResultsFileWriter visitorTripWriter;
+    PTResultsFileWriter visitorHouseholdDataWriter;
+    PTResultsFileWriter visitorPersonDataWriter;
+
     ResourceBundle rb;
     ResourceBundle globalRb;
     boolean runLDT;
@@ -118,6 +129,77 @@ public class PTResults {
 
     }
 
+    /**
+     * Write each open resident and visitor file on its own thread.  Call
+     * after createFiles and createVisitorFiles.  Once started, writeResults
+     * and writeVisitorResults queue the households and return.
+     * @param capacity Number of household blocks that can wait for each file.
+     */
+    public void startWriters(int capacity){
+        if (weekdayTour != null) {
+            weekdayTourWriter = new PTResultsFileWriter("tours", weekdayTour, capacity,
+                    new PTResultsFileWriter.Format() {
+                        public void write(PTHousehold[] households, PrintWriter writer) {
+                            PTDataWriter.writeToursToTextFile(households, writer, true);
+                        }
+                    });
+            weekdayTripWriter = new PTResultsFileWriter("trips", weekdayTrip, capacity, TRIPS);
+            weekdayPatternWriter = new PTResultsFileWriter("patterns", weekdayPattern, capacity,
+                    new PTResultsFileWriter.Format() {
+                        public void write(PTHousehold[] households, PrintWriter writer) {
+                            PTDataWriter.writeWeekdayPatternsToFile(households, writer);
+                        }
+                    });
+            householdDataWriter = new PTResultsFileWriter("household data", householdData,
+                    capacity, HOUSEHOLD_DATA);
+            personDataWriter = new PTResultsFileWriter("person data", personData, capacity,
+                    PERSON_DATA);
+        }
+
+        if (visitorTrip != null) {
+            visitorTripWriter = new PTResultsFileWriter("visitor trips", visitorTrip,
+                    capacity, TRIPS);
+            visitorHouseholdDataWriter = new PTResultsFileWriter("visitor party data",
+                    visitorHouseholdData, capacity, HOUSEHOLD_DATA);
+            visitorPersonDataWriter = new PTResultsFileWriter("visitor person data",
+                    visitorPersonData, capacity, PERSON_DATA);
+        }
+    }
+
+    private static final PTResultsFileWriter.Format TRIPS = new PTResultsFileWriter.Format() {
+        public void write(PTHousehold[] households, PrintWriter writer) {
+            PTDataWriter.writeTrips(households, writer);
+        }
+    };
+
+    private static final PTResultsFileWriter.Format HOUSEHOLD_DATA = new PTResultsFileWriter.Format() {
+        public void write(PTHousehold[] households, PrintWriter writer) {
+            PTDataWriter.writeHouseholdData(households, writer);
+        }
+    };
+
+    private static final PTResultsFileWriter.Format PERSON_DATA = new PTResultsFileWriter.Format() {
+        public void write(PTHousehold[] households, PrintWriter writer) {
+            PTDataWriter.writePersonData(households, writer);
+        }
+    };
+
+    /**
+     * @return The largest number of household blocks waiting for one file.
+     */
+    public int getWriterBacklog(){
+        int backlog = 0;
+        PTResultsFileWriter[] writers = {weekdayTourWriter, weekdayTripWriter,
+                weekdayPatternWriter, householdDataWriter, personDataWriter,
+                visitorTripWriter, visitorHouseholdDataWriter, visitorPersonDataWriter};
+        for (PTResultsFileWriter writer : writers) {
+            if (writer != null) {
+                backlog = Math.max(backlog, writer.getBacklog());
+            }
+        }
+        return backlog;
+    }
+
     /**
      *  This method will set up the weekdayTrip file.  It is a standalone
      * method so that it can be used for the resident and the visitor model
@@ -174,6 +256,14 @@ public class PTResults {
      */
     public void writeResults(PTHousehold[] households) {
         logger.info("Writing patterns and tours to csv file");
+        if (weekdayTourWriter != null) {
+            weekdayTourWriter.write(households);
+            weekdayTripWriter.write(households);
+            weekdayPatternWriter.write(households);
+            householdDataWriter.write(households);
+            personDataWriter.write(households);
+            return;
+        }
         PTDataWriter.writeToursToTextFile(households, weekdayTour, true);
         writeTrips(households);
         PTDataWriter.writeWeekdayPatternsToFile(households, weekdayPattern);
@@ -187,6 +277,12 @@ public class PTResults {
      */
     public void writeVisitorResults(PTHousehold[] households) {
         logger.info("Writing patterns and tours to csv file");
+        if (visitorTripWriter != null) {
+            visitorTripWriter.write(households);
+            visitorHouseholdDataWriter.write(households);
+            visitorPersonDataWriter.write(households);
+            return;
+        }
         writeVisitorTrips(households);
         writeVisitorPartyData(households);
         writeVisitorPersonData(households);
@@ -221,6 +317,14 @@ public class PTResults {
      */
     public void close(){
         logger.info("Closing tour, pattern and trip output files.");
+        if (weekdayTourWriter != null) {
+            // writes the queued households first
+            weekdayTourWriter.close();
+            weekdayTripWriter.close();
+            weekdayPatternWriter.close();
+            householdDataWriter.close();
+            personDataWriter.close();
+        }
         weekdayTour.flush();
         weekdayTour.close();
 
@@ -360,6 +464,11 @@ public class PTResults {
      * Convenience method for the visitor short-distance model outputs
      */
     public void closeVisitorFiles(){
+        if (visitorTripWriter != null) {
+            visitorTripWriter.close();
+            visitorHouseholdDataWriter.close();
+            visitorPersonDataWriter.close();
+        }
         visitorTrip.flush();
         visitorTrip.close();
 
@@ -488,9 +597,11 @@ public class PTResults {
      * This is only called when work place calculations are turned on and SDT
      * calculations are turned off.  If SDT calculations are turned on, then
      * the work place locations are written as part of the person file.
-     * @param workplaceByPersonId hashmap
+     * @param hhIds household id of each worker
+     * @param memberIds member id of each worker
+     * @param workplaces work taz of each worker
      */
-    public static void writeWorkPlaceLocations(ResourceBundle rb, HashMap<String, Integer> workplaceByPersonId) {
+    public static void writeWorkPlaceLocations(ResourceBundle rb, int[] hhIds, int[] memberIds, short[] workplaces) {
 
         // lazy init
         if (workPlaceLocations == null) {
@@ -509,11 +620,9 @@ public class PTResults {
             workPlaceLocations.println("HH_ID,memberId,WORK_TAZ");
         }
 
-        for (String key : workplaceByPersonId.keySet()) {
-            String hhId =  key.substring(0, key.indexOf("_"));
-            String memberId =key.substring(key.indexOf("_") + 1, key.length());
-            workPlaceLocations.println( hhId + "," + memberId + ","
-                    + workplaceByPersonId.get(key));
+        for (int i = 0; i < hhIds.length; i++) {
+            workPlaceLocations.println( hhIds[i] + "," + memberIds[i] + ","
+                    + workplaces[i]);
         }
     }
 
@@ -0,0 +1,139 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import org.apache.log4j.Logger;
+
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes blocks of households to one output file on a background thread.
+ *
+ * Blocks are handed over through a bounded queue.  When the queue is full,
+ * <code>write</code> blocks until the thread has caught up, so the number of
+ * household blocks held for one file never exceeds the queue capacity.  The
+ * households must not be changed after they are handed over.
+ */
+public class PTResultsFileWriter {
+
+    final static Logger logger = Logger.getLogger(PTResultsFileWriter.class);
+
+    /**
+     * Formats a block of households into a file.
+     */
+    public interface Format {
+        void write(PTHousehold[] households, PrintWriter writer);
+    }
+
+    // marks the end of the queue
+    private static final PTHousehold[] END = new PTHousehold[0];
+
+    private final String name;
+
+    private final PrintWriter writer;
+
+    private final BlockingQueue<PTHousehold[]> queue;
+
+    private final Thread thread;
+
+    private volatile Throwable failure;
+
+    /**
+     * Start a writer thread for a file.
+     *
+     * @param name Name of the file, for the thread name and log messages.
+     * @param writer The open file.
+     * @param capacity Number of household blocks that can wait to be written.
+     * @param format Formats the blocks into the file.
+     */
+    public PTResultsFileWriter(String name, PrintWriter writer, int capacity,
+            final Format format) {
+        this.name = name;
+        this.writer = writer;
+        queue = new ArrayBlockingQueue<PTHousehold[]>(capacity);
+
+        thread = new Thread(new Runnable() {
+            public void run() {
+                PTHousehold[] households;
+                try {
+                    while ((households = queue.take()) != END) {
+                        try {
+                            if (failure == null) {
+                                format.write(households, PTResultsFileWriter.this.writer);
+                            }
+                        } catch (Throwable t) {
+                            // keep taking blocks so producers are never blocked
+                            logger.error("Error writing " + PTResultsFileWriter.this.name, t);
+                            failure = t;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    failure = e;
+                }
+            }
+        }, "PTResultsFileWriter-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a block of households, waiting while the queue is full.
+     *
+     * @param households The households to write.
+     */
+    public void write(PTHousehold[] households) {
+        checkFailure();
+        try {
+            queue.put(households);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted queueing households for "
+                    + name, e);
+        }
+    }
+
+    /**
+     * @return The number of household blocks waiting to be written.
+     */
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    /**
+     * Write the remaining blocks, then flush and close the file.
+     */
+    public void close() {
+        try {
+            queue.put(END);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted closing " + name, e);
+        }
+        writer.flush();
+        writer.close();
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Error writing " + name, failure);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The day patterns of the pattern choice model, each parsed once when the
+ * model is built: the Pattern with its counts, and a template of each of its
+ * tours.  Setting the pattern of a person is then a lookup, and the person's
+ * tours are copies of the templates.
+ *
+ * Neither the registry nor its patterns change after it is built, so one
+ * Pattern is shared by every person that chooses it.  It must not be changed.
+ */
+public class PatternRegistry {
+    final static Logger logger = Logger.getLogger(PatternRegistry.class);
+
+    private final Map<String, Pattern> patterns;
+
+    // tour templates by pattern, null for a pattern without tours
+    private final Map<String, Tour[]> tours;
+
+    /**
+     * Parse the patterns.
+     *
+     * @param names Pattern strings.
+     */
+    public PatternRegistry(Collection<String> names) {
+        patterns = new HashMap<String, Pattern>(names.size() * 2);
+        tours = new HashMap<String, Tour[]>(names.size() * 2);
+
+        // the pattern chosen when there are none available
+        register("H");
+        for (String name : names) {
+            register(name);
+        }
+
+        logger.info("Registered " + patterns.size() + " patterns.");
+    }
+
+    private void register(String name) {
+        if (name.length() == 0 || patterns.containsKey(name)) {
+            return;
+        }
+        patterns.put(name, new Pattern(name));
+        tours.put(name, PatternChoiceModel.createTourTemplates(name
+                .toLowerCase()));
+    }
+
+    /**
+     * @param name Pattern string.
+     * @return The shared pattern, or a new one if it is not registered.
+     */
+    public Pattern getPattern(String name) {
+        Pattern pattern = patterns.get(name);
+        return pattern != null ? pattern : new Pattern(name);
+    }
+
+    /**
+     * Convert a pattern to an array of empty tours from the templates of the
+     * pattern, the same as PatternChoiceModel.convertToTours.
+     *
+     * @param household Household
+     * @param person PTPerson
+     * @param pattern Pattern
+     * @return Tour[] array of tours, null if there are none.
+     */
+    public Tour[] convertToTours(PTHousehold household, PTPerson person,
+            Pattern pattern) {
+        String name = pattern.toString();
+        if (!tours.containsKey(name)) {
+            return PatternChoiceModel.convertToTours(household, person,
+                    pattern);
+        }
+        return PatternChoiceModel.convertToTours(household, person, pattern,
+                tours.get(name));
+    }
+}
@@ -60,6 +60,31 @@ public class StopDestinationChoiceModel extends TimedModel {
      
      private Tracer tracer = Tracer.getTracer();
     private ResourceBundle rb;
+
+    // draws of the sampled stop choice, 0 to use every zone
+    private int sampleSize;
+
+    private int sampleNeighbors;
+
+    private double sampleDecay;
+
+    // share of the draws from all zones rather than the nearest ones
+    private double sampleResidual;
+
+    private TazManager tazManager;
+
+    // built on the first sampled choice, or by buildSampler
+    private DestinationSampler sampler;
+
+    private DestinationSample sample;
+
+    // [purpose][zone index] stop size terms
+    private double[][] stopSizes;
+
+    private double[] sampleCumulative;
+
+    // exponentiated utilities of every zone for the choice without a sample
+    private ChoiceDistribution distribution;
       
      /**
       * Default constructor.  Reads parameters from pt resource bundle key.
@@ -83,6 +108,16 @@ public class StopDestinationChoiceModel extends TimedModel {
              iStop2Params = readParameters(fileName2); 
          }
 
+         sampleSize = ResourceUtil.getIntegerProperty(rb, "sdt.stop.destination.sample.size", 0);
+         sampleNeighbors = ResourceUtil.getIntegerProperty(rb, "sdt.stop.destination.sample.neighbors", 400);
+         sampleDecay = ResourceUtil.getDoubleProperty(rb, "sdt.stop.destination.sample.distance.decay", 0.1);
+         sampleResidual = ResourceUtil.getDoubleProperty(rb, "sdt.stop.destination.sample.residual", 0.1);
+         if (sampleSize > 0) {
+             logger.info("Sampling " + sampleSize + " stop zones, "
+                     + sampleResidual + " of them from all zones and the rest from the "
+                     + sampleNeighbors + " zones nearest each end of the leg");
+         }
+
          endTiming();
      }
  
@@ -117,6 +152,7 @@ public class StopDestinationChoiceModel extends TimedModel {
  
      public void buildModel(TazManager tazs){
          startTiming();
+         tazManager = tazs;
 
          //load up distance threshold from resource bundle if it exists
          String distanceThreshold = rb.getString("pt.stop.distance.choice.threshold");
@@ -125,6 +161,7 @@ public class StopDestinationChoiceModel extends TimedModel {
 
          iStop1Model = new LogitModel("iStop1Model",tazs.size());
          iStop2Model = new LogitModel("iStop2Model",tazs.size());
+         distribution = new ChoiceDistribution(tazs.size());
 
          //create stop1 model with stop1 tazData
          Enumeration stop1DestinationEnum=tazs.elements();
@@ -146,16 +183,41 @@ public class StopDestinationChoiceModel extends TimedModel {
          endTiming();
      }
 
+    /**
+     * Share the zones, size terms and stop sampler of a model built from the
+     * same resource bundle, so that each household thread of a worker can
+     * have its own model over one TazManager.  The logit models over the
+     * zones, which only traced choices use, are shared too.
+     *
+     * @param built A built model.
+     */
+    public void buildModel(StopDestinationChoiceModel built) {
+        startTiming();
+        tazManager = built.tazManager;
+        distanceThreshold = built.distanceThreshold;
+        iStop1Model = built.iStop1Model;
+        iStop2Model = built.iStop2Model;
+        distribution = new ChoiceDistribution(tazManager.size());
+
+        if (built.sampler != null) {
+            sampler = built.sampler;
+            stopSizes = built.stopSizes;
+            sample = sampler.createSample();
+            sampleCumulative = new double[sampler.size()];
+        }
+        endTiming();
+    }
+
      public void calculateStopZones(PTHousehold thisHousehold,
             PTPerson thisPerson, Tour thisTour, SkimsInMemory skims,
             Random random) {
         startTiming();
 
         boolean trace = tracer.isTracePerson(thisPerson.hhID + "_" + thisPerson.memberID);
-        iStop1Model.setDebug(trace);
-        iStop2Model.setDebug(trace);
         
         if (trace) {
+            iStop1Model.setDebug(trace);
+            iStop2Model.setDebug(trace);
             logger.info("Tracing stop destination choice for a tour between "
                     + thisTour.begin.location.zoneNumber + " and "
                     + thisTour.end.location.zoneNumber + " with " +
@@ -239,126 +301,36 @@ public class StopDestinationChoiceModel extends TimedModel {
 
         // First run the stop1location model
         if (thisTour.intermediateStop1 != null) { // && thisTour.primaryMode.type != TourModeType.DRIVETRANSIT) {
- 
-            
-             // calculate utilities for each taz. Use the ptModel.tazs that were
-            // passed into the method.
-            for (Object o : (iStop1Model.getAlternatives())) {
-                Taz stop1Taz = (Taz) o;
-
-                float autoTime = 0;
-                float walkTime = 0;
-                float bikeTime = 0;
-                float transitGeneralizedCost = 0;
-
-                // autoDists[0] = distance
-                // from begin to primary destination
-                // autoDists[1] = distance from begin to stop + stop to primary
-                // destination
-                // autoDists[2] = distance from stopTaz to HomeTaz
-
-                 
-                float[] autoDists = skims.getAdditionalAutoDistance(
-                        thisTour.begin.location.zoneNumber,
-                        thisTour.primaryDestination.location.zoneNumber,
-                        stop1Taz.zoneNumber,thisPerson.homeTaz, thisTour.begin.endTime);
-
-                // check to make sure within distance threshold of anchor location.
-                //need to allow stops within same zone, even if it goes over distance threshold
-                if ((autoDists[1] - autoDists[0]) > distanceThreshold &&
-                        stop1Taz.zoneNumber != thisTour.begin.location.zoneNumber &&
-                        stop1Taz.zoneNumber != thisTour.primaryDestination.location.zoneNumber) {
-                    stop1Taz.setAvailability(false);
-                    if (trace) {  
-                         logger.info("Stop 2 Taz not available: " + stop1Taz.zoneNumber +
-                         " because prim. dest. to stop to end distance (" + autoDists[1] + ") > distance threshold (" + distanceThreshold + ")");
-                    }
-                    continue;
-                }
-                
-                // get the distance from home
-                float distFromHome = skims.getDistance(thisTour.begin.endTime, thisPerson.homeTaz, stop1Taz.zoneNumber);
-
-                
-                //calculate walk time for walk modes and transit modes (in case stop zone is not connected by transit)
-                if (thisTour.primaryMode.type == TourModeType.WALK || thisTour.primaryMode.type == TourModeType.WALKTRANSIT
-                        || thisTour.primaryMode.type == TourModeType.TRANSITPASSENGER)
-                    walkTime = skims.getAdditionalWalkTime(
-                            thisTour.begin.location.zoneNumber,
-                            thisTour.primaryDestination.location.zoneNumber,
-                            stop1Taz.zoneNumber, thisTour.begin.endTime);
-                else if (thisTour.primaryMode.type == TourModeType.BIKE)
-                    bikeTime = skims.getAdditionalBikeTime(
-                            thisTour.begin.location.zoneNumber,
-                            thisTour.primaryDestination.location.zoneNumber,
-                            stop1Taz.zoneNumber, thisTour.begin.endTime);
-
-                else if (thisTour.primaryMode.type == TourModeType.WALKTRANSIT
-                        || thisTour.primaryMode.type == TourModeType.TRANSITPASSENGER)
-
-                    transitGeneralizedCost = skims
-                            .getAdditionalGeneralizedTransitCost(
-                                    thisTour.begin.location.zoneNumber,
-                                    thisTour.primaryDestination.location.zoneNumber,
-                                    stop1Taz.zoneNumber, thisTour.begin.endTime);
-
-                else {
-                    autoTime = skims.getAdditionalAutoTime(
-                            thisTour.begin.location.zoneNumber,
-                            thisTour.primaryDestination.location.zoneNumber,
-                            stop1Taz.zoneNumber, thisTour.begin.endTime);
-                    
-                    // include terminal time, (to + from), weighted at 3 * IVT
-                    autoTime += 2 * walkFactor * stop1Taz.terminalTime; 
-                }
-
-                ActivityPurpose purposeForSizeTerm = getPurposeForFirstStopSizeTerm(thisTour);
-                stop1Taz.setTrace(trace);
-                stop1Taz.calcStopDestinationUtility(
-                        purposeForSizeTerm,
-                        iStop1PurposeParams, thisTour.primaryMode,
-                        thisTour.begin.location.zoneNumber, thisTour.primaryDestination.location.zoneNumber, 
-                        autoTime, walkTime,
-                        bikeTime, transitGeneralizedCost, autoDists, 1, distFromHome);
-
-                if (trace) {
-                    logger.info("Stop 1 " + stop1Taz.zoneNumber + " utility: "
-                            + stop1Taz.getUtility());
+            if (sampleSize > 0) {
+                thisTour.intermediateStop1.location.zoneNumber = chooseSampledZone(1,
+                        thisHousehold, thisPerson, thisTour, skims, random, trace);
+            } else {
+                // calculate utilities for each taz. Use the ptModel.tazs that were
+                // passed into the method.
+                distribution.clear();
+                for (Object o : (iStop1Model.getAlternatives())) {
+                    double utility = calculateStop1Utility((Taz) o, thisPerson,
+                            thisTour, skims, trace);
+                    distribution.addUtility(!Double.isNaN(utility), utility);
                 }
-            }
-
-            if (trace) {
-                iStop1Model.writeAvailabilities();
-            }
-            iStop1Model.computeAvailabilities();
-
-            if (trace) {
-                iStop1Model.writeUtilityHeader();
-            }
-            iStop1Model.getUtility();
-
-            if (trace) {
-                iStop1Model.writeProbabilityHeader();
-            }
-            iStop1Model.calculateProbabilities();
 
-             try {
+                 try {
 
-                 Taz chosenTaz = (Taz) iStop1Model.chooseAlternative(random.nextDouble());
-                 thisTour.intermediateStop1.location.zoneNumber=chosenTaz.zoneNumber;
+                     Taz chosenTaz = chooseZone(iStop1Model, random, trace);
+                     thisTour.intermediateStop1.location.zoneNumber=chosenTaz.zoneNumber;
                  
-                 if (trace) {
-                     logger.info("Intermediate Stop 1 chosen taz: " + chosenTaz.zoneNumber);
-                 }
+                     if (trace) {
+                         logger.info("Intermediate Stop 1 chosen taz: " + chosenTaz.zoneNumber);
+                     }
 
-             } catch(Exception e) {
+                 } catch(Exception e) {
 //                 logger.error(e);
 //                 if (1 == 1) {
 //                     throw new RuntimeException(e);
 //                 }
 //                 // this error message is not always true!
-                 logger.error("Error in stop destination choice: no zones available for " +
-                         "Household "+thisHousehold.ID+" Person "+thisPerson.memberID+" Tour "+thisTour.tourNumber);
+                     logger.error("Error in stop destination choice: no zones available for " +
+                             "Household "+thisHousehold.ID+" Person "+thisPerson.memberID+" Tour "+thisTour.tourNumber);
 //                 logger.error("A Stop1 Tour file and the TAZ info will be written out to the debug directory.");
 //
 //                //write the tour information into a debug file.  Path is specified in the pt.properties file
@@ -382,9 +354,10 @@ public class StopDestinationChoiceModel extends TimedModel {
 //                    file2.close();
 //
 //                }
-                //in the interest of not stopping the run, we will just assign the stop location to be the
-                //tour begin location.  A log report at the end of PT will notify the user of the erroneous data.
-                thisTour.intermediateStop1.location.zoneNumber=thisTour.begin.location.zoneNumber;
+                    //in the interest of not stopping the run, we will just assign the stop location to be the
+                    //tour begin location.  A log report at the end of PT will notify the user of the erroneous data.
+                    thisTour.intermediateStop1.location.zoneNumber=thisTour.begin.location.zoneNumber;
+                }
             }
             thisTour.intermediateStop1.distanceToActivity = skims.getDistance(thisTour.begin.endTime,
                                                                                  thisTour.begin.location.zoneNumber,
@@ -398,125 +371,30 @@ public class StopDestinationChoiceModel extends TimedModel {
          //Now do the stop2location destination choice model
          if(thisTour.intermediateStop2!=null) { // && thisTour.primaryMode.type != TourModeType.DRIVETRANSIT){
 
-            for (Object o : iStop2Model.getAlternatives()) {
-
-                 Taz stop2Taz = (Taz) o;
-
-                 float autoTime = 0;
-                 float walkTime = 0;
-                 float bikeTime = 0;
-                 float transitGeneralizedCost = 0;
-
-                 float[] autoDists = skims.getAdditionalAutoDistance(thisTour.primaryDestination.location.zoneNumber,
-                         thisTour.end.location.zoneNumber,
-                         stop2Taz.zoneNumber,thisPerson.homeTaz,
-                         thisTour.primaryDestination.endTime);
-
-                 // check to make sure within distance threshold of anchor location.
-                 if ((autoDists[1] - autoDists[0]) > distanceThreshold &&
-                        stop2Taz.zoneNumber != thisTour.end.location.zoneNumber &&
-                        stop2Taz.zoneNumber != thisTour.primaryDestination.location.zoneNumber) {
-                     stop2Taz.setAvailability(false);
-
-                     if (trace) {
-                         logger.info("Stop 2 Taz not available: " + stop2Taz.zoneNumber +
-                         " because prim. dest. to stop to end distance (" + autoDists[1] + ") > distance threshold (" + distanceThreshold + ")");
-                     }
-
-                     continue;
-                 }
-                 
-                 // get the distance from home
-                 float distFromHome = skims.getDistance(thisTour.begin.endTime, thisPerson.homeTaz, stop2Taz.zoneNumber);
-
-                 
-                 //calculate walk time for walk mode or for transit mode (you might be able to walk to the stop)
-                 if (thisTour.primaryMode.type == TourModeType.WALK || thisTour.primaryMode.type == TourModeType.WALKTRANSIT ||
-                         thisTour.primaryMode.type == TourModeType.PASSENGERTRANSIT)
-                     walkTime = skims.getAdditionalWalkTime(thisTour.primaryDestination.location.zoneNumber,
-                             thisTour.end.location.zoneNumber,
-                             stop2Taz.zoneNumber,
-                             thisTour.primaryDestination.endTime
-                     );
-                 else if (thisTour.primaryMode.type == TourModeType.BIKE)
-                     bikeTime = skims.getAdditionalBikeTime(thisTour.primaryDestination.location.zoneNumber,
-                             thisTour.end.location.zoneNumber,
-                             stop2Taz.zoneNumber,
-                             thisTour.primaryDestination.endTime
-                     );
-                 else if (thisTour.primaryMode.type == TourModeType.WALKTRANSIT ||
-                         thisTour.primaryMode.type == TourModeType.PASSENGERTRANSIT)
-
-                     transitGeneralizedCost =
-                             skims.getAdditionalGeneralizedTransitCost(thisTour.primaryDestination.location.zoneNumber,
-                                     thisTour.end.location.zoneNumber,
-                                     stop2Taz.zoneNumber,
-                                     thisTour.primaryDestination.endTime
-                             );
-                 else {
-                     autoTime = skims.getAdditionalAutoTime(thisTour.primaryDestination.location.zoneNumber,
-                             thisTour.end.location.zoneNumber,
-                             stop2Taz.zoneNumber,
-                             thisTour.primaryDestination.endTime
-                     );
-                 
-                     // include terminal time, (to + from, so 2), weighted at 3 * IVT
-                     autoTime += 2 * walkFactor * stop2Taz.terminalTime;
-                 }
-                 //destination choice model for this taz
-                 ActivityPurpose purposeForSizeTerm = getPurposeForSecondStopSizeTerm(thisTour);
-                 stop2Taz.setTrace(trace);
-                 stop2Taz.calcStopDestinationUtility(
-                         purposeForSizeTerm, 
-                         iStop2PurposeParams,
-                         thisTour.primaryMode,
-                         thisTour.begin.location.zoneNumber,
-                         thisTour.primaryDestination.location.zoneNumber,
-                         autoTime,
-                         walkTime,
-                         bikeTime,
-                         transitGeneralizedCost,
-                         autoDists,
-                         2, 
-                         distFromHome
-                 );
-
-
-                 if (trace) {
-                     logger.info("Stop 2 " + stop2Taz.zoneNumber + " utility"
-                             + stop2Taz.getUtility());
-                 }
-
-             } //utilties have been calculated for each taz
-
-             if (trace) {
-                iStop2Model.writeAvailabilities();
-            }
-            iStop2Model.computeAvailabilities();
-
-            if (trace) {
-                iStop2Model.writeUtilityHeader();
-            }
-            iStop2Model.getUtility();
-
-            if (trace) {
-                iStop2Model.writeProbabilityHeader();
-            }
-            iStop2Model.calculateProbabilities();
+            if (sampleSize > 0) {
+                thisTour.intermediateStop2.location.zoneNumber = chooseSampledZone(2,
+                        thisHousehold, thisPerson, thisTour, skims, random, trace);
+            } else {
+                distribution.clear();
+                for (Object o : iStop2Model.getAlternatives()) {
+                    double utility = calculateStop2Utility((Taz) o, thisPerson,
+                            thisTour, skims, trace);
+                    distribution.addUtility(!Double.isNaN(utility), utility);
+                }
 
-            try {
+                try {
 
-                Taz chosenTaz = (Taz) iStop2Model.chooseAlternative(random.nextDouble());
-                thisTour.intermediateStop2.location.zoneNumber = chosenTaz.zoneNumber;
+                    Taz chosenTaz = chooseZone(iStop2Model, random, trace);
+                    thisTour.intermediateStop2.location.zoneNumber = chosenTaz.zoneNumber;
                 
-                if (trace) {
-                    logger.info("Intermediate Stop 2 chosen taz:" + chosenTaz.zoneNumber);
-                }
+                    if (trace) {
+                        logger.info("Intermediate Stop 2 chosen taz:" + chosenTaz.zoneNumber);
+                    }
 
-            } catch (Exception e) {
-                logger.error("Error in stop destination choice: no "
-                        + "zones available for Household " + thisHousehold.ID + " Person "
-                        + thisPerson.memberID + " Tour " + thisTour.tourNumber);
+                } catch (Exception e) {
+                    logger.error("Error in stop destination choice: no "
+                            + "zones available for Household " + thisHousehold.ID + " Person "
+                            + thisPerson.memberID + " Tour " + thisTour.tourNumber);
 
 //                // write the tour information into a debug file. Path is
 //                // specified in the pt.properties file
@@ -555,12 +433,13 @@ public class StopDestinationChoiceModel extends TimedModel {
 //                logger.error("Could not find a stop 1 location for this tour: "
 //                        + thisTour);
 //                logger.error("Purpose: " + thisTour.getPurpose());
-                // logger.error("Begin, end: " +
-                // thisTour.begin.location.zoneNumber + ", " +
-                // thisTour.end.location.zoneNumber);
+                    // logger.error("Begin, end: " +
+                    // thisTour.begin.location.zoneNumber + ", " +
+                    // thisTour.end.location.zoneNumber);
 
-                thisTour.intermediateStop2.location.zoneNumber = thisTour.begin.location.zoneNumber;
+                    thisTour.intermediateStop2.location.zoneNumber = thisTour.begin.location.zoneNumber;
 
+                }
             }
             thisTour.intermediateStop2.distanceToActivity = skims.getDistance(
                     thisTour.primaryDestination.endTime,
@@ -576,6 +455,314 @@ public class StopDestinationChoiceModel extends TimedModel {
          endTiming();
     } // end of calculateStopZones method.
 
+    /**
+     * Choose a stop zone from the utilities of all the zones, which are in
+     * the distribution.  The logit model is only used for the trace, when the
+     * utilities are also set in the zones.
+     *
+     * @param model The stop model, with the utilities of the zones.
+     * @return The chosen zone.
+     */
+    private Taz chooseZone(LogitModel model, Random random, boolean trace) {
+        if (!trace) {
+            return (Taz) model.getAlternatives().get(distribution.choose(random));
+        }
+
+        model.writeAvailabilities();
+        model.computeAvailabilities();
+        model.writeUtilityHeader();
+        model.getUtility();
+        model.writeProbabilityHeader();
+        model.calculateProbabilities();
+        return (Taz) model.chooseAlternative(random.nextDouble());
+    }
+
+    /**
+     * Choose a stop zone from a sample of the zones, drawn mostly near the
+     * ends of the leg that the stop is on, with the sampling correction added
+     * to the utilities.  The ends of the leg are always in the sample.
+     *
+     * @param stopNumber 1 for the first stop, 2 for the second.
+     * @return The chosen zone, or the tour begin zone if no sampled zone is
+     *         available.
+     */
+    private int chooseSampledZone(int stopNumber, PTHousehold thisHousehold,
+            PTPerson thisPerson, Tour thisTour, SkimsInMemory skims,
+            Random random, boolean trace) {
+        if (sampler == null) {
+            buildSampler(skims);
+        }
+
+        int from;
+        int to;
+        ActivityPurpose purpose;
+        if (stopNumber == 1) {
+            from = thisTour.begin.location.zoneNumber;
+            to = thisTour.primaryDestination.location.zoneNumber;
+            purpose = getPurposeForFirstStopSizeTerm(thisTour);
+        } else {
+            from = thisTour.primaryDestination.location.zoneNumber;
+            to = thisTour.end.location.zoneNumber;
+            purpose = getPurposeForSecondStopSizeTerm(thisTour);
+        }
+        sampler.sample(from, to, stopSizes[purpose.ordinal()], sampleSize,
+                random, sample);
+
+        double sum = 0;
+        for (int k = 0; k < sample.size(); ++k) {
+            Taz stopTaz = sampler.getTaz(sample.getZone(k));
+            double utility;
+            if (stopNumber == 1) {
+                utility = calculateStop1Utility(stopTaz, thisPerson, thisTour, skims, trace);
+            } else {
+                utility = calculateStop2Utility(stopTaz, thisPerson, thisTour, skims, trace);
+            }
+            if (!Double.isNaN(utility)) {
+                sum += Math.exp(utility + sample.getCorrection(k));
+            }
+            sampleCumulative[k] = sum;
+
+            if (trace) {
+                logger.info("Stop " + stopNumber + " sampled taz "
+                        + stopTaz.zoneNumber + " correction "
+                        + sample.getCorrection(k));
+            }
+        }
+
+        if (sum <= 0) {
+            logger.error("Error in stop destination choice: no zones available for "
+                    + "Household " + thisHousehold.ID + " Person " + thisPerson.memberID
+                    + " Tour " + thisTour.tourNumber);
+            return thisTour.begin.location.zoneNumber;
+        }
+
+        int k = ChoiceDistribution.search(sampleCumulative, sample.size(),
+                random.nextDouble() * sum);
+        int chosen = sampler.getTaz(sample.getZone(k)).zoneNumber;
+
+        if (trace) {
+            logger.info("Intermediate Stop " + stopNumber + " chosen taz: " + chosen);
+        }
+        return chosen;
+    }
+
+    /**
+     * Find the nearest zones of every zone by off-peak distance and copy the
+     * stop size terms, which are set when the model is built.  Does nothing
+     * unless stops are sampled.  The sampler is otherwise built on the first
+     * sampled choice, so build it before sharing the model.
+     *
+     * @param skims Skims with the off-peak distances.
+     */
+    public void buildSampler(SkimsInMemory skims) {
+        if (sampleSize <= 0 || sampler != null) {
+            return;
+        }
+        sampler = new DestinationSampler(tazManager, skims.opDist,
+                sampleNeighbors, sampleDecay, sampleResidual);
+        sample = sampler.createSample();
+        sampleCumulative = new double[sampler.size()];
+
+        int purposes = ActivityPurpose.values().length;
+        stopSizes = new double[purposes][sampler.size()];
+        for (int i = 0; i < sampler.size(); ++i) {
+            Taz taz = sampler.getTaz(i);
+            for (int p = 0; p < purposes; ++p) {
+                stopSizes[p][i] = Math.max(0, taz.stopSizeTerm[p]);
+            }
+        }
+    }
+
+    /**
+     * Calculate the utility of a zone for the first stop, between the tour
+     * begin and the primary destination.  The utility and availability are
+     * only set in the zone when tracing.
+     *
+     * @return The utility, or NaN if the zone is not available.
+     */
+    private double calculateStop1Utility(Taz stop1Taz, PTPerson thisPerson,
+            Tour thisTour, SkimsInMemory skims, boolean trace) {
+        float autoTime = 0;
+        float walkTime = 0;
+        float bikeTime = 0;
+        float transitGeneralizedCost = 0;
+
+        // autoDists[0] = distance
+        // from begin to primary destination
+        // autoDists[1] = distance from begin to stop + stop to primary
+        // destination
+        // autoDists[2] = distance from stopTaz to HomeTaz
+
+         
+        float[] autoDists = skims.getAdditionalAutoDistance(
+                thisTour.begin.location.zoneNumber,
+                thisTour.primaryDestination.location.zoneNumber,
+                stop1Taz.zoneNumber,thisPerson.homeTaz, thisTour.begin.endTime);
+
+        // check to make sure within distance threshold of anchor location.
+        //need to allow stops within same zone, even if it goes over distance threshold
+        if ((autoDists[1] - autoDists[0]) > distanceThreshold &&
+                stop1Taz.zoneNumber != thisTour.begin.location.zoneNumber &&
+                stop1Taz.zoneNumber != thisTour.primaryDestination.location.zoneNumber) {
+            if (trace) {  
+                 stop1Taz.setAvailability(false);
+                 logger.info("Stop 2 Taz not available: " + stop1Taz.zoneNumber +
+                 " because prim. dest. to stop to end distance (" + autoDists[1] + ") > distance threshold (" + distanceThreshold + ")");
+            }
+            return Double.NaN;
+        }
+        
+        // get the distance from home
+        float distFromHome = skims.getDistance(thisTour.begin.endTime, thisPerson.homeTaz, stop1Taz.zoneNumber);
+
+        
+        //calculate walk time for walk modes and transit modes (in case stop zone is not connected by transit)
+        if (thisTour.primaryMode.type == TourModeType.WALK || thisTour.primaryMode.type == TourModeType.WALKTRANSIT
+                || thisTour.primaryMode.type == TourModeType.TRANSITPASSENGER)
+            walkTime = skims.getAdditionalWalkTime(
+                    thisTour.begin.location.zoneNumber,
+                    thisTour.primaryDestination.location.zoneNumber,
+                    stop1Taz.zoneNumber, thisTour.begin.endTime);
+        else if (thisTour.primaryMode.type == TourModeType.BIKE)
+            bikeTime = skims.getAdditionalBikeTime(
+                    thisTour.begin.location.zoneNumber,
+                    thisTour.primaryDestination.location.zoneNumber,
+                    stop1Taz.zoneNumber, thisTour.begin.endTime);
+
+        else if (thisTour.primaryMode.type == TourModeType.WALKTRANSIT
+                || thisTour.primaryMode.type == TourModeType.TRANSITPASSENGER)
+
+            transitGeneralizedCost = skims
+                    .getAdditionalGeneralizedTransitCost(
+                            thisTour.begin.location.zoneNumber,
+                            thisTour.primaryDestination.location.zoneNumber,
+                            stop1Taz.zoneNumber, thisTour.begin.endTime);
+
+        else {
+            autoTime = skims.getAdditionalAutoTime(
+                    thisTour.begin.location.zoneNumber,
+                    thisTour.primaryDestination.location.zoneNumber,
+                    stop1Taz.zoneNumber, thisTour.begin.endTime);
+            
+            // include terminal time, (to + from), weighted at 3 * IVT
+            autoTime += 2 * walkFactor * stop1Taz.terminalTime; 
+        }
+
+        ActivityPurpose purposeForSizeTerm = getPurposeForFirstStopSizeTerm(thisTour);
+        double utility = stop1Taz.stopDestinationUtility(
+                purposeForSizeTerm,
+                iStop1PurposeParams, thisTour.primaryMode,
+                thisTour.begin.location.zoneNumber, thisTour.primaryDestination.location.zoneNumber, 
+                autoTime, walkTime,
+                bikeTime, transitGeneralizedCost, autoDists, 1, distFromHome, trace);
+
+        if (trace) {
+            // the logit model reads the utilities from the zones
+            stop1Taz.setAvailability(!Double.isNaN(utility));
+            stop1Taz.setUtility(Double.isNaN(utility) ? -999 : utility);
+            logger.info("Stop 1 " + stop1Taz.zoneNumber + " utility: "
+                    + stop1Taz.getUtility());
+        }
+        return utility;
+    }
+
+    /**
+     * Calculate the utility of a zone for the second stop, between the
+     * primary destination and the tour end.  The utility and availability
+     * are only set in the zone when tracing.
+     *
+     * @return The utility, or NaN if the zone is not available.
+     */
+    private double calculateStop2Utility(Taz stop2Taz, PTPerson thisPerson,
+            Tour thisTour, SkimsInMemory skims, boolean trace) {
+        float autoTime = 0;
+        float walkTime = 0;
+        float bikeTime = 0;
+        float transitGeneralizedCost = 0;
+
+        float[] autoDists = skims.getAdditionalAutoDistance(thisTour.primaryDestination.location.zoneNumber,
+                thisTour.end.location.zoneNumber,
+                stop2Taz.zoneNumber,thisPerson.homeTaz,
+                thisTour.primaryDestination.endTime);
+
+        // check to make sure within distance threshold of anchor location.
+        if ((autoDists[1] - autoDists[0]) > distanceThreshold &&
+               stop2Taz.zoneNumber != thisTour.end.location.zoneNumber &&
+               stop2Taz.zoneNumber != thisTour.primaryDestination.location.zoneNumber) {
+            if (trace) {
+                stop2Taz.setAvailability(false);
+                logger.info("Stop 2 Taz not available: " + stop2Taz.zoneNumber +
+                " because prim. dest. to stop to end distance (" + autoDists[1] + ") > distance threshold (" + distanceThreshold + ")");
+            }
+
+            return Double.NaN;
+        }
+        
+        // get the distance from home
+        float distFromHome = skims.getDistance(thisTour.begin.endTime, thisPerson.homeTaz, stop2Taz.zoneNumber);
+
+        
+        //calculate walk time for walk mode or for transit mode (you might be able to walk to the stop)
+        if (thisTour.primaryMode.type == TourModeType.WALK || thisTour.primaryMode.type == TourModeType.WALKTRANSIT ||
+                thisTour.primaryMode.type == TourModeType.PASSENGERTRANSIT)
+            walkTime = skims.getAdditionalWalkTime(thisTour.primaryDestination.location.zoneNumber,
+                    thisTour.end.location.zoneNumber,
+                    stop2Taz.zoneNumber,
+                    thisTour.primaryDestination.endTime
+            );
+        else if (thisTour.primaryMode.type == TourModeType.BIKE)
+            bikeTime = skims.getAdditionalBikeTime(thisTour.primaryDestination.location.zoneNumber,
+                    thisTour.end.location.zoneNumber,
+                    stop2Taz.zoneNumber,
+                    thisTour.primaryDestination.endTime
+            );
+        else if (thisTour.primaryMode.type == TourModeType.WALKTRANSIT ||
+                thisTour.primaryMode.type == TourModeType.PASSENGERTRANSIT)
+
+            transitGeneralizedCost =
+                    skims.getAdditionalGeneralizedTransitCost(thisTour.primaryDestination.location.zoneNumber,
+                            thisTour.end.location.zoneNumber,
+                            stop2Taz.zoneNumber,
+                            thisTour.primaryDestination.endTime
+                    );
+        else {
+            autoTime = skims.getAdditionalAutoTime(thisTour.primaryDestination.location.zoneNumber,
+                    thisTour.end.location.zoneNumber,
+                    stop2Taz.zoneNumber,
+                    thisTour.primaryDestination.endTime
+            );
+        
+            // include terminal time, (to + from, so 2), weighted at 3 * IVT
+            autoTime += 2 * walkFactor * stop2Taz.terminalTime;
+        }
+        //destination choice model for this taz
+        ActivityPurpose purposeForSizeTerm = getPurposeForSecondStopSizeTerm(thisTour);
+        double utility = stop2Taz.stopDestinationUtility(
+                purposeForSizeTerm, 
+                iStop2PurposeParams,
+                thisTour.primaryMode,
+                thisTour.begin.location.zoneNumber,
+                thisTour.primaryDestination.location.zoneNumber,
+                autoTime,
+                walkTime,
+                bikeTime,
+                transitGeneralizedCost,
+                autoDists,
+                2, 
+                distFromHome,
+                trace
+        );
+
+
+        if (trace) {
+            stop2Taz.setAvailability(!Double.isNaN(utility));
+            stop2Taz.setUtility(Double.isNaN(utility) ? -999 : utility);
+            logger.info("Stop 2 " + stop2Taz.zoneNumber + " utility"
+                    + stop2Taz.getUtility());
+        }
+        return utility;
+    }
+
     /** 
      * 
      * @param thisTour Tour of interest
@@ -273,24 +273,46 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
             float[] params, Mode mode, int originTaz, int destinationTaz,
             float autoTime, float walkTime, float bikeTime, float transitGeneralizedCost,
             float[] autoDists, int stopNumber, float distanceFromHome) {
-        utility = -999;
-        isAvailable = false;
+        utility = stopDestinationUtility(actPurpose, params, mode, originTaz,
+                destinationTaz, autoTime, walkTime, bikeTime,
+                transitGeneralizedCost, autoDists, stopNumber, distanceFromHome,
+                trace);
+        isAvailable = !Double.isNaN(utility);
+        if (!isAvailable) {
+            utility = -999;
+        }
+    }
+
+    /**
+     * Calculate the stop destination choice utility without setting the
+     * utility and availability of the zone, so that several threads can
+     * calculate utilities of the same zone at once.
+     *
+     * @param trace True to log the terms of the utility.
+     * @return The utility, or NaN if the zone is not available for the stop.
+     */
+    public double stopDestinationUtility(ActivityPurpose actPurpose,
+            float[] params, Mode mode, int originTaz, int destinationTaz,
+            float autoTime, float walkTime, float bikeTime, float transitGeneralizedCost,
+            float[] autoDists, int stopNumber, float distanceFromHome,
+            boolean trace) {
+        double utility;
         
         if (mode.type == TourModeType.WALK && walkTime > 120
                 && zoneNumber != originTaz)
-            return;       
+            return Double.NaN;
         
         // if you are biking and this zone is more than 2 hours away, it is unavailable 
         if (mode.type == TourModeType.BIKE && bikeTime > 120
                 && zoneNumber != originTaz)
-            return; 
+            return Double.NaN;
         
         // Changed due to calibration constraints; if you are Work/Work Based and this zone takes you more than
         // 50 miles the distance you would have traveled if you didn't stop, it is unavailable.
         if (((actPurpose!=ActivityPurpose.WORK)|| (actPurpose!=ActivityPurpose.WORK_BASED))
                 && autoDists[1] >  autoDists[0] +MAX_MILES_FROM_HOME &&
                 zoneNumber != originTaz && zoneNumber != destinationTaz)
-            return;
+            return Double.NaN;
         
         boolean transitLeg = false;
         if (mode.type == TourModeType.WALKTRANSIT)
@@ -304,7 +326,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
 
         if (transitLeg && transitGeneralizedCost == 0.0 && walkTime > 80
                 && zoneNumber != originTaz)
-            return;
+            return Double.NaN;
 
         int purpose = actPurpose.ordinal();// ActivityPurpose.getActivityPurposeValue(actPurpose);
 
@@ -318,12 +340,14 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
         
         //disallow stops in zones with no size term, unless it is an intrazonal at origin or destination end.
         if (stopSizeTerm[purpose] <= 0.0 && intraOrigin==0 && intraDestination==0)
-            return;
+            return Double.NaN;
+
+        double distanceSquared = (double) autoDists[1] * autoDists[1];
         
        if (mode.type == TourModeType.WALK) {
             utility = params[StopDestinationParameters.TIMEWALK] * walkTime
             + params[StopDestinationParameters.DISTANCEWALK] * autoDists[1]
-            + params[StopDestinationParameters.DISTANCEPOWERWALK]* Math.pow(autoDists[1], 2)
+            + params[StopDestinationParameters.DISTANCEPOWERWALK]* distanceSquared
             + params[StopDestinationParameters.ORIGINNONMOTOR]*intraOrigin
             + params[StopDestinationParameters.DESTNONMOTOR]*intraDestination
             + params[StopDestinationParameters.INTRALOGACRES]* lnAcres 
@@ -333,7 +357,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
                 logger.info("Stop zone "+zoneNumber+" walk utility " + utility + " = ");
                 logger.info("      "+params[StopDestinationParameters.TIMEWALK] * walkTime );
                 logger.info("    + " + (params[StopDestinationParameters.DISTANCEWALK] * autoDists[1]));
-                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERWALK]* Math.pow(autoDists[1], 2));
+                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERWALK]* distanceSquared);
                 logger.info("    + " + params[StopDestinationParameters.ORIGINNONMOTOR]* intraOrigin);
                 logger.info("    + " + params[StopDestinationParameters.DESTNONMOTOR]* intraDestination);
                 logger.info("    + " + params[StopDestinationParameters.INTRALOGACRES] * lnAcres );
@@ -342,7 +366,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
         } else if (mode.type == TourModeType.BIKE) {
             utility = params[StopDestinationParameters.TIMEBIKE] * bikeTime
             + params[StopDestinationParameters.DISTANCEBIKE] * autoDists[1]
-            + params[StopDestinationParameters.DISTANCEPOWERBIKE]* Math.pow(autoDists[1], 2)
+            + params[StopDestinationParameters.DISTANCEPOWERBIKE]* distanceSquared
             + params[StopDestinationParameters.ORIGINNONMOTOR]*intraOrigin
             + params[StopDestinationParameters.DESTNONMOTOR]*intraDestination
             + params[StopDestinationParameters.INTRALOGACRES]* lnAcres 
@@ -352,7 +376,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
                 logger.info("Stop zone "+zoneNumber+" bike utility " + utility + " = ");
                 logger.info("      "+params[StopDestinationParameters.TIMEBIKE] * bikeTime );
                 logger.info("    + " + (params[StopDestinationParameters.DISTANCEBIKE] * autoDists[1]));
-                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERBIKE]* Math.pow(autoDists[1], 2));
+                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERBIKE]* distanceSquared);
                 logger.info("    + " + params[StopDestinationParameters.ORIGINNONMOTOR]* intraOrigin);
                 logger.info("    + " + params[StopDestinationParameters.DESTNONMOTOR]* intraDestination);
                 logger.info("    + " + params[StopDestinationParameters.INTRALOGACRES] * lnAcres );
@@ -361,7 +385,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
         } else if (transitLeg) {
             utility = params[StopDestinationParameters.TIMETRANSIT] * transitGeneralizedCost
                 + params[StopDestinationParameters.DISTANCETRANSIT]* autoDists[1]
-                + params[StopDestinationParameters.DISTANCEPOWERTRANSIT]* Math.pow(autoDists[1], 2)
+                + params[StopDestinationParameters.DISTANCEPOWERTRANSIT]* distanceSquared
                 + params[StopDestinationParameters.ORIGINTRANSIT]*intraOrigin
                 + params[StopDestinationParameters.DESTTRANSIT]*intraDestination
                 + params[StopDestinationParameters.INTRALOGACRES] * lnAcres
@@ -370,7 +394,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
                 logger.info("Stop zone "+zoneNumber+" transit utility " + utility + " = ");
                 logger.info("      "+params[StopDestinationParameters.TIMETRANSIT] * transitGeneralizedCost );
                 logger.info("    + " + (params[StopDestinationParameters.DISTANCETRANSIT] * autoDists[1]));
-                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERTRANSIT]* Math.pow(autoDists[1], 2));
+                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERTRANSIT]* distanceSquared);
                 logger.info("    + " + params[StopDestinationParameters.ORIGINTRANSIT]* intraOrigin);
                 logger.info("    + " + params[StopDestinationParameters.DESTTRANSIT]* intraDestination);
                 logger.info("    + " + params[StopDestinationParameters.INTRALOGACRES] * lnAcres );
@@ -379,7 +403,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
         } else {
             utility = params[StopDestinationParameters.TIMEAUTO] * autoTime
             + params[StopDestinationParameters.DISTANCEAUTO] * autoDists[1]
-            + params[StopDestinationParameters.DISTANCEPOWERAUTO] * Math.pow(autoDists[1], 2)
+            + params[StopDestinationParameters.DISTANCEPOWERAUTO] * distanceSquared
             + params[StopDestinationParameters.ORIGINAUTO]*intraOrigin
             + params[StopDestinationParameters.DESTAUTO]*intraDestination
             + params[StopDestinationParameters.INTRALOGACRES] * lnAcres
@@ -388,7 +412,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
                 logger.info("Stop zone "+zoneNumber+" transit utility " + utility + " = ");
                 logger.info("      "+params[StopDestinationParameters.TIMEAUTO] * autoTime );
                 logger.info("    + " + (params[StopDestinationParameters.DISTANCEAUTO] * autoDists[1]));
-                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERAUTO]* Math.pow(autoDists[1], 2));
+                logger.info("    + " + params[StopDestinationParameters.DISTANCEPOWERAUTO]* distanceSquared);
                 logger.info("    + " + params[StopDestinationParameters.ORIGINAUTO]* intraOrigin);
                 logger.info("    + " + params[StopDestinationParameters.DESTAUTO]* intraDestination);
                 logger.info("    + " + params[StopDestinationParameters.INTRALOGACRES] * lnAcres );
@@ -404,7 +428,7 @@ public abstract class Taz implements Alternative, Comparable, Serializable {
             }
         }
        
-        isAvailable = true;
+        return utility;
       }
 
     public void setTrace(boolean trace) {
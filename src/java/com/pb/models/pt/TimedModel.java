@@ -17,28 +17,48 @@
  */
 package com.pb.models.pt;
 
+/**
+ * A model that times its calls.  Calls may nest; only the outermost call is
+ * timed, with System.nanoTime, and its duration is added to a histogram.
+ */
 public abstract class TimedModel {
 
-    private long elapsedTime = 0;
+    private long elapsedNanos = 0;
 
     private long startTime = 0;
     
     private int nestingLevel = 0;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
     
     /**
      * Return the elapsed time in milliseconds.
      * @return long elapsed time
      */
     public long getElapsedTime() {
-        return elapsedTime;
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * @return number of timed calls
+     */
+    public long getCallCount() {
+        return histogram.getCount();
+    }
+
+    /**
+     * @return durations of the timed calls
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
     }
     
     /**
      * Start timing.
      */
     protected void startTiming() {
-        if (startTime == 0) {
-            startTime = System.currentTimeMillis();
+        if (nestingLevel == 0) {
+            startTime = System.nanoTime();
         }
         
         nestingLevel += 1;
@@ -52,8 +72,9 @@ public abstract class TimedModel {
         nestingLevel -= 1;
         
         if (nestingLevel == 0) {
-            elapsedTime += System.currentTimeMillis() - startTime;
-            startTime = 0;
+            long nanos = System.nanoTime() - startTime;
+            elapsedNanos += nanos;
+            histogram.record(nanos);
         }
     }
 }
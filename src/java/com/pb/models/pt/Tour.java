@@ -22,8 +22,11 @@ import static com.pb.models.pt.ActivityPurpose.WORK;
 import static com.pb.models.pt.ActivityPurpose.WORK_BASED;
 import org.apache.log4j.Logger;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.PrintWriter;
-import java.io.Serializable;
 
 /**
  * A class containing tour attributes
@@ -32,7 +35,7 @@ import java.io.Serializable;
  * @version 1.0 12/01/2003
  * 
  */
-public class Tour implements Serializable {
+public class Tour implements Externalizable {
 
     private final static long serialVersionUID = 0;
 
@@ -225,6 +228,27 @@ public class Tour implements Serializable {
         }
     }// end Tour creation.
 
+    /**
+     * Copy a tour template, such as one held by a PatternRegistry, instead of
+     * parsing its tour string again.
+     * 
+     * @param template Tour created from a tour string.
+     * @param begin The end activity of the previous tour, or null to copy the
+     *            begin activity of the template.
+     */
+    public Tour(Tour template, Activity begin) {
+        tourString = template.tourString;
+        this.begin = begin == null ? new Activity(template.begin) : begin;
+        end = new Activity(template.end);
+        primaryDestination = new Activity(template.primaryDestination);
+        if (template.intermediateStop1 != null) {
+            intermediateStop1 = new Activity(template.intermediateStop1);
+        }
+        if (template.intermediateStop2 != null) {
+            intermediateStop2 = new Activity(template.intermediateStop2);
+        }
+    }
+
     // This method prints the Tour attributes to the logger.
     // Need to change this method to use times within activity rather than
     // obsolete Tour variables
@@ -613,4 +637,44 @@ public class Tour implements Serializable {
             ++trips;
         return trips;
     }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeObject(begin);
+        out.writeObject(primaryDestination);
+        out.writeObject(intermediateStop1);
+        out.writeObject(intermediateStop2);
+        out.writeObject(end);
+        out.writeObject(tourString);
+        out.writeObject(completedTourString);
+        out.writeObject(primaryMode);
+        out.writeFloat(departDist);
+        out.writeFloat(returnDist);
+        out.writeBoolean(hasPrimaryMode);
+        out.writeInt(tourNumber);
+        out.writeBoolean(driveToWork);
+        out.writeInt(tourDuration);
+        out.writeInt(priority);
+        out.writeInt(order);
+        out.writeInt(parentTourNumber);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        begin = (Activity) in.readObject();
+        primaryDestination = (Activity) in.readObject();
+        intermediateStop1 = (Activity) in.readObject();
+        intermediateStop2 = (Activity) in.readObject();
+        end = (Activity) in.readObject();
+        tourString = (String) in.readObject();
+        completedTourString = (String) in.readObject();
+        primaryMode = (Mode) in.readObject();
+        departDist = in.readFloat();
+        returnDist = in.readFloat();
+        hasPrimaryMode = in.readBoolean();
+        tourNumber = in.readInt();
+        driveToWork = in.readBoolean();
+        tourDuration = in.readInt();
+        priority = in.readInt();
+        order = in.readInt();
+        parentTourNumber = in.readInt();
+    }
 } /* end class Tour */
@@ -52,6 +52,10 @@ public class TourDestinationChoiceModel extends TimedModel {
 
     TazManager tazManager;
 
+    TourDestinationZones zones;
+
+    TourDestinationZones.OriginRow originRow;
+
     Taz chosenTaz;
 
     Mode chosenMode;
@@ -80,7 +84,36 @@ public class TourDestinationChoiceModel extends TimedModel {
     protected static float [][][] districtConstants;
     
     protected static int totalDCDistricts;
-    
+
+    // [purpose] draws of the sampled destination choice, 0 to use every zone
+    private int[] sampleSizes;
+
+    private int sampleNeighbors;
+
+    private double sampleDecay;
+
+    // share of the draws from all zones rather than the nearest ones
+    private double sampleResidual;
+
+    // built on the first sampled choice, or by buildSampler
+    private DestinationSampler sampler;
+
+    private DestinationSample sample;
+
+    // [purpose][zone index] tour size terms
+    private double[][] tourSizes;
+
+    private double[] sampleCumulative;
+
+    private double sampleSum;
+
+    // true if the last calculateUtility drew a sample
+    private boolean sampled;
+
+    // exponentiated utilities of the zones from the last calculateUtility
+    // without a sample
+    private ChoiceDistribution distribution;
+
 //    private String debugPath;
 
     /** 
@@ -108,6 +141,29 @@ public class TourDestinationChoiceModel extends TimedModel {
                 "ldt.threshold.distance.in.miles"));
         logger.info("Long distance threshold set at " + distanceThreshold);
 
+        // the sample size of a purpose defaults to that of all purposes
+        int defaultSampleSize = ResourceUtil.getIntegerProperty(rb,
+                "sdt.tour.destination.sample.size", 0);
+        sampleNeighbors = ResourceUtil.getIntegerProperty(rb,
+                "sdt.tour.destination.sample.neighbors", 1000);
+        sampleDecay = ResourceUtil.getDoubleProperty(rb,
+                "sdt.tour.destination.sample.distance.decay", 0.05);
+        sampleResidual = ResourceUtil.getDoubleProperty(rb,
+                "sdt.tour.destination.sample.residual", 0.1);
+        sampleSizes = new int[ActivityPurpose.values().length];
+        for (ActivityPurpose purpose : ActivityPurpose.values()) {
+            int size = ResourceUtil.getIntegerProperty(rb,
+                    "sdt.tour.destination.sample.size." + purpose,
+                    defaultSampleSize);
+            sampleSizes[purpose.ordinal()] = size;
+            if (size > 0) {
+                logger.info("Sampling " + size + " " + purpose
+                        + " tour destinations, " + sampleResidual
+                        + " of them from all zones and the rest from the "
+                        + sampleNeighbors + " zones nearest the tour origin");
+            }
+        }
+
         totalDCDistricts = Integer.parseInt(rb.getString("total.destination.choice.districts"));
 		String calibConstantFile = rb.getString("calibration.constants.parameters");
 		ActivityPurpose[] purposes = ActivityPurpose.values();
@@ -165,10 +221,40 @@ public class TourDestinationChoiceModel extends TimedModel {
             destinationTaz.setTourSizeTerms(parameters,trace);
             destinationModel.addAlternative(destinationTaz);
         }
+        zones = new TourDestinationZones(tazs);
+        zones.setParameters(parameters);
+        originRow = zones.createOriginRow();
+        distribution = new ChoiceDistribution(zones.size);
         endTiming();
         
     }
 
+    /**
+     * Share the zones, size terms and destination sampler of a model built
+     * from the same resource bundle, so that each household thread of a
+     * worker can have its own model over one TazManager.  The logit model
+     * over the zones, which only traced choices use, is shared too.
+     *
+     * @param built A built model.
+     */
+    public void buildModel(TourDestinationChoiceModel built) {
+        startTiming();
+        tazManager = built.tazManager;
+        destinationModel = built.destinationModel;
+        zones = built.zones;
+        parameters = built.parameters;
+        originRow = zones.createOriginRow();
+        distribution = new ChoiceDistribution(zones.size);
+
+        if (built.sampler != null) {
+            sampler = built.sampler;
+            tourSizes = built.tourSizes;
+            sample = sampler.createSample();
+            sampleCumulative = new double[sampler.size()];
+        }
+        endTiming();
+    }
+
     /**
      * Calculate utilites for all TAZs and return logsum for origin TAZ.
      * 
@@ -184,6 +270,7 @@ public class TourDestinationChoiceModel extends TimedModel {
             PTPerson person, Tour tour, Matrix logsumMatrix,
             Matrix distanceMatrix, Matrix timeMatrix) {
         startTiming();
+        sampled = false;
         ActivityPurpose purpose = tour.getPurpose();
 
 
@@ -205,13 +292,14 @@ public class TourDestinationChoiceModel extends TimedModel {
             return (double) -999;
         }
 
-        float[] params;
+        int parameterRow;
         
         if (tour.begin.activityPurpose == ActivityPurpose.WORK ) {
-            params = parameters[ActivityPurpose.WORK_BASED.ordinal()];
+            parameterRow = ActivityPurpose.WORK_BASED.ordinal();
         } else {
-            params = parameters[purpose.ordinal()];
+            parameterRow = purpose.ordinal();
         }
+        float[] params = parameters[parameterRow];
 
         // calculate available time window (in minutes)
         int availableTime = 0;
@@ -228,20 +316,24 @@ public class TourDestinationChoiceModel extends TimedModel {
                     + ", Origin "+ tour.begin.location.zoneNumber);
         }
         
+        // the distance terms are kept while the origin stays the same
+        zones.fillOriginRow(originRow, params, distanceMatrix, originTazNumber);
+        double personDistanceCoefficient = TourDestinationZones
+                .personDistanceCoefficient(params, personAttributes);
+
         int tazsWithinDistanceThreshold = 0;
         int tazsWithinTimeAvailable = 0;
+        distribution.clear();
         // cycle through zones and compute total exponentiated utility
-        Enumeration tazEnum = tazManager.elements();
-        for (int i = 0; i < tazManager.size(); i++) { 
-            Taz destinationTaz = (Taz) tazEnum.nextElement();
+        for (int i = 0; i < zones.size; i++) { 
+            Taz destinationTaz = zones.taz[i];
             int destinationDistrict = (int) destinationTaz.dcDistrict;
             float calibConstant = districtConstants[originDistrict][destinationDistrict][purpose.ordinal()];
             
             float mcLogsum = logsumMatrix.getValueAt(originTazNumber,
                     destinationTaz.zoneNumber);
 
-            float distance = distanceMatrix.getValueAt(originTazNumber,
-                    destinationTaz.zoneNumber);
+            float distance = originRow.distance[i];
 
             float time = timeMatrix.getValueAt(originTazNumber,
                     destinationTaz.zoneNumber);
@@ -260,23 +352,33 @@ public class TourDestinationChoiceModel extends TimedModel {
                 ++tazsWithinDistanceThreshold;
             }
 
-            // check if the destination is available
-            if (available) {
-                destinationTaz.setAvailability(true);
-            } else
-                destinationTaz.setAvailability(false);
-
-
-
-            if (destinationTaz.isAvailable()) {
-                destinationTaz.calcTourDestinationUtility(purpose, params,
-                        mcLogsum, distance, personAttributes, trace, origin, calibConstant);
-            }            
+            double utility = -999;
+            if (trace) {
+                // the Taz writes out each term, and the logit model reads
+                // the utilities from the Taz objects
+                destinationTaz.setAvailability(available);
+                if (available) {
+                    destinationTaz.calcTourDestinationUtility(purpose, params,
+                            mcLogsum, distance, personAttributes, trace, origin, calibConstant);
+                }
+                available = destinationTaz.isAvailable();
+                utility = destinationTaz.getUtility();
+            } else if (available) {
+                utility = zones.calcTourDestinationUtility(i, purpose,
+                        parameterRow, params, mcLogsum, distance,
+                        originRow.distanceUtility[i], personDistanceCoefficient,
+                        originTazNumber, origin.northOfColumbiaRiver, calibConstant);
+                if (Double.isNaN(utility)) {
+                    utility = -999;
+                    available = false;
+                }
+            }
+            distribution.addUtility(available, utility);
             
             if(trace){
-                logger.info("Taz " + destinationTaz.getZoneNumber() + " is available? " + destinationTaz.isAvailable());
+                logger.info("Taz " + destinationTaz.getZoneNumber() + " is available? " + available);
                 logger.info("Distance: " + distance + " MC Logsum: " + mcLogsum);
-                logger.info("Taz " + destinationTaz.getZoneNumber() + " utility " + destinationTaz.getUtility());
+                logger.info("Taz " + destinationTaz.getZoneNumber() + " utility " + utility);
                 logger.info("Number of tazs within distance threshold: " + tazsWithinDistanceThreshold);
             }
         
@@ -294,22 +396,209 @@ public class TourDestinationChoiceModel extends TimedModel {
             throw new RuntimeException();
         }
 
-        destinationModel.setDebug(trace);
-        
-        if(trace)
+        if (trace) {
+            destinationModel.setDebug(trace);
             destinationModel.writeUtilityHeader();
+        }
 
-        double utility = destinationModel.getUtility(); 
+        // the logit model writes the trace of the logsum
+        double utility = trace ? destinationModel.getUtility()
+                : distribution.getLogsum();
         
 //        if(purpose == ActivityPurpose.GRADESCHOOL){
 //        	logger.info("ORIGIN " + originTazNumber + ", UTILITY " + utility);
 //        }
 
         endTiming();
-       
+
         return utility;
     }
 
+    /**
+     * Calculate utilities for a sample of the TAZs if a sample size is set
+     * for the tour purpose, and otherwise for all TAZs.
+     *
+     * The sample is drawn in proportion to the tour size terms.  Most draws
+     * fall with distance from the origin among its nearest TAZs; the residual
+     * share is drawn from all TAZs, so every TAZ with a size can be chosen.
+     * The origin is always in the sample.  The sampling correction is added to
+     * the utility of each sampled TAZ, so that the sampled logsum and the
+     * chooseZone() method approximate those of the full model.  Without a
+     * residual share only the nearest TAZs can be chosen.
+     *
+     * @param household  Decision-makers household.
+     * @param person     Decision-maker.
+     * @param tour       Decision-makers tour.
+     * @param logsumMatrix   Mode choice logsums for this person.
+     * @param distanceMatrix Highway distance matrix.
+     * @param timeMatrix     Highway time matrix.
+     * @param random     Random number generator for the sample.
+     * @return The destination choice logsum from tour origin TAZ, estimated
+     *         from the sample.
+     */
+    public double calculateUtility(PTHousehold household, PTPerson person,
+            Tour tour, Matrix logsumMatrix, Matrix distanceMatrix,
+            Matrix timeMatrix, Random random) {
+        ActivityPurpose purpose = tour.getPurpose();
+        int sampleSize = sampleSizes[purpose.ordinal()];
+
+        if (sampleSize <= 0 || purpose == ActivityPurpose.WORK
+                || tour.primaryDestination.activityPurpose == ActivityPurpose.WORK_BASED) {
+            return calculateUtility(household, person, tour, logsumMatrix,
+                    distanceMatrix, timeMatrix);
+        }
+
+        startTiming();
+        sampled = true;
+        if (sampler == null) {
+            buildSampler(distanceMatrix);
+        }
+
+        int originTazNumber = tour.begin.location.zoneNumber;
+        Taz origin = tazManager.getTaz(originTazNumber);
+        int originDistrict = (int) origin.dcDistrict;
+
+        trace = tracer.isTracePerson(person.hhID + "_" + person.memberID);
+
+        currentHousehold = household;
+        currentPerson = person;
+        currentTour = tour;
+
+        personAttributes.setAttributes(household, person, tour);
+
+        int parameterRow;
+
+        if (tour.begin.activityPurpose == ActivityPurpose.WORK ) {
+            parameterRow = ActivityPurpose.WORK_BASED.ordinal();
+        } else {
+            parameterRow = purpose.ordinal();
+        }
+        float[] params = parameters[parameterRow];
+        double personDistanceCoefficient = TourDestinationZones
+                .personDistanceCoefficient(params, personAttributes);
+
+        // calculate available time window (in minutes)
+        int availableTime = 0;
+
+        if (constrainByTimeAvailable)
+            availableTime = currentTour.calculateDurationHourly();
+
+        if (trace) {
+            logger.info("Calculating Destination Zone from a sample for the "
+                    + "following tour...");
+            logger.info("Distance threshold set to " + distanceThreshold);
+            logger.info("HHID " + household.ID + ", Person " + person.memberID
+                    + ", Tour " + tour.tourNumber + ", ActivityPurpose " + purpose
+                    + ", Origin "+ originTazNumber);
+        }
+
+        sampler.sample(originTazNumber, originTazNumber,
+                tourSizes[purpose.ordinal()], sampleSize, random, sample);
+
+        // the origin is always in the sample and always available
+        double sum = 0;
+        for (int k = 0; k < sample.size(); k++) {
+            // the sampler holds the zones in the same order as the zone table
+            int i = sample.getZone(k);
+            Taz destinationTaz = zones.taz[i];
+            int destinationDistrict = (int) destinationTaz.dcDistrict;
+            float calibConstant = districtConstants[originDistrict][destinationDistrict][purpose.ordinal()];
+
+            float mcLogsum = logsumMatrix.getValueAt(originTazNumber,
+                    destinationTaz.zoneNumber);
+
+            float distance = distanceMatrix.getValueAt(originTazNumber,
+                    destinationTaz.zoneNumber);
+
+            float time = timeMatrix.getValueAt(originTazNumber,
+                    destinationTaz.zoneNumber);
+
+            boolean available = destinationTaz.zoneNumber == originTazNumber
+                    || (distance <= distanceThreshold && !(constrainByTimeAvailable
+                            && time * 2 > availableTime));
+
+            double utility = -999;
+            if (trace) {
+                // the Taz writes out each term
+                destinationTaz.setAvailability(available);
+                if (available) {
+                    destinationTaz.calcTourDestinationUtility(purpose, params,
+                            mcLogsum, distance, personAttributes, trace, origin, calibConstant);
+                }
+                available = destinationTaz.isAvailable();
+                utility = destinationTaz.getUtility();
+            } else if (available) {
+                utility = zones.calcTourDestinationUtility(i, purpose,
+                        parameterRow, params, mcLogsum, distance,
+                        TourDestinationZones.distanceUtility(params, distance),
+                        personDistanceCoefficient, originTazNumber,
+                        origin.northOfColumbiaRiver, calibConstant);
+            }
+            if (available && !Double.isNaN(utility)) {
+                sum += Math.exp(utility + sample.getCorrection(k));
+            }
+            sampleCumulative[k] = sum;
+
+            if(trace){
+                logger.info("Taz " + destinationTaz.getZoneNumber() + " is available? " + available);
+                logger.info("Distance: " + distance + " MC Logsum: " + mcLogsum);
+                logger.info("Taz " + destinationTaz.getZoneNumber() + " utility " + utility
+                        + " correction " + sample.getCorrection(k));
+            }
+        }
+        sampleSum = sum;
+
+        double logsum = sum > 0 ? Math.log(sum) : -999;
+        if (trace) {
+            logger.info("Sampled destination choice logsum " + logsum);
+        }
+
+        endTiming();
+        return logsum;
+    }
+
+    /**
+     * Find the nearest zones of every zone and copy the tour size terms,
+     * which are set when the model is built.  Does nothing unless a purpose
+     * is sampled.  The sampler is otherwise built on the first sampled
+     * choice, so build it before sharing the model.
+     *
+     * @param distanceMatrix Distances between the zones.
+     */
+    public void buildSampler(Matrix distanceMatrix) {
+        if (sampler != null) {
+            return;
+        }
+        boolean sampling = false;
+        for (int size : sampleSizes) {
+            sampling |= size > 0;
+        }
+        if (!sampling) {
+            return;
+        }
+
+        sampler = new DestinationSampler(tazManager, distanceMatrix,
+                sampleNeighbors, sampleDecay, sampleResidual);
+        for (int i = 0; i < sampler.size(); ++i) {
+            if (sampler.getTaz(i) != zones.taz[i]) {
+                throw new RuntimeException("Destination sampler zones are not in the order of the zone table");
+            }
+        }
+        sample = sampler.createSample();
+        sampleCumulative = new double[sampler.size()];
+
+        int purposes = ActivityPurpose.values().length;
+        tourSizes = new double[purposes][sampler.size()];
+        for (int i = 0; i < sampler.size(); ++i) {
+            Taz taz = sampler.getTaz(i);
+            for (int p = 0; p < purposes; ++p) {
+                if (taz.acres > 0) {
+                    tourSizes[p][i] = Math.max(0, taz.tourSizeTerm[p]);
+                }
+            }
+        }
+    }
+
     /**
      * Choose a TAZ according to the probabilities in the
      * model.  The calculateUtility() method
@@ -318,19 +607,29 @@ public class TourDestinationChoiceModel extends TimedModel {
      * @return  The chosen TAZ.
      */
     public Taz chooseZone(Random random) {
+        if (sampled) {
+            return chooseSampledZone(random);
+        }
         startTiming();
-        destinationModel.setDebug(trace);
-        if(trace)
+        if (trace) {
+            destinationModel.setDebug(trace);
             destinationModel.writeProbabilityHeader();
+        }
 
-        try {
-            destinationModel.calculateProbabilities();
-        } catch (Exception e) {
-            logger.error("No alternatives were available: setting destination zone to home zone");
-            chosenTaz = tazManager.tazData.get((int)currentPerson.homeTaz); 
+        if (trace) {
+            try {
+                destinationModel.calculateProbabilities();
+            } catch (Exception e) {
+                logger.error("No alternatives were available: setting destination zone to home zone");
+                chosenTaz = tazManager.tazData.get((int)currentPerson.homeTaz); 
+            }
         }
         try {
-            chosenTaz = (Taz) destinationModel.chooseElementalAlternative(random);
+            if (trace) {
+                chosenTaz = (Taz) destinationModel.chooseElementalAlternative(random);
+            } else {
+                chosenTaz = zones.taz[distribution.choose(random)];
+            }
         } catch (Exception e) {
             if (currentPerson == null) {
                 logger.error("person is null");
@@ -363,6 +662,32 @@ public class TourDestinationChoiceModel extends TimedModel {
         return chosenTaz;
     }
 
+    /**
+     * Choose a TAZ from the sample of the last calculateUtility().
+     */
+    private Taz chooseSampledZone(Random random) {
+        if (sampleSum <= 0) {
+            logger.debug("Unable to choose destination for person with HH_ID: " + currentHousehold.ID +
+                    ", and PER_ID: " + currentPerson.memberID +
+                    ", and purpose: " + currentTour.getPurpose());
+            throw new ModelException("No sampled destination alternatives were available");
+        }
+        startTiming();
+
+        // binary search of the cumulative exponentiated utilities
+        int k = ChoiceDistribution.search(sampleCumulative, sample.size(),
+                random.nextDouble() * sampleSum);
+        chosenTaz = zones.taz[sample.getZone(k)];
+
+        // set the primaryDestination zone number.
+        currentTour.primaryDestination.location.zoneNumber = chosenTaz.zoneNumber;
+        if(trace) logger.info("Chose sampled TAZ "+chosenTaz.zoneNumber+" for trace "
+            + currentTour.primaryDestination.activityPurpose+" tour ");
+
+        endTiming();
+        return chosenTaz;
+    }
+
     public boolean isCalculateUtilities() {
         return calculateUtilities;
     }
@@ -0,0 +1,307 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt;
+
+import static com.pb.models.pt.TourDestinationParameters.*;
+
+import java.util.Enumeration;
+
+import com.pb.common.matrix.Matrix;
+
+/**
+ * The zone attributes used by tour destination choice, copied out of the
+ * Taz objects into one array per attribute.
+ *
+ * The arrays are filled once, after the tour size terms are set, and never
+ * change afterwards, so any number of threads can read them at the same time.
+ * Zones are held in the order of <code>TazManager.elements()</code>.
+ *
+ * Once the parameters are set, the terms of the utility that depend only on
+ * the parameter row and the zone are held per row and zone, and the terms
+ * that depend only on the distance from the origin are held per destination
+ * in an OriginRow.  The utility of a zone then only adds the person terms to
+ * them.
+ */
+public class TourDestinationZones {
+
+    final int size;
+
+    final Taz[] taz;
+
+    final int[] zoneNumber;
+
+    final int[] dcDistrict;
+
+    final float[] acres;
+
+    final int[] areaType;
+
+    final int[] northOfColumbiaRiver;
+
+    // [purpose][zone]
+    final double[][] tourLnSizeTerm;
+
+    // [purpose][zone]; size term and acres are both positive
+    final boolean[][] hasSize;
+
+    // [parameter row][zone], the intrazonal terms
+    double[][] intrazonalUtility;
+
+    // [parameter row][zone], the area type coefficient on distance
+    double[][] areaDistanceCoefficient;
+
+    /**
+     * Distances from one origin and the distance terms of the utility, by
+     * destination zone index, for one parameter row.  A row belongs to one
+     * caller at a time and is filled again when the origin, the parameters or
+     * the distance matrix change.
+     */
+    public static final class OriginRow {
+        int origin = -1;
+
+        float[] tdp;
+
+        Matrix distanceMatrix;
+
+        final float[] distance;
+
+        final double[] distanceUtility;
+
+        OriginRow(int zones) {
+            distance = new float[zones];
+            distanceUtility = new double[zones];
+        }
+
+        /**
+         * @param i Destination zone index.
+         * @return The distance from the origin.
+         */
+        public float getDistance(int i) {
+            return distance[i];
+        }
+
+        /**
+         * @param i Destination zone index.
+         * @return The distanceUtility of the distance from the origin.
+         */
+        public double getDistanceUtility(int i) {
+            return distanceUtility[i];
+        }
+    }
+
+    /**
+     * Copy the attributes of every zone in the TazManager.
+     *
+     * @param tazs The zones, with tour size terms set.
+     */
+    public TourDestinationZones(TazManager tazs) {
+        size = tazs.size();
+        int purposes = ActivityPurpose.values().length;
+
+        taz = new Taz[size];
+        zoneNumber = new int[size];
+        dcDistrict = new int[size];
+        acres = new float[size];
+        areaType = new int[size];
+        northOfColumbiaRiver = new int[size];
+        tourLnSizeTerm = new double[purposes][size];
+        hasSize = new boolean[purposes][size];
+
+        Enumeration<Taz> tazEnum = tazs.elements();
+        for (int i = 0; i < size; ++i) {
+            Taz t = tazEnum.nextElement();
+            taz[i] = t;
+            zoneNumber[i] = t.zoneNumber;
+            dcDistrict[i] = t.dcDistrict;
+            acres[i] = t.acres;
+            areaType[i] = t.areatype == null ? AreaType.NONE.ordinal() : t.areatype.ordinal();
+            northOfColumbiaRiver[i] = t.northOfColumbiaRiver;
+            for (int p = 0; p < purposes; ++p) {
+                tourLnSizeTerm[p][i] = t.tourLnSizeTerm[p];
+                hasSize[p][i] = t.tourSizeTerm[p] > 0 && t.acres > 0;
+            }
+        }
+    }
+
+    /**
+     * Compute the terms of the utility that depend only on the parameters and
+     * the zone.
+     *
+     * @param parameters Tour destination parameters, one row per purpose.
+     */
+    public void setParameters(float[][] parameters) {
+        intrazonalUtility = new double[parameters.length][size];
+        areaDistanceCoefficient = new double[parameters.length][size];
+
+        for (int row = 0; row < parameters.length; ++row) {
+            float[] tdp = parameters[row];
+            for (int i = 0; i < size; ++i) {
+                int rural = areaType[i] == AreaType.RURAL.ordinal() ? 1 : 0;
+                int suburban = areaType[i] == AreaType.SUBURBAN.ordinal() ? 1 : 0;
+                int urban = areaType[i] == AreaType.URBAN.ordinal() ? 1 : 0;
+                int cbd = areaType[i] == AreaType.CBD.ordinal() ? 1 : 0;
+
+                double intrazonal = tdp[INTRAZONAL];
+                // check length in case parameter file doesn't include this
+                if (tdp.length > INTRAZONALACRES) {
+                    intrazonal += tdp[INTRAZONALACRES] * acres[i];
+                }
+                if (tdp.length > INTRAZONALRURAL) {
+                    intrazonal += tdp[INTRAZONALRURAL] * rural
+                            + tdp[INTRAZONALSUBURBAN] * suburban
+                            + tdp[INTRAZONALURBAN] * urban
+                            + tdp[INTRAZONALCBD] * cbd;
+                }
+                intrazonalUtility[row][i] = intrazonal;
+
+                if (tdp.length > DISTANCERURAL) {
+                    areaDistanceCoefficient[row][i] = tdp[DISTANCERURAL] * rural
+                            + tdp[DISTANCESUBURBAN] * suburban
+                            + tdp[DISTANCEURBAN] * urban
+                            + tdp[DISTANCECBD] * cbd;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A row for the fillOriginRow method.
+     */
+    public OriginRow createOriginRow() {
+        return new OriginRow(size);
+    }
+
+    /**
+     * Fill a row with the distances from an origin and their utility terms,
+     * unless it already holds them.
+     *
+     * @param row The caller's row.
+     * @param tdp The parameter array.
+     * @param distanceMatrix Distances between the zones.
+     * @param originTaz The origin zone number.
+     */
+    public void fillOriginRow(OriginRow row, float[] tdp,
+            Matrix distanceMatrix, int originTaz) {
+        if (row.origin == originTaz && row.tdp == tdp
+                && row.distanceMatrix == distanceMatrix) {
+            return;
+        }
+        for (int i = 0; i < size; ++i) {
+            float distance = distanceMatrix.getValueAt(originTaz, zoneNumber[i]);
+            row.distance[i] = distance;
+            row.distanceUtility[i] = distanceUtility(tdp, distance);
+        }
+        row.origin = originTaz;
+        row.tdp = tdp;
+        row.distanceMatrix = distanceMatrix;
+    }
+
+    /**
+     * @param tdp The parameter array.
+     * @param distance Distance from anchor to primary destination.
+     * @return The terms of the utility in the capped distance.
+     */
+    public static double distanceUtility(float[] tdp, double distance) {
+        double capped = Math.min(distance, tdp[MAXDIST]);
+        return tdp[DISTANCE] * capped
+                + tdp[DISTANCE2] * capped * capped
+                + tdp[DISTANCE3] * capped * capped * capped
+                + tdp[LOGDISTANCE] * Math.log(capped + 1);
+    }
+
+    /**
+     * @param tdp The parameter array.
+     * @param attributes TourDestinationPersonAttributes
+     * @return The person's coefficient on distance.
+     */
+    public static double personDistanceCoefficient(float[] tdp,
+            TourDestinationPersonAttributes attributes) {
+        return (double) tdp[DISTANCE2TOURS] * attributes.twoTours
+                + tdp[DISTANCE3PTOURS] * attributes.threePlusTours
+                + tdp[DISTANCE1STOP] * attributes.oneStop
+                + tdp[DISTANCE2STOPS] * attributes.twoStops
+                + tdp[DISTPSHOME] * attributes.preSchoolAtHome;
+    }
+
+    /**
+     * Calculate the tour destination utility of one zone from the
+     * precomputed terms.  This is the calculation in
+     * <code>Taz.calcTourDestinationUtility</code>; the parameters must be set.
+     *
+     * @param i Destination zone index.
+     * @param purpose The purpose, for the size term.
+     * @param parameterRow The row of the parameter array.
+     * @param tdp The parameter array.
+     * @param logsum The mode choice logsum.
+     * @param distance Distance from anchor to primary destination.
+     * @param distanceUtility The distanceUtility of the distance.
+     * @param personDistanceCoefficient The personDistanceCoefficient.
+     * @param originTaz The origin zone number.
+     * @param originNorthOfColumbiaRiver Flag of the origin zone.
+     * @param calibConstant District to district calibration constant.
+     * @return The utility, or NaN if the zone has no size for the purpose.
+     */
+    public double calcTourDestinationUtility(int i, ActivityPurpose purpose,
+            int parameterRow, float[] tdp, double logsum, double distance,
+            double distanceUtility, double personDistanceCoefficient,
+            int originTaz, int originNorthOfColumbiaRiver, float calibConstant) {
+
+        if (!hasSize[purpose.ordinal()][i]) {
+            return Double.NaN;
+        }
+
+        double utility = calibConstant + tdp[LOGSUM] * logsum
+                + distanceUtility
+                + (personDistanceCoefficient
+                        + areaDistanceCoefficient[parameterRow][i]) * distance
+                + tourLnSizeTerm[purpose.ordinal()][i];
+
+        if (zoneNumber[i] == originTaz) {
+            utility += intrazonalUtility[parameterRow][i];
+        }
+
+        // constant associated with crossing columbia river
+        if (originNorthOfColumbiaRiver != northOfColumbiaRiver[i]) {
+            utility += tdp[COLUMBIARIVERCROSSING];
+        }
+
+        return utility;
+    }
+
+    /**
+     * @return The number of zones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i Zone index.
+     * @return The Taz object at the index.
+     */
+    public Taz getTaz(int i) {
+        return taz[i];
+    }
+
+    /**
+     * @param i Zone index.
+     * @return The zone number at the index.
+     */
+    public int getZoneNumber(int i) {
+        return zoneNumber[i];
+    }
+}
@@ -25,7 +25,10 @@ import com.pb.models.utils.Tracer;
 import org.apache.log4j.Logger;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 /**
@@ -75,7 +78,33 @@ public class TourModeChoiceLogsumManager {
     float nonWorkParkingCostFactor;
  
     protected ResourceBundle rb;
-    
+
+    // origin rows handed to one fork-join task
+    private static final int ROWS_PER_TASK = 8;
+
+    // model and scratch objects for each pool thread, kept across matrices
+    private final ThreadLocal<LogsumScratch> scratch = new ThreadLocal<LogsumScratch>() {
+        protected LogsumScratch initialValue() {
+            return new LogsumScratch(new TourModeChoiceModel(rb));
+        }
+    };
+
+    /**
+     * The model and the objects it fills for one thread.
+     */
+    private static class LogsumScratch {
+        final TourModeChoiceModel mcModel;
+        final ZoneAttributes zone = new ZoneAttributes();
+        final TourModePersonAttributes attributes = new TourModePersonAttributes();
+        final TravelTimeAndCost departCost = new TravelTimeAndCost();
+        final TravelTimeAndCost returnCost = new TravelTimeAndCost();
+        double[] row;
+
+        LogsumScratch(TourModeChoiceModel mcModel) {
+            this.mcModel = mcModel;
+        }
+    }
+
     public TourModeChoiceLogsumManager(ResourceBundle globalRb,
             ResourceBundle ptRb) {
         
@@ -114,49 +143,11 @@ public class TourModeChoiceLogsumManager {
         
     	m.setName(mName);
         
-        TourModeChoiceModel mcModel = new TourModeChoiceModel(rb);
-
-        for (Taz originTaz : taz.values()) {
-            int itaz = originTaz.zoneNumber;
-
-            for (Taz destinationTaz : taz.values()) {
-                int jtaz = destinationTaz.zoneNumber;
-                boolean trace = tracer.isTraceZonePair(itaz, jtaz);
-                
-                mcModel.setTrace(trace);
-
-                // set taz attributes (only parking cost at this point)
-                if (thisPurpose == ActivityPurpose.WORK
-                        || thisPurpose == ActivityPurpose.WORK_BASED) {
-                    thisZone.parkingCost = destinationTaz.workParkingCost;
-                } else {
-                    thisZone.parkingCost = destinationTaz.nonWorkParkingCost * nonWorkParkingCostFactor;
-                }
-                thisZone.terminalTime = destinationTaz.terminalTime;
-
-                TourModePersonAttributes attributes = setPersonTourModeAttributes(originTaz, destinationTaz,
-                        thisPurpose, segment);
-                departCost = setDepartCost(thisPurpose, skims, originTaz,
-                        destinationTaz);
-
-                returnCost = setReturnCost(thisPurpose, skims, originTaz,
-                        destinationTaz);
-                
-                if (trace) {
-                    departCost.printToScreen();
-                    returnCost.printToScreen();
-                }
-                
-                double logsum = mcModel.calculateUtility(departCost,
-                        returnCost, attributes , thisZone);
-
-//                if(itaz == 1203 && segment == 8 && thisPurpose == ActivityPurpose.WORK) {
-//                	logger.info("****************** jtaz " + jtaz + ", logsum " + logsum);
-//                }
+        Taz[] zones = taz.values().toArray(new Taz[0]);
+        LogsumScratch serial = new LogsumScratch(new TourModeChoiceModel(rb));
 
-                m.setDoubleValueAt(originTaz.zoneNumber, destinationTaz.zoneNumber, logsum, -999, Float.MAX_VALUE);
-                
-            } //end destination zone loop
+        for (Taz originTaz : zones) {
+            fillLogsumRow(m, serial, originTaz, zones, thisPurpose, segment, skims);
         } // end origin zone loop
 
         logger.info("Created logsums in " + (System.currentTimeMillis() - time)
@@ -165,6 +156,142 @@ public class TourModeChoiceLogsumManager {
         return m;
     }
 
+    /**
+     * Calculates mode choice logsums on a fork-join pool.  Origin rows are
+     * split across the pool threads, and each thread keeps its own mode
+     * choice model and travel time and cost objects.  Each cell is calculated
+     * exactly as in the serial method, so the matrix is identical.
+     * 
+     * @param thisPurpose purpose
+     * @param segment segment
+     * @param taz taz
+     * @param skims SkimsInMemory object
+     * @param pool The pool to run on; if null the serial method is used.
+     * @return Matrix Logsum matrix
+     */
+    public Matrix createLogsumMatrix(final ActivityPurpose thisPurpose,
+            final int segment, TazManager taz, final SkimsInMemory skims,
+            ForkJoinPool pool) {
+
+        if (pool == null || pool.getParallelism() == 1) {
+            return createLogsumMatrix(thisPurpose, segment, taz, skims);
+        }
+
+        long time = System.currentTimeMillis();
+
+        logger.info("Creating ModeChoiceLogsum Matrix for - Purpose: "
+                + thisPurpose + "  Segment: " + segment + " on "
+                + pool.getParallelism() + " threads");
+
+        String mName = getName(thisPurpose, segment);
+
+        final Matrix m = new Matrix(mName, "mcLogsumMatrix", skims.pkTime.getInternalNumbers().length - 1, skims.pkTime.getInternalNumbers().length - 1);
+
+        m.setName(mName);
+
+        final Taz[] zones = taz.values().toArray(new Taz[0]);
+
+        pool.invoke(new LogsumRowsTask(m, zones, 0, zones.length,
+                thisPurpose, segment, skims));
+
+        logger.info("Created logsums in " + (System.currentTimeMillis() - time)
+                / 1000 + " seconds");
+
+        return m;
+    }
+
+    /**
+     * Splits a range of origin rows until it is small enough to calculate.
+     */
+    private class LogsumRowsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Matrix m;
+        private final Taz[] zones;
+        private final int start;
+        private final int end;
+        private final ActivityPurpose thisPurpose;
+        private final int segment;
+        private final SkimsInMemory skims;
+
+        LogsumRowsTask(Matrix m, Taz[] zones, int start, int end,
+                ActivityPurpose thisPurpose, int segment, SkimsInMemory skims) {
+            this.m = m;
+            this.zones = zones;
+            this.start = start;
+            this.end = end;
+            this.thisPurpose = thisPurpose;
+            this.segment = segment;
+            this.skims = skims;
+        }
+
+        protected void compute() {
+            if (end - start <= ROWS_PER_TASK) {
+                LogsumScratch s = scratch.get();
+                for (int i = start; i < end; ++i) {
+                    fillLogsumRow(m, s, zones[i], zones, thisPurpose, segment, skims);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new LogsumRowsTask(m, zones, start, middle, thisPurpose, segment, skims),
+                    new LogsumRowsTask(m, zones, middle, end, thisPurpose, segment, skims));
+        }
+    }
+
+    /**
+     * Calculate the logsums from one origin to every destination and store
+     * them in the matrix.
+     */
+    private void fillLogsumRow(Matrix m, LogsumScratch s, Taz originTaz,
+            Taz[] zones, ActivityPurpose thisPurpose, int segment,
+            SkimsInMemory skims) {
+        int itaz = originTaz.zoneNumber;
+
+        if (s.row == null || s.row.length != zones.length) {
+            s.row = new double[zones.length];
+        }
+
+        for (int j = 0; j < zones.length; ++j) {
+            Taz destinationTaz = zones[j];
+            int jtaz = destinationTaz.zoneNumber;
+            boolean trace = tracer.isTraceZonePair(itaz, jtaz);
+
+            s.mcModel.setTrace(trace);
+
+            // set taz attributes (only parking cost at this point)
+            if (thisPurpose == ActivityPurpose.WORK
+                    || thisPurpose == ActivityPurpose.WORK_BASED) {
+                s.zone.parkingCost = destinationTaz.workParkingCost;
+            } else {
+                s.zone.parkingCost = destinationTaz.nonWorkParkingCost * nonWorkParkingCostFactor;
+            }
+            s.zone.terminalTime = destinationTaz.terminalTime;
+
+            TourModePersonAttributes attributes = setPersonTourModeAttributes(s.attributes,
+                    originTaz, destinationTaz, thisPurpose, segment);
+            TravelTimeAndCost depart = setDepartCost(s.departCost, thisPurpose, skims,
+                    originTaz, destinationTaz);
+            TravelTimeAndCost ret = setReturnCost(s.returnCost, thisPurpose, skims,
+                    originTaz, destinationTaz);
+
+            if (trace) {
+                depart.printToScreen();
+                ret.printToScreen();
+            }
+
+            s.row[j] = s.mcModel.calculateUtility(depart, ret, attributes, s.zone);
+        } //end destination zone loop
+
+        // rows are written under the matrix lock when running in parallel
+        synchronized (m) {
+            for (int j = 0; j < zones.length; ++j) {
+                m.setDoubleValueAt(itaz, zones[j].zoneNumber, s.row[j], -999, Float.MAX_VALUE);
+            }
+        }
+    }
+
  
     /**
      * setPersonTourModeAttributes
@@ -179,6 +306,14 @@ public class TourModeChoiceLogsumManager {
                                             Taz destinationTaz,
                                             ActivityPurpose thisPurpose,
                                             int segment){
+        return setPersonTourModeAttributes(ptma, originTaz, destinationTaz, thisPurpose, segment);
+    }
+
+    private TourModePersonAttributes setPersonTourModeAttributes(TourModePersonAttributes ptma,
+                                            Taz originTaz,
+                                            Taz destinationTaz,
+                                            ActivityPurpose thisPurpose,
+                                            int segment){
         
         //PersonTourModeAttributes ptma = new PersonTourModeAttributes();                                                                                                     
         ptma.originZone=originTaz.zoneNumber;
@@ -225,6 +360,12 @@ public class TourModeChoiceLogsumManager {
      */
     public TravelTimeAndCost setDepartCost(ActivityPurpose thisPurpose,
             SkimsInMemory skims, Taz originTaz, Taz destinationTaz) {
+        return setDepartCost(departCost, thisPurpose, skims, originTaz, destinationTaz);
+    }
+
+    private TravelTimeAndCost setDepartCost(TravelTimeAndCost departCost,
+            ActivityPurpose thisPurpose, SkimsInMemory skims, Taz originTaz,
+            Taz destinationTaz) {
         if(thisPurpose==ActivityPurpose.WORK||thisPurpose==ActivityPurpose.GRADESCHOOL||thisPurpose==ActivityPurpose.COLLEGE)                        
             return skims.setTravelTimeAndCost(departCost, originTaz.zoneNumber, 
                                               destinationTaz.zoneNumber, 
@@ -245,6 +386,12 @@ public class TourModeChoiceLogsumManager {
      */   
     public TravelTimeAndCost setReturnCost(ActivityPurpose thisPurpose,
             SkimsInMemory skims, Taz originTaz, Taz destinationTaz) {
+        return setReturnCost(returnCost, thisPurpose, skims, originTaz, destinationTaz);
+    }
+
+    private TravelTimeAndCost setReturnCost(TravelTimeAndCost returnCost,
+            ActivityPurpose thisPurpose, SkimsInMemory skims, Taz originTaz,
+            Taz destinationTaz) {
         if (thisPurpose == ActivityPurpose.WORK
                 || thisPurpose == ActivityPurpose.GRADESCHOOL
                 || thisPurpose == ActivityPurpose.COLLEGE)
@@ -19,6 +19,7 @@ package com.pb.models.pt;
 
 import com.pb.common.datafile.CSVFileReader;
 import com.pb.common.datafile.TableDataSet;
+import com.pb.common.model.Alternative;
 import com.pb.common.model.ConcreteAlternative;
 import com.pb.common.model.LogitModel;
 import com.pb.common.util.ResourceUtil;
@@ -66,6 +67,19 @@ public class TourSchedulingModel extends TimedModel {
 
     private PTOccupationReferencer occRef;
 
+    // [purpose][alternative], the departure and duration constants
+    private double[][] baseUtilities;
+
+    // [alternative], the periods of the alternative
+    private int[] alternativeStart;
+
+    private int[] alternativeEnd;
+
+    // [alternative], departure hour and duration in hours
+    private float[] alternativeDeparture;
+
+    private float[] alternativeDuration;
+
     /**
      * Constructor.
      * @param rb Resource Bundle
@@ -132,6 +146,7 @@ public class TourSchedulingModel extends TimedModel {
      */
     public void setParameters(float[][] parameters, int periods) {
         this.parameters = parameters;
+        compileUtilities();
     }
 
     /**
@@ -155,6 +170,7 @@ public class TourSchedulingModel extends TimedModel {
                 }
             }
         }
+        compileUtilities();
         endTiming();
     }
 
@@ -268,6 +284,14 @@ public class TourSchedulingModel extends TimedModel {
                     + scheduler.getLastWindowPeriod());
         }
 
+        if (!trace) {
+            calculateCompiledUtilities(household, person, pattern, param,
+                    hh_type, skims, priority, returnBy7PM);
+            double compUtility = schedulingModel.getUtility();
+            endTiming();
+            return compUtility;
+        }
+
         // set availability and calculate utilities
         int alt = -1;
         for (int i = 0; i < periods; ++i) {
@@ -316,1299 +340,8 @@ public class TourSchedulingModel extends TimedModel {
                 }
                  
                 
-                // All the parameters apply to departure and duration. The
-                // parameter index for duration is always one greater than the
-                // parameter index for the departure. Hence we have a loop here
-                // instead of writing all the utility expressions twice.
-                for (int k = 0; k < 2; ++k) {
-
-                    // additional school tours
-                    int m= k*DEPARTURE_PARAMETERS;
-                    p = param[CSCH2PDEP + m];
-                    if (p != 0 && pattern.nSchoolTours > 1) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("additional school tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("additional school tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // additional work tours
-                    p = param[CWRK2PDEP + m];
-                    if (p != 0 && pattern.nShopTours > 1) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("additional work tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("additional work tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // additional shop tours
-                    p = param[CSHP2PDEP + m];
-                    if (p != 0 && pattern.nShopTours > 1) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("additional shop tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("additional shop tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // additional recreation tours
-                    p = param[CREC2PDEP + m];
-                    if (p != 0 && pattern.nRecreateTours > 1) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("additional recreation tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("additional shop tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // presence of school tours
-                    p = param[CSCHTRSDEP + m];
-                    if (p != 0 && pattern.nSchoolTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("additional school tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                        }
-                        utility += term;
-                    }
-
-                    // presence of work tours
-                    p = param[CWRKTRDEP + m];
-                    if (p != 0 && pattern.nWorkTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("presence of work tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("presence of work tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // presence of work based tours
-                    p = param[CWRKBDEP + m];
-                    if (p != 0 && pattern.nWorkBasedTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("presence of work based tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("presence of work base tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // presence of shop tours
-                    p = param[CSHPTRDEP + m];
-                    if (p != 0 && pattern.nShopTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("presence of shop tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("presence of shop tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // presence of recreation tours
-                    p = param[CRECTRDEP + m];
-                    if (p != 0 && pattern.nRecreateTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("presence of recreation tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("presence of recreation tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // presence of other tours
-                    p = param[COTHTRDDEP + m];
-                    if (p != 0 && pattern.nRecreateTours > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("presence of oter tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("presence of other tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // inbound stop only on tour
-                    p = param[CSTPSIDEP + m];
-                    if (p != 0 && tour.hasInboundStop()
-                            && !tour.hasOutboundStop()) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("only inbound stop"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("only inbound stop"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // outbound stop only on tour
-                    p = param[CSTPSODEP + m];
-                    if (p != 0 && !tour.hasInboundStop()
-                            && tour.hasOutboundStop()) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("only outbond stop"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("only outbound stop"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // outbound and inbound stops on tour
-                    p = param[CSTPSBDEP + m];
-                    if (p != 0 && tour.hasInboundStop()
-                            && tour.hasOutboundStop()) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("outbound and inbound stops"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("outbound and inbound stops"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // outbound stop only on tour
-                    p = param[CSTPSODEP + m];
-                    if (p != 0 && !tour.hasInboundStop()
-                            && tour.hasOutboundStop()) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("only outbond stop"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("only outbound stop"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // first of two tours
-                    p = param[CFOF2DEP + m];
-                    if (p != 0 && tour.getOrder() == 0
-                            && pattern.getHomeBasedTourCount() == 2) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("first of two tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("first of two tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // second of two tours
-                    p = param[CSOF2DEP + m];
-                    if (p != 0 && tour.getOrder() == 1
-                            && pattern.getHomeBasedTourCount() == 2) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("second of two tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("second of two tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // first of three tours
-                    p = param[CFOF3DEP + m];
-                    if (p != 0 && tour.getOrder() == 0
-                            && pattern.getHomeBasedTourCount() == 3) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("first of three tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("first of three tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // second of three tours
-                    p = param[CSOF3DEP + m];
-                    if (p != 0 && tour.getOrder() == 1
-                            && pattern.getHomeBasedTourCount() == 3) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("second of three tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("second of three tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // third of three tours
-                    p = param[CTOF3DEP + m];
-                    if (p != 0 && tour.getOrder() == 2
-                            && pattern.getHomeBasedTourCount() == 3) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("third of three tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("third of three tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // first of four tours
-                    p = param[CFOF4DEP + m];
-                    if (p != 0 && tour.getOrder() == 0
-                            && pattern.getHomeBasedTourCount() == 4) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("first of four tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("first of four tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // second of four tours
-                    p = param[CSOF4DEP + m];
-                    if (p != 0 && tour.getOrder() == 1
-                            && pattern.getHomeBasedTourCount() == 4) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("second of four tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("second of four tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // third of four tours
-                    p = param[CTOF4DEP + m];
-                    if (p != 0 && tour.getOrder() == 2
-                            && pattern.getHomeBasedTourCount() == 4) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("third of four tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("third of four tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // fourth of four tours
-                    p = param[CVOF4DEP + m];
-                    if (p != 0 && tour.getOrder() == 3
-                            && pattern.getHomeBasedTourCount() == 4) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("fourth of four tours"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("fourth of four tours"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // pre-schooler
-                    p = param[CPSPTDEP + m];
-                    if (p != 0 && person.personType == PRESCHOOL) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("pre-schooler"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("pre-schooler"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // grade / high school student
-                    p = param[CGHSSTDDEP + m];
-                    if (p != 0 && person.personType == STUDENTK12) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("grade / high school student"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("grade / high school studen"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // worker
-                    p = param[CWRKADDEP + m];
-                    if (p != 0 && person.personType == WORKER) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("worker "
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("worker"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // college student
-                    p = param[CCOLSTDDEP + m];
-                    if (p != 0 && person.personType == STUDENTCOLLEGE) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("college student"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("college student"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // 18 <= age < 25
-                    p = param[CAGE25DEP + m];
-                    if (p != 0 && person.getAge() >= 18 && person.getAge() < 25) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("18 <= age < 25"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("18 <= age < 25"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // 25 <= age < 35
-                    p = param[CAGE21DEP + m];
-                    if (p != 0 && person.getAge() >= 25 && person.getAge() < 35) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("25 <= age < 35"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("25 <= age < 35"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;                    }
-
-                    // 35 <= age < 55
-                    p = param[CAGE22DEP + m];
-                    if (p != 0 && person.getAge() >= 35 && person.getAge() < 55) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("35 >= age < 55"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("35 >= age < 55"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // age >= 55
-                    p = param[CAGE55DEP + m];
-                    if (p != 0 && person.getAge() >= 55) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("age >= 55"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("age >= 55"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // non-worker, 18 <= age < 25
-                    p = param[CNW25DEP + m];
-                    if (p != 0 && person.personType == NONWORKER
-                            && person.getAge() >= 18 && person.getAge() < 25) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("non-worker, 18 <= age < 25"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("non-worker, 18 <= age < 25"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // non-worker, age >= 55
-                    p = param[CNW55DEP + m];
-                    if (p != 0 && person.personType == NONWORKER
-                            && person.getAge() >= 55) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("non-worker, age >= 55"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("non-worker,age >= 55"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // worker, 25 <= age < 55
-                    p = param[CWRK25DEP + m];
-                    if (p != 0 && person.personType == WORKER
-                            && person.getAge() >= 25 && person.getAge() < 55) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("worker, 25 <= age < 35"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("worker, 25 <= age < 35"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // worker, age >= 55
-                    p = param[CWRK55DEP + m];
-                    if (p != 0 && person.personType == WORKER
-                            && person.getAge() >= 55) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("worker, age >= 55"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("worker, age >= 55"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // retail occupation or industry
-                    p = param[CRETLDEP + m];
-                    if (p != 0 && (person.employed
-                            && (person.getOccupation() == occRef.getRetailOccupation() || person
-                                    .getIndustry() == 14 || person.getIndustry() == 13))) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("retail occupation or industry"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("retail occupation or industry"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // Public administration or industry (not retail)
-                    p = param[CGOVDEP + m];
-                    if (p != 0 && (person.employed &&
-                               (person.getOccupation() != occRef.getRetailOccupation() && person
-                                    .getIndustry() == 23))) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("public administration or industry"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("public administration or industry"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // household
-                    p = param[CHIINCDEP + m];
-                    int segment = IncomeSegmenter.calcLogsumSegment(household.income, household.autos, household.workers); 
-                    if (p != 0 && segment > 5) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("high income"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("high income"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // zero car household
-                    p = param[CAUTO0DEP + m];
-                    if (p != 0 && household.autos == 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("zero car household"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("zero car household"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // household classes
-                    // TODO: define CHHCLASS0DEP
-                    for (int h = 0; h < hh_type.length; ++h) {
-                        p = param[CHHCLASS2DEP + (2 * h) + m];
-                        double term;
-                        if (k == 0) {
-                            term = p * hh_type[h] * start;
-                            if (trace) {
-                                logger.info("household type " + h
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * hh_type[h] * duration;
-                            if (trace) {
-                                logger.info("household type " + h
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // two or more adults
-                    p = param[CADLT2DEP + m];
-                    if (p != 0 && household.getAdultCount() > 1) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("two or more adults"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("two or more adults"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // non-working adult in household
-                    p = param[CNWADLTDEP + m];
-                    if (p != 0 && household.getNonWorkingAdultCount() > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("non-working adult in household"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("non-working adult in household"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // children 5 or younger
-                    p = param[CCH5DEP + m];
-                    if (p != 0 && household.getCohortCount(0, 5) > 0) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("children 5 or younger in household"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("children 5 or younger in household"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // children aged 6 - 15
-                    p = param[CCH615DEP + m];
-                    if (p != 0 && household.getCohortCount(6, 15) > 0) {
-                        if (k == 0) {
-                            utility += p * start;
-                        } else {
-                            utility += p * duration;
-                        }
-                    }
-
-                    // high income and preschooler
-                    p = param[CHIPSDEP + m];
-                    if (p != 0 && person.personType == PRESCHOOL
-                            && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("high income and pre-schooler"
-                                        + " departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("high income and pre-schooler"
-                                        + " duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // high income and grade/high school person
-                    p = param[CHIGHSDEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
-                        double term;
-                        if (k == 0) {
-                            term = p * start;
-                            if (trace) {
-                                logger.info("high income and grade/high "
-                                        + "school person departure: " + term);
-                            }
-                        } else {
-                            term = p * duration;
-                            if (trace) {
-                                logger.info("high income and grade/high " +
-                                        "school person duration: " + term);
-                            }
-                        }
-                        utility += term;
-                    }
-
-                    // high income and college person
-                    p = param[CHICOLDEP + m];
-                    if (p != 0 && person.personType == STUDENTCOLLEGE
-                            && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("high income college person" + type
-                                    + term);
-                        }
-                    }
-
-                    // Zero car household and college person
-                    p = param[CA0COLDEP + m];
-                    if (p != 0 && person.personType == STUDENTCOLLEGE
-                            && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("zero car household and collge person"
-                                    + type + term);
-                        }
-                    }
-
-                    // insuffient auto/worker and preschooler
-                    p = param[CAIPSDEP + m];
-                    if (p != 0
-                            && (household.getAutoCount() > household
-                                    .getWorkerCount())
-                            && person.personType == PRESCHOOL) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("insuffient auto/worker and "
-                                    + "pre-schooler" + type + term);
-                        }
-                    }
-
-                    // insuffient auto/worker and grade/high school person
-                    p = param[CAIGHSDEP + m];
-                    if (p != 0
-                            && (household.getAutoCount() > household
-                                    .getWorkerCount())
-                            && person.personType == STUDENTK12) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("insuffient auto/worker and grade/high"
-                                    + " school person" + type + term);
-                        }
-                    }
-
-                    // preschooler in household class 6
-                    p = param[CPSHH6DEP + m];
-                    if (p != 0 && person.personType == PRESCHOOL
-                            && ((int) attributes.hType6) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("pre-schooler in household class 6" + type
-                                    + term);
-                        }
-                    }
-
-                    // preschooler in household class 9
-                    p = param[CPSHH9DEP + m];
-                    if (p != 0 && person.personType == PRESCHOOL
-                            && ((int) attributes.hType9) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("pre-schooler in household class 9"
-                                    + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 7
-                    p = param[CGHSHH7DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType7) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 7" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 8
-                    p = param[CGHSHH8DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType8) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 8" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 9
-                    p = param[CGHSHH9DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType9) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 9" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 10
-                    p = param[CGHSHH10DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType10) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 10" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 11
-                    p = param[CGHSHH11DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType11) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 11" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 12
-                    p = param[CGHSHH12DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType12) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 12" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 13
-                    p = param[CGHSHH13DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType13) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 13" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 14
-                    p = param[CGHSHH14DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType14) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 14" + type + term);
-                        }
-                    }
-
-                    // grade/high schooler in household class 15
-                    p = param[CGHSHH15DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType15) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("grade/high schooler in household "
-                                    + "class 15" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 4
-                    p = param[CCOLHH4DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType4) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 4" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 5
-                    p = param[CCOLHH5DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType5) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 5" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 6
-                    p = param[CCOLHH6DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType6) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 6" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 7
-                    p = param[CCOLHH7DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType7) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 7" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 8
-                    p = param[CCOLHH8DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType8) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 8" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 9
-                    p = param[CCOLHH9DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType9) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 9" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 10
-                    p = param[CCOLHH10DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType10) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 10" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 11
-                    p = param[CCOLHH11DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType11) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 11" + type + term);
-                        }
-                    }
-
-                    // college schooler in household class 12
-                    p = param[CCOLHH12DEP + m];
-                    if (p != 0 && person.personType == STUDENTK12
-                            && ((int) attributes.hType12) != 0) {
-                        double term = getShiftUtility(p, k, start, duration);
-                        utility += term;
-
-                        if (trace) {
-                            String type = k == 0 ? " departure:" : " duration:";
-                            logger.info("college student in household "
-                                    + "class 12" + type + term);
-                        }
-                    }
-
-                    // distance between home and primary destination
-                    p = param[CXYDSTDEP + m];
-                    if (p != 0) {
-                        double dist = skims.getDistance(
-                                tour.primaryDestination.endTime,
-                                household.homeTaz,
-                                tour.primaryDestination.location.zoneNumber);
-                        double term = p * dist;
-                        String type = k == 0 ? " departure:" : " duration:";
-                        
-                        if (trace) {
-                            logger.info("distance between home and primary " +
-                                    "destination" + type + term);
-                        }
-                    }
-                }
+                utility += calculateShiftUtility(household, person, pattern,
+                        param, hh_type, skims, start, duration);
 
                 if (trace) {
                     logger.info("Total utility: " + utility);
@@ -1632,6 +365,1403 @@ public class TourSchedulingModel extends TimedModel {
         return compUtility;
     }
 
+    /**
+     * @return The utility of each alternative from the last call to
+     *         calculateUtilities, -999 for an unavailable alternative.
+     */
+    public double[] getUtilities() {
+        double[] utilities = new double[alternativeStart.length];
+        for (int alt = 0; alt < utilities.length; ++alt) {
+            Alternative alternative = schedulingModel.getAlternative(alt);
+            utilities[alt] = alternative.isAvailable() ? alternative
+                    .getUtility() : -999;
+        }
+        return utilities;
+    }
+
+    /**
+     * Set the availability and utility of each alternative from the compiled
+     * constants of the tour purpose and the shift coefficients of the person
+     * and tour, the same utilities as the loop in calculateUtilities without
+     * its trace.
+     */
+    private void calculateCompiledUtilities(PTHousehold household,
+            PTPerson person, Pattern pattern, float[] param, float[] hh_type,
+            SkimsInMemory skims, int priority, boolean returnBy7PM) {
+        double departureCoefficient = calculateShiftUtility(household, person,
+                pattern, param, hh_type, skims, 1, 0);
+        double durationCoefficient = calculateShiftUtility(household, person,
+                pattern, param, hh_type, skims, 0, 1);
+        double[] base = baseUtilities[tour.primaryDestination.activityPurpose
+                .ordinal()];
+
+        for (int alt = 0; alt < base.length; ++alt) {
+            Alternative alternative = schedulingModel.getAlternative(alt);
+            int end = alternativeEnd[alt];
+
+            // outside the window, or after 7 PM before a school or college tour
+            if (!scheduler.isWindowAvailable(priority, alternativeStart[alt],
+                    end)
+                    || (returnBy7PM && (end + FIRST_ALLOWED_HOUR) > 19)) {
+                alternative.setAvailability(false);
+                alternative.setUtility(-999);
+                continue;
+            }
+
+            alternative.setAvailability(true);
+            alternative.setUtility(base[alt] + departureCoefficient
+                    * alternativeDeparture[alt] + durationCoefficient
+                    * alternativeDuration[alt]);
+        }
+    }
+
+    /**
+     * Compile the departure and duration constants of each purpose into a
+     * utility for each alternative, and the departure and duration of each
+     * alternative.
+     */
+    private void compileUtilities() {
+        int alternatives = periods * (periods + 1) / 2;
+        alternativeStart = new int[alternatives];
+        alternativeEnd = new int[alternatives];
+        alternativeDeparture = new float[alternatives];
+        alternativeDuration = new float[alternatives];
+        baseUtilities = new double[parameters.length][alternatives];
+
+        int alt = -1;
+        for (int i = 0; i < periods; ++i) {
+            for (int j = i; j < periods; ++j) {
+                alt += 1;
+                alternativeStart[alt] = i;
+                alternativeEnd[alt] = j;
+                alternativeDeparture[alt] = i + FIRST_ALLOWED_HOUR;
+                alternativeDuration[alt] = j - i;
+
+                for (int purpose = 0; purpose < parameters.length; ++purpose) {
+                    double utility = parameters[purpose][CDEPART5 + i];
+                    utility += parameters[purpose][CDURAT0 + j - i];
+                    baseUtilities[purpose][alt] = utility;
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the utility of the parameters on departure and duration, the
+     * shift utility, of an alternative.
+     * 
+     * The utility is linear in the departure and the duration, so the
+     * utilities of departing at 1 with no duration and of departing at 0 for a
+     * duration of 1 are the coefficients of the person and tour.
+     * 
+     * @param start Departure hour of the alternative.
+     * @param duration Duration of the alternative in hours.
+     * @return The shift utility.
+     */
+    private double calculateShiftUtility(PTHousehold household,
+            PTPerson person, Pattern pattern, float[] param, float[] hh_type,
+            SkimsInMemory skims, float start, float duration) {
+        double utility = 0;
+        float p;
+
+        // All the parameters apply to departure and duration. The
+        // parameter index for duration is always one greater than the
+        // parameter index for the departure. Hence we have a loop here
+        // instead of writing all the utility expressions twice.
+        for (int k = 0; k < 2; ++k) {
+
+            // additional school tours
+            int m= k*DEPARTURE_PARAMETERS;
+            p = param[CSCH2PDEP + m];
+            if (p != 0 && pattern.nSchoolTours > 1) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("additional school tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("additional school tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // additional work tours
+            p = param[CWRK2PDEP + m];
+            if (p != 0 && pattern.nShopTours > 1) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("additional work tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("additional work tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // additional shop tours
+            p = param[CSHP2PDEP + m];
+            if (p != 0 && pattern.nShopTours > 1) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("additional shop tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("additional shop tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // additional recreation tours
+            p = param[CREC2PDEP + m];
+            if (p != 0 && pattern.nRecreateTours > 1) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("additional recreation tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("additional shop tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // presence of school tours
+            p = param[CSCHTRSDEP + m];
+            if (p != 0 && pattern.nSchoolTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("additional school tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                }
+                utility += term;
+            }
+
+            // presence of work tours
+            p = param[CWRKTRDEP + m];
+            if (p != 0 && pattern.nWorkTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("presence of work tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("presence of work tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // presence of work based tours
+            p = param[CWRKBDEP + m];
+            if (p != 0 && pattern.nWorkBasedTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("presence of work based tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("presence of work base tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // presence of shop tours
+            p = param[CSHPTRDEP + m];
+            if (p != 0 && pattern.nShopTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("presence of shop tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("presence of shop tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // presence of recreation tours
+            p = param[CRECTRDEP + m];
+            if (p != 0 && pattern.nRecreateTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("presence of recreation tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("presence of recreation tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // presence of other tours
+            p = param[COTHTRDDEP + m];
+            if (p != 0 && pattern.nRecreateTours > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("presence of oter tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("presence of other tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // inbound stop only on tour
+            p = param[CSTPSIDEP + m];
+            if (p != 0 && tour.hasInboundStop()
+                    && !tour.hasOutboundStop()) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("only inbound stop"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("only inbound stop"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // outbound stop only on tour
+            p = param[CSTPSODEP + m];
+            if (p != 0 && !tour.hasInboundStop()
+                    && tour.hasOutboundStop()) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("only outbond stop"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("only outbound stop"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // outbound and inbound stops on tour
+            p = param[CSTPSBDEP + m];
+            if (p != 0 && tour.hasInboundStop()
+                    && tour.hasOutboundStop()) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("outbound and inbound stops"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("outbound and inbound stops"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // outbound stop only on tour
+            p = param[CSTPSODEP + m];
+            if (p != 0 && !tour.hasInboundStop()
+                    && tour.hasOutboundStop()) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("only outbond stop"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("only outbound stop"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // first of two tours
+            p = param[CFOF2DEP + m];
+            if (p != 0 && tour.getOrder() == 0
+                    && pattern.getHomeBasedTourCount() == 2) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("first of two tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("first of two tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // second of two tours
+            p = param[CSOF2DEP + m];
+            if (p != 0 && tour.getOrder() == 1
+                    && pattern.getHomeBasedTourCount() == 2) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("second of two tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("second of two tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // first of three tours
+            p = param[CFOF3DEP + m];
+            if (p != 0 && tour.getOrder() == 0
+                    && pattern.getHomeBasedTourCount() == 3) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("first of three tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("first of three tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // second of three tours
+            p = param[CSOF3DEP + m];
+            if (p != 0 && tour.getOrder() == 1
+                    && pattern.getHomeBasedTourCount() == 3) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("second of three tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("second of three tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // third of three tours
+            p = param[CTOF3DEP + m];
+            if (p != 0 && tour.getOrder() == 2
+                    && pattern.getHomeBasedTourCount() == 3) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("third of three tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("third of three tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // first of four tours
+            p = param[CFOF4DEP + m];
+            if (p != 0 && tour.getOrder() == 0
+                    && pattern.getHomeBasedTourCount() == 4) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("first of four tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("first of four tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // second of four tours
+            p = param[CSOF4DEP + m];
+            if (p != 0 && tour.getOrder() == 1
+                    && pattern.getHomeBasedTourCount() == 4) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("second of four tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("second of four tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // third of four tours
+            p = param[CTOF4DEP + m];
+            if (p != 0 && tour.getOrder() == 2
+                    && pattern.getHomeBasedTourCount() == 4) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("third of four tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("third of four tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // fourth of four tours
+            p = param[CVOF4DEP + m];
+            if (p != 0 && tour.getOrder() == 3
+                    && pattern.getHomeBasedTourCount() == 4) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("fourth of four tours"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("fourth of four tours"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // pre-schooler
+            p = param[CPSPTDEP + m];
+            if (p != 0 && person.personType == PRESCHOOL) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("pre-schooler"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("pre-schooler"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // grade / high school student
+            p = param[CGHSSTDDEP + m];
+            if (p != 0 && person.personType == STUDENTK12) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("grade / high school student"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("grade / high school studen"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // worker
+            p = param[CWRKADDEP + m];
+            if (p != 0 && person.personType == WORKER) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("worker "
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("worker"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // college student
+            p = param[CCOLSTDDEP + m];
+            if (p != 0 && person.personType == STUDENTCOLLEGE) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("college student"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("college student"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // 18 <= age < 25
+            p = param[CAGE25DEP + m];
+            if (p != 0 && person.getAge() >= 18 && person.getAge() < 25) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("18 <= age < 25"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("18 <= age < 25"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // 25 <= age < 35
+            p = param[CAGE21DEP + m];
+            if (p != 0 && person.getAge() >= 25 && person.getAge() < 35) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("25 <= age < 35"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("25 <= age < 35"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;                    }
+
+            // 35 <= age < 55
+            p = param[CAGE22DEP + m];
+            if (p != 0 && person.getAge() >= 35 && person.getAge() < 55) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("35 >= age < 55"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("35 >= age < 55"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // age >= 55
+            p = param[CAGE55DEP + m];
+            if (p != 0 && person.getAge() >= 55) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("age >= 55"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("age >= 55"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // non-worker, 18 <= age < 25
+            p = param[CNW25DEP + m];
+            if (p != 0 && person.personType == NONWORKER
+                    && person.getAge() >= 18 && person.getAge() < 25) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("non-worker, 18 <= age < 25"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("non-worker, 18 <= age < 25"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // non-worker, age >= 55
+            p = param[CNW55DEP + m];
+            if (p != 0 && person.personType == NONWORKER
+                    && person.getAge() >= 55) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("non-worker, age >= 55"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("non-worker,age >= 55"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // worker, 25 <= age < 55
+            p = param[CWRK25DEP + m];
+            if (p != 0 && person.personType == WORKER
+                    && person.getAge() >= 25 && person.getAge() < 55) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("worker, 25 <= age < 35"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("worker, 25 <= age < 35"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // worker, age >= 55
+            p = param[CWRK55DEP + m];
+            if (p != 0 && person.personType == WORKER
+                    && person.getAge() >= 55) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("worker, age >= 55"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("worker, age >= 55"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // retail occupation or industry
+            p = param[CRETLDEP + m];
+            if (p != 0 && (person.employed
+                    && (person.getOccupation() == occRef.getRetailOccupation() || person
+                            .getIndustry() == 14 || person.getIndustry() == 13))) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("retail occupation or industry"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("retail occupation or industry"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // Public administration or industry (not retail)
+            p = param[CGOVDEP + m];
+            if (p != 0 && (person.employed &&
+                       (person.getOccupation() != occRef.getRetailOccupation() && person
+                            .getIndustry() == 23))) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("public administration or industry"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("public administration or industry"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // household
+            p = param[CHIINCDEP + m];
+            int segment = IncomeSegmenter.calcLogsumSegment(household.income, household.autos, household.workers); 
+            if (p != 0 && segment > 5) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("high income"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("high income"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // zero car household
+            p = param[CAUTO0DEP + m];
+            if (p != 0 && household.autos == 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("zero car household"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("zero car household"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // household classes
+            // TODO: define CHHCLASS0DEP
+            for (int h = 0; h < hh_type.length; ++h) {
+                p = param[CHHCLASS2DEP + (2 * h) + m];
+                double term;
+                if (k == 0) {
+                    term = p * hh_type[h] * start;
+                    if (trace) {
+                        logger.info("household type " + h
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * hh_type[h] * duration;
+                    if (trace) {
+                        logger.info("household type " + h
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // two or more adults
+            p = param[CADLT2DEP + m];
+            if (p != 0 && household.getAdultCount() > 1) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("two or more adults"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("two or more adults"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // non-working adult in household
+            p = param[CNWADLTDEP + m];
+            if (p != 0 && household.getNonWorkingAdultCount() > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("non-working adult in household"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("non-working adult in household"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // children 5 or younger
+            p = param[CCH5DEP + m];
+            if (p != 0 && household.getCohortCount(0, 5) > 0) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("children 5 or younger in household"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("children 5 or younger in household"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // children aged 6 - 15
+            p = param[CCH615DEP + m];
+            if (p != 0 && household.getCohortCount(6, 15) > 0) {
+                if (k == 0) {
+                    utility += p * start;
+                } else {
+                    utility += p * duration;
+                }
+            }
+
+            // high income and preschooler
+            p = param[CHIPSDEP + m];
+            if (p != 0 && person.personType == PRESCHOOL
+                    && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("high income and pre-schooler"
+                                + " departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("high income and pre-schooler"
+                                + " duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // high income and grade/high school person
+            p = param[CHIGHSDEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
+                double term;
+                if (k == 0) {
+                    term = p * start;
+                    if (trace) {
+                        logger.info("high income and grade/high "
+                                + "school person departure: " + term);
+                    }
+                } else {
+                    term = p * duration;
+                    if (trace) {
+                        logger.info("high income and grade/high " +
+                                "school person duration: " + term);
+                    }
+                }
+                utility += term;
+            }
+
+            // high income and college person
+            p = param[CHICOLDEP + m];
+            if (p != 0 && person.personType == STUDENTCOLLEGE
+                    && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("high income college person" + type
+                            + term);
+                }
+            }
+
+            // Zero car household and college person
+            p = param[CA0COLDEP + m];
+            if (p != 0 && person.personType == STUDENTCOLLEGE
+                    && IncomeSegmenter.getIncomeCategory(household.getIncome()) == IncomeSegmenter.IncomeCategory.INCOME_HIGH) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("zero car household and collge person"
+                            + type + term);
+                }
+            }
+
+            // insuffient auto/worker and preschooler
+            p = param[CAIPSDEP + m];
+            if (p != 0
+                    && (household.getAutoCount() > household
+                            .getWorkerCount())
+                    && person.personType == PRESCHOOL) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("insuffient auto/worker and "
+                            + "pre-schooler" + type + term);
+                }
+            }
+
+            // insuffient auto/worker and grade/high school person
+            p = param[CAIGHSDEP + m];
+            if (p != 0
+                    && (household.getAutoCount() > household
+                            .getWorkerCount())
+                    && person.personType == STUDENTK12) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("insuffient auto/worker and grade/high"
+                            + " school person" + type + term);
+                }
+            }
+
+            // preschooler in household class 6
+            p = param[CPSHH6DEP + m];
+            if (p != 0 && person.personType == PRESCHOOL
+                    && ((int) attributes.hType6) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("pre-schooler in household class 6" + type
+                            + term);
+                }
+            }
+
+            // preschooler in household class 9
+            p = param[CPSHH9DEP + m];
+            if (p != 0 && person.personType == PRESCHOOL
+                    && ((int) attributes.hType9) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("pre-schooler in household class 9"
+                            + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 7
+            p = param[CGHSHH7DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType7) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 7" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 8
+            p = param[CGHSHH8DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType8) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 8" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 9
+            p = param[CGHSHH9DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType9) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 9" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 10
+            p = param[CGHSHH10DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType10) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 10" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 11
+            p = param[CGHSHH11DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType11) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 11" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 12
+            p = param[CGHSHH12DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType12) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 12" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 13
+            p = param[CGHSHH13DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType13) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 13" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 14
+            p = param[CGHSHH14DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType14) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 14" + type + term);
+                }
+            }
+
+            // grade/high schooler in household class 15
+            p = param[CGHSHH15DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType15) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("grade/high schooler in household "
+                            + "class 15" + type + term);
+                }
+            }
+
+            // college schooler in household class 4
+            p = param[CCOLHH4DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType4) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 4" + type + term);
+                }
+            }
+
+            // college schooler in household class 5
+            p = param[CCOLHH5DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType5) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 5" + type + term);
+                }
+            }
+
+            // college schooler in household class 6
+            p = param[CCOLHH6DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType6) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 6" + type + term);
+                }
+            }
+
+            // college schooler in household class 7
+            p = param[CCOLHH7DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType7) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 7" + type + term);
+                }
+            }
+
+            // college schooler in household class 8
+            p = param[CCOLHH8DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType8) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 8" + type + term);
+                }
+            }
+
+            // college schooler in household class 9
+            p = param[CCOLHH9DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType9) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 9" + type + term);
+                }
+            }
+
+            // college schooler in household class 10
+            p = param[CCOLHH10DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType10) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 10" + type + term);
+                }
+            }
+
+            // college schooler in household class 11
+            p = param[CCOLHH11DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType11) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 11" + type + term);
+                }
+            }
+
+            // college schooler in household class 12
+            p = param[CCOLHH12DEP + m];
+            if (p != 0 && person.personType == STUDENTK12
+                    && ((int) attributes.hType12) != 0) {
+                double term = getShiftUtility(p, k, start, duration);
+                utility += term;
+
+                if (trace) {
+                    String type = k == 0 ? " departure:" : " duration:";
+                    logger.info("college student in household "
+                            + "class 12" + type + term);
+                }
+            }
+
+            // distance between home and primary destination
+            // the distance is traced but it is not in the utility
+            p = param[CXYDSTDEP + m];
+            if (p != 0 && trace) {
+                double dist = skims.getDistance(
+                        tour.primaryDestination.endTime,
+                        household.homeTaz,
+                        tour.primaryDestination.location.zoneNumber);
+                double term = p * dist;
+                String type = k == 0 ? " departure:" : " duration:";
+                
+                if (trace) {
+                    logger.info("distance between home and primary " +
+                            "destination" + type + term);
+                }
+            }
+        }
+
+        return utility;
+    }
+
     /**
      * Choose schedules for all tours.
      * 
@@ -23,10 +23,10 @@ package com.pb.models.pt;
 
 import com.pb.common.util.ResourceUtil;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import com.pb.models.pt.util.CSVRecordReader;
+import com.pb.models.pt.util.SynPopCache;
+
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.ResourceBundle;
 
 public class VisitorDataReader extends PTDataReader{
@@ -37,11 +37,22 @@ public class VisitorDataReader extends PTDataReader{
 
     }
 
+    protected String getPersonFileName() {
+        return ResourceUtil.getProperty(ptRb, "vm.persons");
+    }
+
+    /**
+     * The population cache holds the resident population only.
+     */
+    protected SynPopCache getSynPopCache() {
+        return null;
+    }
+
     public void openHouseholdFile(){
         String hhFileName = ResourceUtil.getProperty(ptRb, "vm.households");
         logger.info("Opening Visitor household file " + hhFileName);
         try {
-            householdReader = new BufferedReader(new FileReader(hhFileName));
+            householdReader = new CSVRecordReader(hhFileName);
         } catch (IOException e) {
             logger.fatal("Could not open Visitor household file" + hhFileName);
             throw new RuntimeException(e);
@@ -63,7 +74,7 @@ public class VisitorDataReader extends PTDataReader{
         String perFileName = ResourceUtil.getProperty(ptRb, "vm.persons");
         // person file
         try {
-            personReader = new BufferedReader(new FileReader(perFileName));
+            personReader = new CSVRecordReader(perFileName);
         } catch (IOException e) {
             logger.fatal("Could not Visitor open person file" + perFileName);
             throw new RuntimeException(e);
@@ -86,23 +97,16 @@ public class VisitorDataReader extends PTDataReader{
         try {
             int lowestIdNum = Integer.MAX_VALUE;
             int nHhsInFile = 0;
-            // create a lookup table for field positions
-            HashMap<String, Integer> positions = new HashMap<String, Integer>();
-            String[] header = householdReader.readLine().split(",");
-            for (int i = 0; i < header.length; ++i) {
-                positions.put(header[i], i);
-            }
+            // resolve the field positions
+            householdReader.readHeader();
 
-            int hhIdIndex = positions.get(HH_ID_FIELD);
+            int hhIdIndex = householdReader.getRequiredColumn(HH_ID_FIELD);
             int currentId = -1;
-            String line = householdReader.readLine();
 
-            while (line != null) {
-                String[] fields = line.split(",");
-                currentId = Integer.parseInt(fields[hhIdIndex]);
+            while (householdReader.next()) {
+                currentId = householdReader.getInt(hhIdIndex);
                 if(currentId < lowestIdNum) lowestIdNum = currentId;
                 nHhsInFile++;
-                line = householdReader.readLine();
             }
 
             closeHouseholdFile();
@@ -26,7 +26,9 @@ import com.pb.models.pt.util.SkimsInMemory;
 import org.apache.log4j.Logger;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * MCLogsumCalculatorTask is a class that ...
@@ -44,12 +46,17 @@ public class MCLogsumCalculatorTask  extends MessageProcessingTask {
     protected static ResourceBundle ptRb;
     protected static ResourceBundle globalRb;
 
+    // shared by every task in the JVM, so the node is not oversubscribed
+    protected static ForkJoinPool logsumPool;
+
 
     private TazManager tazManager;
 
 
     private TourModeChoiceLogsumManager mcLogsums;
 
+    protected LatencyHistogram logsumTimes = new LatencyHistogram();
+
 
 
     public void onStart(){
@@ -82,6 +89,20 @@ public class MCLogsumCalculatorTask  extends MessageProcessingTask {
                 PriceConverter.getInstance(ptRb,globalRb);
 
                 skims = SkimsInMemory.getSkimsInMemory();
+
+                // 1, the default, builds the logsums serially; 0 uses every
+                // processor, which only suits a node running no other tasks
+                int threads = ResourceUtil.getIntegerProperty(ptRb,
+                        "sdt.mc.logsum.threads", 1);
+                if (threads <= 0) {
+                    threads = Runtime.getRuntime().availableProcessors();
+                }
+                if (threads > 1) {
+                    logsumPool = new ForkJoinPool(threads);
+                }
+                mcLogger.info(getName() + ", Building mode choice logsums on "
+                        + threads + " thread(s)");
+
                 initialized = true;
                 mcLogger.info(getName() + ", Finished initializing parent object");
             }
@@ -89,6 +110,10 @@ public class MCLogsumCalculatorTask  extends MessageProcessingTask {
     }
 
     public void onMessage(Message msg) {
+        if (msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)) {
+            reportModelTimings();
+            return;
+        }
         mcLogger.info(getName() + ", Received messageId=" + msg.getId()
                 + " message from=" + msg.getSender() + ". MsgNum: " + msg.getIntValue("msgNum"));
         ActivityPurpose purpose = (ActivityPurpose)(msg.getValue("purpose"));
@@ -131,9 +156,27 @@ public class MCLogsumCalculatorTask  extends MessageProcessingTask {
         // Creating the ModeChoiceLogsum Matrix
         mcLogger.info(getName()+ ", Creating Mode Choice Logsum Matrix for purpose: "
                     + purpose + " segment: " + segment);
-        return mcLogsums.createLogsumMatrix(purpose, segment, tazManager, skims);
+        long start = System.nanoTime();
+        Matrix logsum = mcLogsums.createLogsumMatrix(purpose, segment, tazManager, skims,
+                logsumPool);
+        logsumTimes.record(System.nanoTime() - start);
+        return logsum;
    }
 
+    /**
+     * Send the durations of the logsum matrices built so far to the master.
+     */
+    protected void reportModelTimings(){
+        HashMap<String, LatencyHistogram> histograms = new HashMap<String, LatencyHistogram>();
+        histograms.put("mcLogsum", logsumTimes);
+
+        Message timings = createMessage();
+        timings.setId(MessageID.MODEL_TIMINGS);
+        timings.setValue("histograms", histograms);
+        mcLogger.info(getName() + ", Sending model timings to TaskMasterQueue");
+        sendTo("TaskMasterQueue", timings);
+    }
+
     public void sendMCLogsumToWriter(Message msg, Matrix m){
         msg.setId(MessageID.MC_LOGSUMS_CREATED);
         msg.setValue("matrix", m);
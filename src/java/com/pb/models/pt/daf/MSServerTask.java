@@ -60,6 +60,10 @@ public class MSServerTask extends MessageProcessingTask {
     
     
     HashMap<String, Short> workTazByPersId;
+
+    //model timings of the workers on this node
+    HashMap<String, LatencyHistogram> nodeTimings;
+    int workerTimingsReceived;
     int[] autosByHhId;
     int[] workersByHhId;
 
@@ -132,6 +136,14 @@ public class MSServerTask extends MessageProcessingTask {
                     " working on SynPopP rows " + startRow + " thru " + endRow);
             sendWorkToWorkersOnThisNode(localPWorkQueues, msg, new String[]{"segmentByHhId", "homeTazbyHhId", "shadowPriceByTaz"});
 
+        } else if (msg.getId().equals(MessageID.WORKPLACE_LOCATIONS_FINISHED)){
+            //the workers release what they kept between shadow price iterations
+            for (String queueName : localPWorkQueues) {
+                Message finished = createMessage();
+                finished.setId(MessageID.WORKPLACE_LOCATIONS_FINISHED);
+                sendTo(queueName, finished);
+            }
+
         } else if (msg.getId().equals(MessageID.PROCESS_HOUSEHOLDS)){
             int startRow = (Integer) msg.getValue("startRow");
             int endRow = (Integer) msg.getValue("endRow");
@@ -140,8 +152,34 @@ public class MSServerTask extends MessageProcessingTask {
                     " working on SynPopH rows " + startRow + " thru " + endRow);
             getHouseholdMessageInfo(msg);
             PTHousehold[] households = readHouseholds(msg); 
-            startSendingHouseholds(households);  
+            startSendingHouseholds(households, msg);  
             
+    } else if (msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)){
+        nodeTimings = new HashMap<String, LatencyHistogram>();
+        workerTimingsReceived = 0;
+        // the household and the workplace location workers both report
+        ArrayList<String> timedQueues = new ArrayList<String>(localHHWorkQueues);
+        timedQueues.addAll(localPWorkQueues);
+        for (String queueName : timedQueues) {
+            Message report = createMessage();
+            report.setId(MessageID.REPORT_MODEL_TIMINGS);
+            report.setValue("replyQueue", "MS_node" + nodeNumber + "WorkQueue");
+            sendTo(queueName, report);
+        }
+        if (timedQueues.isEmpty()) {
+            sendNodeTimings();
+        }
+
+    } else if (msg.getId().equals(MessageID.MODEL_TIMINGS)){
+        HashMap<String, LatencyHistogram> histograms = (HashMap<String, LatencyHistogram>) msg.getValue("histograms");
+        for (String name : histograms.keySet()) {
+            MicroSimulationWorkerTask.addHistogram(nodeTimings, name, histograms.get(name));
+        }
+        workerTimingsReceived++;
+        if (workerTimingsReceived == localHHWorkQueues.size() + localPWorkQueues.size()) {
+            sendNodeTimings();
+        }
+
     } else if (msg.getId().equals(MessageID.PROCESS_VISITOR)){
         int startRow = (Integer) msg.getValue("startRow");
         int endRow = (Integer) msg.getValue("endRow");
@@ -150,7 +188,7 @@ public class MSServerTask extends MessageProcessingTask {
                 " working on VM SynPopH rows " + startRow + " thru " + endRow);
         openVisitorFiles();
         PTHousehold[] households = readVisitors(msg); 
-        startSendingHouseholds(households);  
+        startSendingHouseholds(households, msg);  
     }
 
 
@@ -207,6 +245,15 @@ public class MSServerTask extends MessageProcessingTask {
     private void getHouseholdMessageInfo(Message msg){
         serverLogger.info(getName() + ", Processing incoming message");
         ArrayList attachment = (ArrayList) msg.getValue("attachments");
+        //scheduled chunks after the first come without attachments, so
+        //keep using the ones from the first chunk
+        if(attachment == null){
+            serverLogger.info(getName() + ", Using attachments from an earlier chunk");
+            attachment = new ArrayList();
+            attachment.add(autosByHhId);
+            attachment.add(workersByHhId);
+            attachment.add(null);
+        }
         autosByHhId = (int[])attachment.get(0);
         workersByHhId = (int[]) attachment.get(1);
         //add the persons workTaz IF the workplace location model was run
@@ -252,28 +299,37 @@ public class MSServerTask extends MessageProcessingTask {
      * Starts the household processing by sending a specified number of
      * household blocks to each work queue.
      * @param households the array of households to send
+     * @param msg the message from the master, if it is a scheduled chunk
+     * the blocks carry its chunk number back to the master
      *
      */
-    private void startSendingHouseholds(PTHousehold[] households) {
+    private void startSendingHouseholds(PTHousehold[] households, Message msg) {
         serverLogger.info(getName() + ", Sending households.");
 
+        if(households.length == 0){
+            sendEmptyChunk(msg);
+            return;
+        }
+
             //households are sorted by segment
         int blockCounter = 0;
         int householdCounter = 0;
         int blockSize;
 
-        int[] numHHBlocksPerQueue = calculateHhBlocksPerQueue(households.length);
+        int maxBlockSize = Math.max(1, Math.min(MAX_BLOCK_SIZE, households.length / localHHWorkQueues.size()));
+        int[] numHHBlocksPerQueue = calculateHhBlocksPerQueue(households.length, maxBlockSize);
         int nBlocksToSend = 0;
         for(int nHHBlocks : numHHBlocksPerQueue){
             nBlocksToSend+=nHHBlocks;
         }
+        int nBlocksInChunk = nBlocksToSend;
         // iterate through number of workers, num of hh blocks depends on the queue.
         while (nBlocksToSend > 0) {
             for (int q = 0; q < localHHWorkQueues.size(); q++) {
                 if ( numHHBlocksPerQueue[q] > 0) {
                     blockCounter++;
                     // create an array of households
-                    blockSize =MAX_BLOCK_SIZE < households.length - householdCounter? MAX_BLOCK_SIZE: households.length - householdCounter;
+                    blockSize =maxBlockSize < households.length - householdCounter? maxBlockSize: households.length - householdCounter;
     //                remove
     //                serverLogger.info("Max block size: " + MAX_BLOCK_SIZE);
     //                serverLogger.info("households.length - householdCounter: " + (households.length - householdCounter) );
@@ -292,6 +348,8 @@ public class MSServerTask extends MessageProcessingTask {
                     processHouseholds.setId(MessageID.PROCESS_HOUSEHOLDS);
                     processHouseholds.setValue("blockNumber", blockCounter);
                     processHouseholds.setValue("households", householdBlock);
+                    copyChunkValues(msg, processHouseholds);
+                    processHouseholds.setValue("blocksInChunk", nBlocksInChunk);
 
                     String queueName = localHHWorkQueues.get(q);
                     serverLogger.info(getName() + ", Sending HH Block " + blockCounter + ", ( "
@@ -308,6 +366,55 @@ public class MSServerTask extends MessageProcessingTask {
 
         serverLogger.info(getName() + ", Finished sending households.");
     }
+
+    /**
+     * Send the model timings of all the workers on this node to the master.
+     */
+    private void sendNodeTimings(){
+        Message timings = createMessage();
+        timings.setId(MessageID.MODEL_TIMINGS);
+        timings.setValue("node", nodeNumber);
+        timings.setValue("histograms", nodeTimings);
+        serverLogger.info(getName() + ", Sending model timings of node " + nodeNumber);
+        sendTo("TaskMasterQueue", timings);
+    }
+
+    /**
+     * A scheduled chunk can hold no households once the sample rate is
+     * applied.  Tell the master it is done so the node gets another one.
+     * @param msg the message from the master
+     */
+    private void sendEmptyChunk(Message msg){
+        if(msg.getValue("chunk") == null){
+            return;
+        }
+        Message processed = createMessage();
+        if(msg.getId().equals(MessageID.PROCESS_VISITOR)){
+            processed.setId(MessageID.VISITOR_HHS_PROCESSED);
+        }else{
+            processed.setId(MessageID.HOUSEHOLDS_PROCESSED);
+            processed.setValue("ldtToursExpected", 0);
+        }
+        processed.setValue("nHhs", 0);
+        copyChunkValues(msg, processed);
+        processed.setValue("blocksInChunk", 1);
+        serverLogger.info(getName() + ", Chunk " + msg.getValue("chunk") + " has no households");
+        sendTo("TaskMasterQueue", processed);
+    }
+
+    /**
+     * Copy the chunk number and the node's queue name, which the master uses
+     * to hand out rows, from one message to another.
+     * @param from message carrying the values
+     * @param to message to copy them to
+     */
+    static void copyChunkValues(Message from, Message to){
+        if(from.getValue("chunk") != null){
+            to.setValue("chunk", from.getValue("chunk"));
+            to.setValue("serverQueue", from.getValue("serverQueue"));
+            to.setValue("blocksInChunk", from.getValue("blocksInChunk"));
+        }
+    }
     
     
  
@@ -448,15 +555,13 @@ public class MSServerTask extends MessageProcessingTask {
         //else
         //   number of blocks per queue = nBlocksBeingSent / nHHWorkQueues for 1..n-1 queues
         //                              = nBlocksBeingSent /nHHWorkQueues + 1 for last queue.
-    private int[] calculateHhBlocksPerQueue(int nHHs){
-
-        MAX_BLOCK_SIZE = (nHHs / localHHWorkQueues.size()) > MAX_BLOCK_SIZE ? MAX_BLOCK_SIZE: nHHs / localHHWorkQueues.size();
+    private int[] calculateHhBlocksPerQueue(int nHHs, int maxBlockSize){
 
         int nBlocksBeingSent;
-        if(nHHs % MAX_BLOCK_SIZE == 0){
-            nBlocksBeingSent = nHHs / MAX_BLOCK_SIZE;
+        if(nHHs % maxBlockSize == 0){
+            nBlocksBeingSent = nHHs / maxBlockSize;
         }else{
-            nBlocksBeingSent = (nHHs / MAX_BLOCK_SIZE) + 1;
+            nBlocksBeingSent = (nHHs / maxBlockSize) + 1;
         }
 
         int[] nBlocksPerQueue = new int[localHHWorkQueues.size()];
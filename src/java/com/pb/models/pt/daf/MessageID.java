@@ -46,6 +46,8 @@ public final class MessageID {
     
     public static final String CALCULATE_WORKPLACE_LOCATIONS = "CalculateWorkplaceLocations";
 
+    public static final String WORKPLACE_LOCATIONS_FINISHED = "WorkplaceLocationsFinished";
+
     public static final String PROCESS_HOUSEHOLDS = "ProcessHouseholds";
     
     public static final String PROCESS_VISITOR = "ProcessVisitors";
@@ -96,6 +98,8 @@ public final class MessageID {
 
     public static final String MODEL_TIMINGS = "ModelTimings";
 
+    public static final String REPORT_MODEL_TIMINGS = "ReportModelTimings";
+
     public static final String ALL_FILES_WRITTEN = "AllFilesWritten";
     
     public static final String LDT_HOUSEHOLDS = "LDT Households";
@@ -20,8 +20,6 @@ package com.pb.models.pt.daf;
 
 import com.pb.common.daf.Message;
 import com.pb.common.daf.MessageProcessingTask;
-import com.pb.common.matrix.Matrix;
-import com.pb.common.model.ModelException;
 import com.pb.common.util.ResourceUtil;
 import com.pb.models.pt.*;
 import com.pb.models.pt.ldt.LDBinaryChoiceModel;
@@ -29,13 +27,11 @@ import com.pb.models.pt.ldt.LDPatternModel;
 import com.pb.models.pt.ldt.LDTour;
 import com.pb.models.pt.ldt.RunLDTModels;
 import com.pb.models.pt.tourmodes.AutoDriver;
-import com.pb.models.pt.util.MCLogsumsInMemory;
 import com.pb.models.pt.util.SkimsInMemory;
 import com.pb.models.utils.Tracer;
 import org.apache.log4j.Logger;
 import java.io.File;
 import java.util.HashMap;
-import java.util.Random;
 import java.util.ResourceBundle;
 
 /**
@@ -71,20 +67,8 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
 
     protected TazManager tazManager;
 
-    private PatternChoiceModel patternModel;
-    private TourDestinationChoiceModel dcModel;
-    private TourModeChoiceModel tourMC;
-
-    private StopPurposeModel iStopPurposeModel;
-    private TourSchedulingModel tourSchedulingModel;
-    private TourStopChoiceModel tourStopChoiceModel;
-
-    private StopDestinationChoiceModel stopDestinationChoiceModel;
-    private StopDurationModel stopDurationModel;
-    private TripModeChoiceModel tripModeChoiceModel;
-    private WorkBasedTourModel workBasedTourModel;
+    private ShortDistanceSimulator householdSimulator;
     
-    private static Matrix[] workMCLogsums;
     double durationTime;
     double primaryTime;
     double secondaryTime;
@@ -93,23 +77,10 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
     double tripModeTime;
 
     PTHousehold[] households;
+    Message householdBlockMsg;      //the message the households came in
+    LatencyHistogram householdBlockTimes = new LatencyHistogram();
     boolean firstProcessHouseholdMessage = true;
 
-    //I did some testing to check the variability of the
-    //first number in the sequence and these produce
-    //a nice set of "random" numbers.
-    long patternModelFixedSeed = Long.MIN_VALUE;
-    long tourSchedulingFixedSeed = Long.MIN_VALUE/3;
-    long tourDestinationFixedSeed = Long.MIN_VALUE/9;
-    long tourModeFixedSeed = Long.MIN_VALUE/27;
-    long tourStopFixedSeed = Long.MIN_VALUE/81;
-    long stopPurposeFixedSeed = Long.MAX_VALUE;
-    long stopDestinationFixedSeed = Long.MAX_VALUE/3;
-    long stopDuration1FixedSeed = Long.MAX_VALUE/9;
-    long stopDuration2FixedSeed = Long.MAX_VALUE/27;
-    long tripModeFixedSeed = Long.MAX_VALUE/81;
-    long workBasedFixedSeed = Long.MAX_VALUE/243;
-
 
     /**
      * Onstart method sets up model
@@ -227,7 +198,42 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
                 firstProcessHouseholdMessage = false;
             }
             processHouseholds(msg);
+
+        } else if(msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)){
+            reportModelTimings(msg);
+        }
+    }
+
+    /**
+     * Send the call durations of the models on all household threads, and of
+     * the household blocks, to the queue that asked for them.
+     *
+     * @param msg REPORT_MODEL_TIMINGS message with the reply queue
+     */
+    private void reportModelTimings(Message msg){
+        HashMap<String, LatencyHistogram> histograms = new HashMap<String, LatencyHistogram>();
+        addHistogram(histograms, "householdBlock", householdBlockTimes);
+        if (householdSimulator != null) {
+            householdSimulator.addHistograms(histograms);
+        }
+
+        Message timings = createMessage();
+        timings.setId(MessageID.MODEL_TIMINGS);
+        timings.setValue("histograms", histograms);
+        ptLogger.info(getName() + ", Sending model timings to " + msg.getValue("replyQueue"));
+        sendTo((String) msg.getValue("replyQueue"), timings);
+    }
+
+    /**
+     * Add a histogram to the one kept under its name.
+     */
+    static void addHistogram(HashMap<String, LatencyHistogram> histograms, String name, LatencyHistogram histogram){
+        LatencyHistogram total = histograms.get(name);
+        if (total == null) {
+            total = new LatencyHistogram();
+            histograms.put(name, total);
         }
+        total.add(histogram);
     }
     
     private void runAutoOwnershipModel(Message msg){
@@ -247,21 +253,25 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
         ptLogger.info(getName() + ", Household array length: " + households.length);
 
         ptLogger.info(getName() + ", Starting auto ownership calculations.");
-        HashMap<Integer, Byte> autosByHhId =new HashMap<Integer, Byte>();
+        int[] hhIds = new int[households.length];
+        byte[] autos = new byte[households.length];
 
-        for (PTHousehold household : households) {
+        for (int i = 0; i < households.length; i++) {
+            PTHousehold household = households[i];
             household.workers = (byte)workersByHhId[household.ID];
             //logger.info("*** Summary: " + household.summary());
             aom.calculateUtility(household);
             household.autos = (byte) aom.chooseAutoOwnershipWithRandomSeedControl(sensitivityTestingMode, household.ID);
-            autosByHhId.put(household.ID, household.autos);
+            hhIds[i] = household.ID;
+            autos[i] = household.autos;
         }
 
 
         ptLogger.info(getName() + ", Sending AutoOwnership results back to TaskMasterQueue");
         Message returnMsg = createMessage();
         returnMsg.setId(MessageID.AUTO_OWNERSHIP_CALCULATED);
-        returnMsg.setValue("autosByHhId", autosByHhId);
+        returnMsg.setValue("hhIds", hhIds);
+        returnMsg.setValue("autos", autos);
         sendTo("TaskMasterQueue", returnMsg );
 
         ptLogger.info(getName() + ", Finished auto ownership.");
@@ -285,9 +295,11 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
     * @param msg Message
     */
     public void processHouseholds (Message msg) {
+        long start = System.nanoTime();
 
         ptLogger.info(getName() + ", Processing hh block " +  msg.getValue("blockNumber"));
         households = (PTHousehold[]) msg.getValue("households");
+        householdBlockMsg = msg;
 
         //You can assume that the person wants to process visitor hhs
         //or otherwise you wouldn't be getting a message with visitor
@@ -306,6 +318,7 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
             returnMsg.setId(MessageID.HOUSEHOLDS_PROCESSED);
             returnMsg.setValue("households", households);
             returnMsg.setValue("ldtToursExpected", numLDTTours);
+            MSServerTask.copyChunkValues(msg, returnMsg);
             ptLogger.info(getName() + ", Sending households to results queue.");
             sendTo("ResultsWriterQueue", returnMsg);
 
@@ -313,6 +326,7 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
             int numLDTTours = runLDTInitialModels();
             runShortDistanceModels(numLDTTours);
         }
+        householdBlockTimes.record(System.nanoTime() - start);
     }
 
     private void initializeLDTModels () {
@@ -352,42 +366,18 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
     }
 
     private void initializeSDTModels(){
-        if(patternModel == null){
-                 ptLogger.info(getName() + ", Initializing stop purpose model.");
-                iStopPurposeModel = new StopPurposeModel( ptRb);
-
-                 ptLogger.info(getName() + ", Initializing the MC model.");
-                tourMC = new TourModeChoiceModel( ptRb);
-
-                 ptLogger.info(getName() + ", Initializing the DC model.");
-                dcModel = new TourDestinationChoiceModel( ptRb);
-                dcModel.buildModel(tazManager);
-
-                 ptLogger.info(getName() + ", Initializing pattern model.");
-                patternModel = new PatternChoiceModel( ptRb);
-                patternModel.buildModel();
-
-                 ptLogger.info(getName() + ", Initializing tour scheduling model.");
-                tourSchedulingModel = new TourSchedulingModel( ptRb,  occReferencer);
-                tourSchedulingModel.buildModel();
-
-                ptLogger.info(getName() + ", Intializing stop destination.");
-                stopDestinationChoiceModel = createStopDestinationChoiceModel(); 
-                stopDestinationChoiceModel.buildModel(tazManager);  
-
-                 ptLogger.info(getName() + ", Intializing stop mode choice.");
-                tourStopChoiceModel = new TourStopChoiceModel( ptRb);
-                tourStopChoiceModel.buildModel();
-
-                 ptLogger.info(getName() + ", Initializing stop duration model.");
-                stopDurationModel = new StopDurationModel( ptRb,  globalRb);
-                stopDurationModel.buildModel( skims);
-
-                 ptLogger.info(getName() + ", Initializing trip mode choice model.");
-                tripModeChoiceModel = new TripModeChoiceModel( ptRb);
+        if(householdSimulator == null){
+            householdSimulator = new ShortDistanceSimulator(getName(), ptRb,
+                    globalRb, occReferencer, skims, tazManager) {
+                protected StopDestinationChoiceModel createStopDestinationChoiceModel() {
+                    return MicroSimulationWorkerTask.this.createStopDestinationChoiceModel();
+                }
+            };
+            householdSimulator.setSensitivityTestingMode(sensitivityTestingMode);
 
-                 ptLogger.info(getName() + ", Initializing work-based tour model.");
-                workBasedTourModel = new WorkBasedTourModel(ptRb);
+            //households in a block are run concurrently when threads > 1
+            int threads = ResourceUtil.getIntegerProperty(ptRb, "sdt.household.threads", 1);
+            householdSimulator.buildModels(threads);
         }
     }
     
@@ -432,281 +422,13 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
     private void runShortDistanceModels(int numLDTTours){
 
     	ptLogger.info(getName() + ", Running Short-distance travel models");
-    	//We will set the seed each time we call a new model and the seed will either
-    	//be the sum of the modelSeed and the personSeed OR if we are in sensitivity testing
-    	//mode the seed will be the sum of the 2 fixed seeds plus the clock time in order
-    	//to randomize the random number sequence.
-    	Random random = new Random();  //we will set the seed each time
-
-    	workMCLogsums = new Matrix[TourModeChoiceLogsumManager.TOTALSEGMENTS];
-    	for (int segment = 0; segment < TourModeChoiceLogsumManager.TOTALSEGMENTS; segment++) {
-    		workMCLogsums[segment] = MCLogsumsInMemory.mcLogsumsInMemory[ActivityPurpose.WORK_BASED.ordinal()][segment];
-    	}
-		
-    	for (PTHousehold household : households) {
-
-    		//check to see if the household is making a long-distance
-    		//tour on the model day - if so, go to the next household
-    		//(the LDT models have taken care of this hh's tours)
-    		if(household.isHhMakingALdtOnModelDay()){
-    			continue;
-    		}
-
-    		if (tracer.isTraceHousehold(household.ID)) {
-    			ptLogger.info(getName() + ", " + household.summary());
-    		}
-
-    		int segment = IncomeSegmenter.calcLogsumSegment(household.income, household.autos, household.workers);
-
-    		for (PTPerson person : household.persons) {
-
-    			//no reason to process a person making a long-distance
-    			//tour because you can't do both.
-    			if(PTPerson.isPersonMakingALdtOnModelDay(person)){
-    				continue;
-    			}
-
-    			try {
-    				boolean tracePerson = tracer.isTracePerson(person.hhID + "_" + person.memberID);
-
-    				if (tracePerson) {
-    					ptLogger.info(getName() + ", Applying PT models to HH " + household.ID + ", Person "
-    							+ person.memberID + ".");
-    					ptLogger.info(getName() + ", " + person.summary());
-    				}
-
-
-
-    				ptLogger.debug(getName() + ", Running the daily pattern choice model.");
-    				double patternModelLogsum = patternModel.getUtility(household, person,  skims.pkDist);
-
-    				if(sensitivityTestingMode) random.setSeed(patternModelFixedSeed+person.randomSeed+System.currentTimeMillis());
-    				else random.setSeed(patternModelFixedSeed + person.randomSeed);
-
-    				String patternName = patternModel.choosePattern(random).getName();
-
-    				if (tracePerson) {
-    					ptLogger.info(getName() + ", " + (person.hhID + "_" + person.memberID)
-    							+ " has pattern -> " + patternName);
-    				}
-
-    				person.setPattern(new Pattern(patternName));
-    				person.setPatternLogsum(patternModelLogsum); 
-    				ptLogger.debug(getName() + ", Pattern is set");
-
-    				if(person.weekdayPattern.toString().equals("h")||
-    						person.weekdayPattern.toString().equals("H"))
-    					continue;
-
-    				person.weekdayTours = PatternChoiceModel.convertToTours(
-    						household, person, person.getPattern());
-
-    				person.orderTours();
-    				person.prioritizeTours();
-
-    				ptLogger.debug(getName() + ", Running stop choice.");
-    				
-    				for (int t = 0; t < person.getTourCount(); ++t) {
-    					Tour tour = person.weekdayTours[t];
-
-    					if(person.getTourCount()>=3){
-    						tourStopChoiceModel.calculateUtilities(household, person, tour);
-    						if(sensitivityTestingMode)
-    							random.setSeed(tourStopFixedSeed + person.randomSeed + System.currentTimeMillis());
-    						else random.setSeed(tourStopFixedSeed + person.randomSeed);
-
-    						tourStopChoiceModel.chooseStopType(random);
-    					}
-    				}
-
-    				ptLogger.debug(getName() + ", Running the scheduling model.");
-    				
-    				if(sensitivityTestingMode)
-    					random.setSeed(tourSchedulingFixedSeed + person.randomSeed + System.currentTimeMillis());
-    				else random.setSeed(tourSchedulingFixedSeed + person.randomSeed);
-
-    				tourSchedulingModel.chooseAllSchedules(household, person,
-    						skims, random);
-    				
-    				ptLogger.debug(getName() + ", Schedule is set");
-
-    				for (int t = 0; t < person.getTourCount(); ++t) {
-    					Tour tour = person.weekdayTours[t];
-
-    					ActivityPurpose purpose = tour.getPurpose();
-    					Matrix time =  skims.getTimeMatrix(purpose);
-    					Matrix dist =  skims.getDistanceMatrix(purpose);
-
-    					Matrix logsum = MCLogsumsInMemory.mcLogsumsInMemory[purpose.ordinal()][segment];
-
-    					Taz dest;
-
-    					if (purpose != ActivityPurpose.WORK && purpose != ActivityPurpose.WORK_BASED) {
-    						ptLogger.debug(getName() + ", Running primary destination choice for tour " + tour.tourNumber);
-
-    								dcModel.calculateUtility(household, person, tour, logsum, dist, time);
-
-    								if(sensitivityTestingMode)
-    									random.setSeed(tourDestinationFixedSeed + person.randomSeed + System.currentTimeMillis());
-    								else random.setSeed(tourDestinationFixedSeed + person.randomSeed);
-
-    								try {
-    									dest = dcModel.chooseZone(random);
-    								} catch (ModelException e) {
-    									ptLogger.debug(getName() + ", Ignoring non-fatal model exception, " + e);
-    									ptLogger.warn(getName() + ", Setting destination to home taz.");
-    									dest = tazManager.getTazDataHashtable().get((int) person.homeTaz);
-    								}
-    								tour.primaryDestination.location.zoneNumber = dest.zoneNumber;
-    					} else {
-    						ptLogger.debug(getName() + ", Using work TAZ " + person.workTaz);
-    						dest = tazManager.getTazDataHashtable().get((int) person.workTaz);
-    						tour.primaryDestination.location.zoneNumber = person.workTaz;
-    					}
-    					ptLogger.debug(getName() + ", Primary destination is set");
-
-    					if (tracePerson) {
-    						ptLogger.info(getName() + ", Chose destination: "
-    								+ tour.primaryDestination.location.zoneNumber);
-    					}
-    					Taz orig = tazManager.getTaz(tour.begin.location.zoneNumber);
-
-    					ptLogger.debug(getName() + ", Running tour mode choice from " + orig.getZoneNumber() + " to taz  "
-    							+ dest.getZoneNumber() + " for tour number " + tour.tourNumber);
-    					tourMC.setAttributes(household, person, tour,  skims, orig, dest);
-    					tourMC.calculateUtility();                        
-
-    					if(sensitivityTestingMode)
-    						random.setSeed(tourModeFixedSeed + person.randomSeed + System.currentTimeMillis());
-    					else random.setSeed(tourModeFixedSeed + person.randomSeed);
-
-    					tour.primaryMode = tourMC.chooseMode(random);
-    					ptLogger.debug(getName() + ", Tour mode is set");
-
-    					if (tracePerson) {
-    						ptLogger.info(getName() + ", Chose mode: " + tour.primaryMode);
-    					}
-
-    					ptLogger.debug(getName() + ", Running intermediate stop purpose model for tour " + tour.tourNumber);
-
-    					if(sensitivityTestingMode)
-    						random.setSeed(stopPurposeFixedSeed + person.randomSeed + System.currentTimeMillis());
-    					else random.setSeed(stopPurposeFixedSeed + person.randomSeed);
-    					iStopPurposeModel.selectStopPurpose(tour, person, random);
-
-
-    					ptLogger.debug(getName() + ", Running stop location choice for tour " + tour.tourNumber);
-    					
-    					if(sensitivityTestingMode)
-    						random.setSeed(stopDestinationFixedSeed + person.randomSeed + System.currentTimeMillis());
-    					else random.setSeed(stopDestinationFixedSeed + person.randomSeed);
-    					
-    					stopDestinationChoiceModel.calculateStopZones(household, person, tour,  skims, random);
-
-    					if (tour.intermediateStop1 != null) {
-    						ptLogger.debug("Running stop duration choice for stop 1 for tour " + tour.tourNumber);
-    						ptLogger.debug("From zone " + tour.begin.location.zoneNumber
-    								+ " to "  + tour.intermediateStop1.location.zoneNumber);
-
-    						ptLogger.debug("Calculating stop duration utilities");
-    						
-    						stopDurationModel.calculateUtilities(person, tour,tour.intermediateStop1);
-
-    						if(sensitivityTestingMode)
-    							random.setSeed(stopDuration1FixedSeed + person.randomSeed + System.currentTimeMillis());
-    						else random.setSeed(stopDuration1FixedSeed + person.randomSeed);
-    						short duration = (short) stopDurationModel.chooseDuration(random);
-    						tour.intermediateStop1.duration = duration;
-
-    						if (tracer.isTracePerson(person.hhID + "_" + person.memberID)) {
-    							ptLogger.info(getName() + ", Stop 1 duration: " + duration);
-    							ptLogger.info(getName() + ", Stop 1 start: "
-    									+ tour.intermediateStop1.startTime);
-    							ptLogger.info(getName() + ", Stop 1 end: "
-    									+ tour.intermediateStop1.endTime);
-    						}
-    					} else {
-    						// assign a start time from the tour begin activity
-    						tour.primaryDestination.startTime = tour.begin.endTime;
-    					}
-
-    					if (tour.intermediateStop2 != null) {
-    						ptLogger.debug("Running stop duration choice.");
-    						stopDurationModel.calculateUtilities(person, tour, tour.intermediateStop2);
-    						if(sensitivityTestingMode)
-    							random.setSeed(stopDuration2FixedSeed + person.randomSeed + System.currentTimeMillis());
-    						else random.setSeed(stopDuration2FixedSeed + person.randomSeed);
-    						short duration = (short) stopDurationModel.chooseDuration(random);
-    						tour.intermediateStop2.duration = duration;
-
-    						if (tracer.isTracePerson(person.hhID + "_" + person.memberID)) {
-    							ptLogger.info(getName() + ", Stop 2 duration: " + duration);
-    							ptLogger.info(getName() + ", Stop 2 start: "
-    									+ tour.intermediateStop2.startTime);
-    							ptLogger.info(getName() + ", Stop 2 end: "
-    									+ tour.intermediateStop2.endTime);
-    						}
-    					} else {
-    						// assign an end time from the tour end activity
-    						tour.primaryDestination.endTime = tour.end.startTime;
-    					}
-
-    					ptLogger.debug(getName() + ", Running trip mode choice.");
-    					if(sensitivityTestingMode)
-    						random.setSeed(tripModeFixedSeed + person.randomSeed + System.currentTimeMillis());
-    					else random.setSeed(tripModeFixedSeed + person.randomSeed);
-    					tripModeChoiceModel.calculateTripModes(household,
-    							person, tour,  skims, tazManager, random);
-    					ptLogger.debug(getName() + ", Trip mode is set");
-    				}
-
-    				//process work-based tours
-    				if(person.weekdayWorkBasedTours!=null){
-    					Tour[] wbTours = person.weekdayWorkBasedTours;
-
-
-    					for (Tour wbTour : wbTours) {
-    						int parentTourNumber = wbTour.parentTourNumber;
-    						wbTour.setWorkBasedTourAttributes(person.weekdayTours[parentTourNumber]);
-    						if(sensitivityTestingMode)
-    							random.setSeed(workBasedFixedSeed + person.randomSeed + wbTour.tourNumber + System.currentTimeMillis());
-    						else random.setSeed(workBasedFixedSeed + person.randomSeed + wbTour.tourNumber);
-
-    						workBasedTourModel.calculateWorkBasedTour(household,
-    								person, wbTour,  skims, workMCLogsums, tazManager,
-    								dcModel, tourMC, tripModeChoiceModel, random);
-    					}
-    				}
-    			} catch (ModelException e) {
-    				ptLogger.error("Caught an exception processing person: "
-    						+ (person.hhID + "_" + person.memberID));
-    				ptLogger.error("Summarizing person: " + (person.hhID + "_" + person.memberID));
-
-    				ptLogger.error("Home-Based Tours:");
-    				for (int n = 0; n < person.getTourCount(); ++n) {
-    					Tour tour = person.weekdayTours[n];
-    					tour.print();
-    				}
-    				//print the work-based tours
-    				if(person.weekdayWorkBasedTours!=null){
-    					ptLogger.error("Work-Based Tours:");
-    					Tour[] wbTours = person.weekdayWorkBasedTours;
-    					for (Tour tour : wbTours) {
-    						tour.print();
-    						ptLogger.info(getName() + ", Parent tour number " + tour.parentTourNumber);
-    					}
-    				}
-    				ptLogger.error(person.summary());
-    				throw new RuntimeException(e);
-    			}
-
-    		}
-    	}
 
+    	householdSimulator.simulate(households);
 
     	Message returnMsg = createMessage();
     	returnMsg.setValue("households", households);
     	returnMsg.setValue("ldtToursExpected", numLDTTours);
+    	MSServerTask.copyChunkValues(householdBlockMsg, returnMsg);
     	if(households[0].isVisitor()){
     		returnMsg.setId(MessageID.VISITOR_HHS_PROCESSED);
     		ptLogger.info(getName() + ", Sending Visitor HHs to results queue.");
@@ -717,6 +439,4 @@ public class MicroSimulationWorkerTask extends MessageProcessingTask {
     	sendTo("ResultsWriterQueue", returnMsg);
 
     }
-
-
 }
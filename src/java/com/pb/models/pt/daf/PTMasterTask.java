@@ -110,20 +110,25 @@ public class PTMasterTask extends Task {
     int householdsProcessedCount = 0;
     int visitorsProcessedCount = 0;
     int timingStatementsCount = 0;
+    int timingStatementsExpected = 0;
     int numLDTToursExpected = 0; 
     int numLDTToursProcessed = 0; 
+
+    //pull scheduling of household rows, used when sdt.schedule.chunk.size > 0
+    private int scheduleChunkSize;
+    private String scheduledMsgId;
+    private ArrayList scheduledAttachments;
+    private int nextChunkRow;
+    private int lastChunkRow;
+    private int chunkCounter;
+    private HashMap<Integer, Integer> blocksDoneByChunk = new HashMap<Integer, Integer>();
+    private HashMap<String, Port> msServerPortsByName = new HashMap<String, Port>();
     
     //used by status logger
     private int timePeriod;
 
-    private long activityPattern = 0;
-    private long tourScheduling = 0;
-    private long tourDestination = 0;
-    private long tourMode = 0;
-    private long tourStops = 0;
-    private long stopDestination = 0;
-    private long stopDuration = 0;
-    private long tripMode = 0;
+    //model call durations of all nodes, by model
+    private TreeMap<String, LatencyHistogram> modelTimings = new TreeMap<String, LatencyHistogram>();
 
     boolean runningSEAM;
 
@@ -144,6 +149,9 @@ public class PTMasterTask extends Task {
         }
 
         try{
+        reader.createSynPopCache();   //converts SynPopH and SynPopP once if sdt.synpop.cache is set
+        reader.createPersonIndex();   //indexes SynPopP by hhId once if sdt.person.index is true
+
         ptDafMasterLogger.info(getName() + ", Reading SynPopH and SynPopP files and collecting info");
         hhInfo = readHouseholdFile();     // returns first hhId (0 or 1), num of HHs, nWorkers per HH, income per HH, homeTaz per HH.
                                                           // (hhInfo[0][0] = firstIdNum,
@@ -197,7 +205,12 @@ public class PTMasterTask extends Task {
             	shadowPriceByIter.put(iter,shadowPrice.clone());
             	
             	initializeWorkplaceHolder();
-            	sendWorkplaceLocationWork(hhInfo[5], hhInfo[4], shadowPrice);  //send segment per HH, and homeTazByHH out to workers with message
+            	//segment and homeTaz per HH go with the first iteration only, the workers keep them
+            	if(iter == 1){
+            		sendWorkplaceLocationWork(hhInfo[5], hhInfo[4], shadowPrice);  //send segment per HH, and homeTazByHH out to workers with message
+            	}else{
+            		sendWorkplaceLocationWork(null, null, shadowPrice);
+            	}
             	receiveAndProcessMessages();    //implies that work place Locations have been determined 
             	
             	ptDafMasterLogger.info("--------------------");
@@ -228,6 +241,7 @@ public class PTMasterTask extends Task {
             		converged = true;
             	}
             }
+            sendWorkplaceLocationFinished();
             // writing the shadow price data from work place location choice model
             String fileName = globalRb.getString("workplace.shadow.price.by.iter");
             writeShadowPriceByIter(fileName);
@@ -257,6 +271,7 @@ public class PTMasterTask extends Task {
         // If Visitor model is specified in the properties file
         // NUM_VISITOR_HH is defined in visitorInfo[1]
         if (ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.vm", false)) { 
+            vmReader.createPersonIndex();
             visitorsInfo=vmReader.getInfoFromVisitorHouseholdFile();
             int[] nullWorkerArray = new int[visitorsInfo[1] + 1];
             NUM_VISITOR_PERSONS = vmReader.getInfoFromPersonFile(nullWorkerArray);
@@ -269,6 +284,13 @@ public class PTMasterTask extends Task {
             }
         }
 
+        if (ResourceUtil.getBooleanProperty(ptRb, "sdt.report.model.timings", true) &&
+                (ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.workplaces", true) ||
+                 ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.sdt", true) ||
+                 ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.vm", false))) {
+            collectModelTimings();
+        }
+
         if (ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.workplaces", true) ||
                    ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.sdt", true) ||
                    ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.ldt", true) ||
@@ -359,6 +381,12 @@ public class PTMasterTask extends Task {
 //        incomeConversionFactor = Float.parseFloat(cf);
         sampleRate = ResourceUtil.getIntegerProperty(globalRb, "pt.sample.rate", 1);
 
+        //rows of SynPopH handed out at a time, 0 to give each node one range of rows
+        scheduleChunkSize = ResourceUtil.getIntegerProperty(ptRb, "sdt.schedule.chunk.size", 0);
+        if (scheduleChunkSize > 0 && scheduleChunkSize < sampleRate) {
+            scheduleChunkSize = sampleRate;
+        }
+
 
 //        int lowMax = ResourceUtil.getIntegerProperty(ptRb,"pt.low.max.income",20000);
 //        int highMax = ResourceUtil.getIntegerProperty(ptRb,"pt.med.high.max.income",60000);
@@ -423,6 +451,7 @@ public class PTMasterTask extends Task {
         msServerPorts = new Port[msWorkQueues.size()];
         for(int i=0;i<msWorkQueues.size();i++){             //work queues will always start on node 1 (and be numbered 1...n)
             msServerPorts[i] = pManager.createPort(msWorkQueues.get(i)); //
+            msServerPortsByName.put(msServerPorts[i].getName(), msServerPorts[i]);
         }
 
         dcWorkPorts = new Port[dcWorkQueues.size()];
@@ -484,16 +513,17 @@ public class PTMasterTask extends Task {
         sendMicroSimulatedWork(NUM_HOUSEHOLDS, MessageID.CALCULATE_AUTO_OWNERSHIP, attachment);
     }
 
-    private void assignSegmentToHhs(HashMap<Integer, Byte> autosByHhId){
+    private void assignSegmentToHhs(int[] hhIds, byte[] autos){
         int incomeInHh;
         int nWorkersInHh;
         int nAutosInHh;
         int segment;
 
-        for (Integer hhId : autosByHhId.keySet()) {
+        for (int i = 0; i < hhIds.length; i++) {
+            int hhId = hhIds[i];
             incomeInHh = hhInfo[3][hhId];
             nWorkersInHh = hhInfo[2][hhId];
-            nAutosInHh = autosByHhId.get(hhId);
+            nAutosInHh = autos[i];
             hhInfo[3][hhId] = nAutosInHh;
             segment = IncomeSegmenter.calcLogsumSegment(incomeInHh, nAutosInHh, nWorkersInHh);
             hhInfo[5][hhId] = segment;
@@ -509,6 +539,18 @@ public class PTMasterTask extends Task {
         sendMicroSimulatedWork(NUM_PERSONS, MessageID.CALCULATE_WORKPLACE_LOCATIONS, attachment);
     }
 
+    /**
+     * Tell the workers that the shadow price iterations are over, so they
+     * release the data kept between them.  No reply is expected.
+     */
+    private void sendWorkplaceLocationFinished(){
+        for (Port port : msServerPorts) {
+            Message message = mFactory.createMessage();
+            message.setId(MessageID.WORKPLACE_LOCATIONS_FINISHED);
+            port.send(message);
+        }
+    }
+
     private void readMCLogsumsWork(){
     	ArrayList<Message> messages = createReadMCLogsumWorkMessages();
         sendAggregateWork(dcWorkPorts, messages, "Read MC Logsum work");
@@ -527,13 +569,21 @@ public class PTMasterTask extends Task {
         attachment.add(3, memberIds);
         attachment.add(4, workplaces);
 
-        sendMicroSimulatedWork(hhInfo[1][0], MessageID.PROCESS_HOUSEHOLDS, attachment);
+        if (scheduleChunkSize > 0) {
+            startScheduledWork(hhInfo[1][0], MessageID.PROCESS_HOUSEHOLDS, attachment);
+        } else {
+            sendMicroSimulatedWork(hhInfo[1][0], MessageID.PROCESS_HOUSEHOLDS, attachment);
+        }
     }
 
     private void sendVisitorsWork(){
         ArrayList attachment = new ArrayList();
         ptDafMasterLogger.info(getName() + ", vm_nHhs: " + visitorsInfo[1] + " vm_nPers: " + NUM_VISITOR_PERSONS);
-        sendMicroSimulatedWork(visitorsInfo[1], MessageID.PROCESS_VISITOR, attachment);
+        if (scheduleChunkSize > 0) {
+            startScheduledWork(visitorsInfo[1], MessageID.PROCESS_VISITOR, attachment);
+        } else {
+            sendMicroSimulatedWork(visitorsInfo[1], MessageID.PROCESS_VISITOR, attachment);
+        }
     }
 
     
@@ -689,6 +739,102 @@ public class PTMasterTask extends Task {
         msServerPorts[msServerPorts.length -1].send(message);
     }
 
+    /**
+     * Hand out households a chunk of rows at a time instead of one range per
+     * node.  Each node starts with sdt.schedule.chunks.per.node chunks, and
+     * gets another one each time it finishes one, so nodes that get through
+     * their households quickly take more of them.
+     *
+     * The attachments only go with the first chunk sent to each node; the
+     * node keeps them for the chunks that follow.
+     * @param nAgents households in the file
+     * @param msgId PROCESS_HOUSEHOLDS or PROCESS_VISITOR
+     * @param attachments necessary info
+     */
+    private void startScheduledWork(int nAgents, String msgId, ArrayList attachments){
+        scheduledMsgId = msgId;
+        scheduledAttachments = attachments;
+        nextChunkRow = 2;      //row 1 is the header row
+        lastChunkRow = nAgents + 1;
+        blocksDoneByChunk.clear();
+
+        int chunksPerNode = ResourceUtil.getIntegerProperty(ptRb, "sdt.schedule.chunks.per.node", 2);
+        ptDafMasterLogger.info(getName() + ", Scheduling " + nAgents + " rows in chunks of "
+                + scheduleChunkSize + ", " + chunksPerNode + " chunks per node at a time");
+        for (int c = 0; c < chunksPerNode; c++) {
+            for (Port port : msServerPorts) {
+                sendNextChunk(port, c == 0);
+            }
+        }
+    }
+
+    /**
+     * Send the next chunk of rows, if there are any left.
+     * @param port the node's port
+     * @param attach whether to send the attachments with the chunk
+     */
+    private void sendNextChunk(Port port, boolean attach){
+        if (nextChunkRow > lastChunkRow) {
+            return;
+        }
+        int startRow = nextChunkRow;
+        int endRow = Math.min(startRow + scheduleChunkSize - 1, lastChunkRow);
+        nextChunkRow = endRow + 1;
+        chunkCounter++;
+
+        Message message = mFactory.createMessage();
+        message.setId(scheduledMsgId);
+        message.setValue("startRow", startRow);
+        message.setValue("endRow", endRow);
+        message.setValue("chunk", chunkCounter);
+        message.setValue("serverQueue", port.getName());
+        message.setValue("attachments", attach ? scheduledAttachments : null);
+        ptDafMasterLogger.info(getName() + ", Sending chunk " + chunkCounter + ", rows " + startRow
+                + " thru " + endRow + " to " + port.getName());
+        port.send(message);
+    }
+
+    /**
+     * Count a processed block against its chunk, and when the chunk is
+     * finished send the node that did it another one.
+     * @param msg HOUSEHOLDS_PROCESSED or VISITOR_HHS_PROCESSED message
+     */
+    private void chunkBlockProcessed(Message msg){
+        Integer chunk = (Integer) msg.getValue("chunk");
+        if (chunk == null) {
+            return;     //rows were not scheduled
+        }
+        int blocksInChunk = (Integer) msg.getValue("blocksInChunk");
+        Integer blocksDone = blocksDoneByChunk.get(chunk);
+        blocksDone = blocksDone == null ? 1 : blocksDone + 1;
+        if (blocksDone < blocksInChunk) {
+            blocksDoneByChunk.put(chunk, blocksDone);
+            return;
+        }
+        blocksDoneByChunk.remove(chunk);
+        sendNextChunk(msServerPortsByName.get((String) msg.getValue("serverQueue")), false);
+    }
+
+    /**
+     * Ask each node, mode choice logsum task and the results writer for the
+     * call durations of its models and wait for them.  The nodes' and the
+     * combined histograms are written to the log.
+     */
+    private void collectModelTimings(){
+        timingStatementsCount = 0;
+        modelTimings.clear();
+        ArrayList<Port> ports = new ArrayList<Port>(Arrays.asList(msServerPorts));
+        ports.addAll(Arrays.asList(mcWorkPorts));
+        ports.add(resultWriterPort);
+        timingStatementsExpected = ports.size();
+        for (Port port : ports) {
+            Message message = mFactory.createMessage();
+            message.setId(MessageID.REPORT_MODEL_TIMINGS);
+            port.send(message);
+        }
+        receiveAndProcessMessages();
+    }
+
     public void sendCloseFileMessageToWriter(){
         Message allDone = mFactory.createMessage();
         allDone.setId(MessageID.ALL_HOUSEHOLDS_PROCESSED);
@@ -771,9 +917,9 @@ public class PTMasterTask extends Task {
 
         } else if (msg.getId().equals(MessageID.AUTO_OWNERSHIP_CALCULATED)) {
 
-            HashMap<Integer, Byte> autosByHhId = (HashMap<Integer, Byte>) msg.getValue("autosByHhId");
-            hhsWithAutoChoiceMade += autosByHhId.keySet().size();
-            assignSegmentToHhs(autosByHhId);
+            int[] hhIds = (int[]) msg.getValue("hhIds");
+            hhsWithAutoChoiceMade += hhIds.length;
+            assignSegmentToHhs(hhIds, (byte[]) msg.getValue("autos"));
             StatusLogger.logHistogram("pt.auto.ownership","PT Status: Auto Ownership (t" + timePeriod + ")",NUM_HOUSEHOLDS,hhsWithAutoChoiceMade,"Auto Ownership Households Processed","Households");
 
             if(hhsWithAutoChoiceMade == NUM_HOUSEHOLDS){
@@ -820,6 +966,8 @@ public class PTMasterTask extends Task {
             ptDafMasterLogger.info("Households processed so far: "
                     + householdsProcessedCount + " of " + (numHhsProcessed)
                     + " sent.");
+            logWriterBacklog(msg);
+            chunkBlockProcessed(msg);
             StatusLogger.logHistogram("pt.households.processed","PT Status: Households (t" + timePeriod + ")",numHhsProcessed,householdsProcessedCount,"DC Logsums Processed","Logsums");
 
             // keep track of how many LDT tours we're expecting
@@ -848,6 +996,8 @@ public class PTMasterTask extends Task {
             ptDafMasterLogger.info("Visitor Households processed so far: "
                     + visitorsProcessedCount + " of " + (numVisitorsProcessed)
                     + " sent.");
+            logWriterBacklog(msg);
+            chunkBlockProcessed(msg);
             StatusLogger.logHistogram("pt.visitor.households.processed","PT Status: Visitor Households (t" + timePeriod + ")",numVisitorsProcessed,visitorsProcessedCount,"DC Logsums Processed","Logsums");
 
             if (visitorsProcessedCount == (numVisitorsProcessed)) {
@@ -856,16 +1006,22 @@ public class PTMasterTask extends Task {
             }
         }  else if (msg.getId().equals(MessageID.MODEL_TIMINGS)) {
             timingStatementsCount++;
-            activityPattern += (Long) msg.getValue("activityPattern");
-            tourScheduling += (Long) msg.getValue("tourScheduling");
-            tourDestination += (Long) msg.getValue("tourDestination");
-            tourMode += (Long) msg.getValue("tourMode");
-            tourStops += (Long) msg.getValue("tourStops");
-            stopDestination += (Long) msg.getValue("stopDestination");
-            stopDuration += (Long) msg.getValue("stopDuration");
-            tripMode += (Long) msg.getValue("tripMode");
-
-            if(timingStatementsCount == msServerPorts.length){
+            HashMap<String, LatencyHistogram> histograms = (HashMap<String, LatencyHistogram>) msg.getValue("histograms");
+            // the nodes send their number, the other tasks only their name
+            String source = msg.getValue("node") == null ? msg.getSender() : "Node " + msg.getValue("node");
+            for (String name : new TreeSet<String>(histograms.keySet())) {
+                LatencyHistogram histogram = histograms.get(name);
+                ptDafMasterLogger.info(getName() + ", " + source + " " + name + ": " + histogram.summary());
+                if (!modelTimings.containsKey(name)) {
+                    modelTimings.put(name, new LatencyHistogram());
+                }
+                modelTimings.get(name).add(histogram);
+            }
+
+            if(timingStatementsCount == timingStatementsExpected){
+                for (String name : modelTimings.keySet()) {
+                    ptDafMasterLogger.info(getName() + ", All nodes " + name + ": " + modelTimings.get(name).summary());
+                }
                 ptDafMasterLogger.info(getName() + ", Signaling that the all Timing statements have been collected.");
                 signalResultsProcessed();
             }
@@ -879,6 +1035,21 @@ public class PTMasterTask extends Task {
         }
     }
 
+    /**
+     * The results writer reports how many household blocks are waiting for
+     * its busiest output file.  While that file is behind, the writer stops
+     * taking messages, so the workers' results wait in the results queue.
+     *
+     * @param msg HOUSEHOLDS_PROCESSED or VISITOR_HHS_PROCESSED message
+     */
+    private void logWriterBacklog(Message msg) {
+        Integer backlog = (Integer) msg.getValue("writerBacklog");
+        if (backlog != null && backlog > 0) {
+            ptDafMasterLogger.info(getName() + ", Results writer has " + backlog
+                    + " household blocks waiting to be written.");
+        }
+    }
+
     public void initializeWorkplaceHolder(){
         int sum = 0;
         for(int nWorkers : hhInfo[2]){
@@ -904,18 +1075,16 @@ public class PTMasterTask extends Task {
     }
 
     public void storeWorkplaces(Message msg){   
+    	int[] empByTaz = (int[]) msg.getValue("empByTaz");
     	for(Taz taz : tazManager.getTazArray()){
-    		calculatedEmpByTaz[taz.zoneNumber] = calculatedEmpByTaz[taz.zoneNumber] + ((HashMap<String, int[]>) msg.getValue("empInTazs")).get("TotEmp")[taz.zoneNumber];
+    		calculatedEmpByTaz[taz.zoneNumber] = calculatedEmpByTaz[taz.zoneNumber] + empByTaz[taz.zoneNumber];
     	}
     	
-    	HashMap<String,Short> workplaceByPersonId = (HashMap<String, Short>) msg.getValue("workplaceByPersonId");
-    	
-    	for(String key : workplaceByPersonId.keySet()){
-    		personHhIds[index] = Integer.parseInt(key.substring(0, key.indexOf("_")));
-    		memberIds[index] = Integer.parseInt(key.substring(key.indexOf("_")+1, key.length()));
-    		workplaces[index] = workplaceByPersonId.get(key);
-    		index++;
-    	}	
+    	int[] hhIds = (int[]) msg.getValue("hhIds");
+    	System.arraycopy(hhIds, 0, personHhIds, index, hhIds.length);
+    	System.arraycopy((int[]) msg.getValue("memberIds"), 0, memberIds, index, hhIds.length);
+    	System.arraycopy((short[]) msg.getValue("workplaces"), 0, workplaces, index, hhIds.length);
+    	index += hhIds.length;
     }
 
     private void calculateNumHhsProcessed(){
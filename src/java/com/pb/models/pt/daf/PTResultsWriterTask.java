@@ -19,6 +19,7 @@ package com.pb.models.pt.daf;
 import com.pb.common.daf.Message;
 import com.pb.common.daf.MessageProcessingTask;
 import com.pb.common.util.ResourceUtil;
+import com.pb.models.pt.LatencyHistogram;
 import com.pb.models.pt.PTHousehold;
 import com.pb.models.pt.PTResults;
 import static com.pb.models.pt.daf.MessageID.WORKPLACE_LOCATIONS_CALCULATED;
@@ -54,6 +55,12 @@ public class PTResultsWriterTask extends MessageProcessingTask {
     boolean calcLDT;
     boolean calcVM;
 
+    // household blocks that can wait for each output file; 0 writes the
+    // files one after another on the task thread
+    int writerQueueSize;
+
+    // time to write each block of households or long-distance tours
+    LatencyHistogram writeTimes = new LatencyHistogram();
 
     PTResults results;
 
@@ -68,6 +75,7 @@ public class PTResultsWriterTask extends MessageProcessingTask {
         calcSDT = ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.sdt", true);
         calcLDT = ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.ldt", true);
         calcVM = ResourceUtil.getBooleanProperty(ptRb, "sdt.calculate.vm", false);
+        writerQueueSize = ResourceUtil.getIntegerProperty(ptRb, "sdt.results.writer.queue.size", 4);
 
     }
 
@@ -76,6 +84,12 @@ public class PTResultsWriterTask extends MessageProcessingTask {
         resultsWriterLogger.info(getName() + " received "
                 + msgId + " message from=" + msg.getSender());
 
+        // answered before the output files are created on the first message
+        if (msgId.equals(MessageID.REPORT_MODEL_TIMINGS)) {
+            reportModelTimings();
+            return;
+        }
+        long start = System.nanoTime();
 
         if (firstMessage) {
             if(calcSDT || calcVM)
@@ -96,12 +110,17 @@ public class PTResultsWriterTask extends MessageProcessingTask {
                 results.createVisitorFiles();
             }
 
+            if ((calcSDT || calcVM) && writerQueueSize > 0) {
+                resultsWriterLogger.info("Writing output files on background threads");
+                results.startWriters(writerQueueSize);
+            }
+
             firstMessage = false;
         }
 
         if (msg.getId().equals(WORKPLACE_LOCATIONS_CALCULATED)) {
-            HashMap<String,Integer> personInfo = (HashMap<String, Integer>) msg.getValue("workplaceByPersonId");
-            PTResults.writeWorkPlaceLocations(ptRb, personInfo);
+            PTResults.writeWorkPlaceLocations(ptRb, (int[]) msg.getValue("hhIds"),
+                    (int[]) msg.getValue("memberIds"), (short[]) msg.getValue("workplaces"));
             sendTo("TaskMasterQueue", msg);
 
         } else if (msg.getId().equals(MessageID.LDT_HOUSEHOLDS)) {
@@ -111,7 +130,7 @@ public class PTResultsWriterTask extends MessageProcessingTask {
             ldtDataWriter.writePersonTrips(ldTrips);
             ldtDataWriter.writeAssignmentTrips(ldTrips);
             ldtReporter.countTourLevelDecisions(ldTours, ldTrips);
-
+            writeTimes.record(System.nanoTime() - start);
 
             Message masterMsg = createMessage();
             masterMsg.setId(MessageID.LDTTOURS_PROCESSED);
@@ -124,10 +143,13 @@ public class PTResultsWriterTask extends MessageProcessingTask {
         } else if (msgId.equals(MessageID.VISITOR_HHS_PROCESSED)) {
             PTHousehold[] hhs = (PTHousehold[]) msg.getValue("households");
             writeVisitorResults(hhs);
+            writeTimes.record(System.nanoTime() - start);
 
             Message masterMsg = createMessage();
             masterMsg.setId(MessageID.VISITOR_HHS_PROCESSED);
             masterMsg.setValue("nHhs", hhs.length);
+            masterMsg.setValue("writerBacklog", results.getWriterBacklog());
+            MSServerTask.copyChunkValues(msg, masterMsg);
             logger.info("Forwarding the VM HH processed message to Task Master.  " + hhs.length + " VM households have been processed");
             sendTo("TaskMasterQueue", masterMsg);
 
@@ -140,11 +162,16 @@ public class PTResultsWriterTask extends MessageProcessingTask {
                 	writeResults(hhs);
                 	results.calcSummaries(hhs);
                 }
+                writeTimes.record(System.nanoTime() - start);
 
                 Message masterMsg = createMessage();
                 masterMsg.setId(MessageID.HOUSEHOLDS_PROCESSED);
                 masterMsg.setValue("nHhs", hhs.length);
                 masterMsg.setValue("ldtToursExpected", numLDTTours);
+                MSServerTask.copyChunkValues(msg, masterMsg);
+                if (results != null) {
+                    masterMsg.setValue("writerBacklog", results.getWriterBacklog());
+                }
                 logger.info("Forwarding the HH processed message to Task Master.  " + hhs.length + " households have been processed");
                 sendTo("TaskMasterQueue", masterMsg);
 
@@ -170,6 +197,20 @@ public class PTResultsWriterTask extends MessageProcessingTask {
         }
     }
 
+    /**
+     * Send the durations of the blocks written so far to the master.
+     */
+    private void reportModelTimings() {
+        HashMap<String, LatencyHistogram> histograms = new HashMap<String, LatencyHistogram>();
+        histograms.put("resultsWrite", writeTimes);
+
+        Message timings = createMessage();
+        timings.setId(MessageID.MODEL_TIMINGS);
+        timings.setValue("histograms", histograms);
+        resultsWriterLogger.info(getName() + " sending model timings to TaskMasterQueue");
+        sendTo("TaskMasterQueue", timings);
+    }
+
 
 
     /**
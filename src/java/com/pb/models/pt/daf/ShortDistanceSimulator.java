@@ -0,0 +1,615 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.daf;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.common.model.ModelException;
+import com.pb.models.pt.*;
+import com.pb.models.pt.util.MCLogsumsInMemory;
+import com.pb.models.pt.util.SkimsInMemory;
+import com.pb.models.utils.Tracer;
+import org.apache.log4j.Logger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the short-distance models on blocks of households, for the
+ * MicroSimulationWorkerTask.
+ *
+ * The households of a block run on one thread, or on a pool of threads with
+ * a set of models each.  The models are seeded for each person and model,
+ * so the results do not depend on the number of threads or on which thread
+ * runs which household.  All the sets share one TazManager, and the zone
+ * tables and destination samplers built from it, which do not change while
+ * households run; a set only keeps the utilities of its current choice.
+ * Traced persons still write their utilities into the shared zones for the
+ * logit model traces, so households with a traced person run one at a time.
+ */
+public class ShortDistanceSimulator {
+    static Logger logger = Logger.getLogger(ShortDistanceSimulator.class);
+
+    //I did some testing to check the variability of the
+    //first number in the sequence and these produce
+    //a nice set of "random" numbers.
+    static final long patternModelFixedSeed = Long.MIN_VALUE;
+    static final long tourSchedulingFixedSeed = Long.MIN_VALUE/3;
+    static final long tourDestinationFixedSeed = Long.MIN_VALUE/9;
+    static final long tourModeFixedSeed = Long.MIN_VALUE/27;
+    static final long tourStopFixedSeed = Long.MIN_VALUE/81;
+    static final long stopPurposeFixedSeed = Long.MAX_VALUE;
+    static final long stopDestinationFixedSeed = Long.MAX_VALUE/3;
+    static final long stopDuration1FixedSeed = Long.MAX_VALUE/9;
+    static final long stopDuration2FixedSeed = Long.MAX_VALUE/27;
+    static final long tripModeFixedSeed = Long.MAX_VALUE/81;
+    static final long workBasedFixedSeed = Long.MAX_VALUE/243;
+
+    private final String name;
+
+    private final ResourceBundle ptRb;
+
+    private final ResourceBundle globalRb;
+
+    private final PTOccupationReferencer occReferencer;
+
+    private final SkimsInMemory skims;
+
+    private final TazManager tazManager;
+
+    private boolean sensitivityTestingMode;
+
+    private Tracer tracer = Tracer.getTracer();
+
+    // one set of models per thread
+    private ShortDistanceModels[] householdModels;
+
+    private ExecutorService householdPool;
+
+    // held by households with a traced person
+    private final Object traceLock = new Object();
+
+    private Matrix[] workMCLogsums;
+
+    /**
+     * @param name prefix of the log messages and the thread names
+     * @param ptRb pt properties
+     * @param globalRb global properties
+     * @param occReferencer project specific occupation names
+     * @param skims skims
+     * @param tazManager zones, with the workers set
+     */
+    public ShortDistanceSimulator(String name, ResourceBundle ptRb,
+            ResourceBundle globalRb, PTOccupationReferencer occReferencer,
+            SkimsInMemory skims, TazManager tazManager) {
+        this.name = name;
+        this.ptRb = ptRb;
+        this.globalRb = globalRb;
+        this.occReferencer = occReferencer;
+        this.skims = skims;
+        this.tazManager = tazManager;
+    }
+
+    /**
+     * In sensitivity testing mode the seeds also take the clock time.
+     */
+    public void setSensitivityTestingMode(boolean sensitivityTestingMode) {
+        this.sensitivityTestingMode = sensitivityTestingMode;
+    }
+
+    /**
+     * Build a set of models for each thread.  The first set builds the zone
+     * tables and samplers and the others share them.
+     *
+     * @param threads threads to run households on, 1 to run them on the
+     *        calling thread
+     */
+    public void buildModels(int threads) {
+        if (threads < 1) threads = 1;
+
+        householdModels = new ShortDistanceModels[threads];
+        householdModels[0] = createShortDistanceModels(null);
+        for (int i = 1; i < threads; ++i) {
+            logger.info(name + ", Initializing models for household thread " + i);
+            householdModels[i] = createShortDistanceModels(householdModels[0]);
+        }
+
+        if (threads > 1) {
+            logger.info(name + ", Running households on " + threads + " threads");
+            householdPool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, name + "-household");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    /**
+     * Create a set of short-distance models.
+     *
+     * @param shared a set to share the zones with, or null to build them
+     * @return the models
+     */
+    private ShortDistanceModels createShortDistanceModels(ShortDistanceModels shared){
+        ShortDistanceModels m = new ShortDistanceModels();
+
+        logger.info(name + ", Initializing stop purpose model.");
+        m.iStopPurposeModel = new StopPurposeModel( ptRb);
+
+        logger.info(name + ", Initializing the MC model.");
+        m.tourMC = new TourModeChoiceModel( ptRb);
+
+        logger.info(name + ", Initializing the DC model.");
+        m.dcModel = new TourDestinationChoiceModel( ptRb);
+        if (shared == null) {
+            m.dcModel.buildModel(tazManager);
+            // sampled purposes use the off-peak distances
+            m.dcModel.buildSampler(skims.getDistanceMatrix(ActivityPurpose.OTHER));
+        } else {
+            m.dcModel.buildModel(shared.dcModel);
+        }
+
+        logger.info(name + ", Initializing pattern model.");
+        m.patternModel = new PatternChoiceModel( ptRb);
+        m.patternModel.buildModel();
+
+        logger.info(name + ", Initializing tour scheduling model.");
+        m.tourSchedulingModel = new TourSchedulingModel( ptRb,  occReferencer);
+        m.tourSchedulingModel.buildModel();
+
+        logger.info(name + ", Intializing stop destination.");
+        m.stopDestinationChoiceModel = createStopDestinationChoiceModel();
+        if (shared == null) {
+            m.stopDestinationChoiceModel.buildModel(tazManager);
+            m.stopDestinationChoiceModel.buildSampler(skims);
+        } else {
+            m.stopDestinationChoiceModel.buildModel(shared.stopDestinationChoiceModel);
+        }
+
+        logger.info(name + ", Intializing stop mode choice.");
+        m.tourStopChoiceModel = new TourStopChoiceModel( ptRb);
+        m.tourStopChoiceModel.buildModel();
+
+        logger.info(name + ", Initializing stop duration model.");
+        m.stopDurationModel = new StopDurationModel( ptRb,  globalRb);
+        m.stopDurationModel.buildModel( skims);
+
+        logger.info(name + ", Initializing trip mode choice model.");
+        m.tripModeChoiceModel = new TripModeChoiceModel( ptRb);
+
+        logger.info(name + ", Initializing work-based tour model.");
+        m.workBasedTourModel = new WorkBasedTourModel(ptRb);
+
+        return m;
+    }
+
+    /**
+     * 
+     * @return a StopDestinationChoiceModel of the appropriate type. 
+     */
+    protected StopDestinationChoiceModel createStopDestinationChoiceModel() {
+       StopDestinationChoiceModel model = new StopDestinationChoiceModel(ptRb);
+       return model;       
+    }
+
+    /**
+     * Run the short-distance models for a block of households, with the
+     * mode choice logsums in memory.
+     *
+     * @param households the block
+     */
+    public void simulate(PTHousehold[] households) {
+    	workMCLogsums = new Matrix[TourModeChoiceLogsumManager.TOTALSEGMENTS];
+    	for (int segment = 0; segment < TourModeChoiceLogsumManager.TOTALSEGMENTS; segment++) {
+    		workMCLogsums[segment] = MCLogsumsInMemory.mcLogsumsInMemory[ActivityPurpose.WORK_BASED.ordinal()][segment];
+    	}
+
+    	if (householdModels.length > 1) {
+    		simulateHouseholdsInParallel(households);
+    	} else {
+    		for (PTHousehold household : households) {
+    			simulateHousehold(household, householdModels[0]);
+    		}
+    	}
+    }
+
+    /**
+     * Add the call durations of the models on all threads to the histograms.
+     */
+    public void addHistograms(HashMap<String, LatencyHistogram> histograms) {
+        for (ShortDistanceModels m : householdModels) {
+            MicroSimulationWorkerTask.addHistogram(histograms, "activityPattern", m.patternModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "tourScheduling", m.tourSchedulingModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "tourDestination", m.dcModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "tourMode", m.tourMC.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "tourStops", m.tourStopChoiceModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "stopPurpose", m.iStopPurposeModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "stopDestination", m.stopDestinationChoiceModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "stopDuration", m.stopDurationModel.getHistogram());
+            MicroSimulationWorkerTask.addHistogram(histograms, "tripMode", m.tripModeChoiceModel.getHistogram());
+        }
+    }
+
+    /**
+     * Stop the household threads.
+     */
+    public void shutdown() {
+        if (householdPool != null) {
+            householdPool.shutdown();
+        }
+    }
+
+    /**
+     * Run the short-distance models for the block on the household pool.
+     * Each pool thread takes the next household from the block and runs it
+     * with its own set of models.
+     */
+    private void simulateHouseholdsInParallel(final PTHousehold[] households) {
+    	final AtomicInteger next = new AtomicInteger();
+    	List<Callable<Object>> jobs = new ArrayList<Callable<Object>>(householdModels.length);
+    	for (final ShortDistanceModels m : householdModels) {
+    		jobs.add(new Callable<Object>() {
+    			public Object call() {
+    				int h;
+    				while ((h = next.getAndIncrement()) < households.length) {
+    					simulateHousehold(households[h], m);
+    				}
+    				return null;
+    			}
+    		});
+    	}
+
+    	try {
+    		for (Future<Object> result : householdPool.invokeAll(jobs)) {
+    			result.get();
+    		}
+    	} catch (InterruptedException e) {
+    		throw new RuntimeException(e);
+    	} catch (ExecutionException e) {
+    		if (e.getCause() instanceof RuntimeException) {
+    			throw (RuntimeException) e.getCause();
+    		}
+    		throw new RuntimeException(e.getCause());
+    	}
+    }
+
+    /**
+     * Run the short-distance models for the persons in one household.  A
+     * household with a traced person waits for any other traced household.
+     *
+     * @param household household
+     * @param m the models to use, owned by the calling thread
+     */
+    private void simulateHousehold(PTHousehold household, ShortDistanceModels m) {
+        if (isTraced(household)) {
+            synchronized (traceLock) {
+                simulatePersons(household, m);
+            }
+        } else {
+            simulatePersons(household, m);
+        }
+    }
+
+    private boolean isTraced(PTHousehold household) {
+        if (!tracer.isTraceOn()) {
+            return false;
+        }
+        if (tracer.isTraceHousehold(household.ID)) {
+            return true;
+        }
+        for (PTPerson person : household.persons) {
+            if (tracer.isTracePerson(person.hhID + "_" + person.memberID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void simulatePersons(PTHousehold household, ShortDistanceModels m) {
+
+    	//check to see if the household is making a long-distance
+    	//tour on the model day - if so, go to the next household
+    	//(the LDT models have taken care of this hh's tours)
+    	if(household.isHhMakingALdtOnModelDay()){
+    		return;
+    	}
+
+    	if (tracer.isTraceHousehold(household.ID)) {
+    		logger.info(name + ", " + household.summary());
+    	}
+
+    	int segment = IncomeSegmenter.calcLogsumSegment(household.income, household.autos, household.workers);
+
+    	for (PTPerson person : household.persons) {
+
+    		//no reason to process a person making a long-distance
+    		//tour because you can't do both.
+    		if(PTPerson.isPersonMakingALdtOnModelDay(person)){
+    			continue;
+    		}
+
+    		try {
+    			boolean tracePerson = tracer.isTracePerson(person.hhID + "_" + person.memberID);
+
+    			if (tracePerson) {
+    				logger.info(name + ", Applying PT models to HH " + household.ID + ", Person "
+    						+ person.memberID + ".");
+    				logger.info(name + ", " + person.summary());
+    			}
+
+
+
+    			logger.debug(name + ", Running the daily pattern choice model.");
+    			double patternModelLogsum = m.patternModel.getUtility(household, person,  skims.pkDist);
+
+    			if(sensitivityTestingMode) m.random.setSeed(patternModelFixedSeed+person.randomSeed+System.currentTimeMillis());
+    			else m.random.setSeed(patternModelFixedSeed + person.randomSeed);
+
+    			String patternName = m.patternModel.choosePattern(m.random).getName();
+
+    			if (tracePerson) {
+    				logger.info(name + ", " + (person.hhID + "_" + person.memberID)
+    						+ " has pattern -> " + patternName);
+    			}
+
+    			PatternRegistry patterns = m.patternModel.getPatternRegistry();
+    			person.setPattern(patterns.getPattern(patternName));
+    			person.setPatternLogsum(patternModelLogsum); 
+    			logger.debug(name + ", Pattern is set");
+
+    			if(person.weekdayPattern.toString().equals("h")||
+    					person.weekdayPattern.toString().equals("H"))
+    				continue;
+
+    			person.weekdayTours = patterns.convertToTours(
+    					household, person, person.weekdayPattern);
+
+    			person.orderTours();
+    			person.prioritizeTours();
+
+    			logger.debug(name + ", Running stop choice.");
+    			
+    			for (int t = 0; t < person.getTourCount(); ++t) {
+    				Tour tour = person.weekdayTours[t];
+
+    				if(person.getTourCount()>=3){
+    					m.tourStopChoiceModel.calculateUtilities(household, person, tour);
+    					if(sensitivityTestingMode)
+    						m.random.setSeed(tourStopFixedSeed + person.randomSeed + System.currentTimeMillis());
+    					else m.random.setSeed(tourStopFixedSeed + person.randomSeed);
+
+    					m.tourStopChoiceModel.chooseStopType(m.random);
+    				}
+    			}
+
+    			logger.debug(name + ", Running the scheduling model.");
+    			
+    			if(sensitivityTestingMode)
+    				m.random.setSeed(tourSchedulingFixedSeed + person.randomSeed + System.currentTimeMillis());
+    			else m.random.setSeed(tourSchedulingFixedSeed + person.randomSeed);
+
+    			m.tourSchedulingModel.chooseAllSchedules(household, person,
+    					skims, m.random);
+    			
+    			logger.debug(name + ", Schedule is set");
+
+    			for (int t = 0; t < person.getTourCount(); ++t) {
+    				Tour tour = person.weekdayTours[t];
+
+    				ActivityPurpose purpose = tour.getPurpose();
+    				Matrix time =  skims.getTimeMatrix(purpose);
+    				Matrix dist =  skims.getDistanceMatrix(purpose);
+
+    				Matrix logsum = MCLogsumsInMemory.mcLogsumsInMemory[purpose.ordinal()][segment];
+
+    				Taz dest;
+
+    				if (purpose != ActivityPurpose.WORK && purpose != ActivityPurpose.WORK_BASED) {
+    					logger.debug(name + ", Running primary destination choice for tour " + tour.tourNumber);
+
+    					// seeded first, since a sampled choice draws its sample
+    					if(sensitivityTestingMode)
+    						m.random.setSeed(tourDestinationFixedSeed + person.randomSeed + System.currentTimeMillis());
+    					else m.random.setSeed(tourDestinationFixedSeed + person.randomSeed);
+
+    					m.dcModel.calculateUtility(household, person, tour, logsum, dist, time, m.random);
+
+    					try {
+    						dest = m.dcModel.chooseZone(m.random);
+    					} catch (ModelException e) {
+    						logger.debug(name + ", Ignoring non-fatal model exception, " + e);
+    						logger.warn(name + ", Setting destination to home taz.");
+    						dest = tazManager.getTazDataHashtable().get((int) person.homeTaz);
+    					}
+    					tour.primaryDestination.location.zoneNumber = dest.zoneNumber;
+    				} else {
+    					logger.debug(name + ", Using work TAZ " + person.workTaz);
+    					dest = tazManager.getTazDataHashtable().get((int) person.workTaz);
+    					tour.primaryDestination.location.zoneNumber = person.workTaz;
+    				}
+    				logger.debug(name + ", Primary destination is set");
+
+    				if (tracePerson) {
+    					logger.info(name + ", Chose destination: "
+    							+ tour.primaryDestination.location.zoneNumber);
+    				}
+    				Taz orig = tazManager.getTaz(tour.begin.location.zoneNumber);
+
+    				logger.debug(name + ", Running tour mode choice from " + orig.getZoneNumber() + " to taz  "
+    						+ dest.getZoneNumber() + " for tour number " + tour.tourNumber);
+    				m.tourMC.setAttributes(household, person, tour,  skims, orig, dest);
+    				m.tourMC.calculateUtility();                        
+
+    				if(sensitivityTestingMode)
+    					m.random.setSeed(tourModeFixedSeed + person.randomSeed + System.currentTimeMillis());
+    				else m.random.setSeed(tourModeFixedSeed + person.randomSeed);
+
+    				tour.primaryMode = m.tourMC.chooseMode(m.random);
+    				logger.debug(name + ", Tour mode is set");
+
+    				if (tracePerson) {
+    					logger.info(name + ", Chose mode: " + tour.primaryMode);
+    				}
+
+    				logger.debug(name + ", Running intermediate stop purpose model for tour " + tour.tourNumber);
+
+    				if(sensitivityTestingMode)
+    					m.random.setSeed(stopPurposeFixedSeed + person.randomSeed + System.currentTimeMillis());
+    				else m.random.setSeed(stopPurposeFixedSeed + person.randomSeed);
+    				m.iStopPurposeModel.selectStopPurpose(tour, person, m.random);
+
+
+    				logger.debug(name + ", Running stop location choice for tour " + tour.tourNumber);
+    				
+    				if(sensitivityTestingMode)
+    					m.random.setSeed(stopDestinationFixedSeed + person.randomSeed + System.currentTimeMillis());
+    				else m.random.setSeed(stopDestinationFixedSeed + person.randomSeed);
+    				
+    				m.stopDestinationChoiceModel.calculateStopZones(household, person, tour,  skims, m.random);
+
+    				if (tour.intermediateStop1 != null) {
+    					logger.debug("Running stop duration choice for stop 1 for tour " + tour.tourNumber);
+    					logger.debug("From zone " + tour.begin.location.zoneNumber
+    							+ " to "  + tour.intermediateStop1.location.zoneNumber);
+
+    					logger.debug("Calculating stop duration utilities");
+    					
+    					m.stopDurationModel.calculateUtilities(person, tour,tour.intermediateStop1);
+
+    					if(sensitivityTestingMode)
+    						m.random.setSeed(stopDuration1FixedSeed + person.randomSeed + System.currentTimeMillis());
+    					else m.random.setSeed(stopDuration1FixedSeed + person.randomSeed);
+    					short duration = (short) m.stopDurationModel.chooseDuration(m.random);
+    					tour.intermediateStop1.duration = duration;
+
+    					if (tracer.isTracePerson(person.hhID + "_" + person.memberID)) {
+    						logger.info(name + ", Stop 1 duration: " + duration);
+    						logger.info(name + ", Stop 1 start: "
+    								+ tour.intermediateStop1.startTime);
+    						logger.info(name + ", Stop 1 end: "
+    								+ tour.intermediateStop1.endTime);
+    					}
+    				} else {
+    					// assign a start time from the tour begin activity
+    					tour.primaryDestination.startTime = tour.begin.endTime;
+    				}
+
+    				if (tour.intermediateStop2 != null) {
+    					logger.debug("Running stop duration choice.");
+    					m.stopDurationModel.calculateUtilities(person, tour, tour.intermediateStop2);
+    					if(sensitivityTestingMode)
+    						m.random.setSeed(stopDuration2FixedSeed + person.randomSeed + System.currentTimeMillis());
+    					else m.random.setSeed(stopDuration2FixedSeed + person.randomSeed);
+    					short duration = (short) m.stopDurationModel.chooseDuration(m.random);
+    					tour.intermediateStop2.duration = duration;
+
+    					if (tracer.isTracePerson(person.hhID + "_" + person.memberID)) {
+    						logger.info(name + ", Stop 2 duration: " + duration);
+    						logger.info(name + ", Stop 2 start: "
+    								+ tour.intermediateStop2.startTime);
+    						logger.info(name + ", Stop 2 end: "
+    								+ tour.intermediateStop2.endTime);
+    					}
+    				} else {
+    					// assign an end time from the tour end activity
+    					tour.primaryDestination.endTime = tour.end.startTime;
+    				}
+
+    				logger.debug(name + ", Running trip mode choice.");
+    				if(sensitivityTestingMode)
+    					m.random.setSeed(tripModeFixedSeed + person.randomSeed + System.currentTimeMillis());
+    				else m.random.setSeed(tripModeFixedSeed + person.randomSeed);
+    				m.tripModeChoiceModel.calculateTripModes(household,
+    						person, tour,  skims, tazManager, m.random);
+    				logger.debug(name + ", Trip mode is set");
+    			}
+
+    			//process work-based tours
+    			if(person.weekdayWorkBasedTours!=null){
+    				Tour[] wbTours = person.weekdayWorkBasedTours;
+
+
+    				for (Tour wbTour : wbTours) {
+    					int parentTourNumber = wbTour.parentTourNumber;
+    					wbTour.setWorkBasedTourAttributes(person.weekdayTours[parentTourNumber]);
+    					if(sensitivityTestingMode)
+    						m.random.setSeed(workBasedFixedSeed + person.randomSeed + wbTour.tourNumber + System.currentTimeMillis());
+    					else m.random.setSeed(workBasedFixedSeed + person.randomSeed + wbTour.tourNumber);
+
+    					m.workBasedTourModel.calculateWorkBasedTour(household,
+    							person, wbTour,  skims, workMCLogsums, tazManager,
+    							m.dcModel, m.tourMC, m.tripModeChoiceModel, m.random);
+    				}
+    			}
+    		} catch (ModelException e) {
+    			logger.error("Caught an exception processing person: "
+    					+ (person.hhID + "_" + person.memberID));
+    			logger.error("Summarizing person: " + (person.hhID + "_" + person.memberID));
+
+    			logger.error("Home-Based Tours:");
+    			for (int n = 0; n < person.getTourCount(); ++n) {
+    				Tour tour = person.weekdayTours[n];
+    				tour.print();
+    			}
+    			//print the work-based tours
+    			if(person.weekdayWorkBasedTours!=null){
+    				logger.error("Work-Based Tours:");
+    				Tour[] wbTours = person.weekdayWorkBasedTours;
+    				for (Tour tour : wbTours) {
+    					tour.print();
+    					logger.info(name + ", Parent tour number " + tour.parentTourNumber);
+    				}
+    			}
+    			logger.error(person.summary());
+    			throw new RuntimeException(e);
+    		}
+
+    	}
+    }
+
+    /**
+     * The short-distance models used by one thread.
+     */
+    private static class ShortDistanceModels {
+        PatternChoiceModel patternModel;
+        TourDestinationChoiceModel dcModel;
+        TourModeChoiceModel tourMC;
+        StopPurposeModel iStopPurposeModel;
+        TourSchedulingModel tourSchedulingModel;
+        TourStopChoiceModel tourStopChoiceModel;
+        StopDestinationChoiceModel stopDestinationChoiceModel;
+        StopDurationModel stopDurationModel;
+        TripModeChoiceModel tripModeChoiceModel;
+        WorkBasedTourModel workBasedTourModel;
+
+        //We will set the seed each time we call a new model and the seed will either
+        //be the sum of the modelSeed and the personSeed OR if we are in sensitivity testing
+        //mode the seed will be the sum of the 2 fixed seeds plus the clock time in order
+        //to randomize the random number sequence.
+        Random random = new Random();  //we will set the seed each time
+    }
+}
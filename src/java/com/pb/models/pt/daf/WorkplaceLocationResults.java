@@ -0,0 +1,73 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.daf;
+
+import com.pb.common.daf.Message;
+import com.pb.models.pt.PTPerson;
+
+import java.util.Arrays;
+
+/**
+ * Workplaces chosen by a workplace location worker, kept in parallel
+ * primitive arrays (household id, member id, workplace taz) so they can be
+ * sent in the WORKPLACE_LOCATIONS_CALCULATED message and copied straight into
+ * the master's arrays.
+ */
+public class WorkplaceLocationResults {
+
+    private int[] hhIds;
+    private int[] memberIds;
+    private short[] workplaces;
+    private int count;
+
+    // workers by workplace taz
+    private int[] empByTaz;
+
+    /**
+     * @param maxPersons the most persons that will be added
+     * @param maxTazNumber the highest taz number
+     */
+    public WorkplaceLocationResults(int maxPersons, int maxTazNumber) {
+        hhIds = new int[maxPersons];
+        memberIds = new int[maxPersons];
+        workplaces = new short[maxPersons];
+        empByTaz = new int[maxTazNumber + 1];
+    }
+
+    /**
+     * Add the workplace of a person.
+     * @param person a person whose workTaz has been chosen
+     */
+    public void add(PTPerson person) {
+        hhIds[count] = person.hhID;
+        memberIds[count] = person.memberID;
+        workplaces[count] = person.workTaz;
+        empByTaz[person.workTaz]++;
+        count++;
+    }
+
+    /**
+     * Put the workplaces, trimmed to the persons added, on a message.
+     * @param msg WORKPLACE_LOCATIONS_CALCULATED message
+     */
+    public void setValues(Message msg) {
+        msg.setValue("hhIds", Arrays.copyOf(hhIds, count));
+        msg.setValue("memberIds", Arrays.copyOf(memberIds, count));
+        msg.setValue("workplaces", Arrays.copyOf(workplaces, count));
+        msg.setValue("empByTaz", empByTaz);
+    }
+}
@@ -72,6 +72,11 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
 
     PTOccupationReferencer occReferencer;
 
+    LatencyHistogram workplaceLocationTimes = new LatencyHistogram();
+
+    //only sent with the first shadow price iteration
+    int[] homeTazByHhId;
+
     protected static int MAX_ZONE_NUMBER;
     private static int[] laborFlowZoneExternals;  //combination of internal TAZ (data.TAZs) and cordon zones which come from the CordonSizeTerms.csv file.
                                                  //indexing starts at 1!!
@@ -172,10 +177,30 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
 
         if(msg.getId().equals(MessageID.CALCULATE_WORKPLACE_LOCATIONS)){
             if (!dataRead) readData(); 
+            long start = System.nanoTime();
             runWorkplaceLocationModel(msg);
+            workplaceLocationTimes.record(System.nanoTime() - start);
+        } else if(msg.getId().equals(MessageID.REPORT_MODEL_TIMINGS)){
+            reportModelTimings(msg);
         }
     }
 
+    /**
+     * Send the durations of the workplace location messages handled so far.
+     *
+     * @param msg REPORT_MODEL_TIMINGS message with the reply queue
+     */
+    private void reportModelTimings(Message msg){
+        HashMap<String, LatencyHistogram> histograms = new HashMap<String, LatencyHistogram>();
+        histograms.put("workplaceLocation", workplaceLocationTimes);
+
+        Message timings = createMessage();
+        timings.setId(MessageID.MODEL_TIMINGS);
+        timings.setValue("histograms", histograms);
+        wlLogger.info(getName() + ", Sending model timings to " + msg.getValue("replyQueue"));
+        sendTo((String) msg.getValue("replyQueue"), timings);
+    }
+
     public void readData(){
         synchronized (lock) {
             if (!dataRead) {
@@ -267,7 +292,9 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
         int startRow = (Integer) msg.getValue("startRow");
         int endRow = (Integer) msg.getValue("endRow");
 
-         int[] homeTazByHhId = (int[]) msg.getValue("homeTazbyHhId");
+        if (msg.getValue("homeTazbyHhId") != null) {
+            homeTazByHhId = (int[]) msg.getValue("homeTazbyHhId");
+        }
 
         wlLogger.info(getName() + ", Running the WorkplaceLocationModel on rows " +
                 startRow + " - " + endRow);
@@ -286,8 +313,7 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
         int index = 0; 					// index will keep track of where we are in the person array
         int nPersonsUnemployed = 0;
         int nPersonsWithWorkplace = 0;
-        HashMap<String, int[]> workersByIndByTazId = new HashMap<String, int[]>(1000);
-        HashMap<String, Short> workplaceByPersonId = new HashMap<String, Short>(1000000);
+        WorkplaceLocationResults results = new WorkplaceLocationResults(persons.length, MAX_ZONE_NUMBER);
 
 
         ArrayList<PTPerson> personList = new ArrayList<PTPerson>();
@@ -315,7 +341,7 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
                 calculateWorkplaceLocation(personList, alphaLaborFlows.getMatrix(occupation.name()));
 
                 wlLogger.debug(getName() + ", Storing results to send back to TaskMasterQueue");
-                storeResultsInHashMaps(personList, workersByIndByTazId, workplaceByPersonId);
+                storeResults(personList, results);
 
                 nPersonsWithWorkplace += nPersons;
             }
@@ -327,8 +353,7 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
 
         Message workLocations = createMessage();
         workLocations.setId(MessageID.WORKPLACE_LOCATIONS_CALCULATED);
-        workLocations.setValue("empInTazs", workersByIndByTazId);
-        workLocations.setValue("workplaceByPersonId", workplaceByPersonId);
+        results.setValues(workLocations);
         workLocations.setValue("nPersonsProcessed", persons.length);
 
         sendTo(sendQueue, workLocations);
@@ -358,20 +383,9 @@ public class WorkplaceLocationWorkerTaskSEAM extends MessageProcessingTask {
 
     }
 
-    public void storeResultsInHashMaps(ArrayList<PTPerson> personsBeingProcessed, HashMap<String, int[]> workersByIndByTazId,
-                                       HashMap<String, Short> workplaceByPersonId ){
+    public void storeResults(ArrayList<PTPerson> personsBeingProcessed, WorkplaceLocationResults results){
         for(PTPerson person : personsBeingProcessed){
-            String industryLabel = industryLabels[person.industry];				//indOccSplitRef.getSplitIndustryLabelFromIndex(person.industry);
-            int[] employmentByTaz = workersByIndByTazId.get(industryLabel);
-            if(employmentByTaz == null){
-                employmentByTaz = new int[MAX_ZONE_NUMBER + 1];
-                employmentByTaz[person.workTaz] = 1;
-                workersByIndByTazId.put(industryLabel, employmentByTaz);
-            }else{
-                employmentByTaz[person.workTaz]++;
-                workersByIndByTazId.put(industryLabel, employmentByTaz);
-            }
-            workplaceByPersonId.put(person.hhID + "_" + person.memberID, person.workTaz);
+            results.add(person);
         }
     }
 
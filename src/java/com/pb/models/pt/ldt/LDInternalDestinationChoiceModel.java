@@ -79,6 +79,9 @@ public class LDInternalDestinationChoiceModel {
 
     private LogitModel amzModel;
 
+    // exponentiated utilities of the AMZs, for the choice
+    private ChoiceDistribution amzDistribution;
+
     private LDInternalDestinationChoicePersonAttributes hha;
 
     private long ldInternalDestinationFixedSeed = Long.MAX_VALUE/81;
@@ -196,6 +199,7 @@ public class LDInternalDestinationChoiceModel {
             amzModel.addAlternative(amzAlts[index]);
             index++; 
         } 
+        amzDistribution = new ChoiceDistribution(amzAlts.length);
         
         logger.info("  Total of " + index + " alternatives added.");
     }    
@@ -326,9 +330,12 @@ public class LDInternalDestinationChoiceModel {
      */
     private LDAmz chooseAmz(double random) {
         
-        amzModel.calculateProbabilities(); 
+        amzDistribution.clear();
+        for (ConcreteAlternative alt : amzAlts) {
+            amzDistribution.addUtility(alt.isAvailable(), alt.getUtility());
+        }
 
-        ConcreteAlternative chosen = (ConcreteAlternative) amzModel.chooseAlternative(random); 
+        ConcreteAlternative chosen = amzAlts[amzDistribution.choose(random)]; 
         LDAmz chosenAmz = (LDAmz) chosen.getAlternative(); 
         
     	return chosenAmz; 
@@ -23,6 +23,7 @@ import com.pb.common.matrix.MatrixReader;
 import com.pb.common.util.ResourceUtil;
 import com.pb.models.pt.PriceConverter;
 import com.pb.models.pt.util.Synchronizable;
+import com.pb.models.pt.util.TransitSkimView;
 
 import org.apache.log4j.Logger;
 
@@ -54,8 +55,15 @@ public class LDSkimsInMemory {
     private static MatrixCollection[] pkSkims;
     private static MatrixCollection[] opSkims;
     
-    private HashSet<String>[] pkSkimTables;
-    private HashSet<String>[] opSkimTables; 
+    // table handles, used to index the skim views
+    private static final int TIME = 0, DIST = 1, TOLL = 2, IVT = 3, BIV = 4, RIV = 5, AWK = 6,
+            XWK = 7, EWK = 8, DRV = 9, FWT = 10, TWT = 11, FAR = 12, FRQ = 13;
+    private static final String[] TABLES = {"Time", "Dist", "Toll", "Ivt", "Biv", "Riv", "Awk",
+            "Xwk", "Ewk", "Drv", "Fwt", "Twt", "Far", "Frq"};
+
+    // one for each mode, with the tables resolved to handles
+    private TransitSkimView[] pkSkimTables;
+    private TransitSkimView[] opSkimTables; 
     
     // other parameters
     private static float AOC;
@@ -79,8 +87,8 @@ public class LDSkimsInMemory {
     	mode = LDTourModeType.values();
     	pkSkims = new MatrixCollection[mode.length];
     	opSkims = new MatrixCollection[mode.length];
-    	pkSkimTables = new HashSet[mode.length];
-    	opSkimTables = new HashSet[mode.length];
+    	pkSkimTables = new TransitSkimView[mode.length];
+    	opSkimTables = new TransitSkimView[mode.length];
 
     	PriceConverter priceConverter = PriceConverter.getInstance(globalRb,rb);
     	AOC = priceConverter.convertPrice(Float.parseFloat(ResourceUtil.getProperty(globalRb, "auto.operating.cost")),PriceConverter.ConversionType.PRICE);
@@ -110,16 +118,16 @@ public class LDSkimsInMemory {
         for (int m=0; m<mode.length; m++) {
             String groupName  = mode[m].getGroupName();
             String[] tableLabels = mode[m].getTableLabels();
-            opSkimTables[m] = createHashSet(tableLabels);
             opSkims[m] = readMatrixCollection(rb,mode[m] == LDTourModeType.AUTO ? highwayPath : transitPath, groupName, "Op", tableLabels);
+            opSkimTables[m] = createSkimView(opSkims[m], tableLabels);
         }
 
         // flag used in testing to save memory
         for (int m=0; m<mode.length; m++) {
                 String groupName  = mode[m].getGroupName();
                 String[] tableLabels = mode[m].getTableLabels();
-                pkSkimTables[m] = createHashSet(tableLabels);
                 pkSkims[m] = readMatrixCollection(rb,mode[m] == LDTourModeType.AUTO ? highwayPath : transitPath, groupName, "Pk", tableLabels);
+                pkSkimTables[m] = createSkimView(pkSkims[m], tableLabels);
         }
 
 
@@ -143,6 +151,27 @@ public class LDSkimsInMemory {
         
         return valueSet; 
     }
+
+    /**
+     * Resolves the tables of one mode to handles, so the time and cost
+     * calculations do not look tables up by name.
+     * 
+     * @param mc          The skims for the mode.
+     * @param tableLabels The tables in the matrix collection.
+     * @return            A view of the tables, indexed by the table handles.
+     */
+    private TransitSkimView createSkimView(MatrixCollection mc, String[] tableLabels) {
+        HashSet<String> tables = createHashSet(tableLabels);
+        String[] names = new String[TABLES.length];
+
+        for (int i = 0; i < TABLES.length; i++) {
+            if (tables.contains(TABLES[i])) {
+                names[i] = TABLES[i];
+            }
+        }
+
+        return new TransitSkimView(mc, names);
+    }
     
     /**
      * Reads the skim matrices for a specific mode and time period.  
@@ -243,16 +272,16 @@ public class LDSkimsInMemory {
         
         // the AM peak
         if (time >= AM_PEAK_START && time <= AM_PEAK_END) {
-            tc = setTravelTimeAndCost(tc, originTaz, destinationTaz, pkSkims, pkSkimTables);
+            tc = setTravelTimeAndCost(tc, originTaz, destinationTaz, pkSkimTables);
         }
         
         // the PM peak-- reverse the origin and destination to get peak skims
         else if (time >= PM_PEAK_START && time <= PM_PEAK_END) { 
-            tc = setTravelTimeAndCost(tc, destinationTaz, originTaz, pkSkims, pkSkimTables);
+            tc = setTravelTimeAndCost(tc, destinationTaz, originTaz, pkSkimTables);
         }
         // the off-peak
         else {        
-            tc = setTravelTimeAndCost(tc, originTaz, destinationTaz, opSkims, opSkimTables); 
+            tc = setTravelTimeAndCost(tc, originTaz, destinationTaz, opSkimTables); 
         }
         
         return tc; 
@@ -265,68 +294,66 @@ public class LDSkimsInMemory {
      * @param tc         A time and ocst object, re-used for improved processing.  
      * @param fromTaz    The from zone.
      * @param toTaz      The to zone. 
-     * @param skims      The skims for this time period, one matrix collection for each mode.  
-     * @param skimTables A list of the tables in each matrix collection.
+     * @param skims      The skims for this time period, one view of the tables for each mode.  
      * @return           The calculated time and cost object.
      */
     private LDTravelTimeAndCost setTravelTimeAndCost(LDTravelTimeAndCost tc,
             int fromTaz, int toTaz, 
-            MatrixCollection[] skims, 
-            HashSet[] skimTables) {
+            TransitSkimView[] skims) {
 
         tc.resetValues(); 
         
         for (int m=0; m<mode.length; m++) {
             if (mode[m].equals(LDTourModeType.AUTO)) {
                 // time
-                if (skimTables[m].contains("Time")) {
-                    tc.inVehicleTime[m] = skims[m].getValue(fromTaz, toTaz, "Time");     
+                if (skims[m].contains(TIME)) {
+                    tc.inVehicleTime[m] = skims[m].getValue(TIME, fromTaz, toTaz);     
                 }      
                 
                 // cost
-                if (skimTables[m].contains("Dist")
-                        && skimTables[m].contains("Toll")) {
-                    tc.cost[m] = (skims[m].getValue(fromTaz, toTaz, "Dist") * AOC
-                               + skims[m].getValue(fromTaz, toTaz, "Toll"));                    
+                if (skims[m].contains(DIST)
+                        && skims[m].contains(TOLL)) {
+                    tc.cost[m] = (skims[m].getValue(DIST, fromTaz, toTaz) * AOC
+                               + skims[m].getValue(TOLL, fromTaz, toTaz));                    
                 }
                 
                 // total time
                 tc.totalTime[m] = tc.inVehicleTime[m];
             }
             else {
-                tc.inVehicleTime[m] = skims[m].getValue(fromTaz, toTaz, "Ivt");
+                tc.inVehicleTime[m] = skims[m].getValue(IVT, fromTaz, toTaz);
                 if (tc.inVehicleTime[m] > 0) {
                 	
                 	// inter-city bus or rail in-vehicle time
-                	if (skimTables[m].contains("Biv")) {
-                		tc.icBusInVehicleTime[m] = skims[m].getValue(fromTaz, toTaz, "Biv"); 
+                	if (skims[m].contains(BIV)) {
+                		tc.icBusInVehicleTime[m] = skims[m].getValue(BIV, fromTaz, toTaz); 
                 	}
-                	if (skimTables[m].contains("Riv")) {
-                		tc.icRailInVehicleTime[m] = skims[m].getValue(fromTaz, toTaz, "Riv"); 
+                	if (skims[m].contains(RIV)) {
+                		tc.icRailInVehicleTime[m] = skims[m].getValue(RIV, fromTaz, toTaz); 
                 	}
 
                     // walk time
-                    if (skimTables[m].contains("Awk")) {
-                        tc.walkTime[m] += skims[m].getValue(fromTaz, toTaz, "Awk");
+                    if (skims[m].contains(AWK)) {
+                        tc.walkTime[m] += skims[m].getValue(AWK, fromTaz, toTaz);
                     }
-                    if (skimTables[m].contains("Xwk")) {
-                        tc.walkTime[m] += skims[m].getValue(fromTaz, toTaz, "Xwk");
+                    if (skims[m].contains(XWK)) {
+                        tc.walkTime[m] += skims[m].getValue(XWK, fromTaz, toTaz);
                     }
-                    if (skimTables[m].contains("Ewk")) {
-                        tc.walkTime[m] += skims[m].getValue(fromTaz, toTaz, "Ewk");
+                    if (skims[m].contains(EWK)) {
+                        tc.walkTime[m] += skims[m].getValue(EWK, fromTaz, toTaz);
                     }
 
                     // drive time
-                    if (skimTables[m].contains("Drv")) {
-                        tc.driveTime     [m] = skims[m].getValue(fromTaz, toTaz, "Drv");
+                    if (skims[m].contains(DRV)) {
+                        tc.driveTime     [m] = skims[m].getValue(DRV, fromTaz, toTaz);
                     }                   
                     
                     // wait time 
-                    if (skimTables[m].contains("Fwt")) {
-                    	tc.waitTime[m] += skims[m].getValue(fromTaz, toTaz, "Fwt");
+                    if (skims[m].contains(FWT)) {
+                    	tc.waitTime[m] += skims[m].getValue(FWT, fromTaz, toTaz);
                     }
-                    if (skimTables[m].contains("Twt")) {
-                    	tc.waitTime[m] += skims[m].getValue(fromTaz, toTaz, "Twt");
+                    if (skims[m].contains(TWT)) {
+                    	tc.waitTime[m] += skims[m].getValue(TWT, fromTaz, toTaz);
                     }     
                     
                     // terminal time
@@ -340,8 +367,8 @@ public class LDSkimsInMemory {
                     }
                     
                     // cost
-                    if (skimTables[m].contains("Far")) {
-                        tc.cost[m] = skims[m].getValue(fromTaz, toTaz, "Far");
+                    if (skims[m].contains(FAR)) {
+                        tc.cost[m] = skims[m].getValue(FAR, fromTaz, toTaz);
                     }
 
                     // total time
@@ -349,8 +376,8 @@ public class LDSkimsInMemory {
                                     + tc.waitTime[m] + tc.terminalTime[m];
                     
                     // frequency
-                    if (skimTables[m].contains("Frq")) {
-                        tc.frequency[m] = skims[m].getValue(fromTaz, toTaz, "Frq");
+                    if (skims[m].contains(FRQ)) {
+                        tc.frequency[m] = skims[m].getValue(FRQ, fromTaz, toTaz);
                     }
                 }
             }           
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.pb.common.model.ModelException;
+import com.pb.models.pt.ChoiceDistribution;
+
+/**
+ * Draw from made up weights, some of them 0, by binary search and from the
+ * alias tables.
+ */
+public class ChoiceDistributionTest extends TestCase {
+
+    private static final int ALTERNATIVES = 500;
+
+    private double[] weights;
+
+    private ChoiceDistribution distribution;
+
+    protected void setUp() {
+        Random random = new Random(11);
+        weights = new double[ALTERNATIVES];
+        // start small so the arrays have to grow
+        distribution = new ChoiceDistribution(10);
+        for (int i = 0; i < ALTERNATIVES; ++i) {
+            weights[i] = i % 7 == 3 ? 0 : Math.exp(3 * random.nextGaussian());
+            distribution.add(weights[i]);
+        }
+    }
+
+    /**
+     * The binary search chooses the same alternative as a scan of the
+     * cumulative probabilities.
+     */
+    public void testSearchMatchesScan() {
+        double sum = 0;
+        for (double w : weights) {
+            sum += w;
+        }
+        assertEquals(sum, distribution.getSum(), sum * 1e-12);
+
+        Random random = new Random(5);
+        for (int d = 0; d < 10000; ++d) {
+            double selector = random.nextDouble();
+            double target = selector * sum;
+            double cumulative = 0;
+            int expected = -1;
+            for (int i = 0; i < ALTERNATIVES && expected < 0; ++i) {
+                cumulative += weights[i];
+                if (cumulative > target) {
+                    expected = i;
+                }
+            }
+            assertEquals(expected, distribution.choose(selector));
+        }
+    }
+
+    /**
+     * The alias tables choose each alternative in proportion to its weight,
+     * and never one without weight.
+     */
+    public void testAliasFrequencies() {
+        distribution.buildAliasTable();
+
+        int draws = 2000000;
+        int[] counts = new int[ALTERNATIVES];
+        Random random = new Random(7);
+        for (int d = 0; d < draws; ++d) {
+            counts[distribution.choose(random)]++;
+        }
+
+        for (int i = 0; i < ALTERNATIVES; ++i) {
+            double p = distribution.getProbability(i);
+            if (weights[i] == 0) {
+                assertEquals("alternative " + i, 0, counts[i]);
+            } else {
+                double error = 5 * Math.sqrt(p * (1 - p) / draws);
+                assertEquals("alternative " + i, p, (double) counts[i] / draws,
+                        error + 1e-6);
+            }
+        }
+    }
+
+    /**
+     * Adding an alternative drops the alias tables.
+     */
+    public void testAddAfterAlias() {
+        distribution.buildAliasTable();
+        distribution.add(distribution.getSum());
+
+        Random random = new Random(3);
+        int last = 0;
+        for (int d = 0; d < 1000; ++d) {
+            if (distribution.choose(random) == ALTERNATIVES) {
+                ++last;
+            }
+        }
+        assertTrue(last > 400 && last < 600);
+    }
+
+    /**
+     * A target that reaches the sum of the weights, as the largest selector
+     * times a sum rounded differently can, chooses the last alternative
+     * with weight rather than a trailing one without.
+     */
+    public void testTargetAtSum() {
+        double[] cumulative = { 0.5, 0.5, 1.25, 1.25, 1.25 };
+        assertEquals(2, ChoiceDistribution.search(cumulative, 5, 1.25));
+        assertEquals(2, ChoiceDistribution.search(cumulative, 5, 1.25 + 1e-15));
+        assertEquals(2, ChoiceDistribution.search(cumulative, 5, 0.5));
+        assertEquals(0, ChoiceDistribution.search(cumulative, 5, 0.4999));
+
+        distribution.add(0);
+        distribution.add(0);
+        int last = ALTERNATIVES - 1;
+        while (weights[last] == 0) {
+            --last;
+        }
+        assertEquals(last, distribution.choose(Math.nextAfter(1.0, 0)));
+        assertEquals(last, distribution.choose(1.0));
+    }
+
+    public void testLogsum() {
+        ChoiceDistribution utilities = new ChoiceDistribution(3);
+        utilities.addUtility(true, 0.5);
+        utilities.addUtility(false, 10);
+        utilities.addUtility(true, -1);
+        assertEquals(Math.log(Math.exp(0.5) + Math.exp(-1)), utilities
+                .getLogsum(), 1e-12);
+        assertEquals(0.0, utilities.getProbability(1));
+    }
+
+    public void testNoAlternatives() {
+        distribution.clear();
+        distribution.add(0);
+        distribution.add(Double.NaN);
+        assertEquals(-999.0, distribution.getLogsum());
+
+        try {
+            distribution.choose(0.5);
+            fail("Chose from alternatives without weight");
+        } catch (ModelException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.models.pt.DestinationSample;
+import com.pb.models.pt.DestinationSampler;
+import com.pb.models.pt.Taz;
+import com.pb.models.pt.TazManager;
+
+/**
+ * Check that the corrected exponentiated utilities of a destination sample
+ * average to the sum over all the zones with a size, for made up zones, sizes
+ * and utilities, and that without a residual share the zones beyond the
+ * nearest neighbors are never drawn.
+ */
+public class DestinationSamplerTest extends TestCase {
+
+    private static final int ZONES = 50;
+
+    private static final int NEIGHBORS = 8;
+
+    private static final int DRAWS = 10;
+
+    private static final int SAMPLES = 40000;
+
+    private Random random = new Random(29);
+
+    private TazManager tazManager;
+
+    private Matrix distanceMatrix;
+
+    protected void setUp() {
+        tazManager = new TazManager() {
+            public void setParkingCost(ResourceBundle appRb,
+                    ResourceBundle globalRb, String fileName) {
+            }
+        };
+
+        int[] zoneNumbers = new int[ZONES + 1];
+        for (int i = 1; i <= ZONES; ++i) {
+            zoneNumbers[i] = 2 * i;
+
+            Taz taz = new Taz() {
+                public void setTourSizeTerms(float[][] tdpd) {
+                }
+
+                public void setStopSizeTerms(float[][] params) {
+                }
+            };
+            taz.zoneNumber = zoneNumbers[i];
+            tazManager.getTazData().put(taz.zoneNumber, taz);
+        }
+
+        // zones on a line
+        float[][] distances = new float[ZONES][ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            for (int j = 0; j < ZONES; ++j) {
+                distances[i][j] = Math.abs(i - j) + 0.5f * random.nextFloat();
+            }
+        }
+        distanceMatrix = new Matrix("distance", "made up", distances);
+        distanceMatrix.setExternalNumbers(zoneNumbers);
+    }
+
+    public void testUnbiasedWithResidual() {
+        DestinationSampler sampler = new DestinationSampler(tazManager,
+                distanceMatrix, NEIGHBORS, 0.1, 0.2);
+        DestinationSample sample = sampler.createSample();
+
+        double[] size = new double[ZONES];
+        double[] utility = new double[ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            size[i] = random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(100);
+            utility[i] = random.nextGaussian();
+        }
+
+        int anchor1 = sampler.getTaz(3).zoneNumber;
+        int anchor2 = sampler.getTaz(10).zoneNumber;
+        double expected = 0;
+        for (int i = 0; i < ZONES; ++i) {
+            int zone = sampler.getTaz(i).zoneNumber;
+            if (size[i] > 0 && zone != anchor1 && zone != anchor2) {
+                expected += Math.exp(utility[i]);
+            }
+        }
+
+        double mean = 0;
+        for (int s = 0; s < SAMPLES; ++s) {
+            sampler.sample(anchor1, anchor2, size, DRAWS, random, sample);
+            for (int k = 0; k < sample.size(); ++k) {
+                int i = sample.getZone(k);
+                int zone = sampler.getTaz(i).zoneNumber;
+                if (zone != anchor1 && zone != anchor2) {
+                    assertTrue(size[i] > 0);
+                    mean += Math.exp(utility[i] + sample.getCorrection(k));
+                }
+            }
+        }
+        mean /= SAMPLES;
+
+        assertEquals(expected, mean, 0.02 * expected);
+    }
+
+    public void testNeighborsOnlyWithoutResidual() {
+        DestinationSampler sampler = new DestinationSampler(tazManager,
+                distanceMatrix, NEIGHBORS, 0.1, 0);
+        DestinationSample sample = sampler.createSample();
+
+        double[] size = new double[ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            size[i] = 1;
+        }
+
+        int anchor = sampler.getTaz(0).zoneNumber;
+        for (int s = 0; s < 1000; ++s) {
+            sampler.sample(anchor, anchor, size, DRAWS, random, sample);
+            for (int k = 0; k < sample.size(); ++k) {
+                int zone = sampler.getTaz(sample.getZone(k)).zoneNumber;
+                // the nearest zones are within about a zone per neighbor
+                assertTrue("zone " + zone, Math.abs(zone - anchor) / 2 <= NEIGHBORS);
+            }
+        }
+    }
+}
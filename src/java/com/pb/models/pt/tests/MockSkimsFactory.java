@@ -23,6 +23,7 @@ import static java.lang.Math.exp;
 import java.util.ResourceBundle;
 
 import com.pb.common.matrix.Matrix;
+import com.pb.common.matrix.MatrixCollection;
 import com.pb.models.pt.util.SkimsInMemory;
 
 public class MockSkimsFactory {
@@ -44,4 +45,101 @@ public class MockSkimsFactory {
         return skims;
     }
 
+    /**
+     * Create skims for a synthetic zone system of zones 1 to
+     * <code>zones</code>.  The zones are laid out on a square grid one mile
+     * apart and every skim follows the grid distance.  Walk transit is
+     * available within 20 miles.
+     */
+    public static SkimsInMemory syntheticSkimsFactory(ResourceBundle rb,
+            int zones) {
+        SkimsInMemory skims = SkimsInMemory.getSkimsInMemory();
+        skims.setGlobalProperties(rb);
+
+        float[][] distance = new float[zones][zones];
+        float[][] pkTime = new float[zones][zones];
+        float[][] opTime = new float[zones][zones];
+        float[][] toll = new float[zones][zones];
+        float[][][] pkTransit = new float[8][][];
+        float[][][] opTransit = new float[8][][];
+        for (int c = 0; c < 8; ++c) {
+            pkTransit[c] = new float[zones][];
+            opTransit[c] = new float[zones][];
+        }
+
+        for (int i = 0; i < zones; ++i) {
+            // only the waits differ by period
+            for (int c = 0; c < 8; ++c) {
+                pkTransit[c][i] = new float[zones];
+                opTransit[c][i] = c == 1 || c == 2 ? new float[zones]
+                        : pkTransit[c][i];
+            }
+            for (int j = 0; j < zones; ++j) {
+                float d = gridDistance(zones, i + 1, j + 1);
+                distance[i][j] = d;
+                pkTime[i][j] = d * 60 / 30;
+                opTime[i][j] = d * 60 / 40;
+
+                if (d <= 20) {
+                    setTransit(pkTransit, i, j, d, 10);
+                    setTransit(opTransit, i, j, d, 30);
+                }
+            }
+        }
+
+        skims.pkDist = new Matrix("pkDist", "synthetic", distance);
+        skims.opDist = new Matrix("opDist", "synthetic", distance);
+        skims.pkTime = new Matrix("pkTime", "synthetic", pkTime);
+        skims.opTime = new Matrix("opTime", "synthetic", opTime);
+        skims.pkToll = new Matrix("pkToll", "synthetic", toll);
+        skims.opToll = new Matrix("opToll", "synthetic", toll);
+        skims.pkwlk = transitCollection("WtPk", pkTransit);
+        skims.opwlk = transitCollection("WtOp", opTransit);
+        skims.useSkimMatrices();
+
+        return skims;
+    }
+
+    /**
+     * @return distance in miles between two zones of a synthetic zone system,
+     *         half a mile within a zone
+     */
+    static float gridDistance(int zones, int i, int j) {
+        if (i == j) {
+            return 0.5f;
+        }
+        int side = (int) Math.ceil(Math.sqrt(zones));
+        int dx = abs((i - 1) % side - (j - 1) % side);
+        int dy = abs((i - 1) / side - (j - 1) / side);
+        return dx + dy;
+    }
+
+    // Ivt, Fwt, Twt, Brd, Far, Awk, Xwk, Ewk
+    private static void setTransit(float[][][] cores, int i, int j,
+            float distance, float headway) {
+        cores[0][i][j] = distance * 60 / 15;
+        cores[1][i][j] = headway / 2;
+        cores[2][i][j] = headway / 2 + (distance > 5 ? 10 : 0);
+        cores[3][i][j] = distance > 5 ? 2 : 1;
+        cores[4][i][j] = 1.5f;
+        cores[5][i][j] = 5;
+        cores[6][i][j] = distance > 5 ? 3 : 0;
+        cores[7][i][j] = 5;
+    }
+
+    private static MatrixCollection transitCollection(String prefix,
+            float[][][] cores) {
+        String[] names = { "Ivt", "Fwt", "Twt", "Brd", "Far", "Awk", "Xwk",
+                "Ewk" };
+        MatrixCollection mc = null;
+        for (int i = 0; i < names.length; ++i) {
+            Matrix m = new Matrix(prefix + names[i], "synthetic", cores[i]);
+            if (i == 0) {
+                mc = new MatrixCollection(m);
+            }
+            mc.addMatrix(m);
+        }
+        return mc;
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import com.pb.common.util.ResourceUtil;
+import com.pb.models.pt.AreaType;
+import com.pb.models.pt.Taz;
+import com.pb.models.pt.TazManager;
+
+public class MockTazFactory {
+
+    /**
+     * Create a synthetic zone system of zones 1 to <code>zones</code>, laid
+     * out as the zones of MockSkimsFactory.syntheticSkimsFactory.
+     *
+     * The taz manager and taz classes are those of the pt properties and the
+     * employment categories are the columns of the sdt.employment file.
+     * Households, employment, acres and parking costs are drawn at random.
+     */
+    public static TazManager tazManagerFactory(ResourceBundle ptRb,
+            int zones, Random random) {
+        TazManager tazManager;
+        Class tazClass;
+        try {
+            tazManager = (TazManager) Class.forName(
+                    ResourceUtil.getProperty(ptRb, "sdt.taz.manager.class"))
+                    .newInstance();
+            tazClass = Class.forName(ptRb.getString("sdt.taz.class"));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        String[] categories = readEmploymentCategories(ResourceUtil
+                .getProperty(ptRb, "sdt.employment"));
+        int districts = Integer.parseInt(ptRb
+                .getString("total.destination.choice.districts"));
+
+        for (int zone = 1; zone <= zones; ++zone) {
+            Taz taz;
+            try {
+                taz = (Taz) tazClass.newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+
+            taz.zoneNumber = zone;
+            taz.acres = 100 + random.nextInt(5000);
+            taz.households = random.nextInt(2000);
+            taz.dcDistrict = 1 + (zone - 1) % districts;
+            taz.areatype = AreaType.NONE;
+            taz.terminalTime = 1;
+            taz.gradeSchoolTeachingShare = 1;
+            if (random.nextInt(4) == 0) {
+                taz.workParkingCost = 5 * random.nextFloat();
+                taz.nonWorkParkingCost = taz.workParkingCost / 4;
+            }
+            for (String category : categories) {
+                taz.employment.put(category, (float) random.nextInt(500));
+            }
+
+            tazManager.tazData.put(zone, taz);
+        }
+
+        return tazManager;
+    }
+
+    /**
+     * @return the column labels of an employment summary file, without the
+     *         zone column
+     */
+    private static String[] readEmploymentCategories(String fileName) {
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(fileName));
+            String header = reader.readLine();
+            reader.close();
+
+            String[] labels = header.split(",");
+            String[] categories = new String[labels.length - 1];
+            for (int i = 1; i < labels.length; ++i) {
+                categories[i - 1] = labels[i].replace("\"", "").trim();
+            }
+            return categories;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file " + fileName, e);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import static com.pb.models.pt.tests.MockDataBuilder.householdFactory;
+import static com.pb.models.pt.tests.MockDataBuilder.personFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import org.apache.log4j.Logger;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.common.util.ResourceUtil;
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.LatencyHistogram;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.PatternChoiceModel;
+import com.pb.models.pt.PersonType;
+import com.pb.models.pt.PriceConverter;
+import com.pb.models.pt.StopDestinationChoiceModel;
+import com.pb.models.pt.TazManager;
+import com.pb.models.pt.Tour;
+import com.pb.models.pt.TourDestinationChoiceModel;
+import com.pb.models.pt.TourModeChoiceLogsumManager;
+import com.pb.models.pt.TourSchedulingModel;
+import com.pb.models.pt.tourmodes.AutoDriver;
+import com.pb.models.pt.util.SkimsInMemory;
+import com.pb.models.pt.util.TravelTimeAndCost;
+
+/**
+ * Microbenchmarks of the microsimulation hot paths, run on a synthetic zone
+ * system so that a change can be timed before a statewide run.
+ *
+ * The model parameters are read through the pt and global properties on the
+ * classpath, as in the tests.  The zones come from MockTazFactory, the skims
+ * from MockSkimsFactory and the households from MockDataBuilder.  Each
+ * benchmark is run for a number of warmup operations and then for a number
+ * of measured operations, each timed into a LatencyHistogram.
+ *
+ * Usage: PTBenchmarks [benchmark ...], with the system properties
+ * <ul>
+ * <li>pt.benchmark.zones - zones in the synthetic zone system, default 500</li>
+ * <li>pt.benchmark.households - mock households, default 200</li>
+ * <li>pt.benchmark.warmup - warmup operations per benchmark, default 2000</li>
+ * <li>pt.benchmark.operations - measured operations per benchmark, default
+ * 10000</li>
+ * </ul>
+ * The mode choice logsum benchmark builds a whole matrix per operation and
+ * runs a tenth of the operations, at least 3.  All benchmarks are run if none
+ * are named.
+ */
+public class PTBenchmarks {
+    static Logger logger = Logger.getLogger(PTBenchmarks.class);
+
+    // OD pairs per travel time and cost operation
+    private static final int PAIRS = 1000;
+
+    /**
+     * One benchmark operation.
+     */
+    private static abstract class Operation {
+        final String name;
+
+        final int scale;
+
+        /**
+         * @param scale divisor of the operation counts
+         */
+        Operation(String name, int scale) {
+            this.name = name;
+            this.scale = scale;
+        }
+
+        /**
+         * @param i operation number
+         * @return a result of the operation, summed so it is not optimized
+         *         away
+         */
+        abstract double run(int i);
+    }
+
+    private final Random random = new Random(1);
+
+    private final ResourceBundle ptRb;
+
+    private final ResourceBundle globalRb;
+
+    private final int zones;
+
+    private TazManager tazManager;
+
+    private SkimsInMemory skims;
+
+    private Matrix logsums;
+
+    private PTHousehold[] households;
+
+    private PTPerson[] persons;
+
+    // the tour with stops of each person
+    private Tour[] tours;
+
+    private final Map<String, Operation> operations = new LinkedHashMap<String, Operation>();
+
+    private double sink;
+
+    public PTBenchmarks(ResourceBundle ptRb, ResourceBundle globalRb,
+            int zones, int households) {
+        this.ptRb = ptRb;
+        this.globalRb = globalRb;
+        this.zones = zones;
+
+        long start = System.currentTimeMillis();
+        PriceConverter.getInstance(ptRb, globalRb);
+        tazManager = MockTazFactory.tazManagerFactory(ptRb, zones, random);
+        skims = MockSkimsFactory.syntheticSkimsFactory(globalRb, zones);
+        createLogsums();
+        createHouseholds(households);
+        createOperations();
+        logger.info("Set up " + zones + " zones and " + persons.length
+                + " persons in " + (System.currentTimeMillis() - start)
+                + " ms.");
+    }
+
+    /**
+     * Mode choice logsums for the tour destination choice, falling with
+     * peak time.
+     */
+    private void createLogsums() {
+        float[][] values = new float[zones][zones];
+        for (int i = 0; i < zones; ++i) {
+            for (int j = 0; j < zones; ++j) {
+                values[i][j] = -0.05f * skims.pkTime.getValueAt(i + 1, j + 1);
+            }
+        }
+        logsums = new Matrix("logsums", "synthetic", values);
+    }
+
+    /**
+     * Each household has a worker, with a work tour and a tour with two
+     * stops, and a non-worker with a tour with two stops and a second tour.
+     * Homes and destinations are drawn at random.
+     */
+    private void createHouseholds(int count) {
+        new MockDataBuilder();
+        households = new PTHousehold[count];
+        persons = new PTPerson[2 * count];
+        tours = new Tour[2 * count];
+
+        for (int h = 0; h < count; ++h) {
+            PTHousehold household = householdFactory(random.nextInt(4),
+                    10000 + random.nextInt(90000), 2);
+            household.size = 2;
+            household.workers = 1;
+            household.persons[0] = personFactory(household,
+                    25 + random.nextInt(40), random.nextBoolean(), true,
+                    "hwhsosh");
+            household.persons[1] = personFactory(household,
+                    25 + random.nextInt(40), random.nextBoolean(), false,
+                    "hsoshrh");
+            household.persons[1].personType = PersonType.NONWORKER;
+
+            household.homeTaz = (short) (1 + random.nextInt(zones));
+            for (int p = 0; p < 2; ++p) {
+                PTPerson person = household.persons[p];
+                person.hhID = household.ID;
+                person.homeTaz = household.homeTaz;
+                person.workTaz = (short) (1 + random.nextInt(zones));
+                for (Tour tour : person.weekdayTours) {
+                    tour.begin.location.zoneNumber = household.homeTaz;
+                    tour.end.location.zoneNumber = household.homeTaz;
+                    tour.primaryDestination.location.zoneNumber = tour
+                            .getPurpose() == ActivityPurpose.WORK ? person.workTaz
+                            : 1 + random.nextInt(zones);
+                    tour.primaryMode = new AutoDriver();
+                    if (tour.intermediateStop1 != null) {
+                        tours[2 * h + p] = tour;
+                    }
+                }
+                persons[2 * h + p] = person;
+            }
+            households[h] = household;
+        }
+    }
+
+    private PTHousehold household(int i) {
+        return households[(i % persons.length) / 2];
+    }
+
+    private void add(Operation operation) {
+        operations.put(operation.name, operation);
+    }
+
+    private void createOperations() {
+        final TourSchedulingModel scheduling = new TourSchedulingModel(ptRb,
+                PTOccupation.NO_OCCUPATION);
+        scheduling.buildModel();
+        add(new Operation("tourScheduling", 1) {
+            double run(int i) {
+                PTPerson person = persons[i % persons.length];
+                scheduling.chooseAllSchedules(household(i), person, skims,
+                        new Random(i));
+                return person.weekdayTours[0].primaryDestination.startTime;
+            }
+        });
+
+        // the stop and destination models need the tour times
+        for (int i = 0; i < persons.length; ++i) {
+            scheduling.chooseAllSchedules(household(i), persons[i], skims,
+                    new Random(i));
+        }
+
+        final TourDestinationChoiceModel destination = new TourDestinationChoiceModel(
+                ptRb);
+        destination.buildModel(tazManager);
+        add(new Operation("tourDestination", 1) {
+            double run(int i) {
+                int p = i % persons.length;
+                return destination.calculateUtility(household(i), persons[p],
+                        tours[p], logsums, skims.pkDist, skims.pkTime);
+            }
+        });
+
+        final StopDestinationChoiceModel stops = new StopDestinationChoiceModel(
+                ptRb);
+        stops.buildModel(tazManager);
+        add(new Operation("stopDestination", 1) {
+            double run(int i) {
+                int p = i % persons.length;
+                stops.calculateStopZones(household(i), persons[p], tours[p],
+                        skims, new Random(i));
+                return tours[p].intermediateStop1.location.zoneNumber;
+            }
+        });
+
+        final PatternChoiceModel patterns = new PatternChoiceModel(ptRb);
+        patterns.buildModel();
+        add(new Operation("patternChoice", 1) {
+            double run(int i) {
+                return patterns.getUtility(household(i),
+                        persons[i % persons.length], skims.pkDist);
+            }
+        });
+
+        final TourModeChoiceLogsumManager modeChoice = new TourModeChoiceLogsumManager(
+                globalRb, ptRb);
+        add(new Operation("modeChoiceLogsums", 10) {
+            double run(int i) {
+                // every purpose but home, then every segment
+                ActivityPurpose[] purposes = ActivityPurpose.values();
+                ActivityPurpose purpose = purposes[1 + i % (purposes.length - 1)];
+                int segment = i / (purposes.length - 1)
+                        % TourModeChoiceLogsumManager.TOTALSEGMENTS;
+                Matrix m = modeChoice.createLogsumMatrix(purpose, segment,
+                        tazManager, skims);
+                return m.getValueAt(1, zones);
+            }
+        });
+
+        final TravelTimeAndCost tc = new TravelTimeAndCost();
+        final int[] times = { 800, 1200, 1700, 2000 };
+        add(new Operation("travelTimeAndCost", 1) {
+            double run(int i) {
+                Random r = new Random(i);
+                double sum = 0;
+                for (int k = 0; k < PAIRS; ++k) {
+                    skims.setTravelTimeAndCost(tc, 1 + r.nextInt(zones),
+                            1 + r.nextInt(zones), times[k % times.length]);
+                    sum += tc.driveAloneTime + tc.walkTransitInVehicleTime;
+                }
+                return sum;
+            }
+        });
+    }
+
+    /**
+     * Run a benchmark.
+     *
+     * @return the measured operations
+     */
+    public LatencyHistogram run(String name, int warmup, int measured) {
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            throw new RuntimeException("No benchmark " + name + ", choose from "
+                    + operations.keySet());
+        }
+        warmup = Math.max(warmup / operation.scale, 1);
+        measured = Math.max(measured / operation.scale, 3);
+
+        for (int i = 0; i < warmup; ++i) {
+            sink += operation.run(i);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < measured; ++i) {
+            long start = System.nanoTime();
+            sink += operation.run(warmup + i);
+            histogram.record(System.nanoTime() - start);
+        }
+        return histogram;
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<String>(operations.keySet());
+    }
+
+    public static void main(String[] args) {
+        int zones = Integer.getInteger("pt.benchmark.zones", 500);
+        int households = Integer.getInteger("pt.benchmark.households", 200);
+        int warmup = Integer.getInteger("pt.benchmark.warmup", 2000);
+        int measured = Integer.getInteger("pt.benchmark.operations", 10000);
+
+        PTBenchmarks benchmarks = new PTBenchmarks(ResourceUtil
+                .getResourceBundle("pt"), ResourceUtil
+                .getResourceBundle("global"), zones, households);
+
+        List<String> names = args.length > 0 ? Arrays.asList(args)
+                : benchmarks.getNames();
+        for (String name : names) {
+            LatencyHistogram histogram = benchmarks.run(name, warmup, measured);
+            logger.info(name + " on " + zones + " zones: "
+                    + histogram.summary()
+                    + (name.equals("travelTimeAndCost") ? " per " + PAIRS
+                            + " pairs" : ""));
+        }
+        logger.debug("Sink " + benchmarks.sink);
+    }
+}
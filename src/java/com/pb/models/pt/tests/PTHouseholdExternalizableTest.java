@@ -0,0 +1,130 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.pb.models.pt.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.TestCase;
+
+import com.pb.models.pt.Activity;
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.PersonType;
+import com.pb.models.pt.Pattern;
+import com.pb.models.pt.Tour;
+import com.pb.models.pt.ldt.LDTourPatternType;
+
+/**
+ * Send a household block through Java serialization, as the DAF message
+ * layer does, and check that the households come back whole.
+ */
+public class PTHouseholdExternalizableTest extends TestCase {
+
+    private PTHousehold[] roundTrip(PTHousehold[] households) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(households);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray()));
+        return (PTHousehold[]) in.readObject();
+    }
+
+    /**
+     * Create a person whose tours go to the purposes given.
+     */
+    private PTPerson createPerson(PTHousehold household, int memberId,
+            String word) {
+        PTPerson person = new PTPerson();
+        person.hhID = household.ID;
+        person.memberID = memberId;
+        person.age = (byte) (20 + memberId);
+        person.employed = word.indexOf('w') >= 0;
+        person.personType = person.employed ? PersonType.WORKER
+                : PersonType.NONWORKER;
+        person.randomSeed = 1234567890123L * memberId;
+        person.setPattern(new Pattern(word));
+
+        Tour[] tours = new Tour[(word.length() - 1) / 2];
+        for (int i = 0; i < tours.length; ++i) {
+            tours[i] = new Tour();
+            tours[i].tourNumber = i + 1;
+            tours[i].primaryDestination.activityPurpose = ActivityPurpose
+                    .getActivityPurpose(word.charAt(2 * i + 1));
+            tours[i].primaryDestination.startTime = (short) (800 + 100 * i);
+            tours[i].primaryDestination.location.zoneNumber = 10 + i;
+        }
+        person.weekdayTours = tours;
+        return person;
+    }
+
+    public void testRoundTrip() throws Exception {
+        PTHousehold household = MockDataBuilder.householdFactory(1, 35000, 2);
+        household.size = 2;
+        household.workers = 1;
+        household.ldHouseholdTourPattern = LDTourPatternType.NO_TOUR;
+        household.persons[0] = createPerson(household, 1, "hwhsh");
+        household.persons[1] = createPerson(household, 2, "hsh");
+
+        PTHousehold copy = roundTrip(new PTHousehold[] { household })[0];
+
+        assertEquals(household.ID, copy.ID);
+        assertEquals(household.autos, copy.autos);
+        assertEquals(household.income, copy.income);
+        assertEquals(household.homeTaz, copy.homeTaz);
+        assertEquals(LDTourPatternType.NO_TOUR, copy.ldHouseholdTourPattern);
+        assertEquals(2, copy.persons.length);
+
+        for (int p = 0; p < household.persons.length; ++p) {
+            PTPerson person = household.persons[p];
+            PTPerson personCopy = copy.persons[p];
+            assertEquals(person.hhID, personCopy.hhID);
+            assertEquals(person.memberID, personCopy.memberID);
+            assertEquals(person.age, personCopy.age);
+            assertEquals(person.employed, personCopy.employed);
+            assertEquals(person.personType, personCopy.personType);
+            assertEquals(person.randomSeed, personCopy.randomSeed);
+            assertEquals(person.getPattern().toString(), personCopy
+                    .getPattern().toString());
+            assertEquals(person.weekdayTours.length,
+                    personCopy.weekdayTours.length);
+
+            for (int t = 0; t < person.weekdayTours.length; ++t) {
+                Tour tour = person.weekdayTours[t];
+                Tour tourCopy = personCopy.weekdayTours[t];
+                assertEquals(tour.tourNumber, tourCopy.tourNumber);
+                assertActivityEquals(tour.begin, tourCopy.begin);
+                assertActivityEquals(tour.primaryDestination,
+                        tourCopy.primaryDestination);
+                assertActivityEquals(tour.end, tourCopy.end);
+            }
+        }
+    }
+
+    private void assertActivityEquals(Activity expected, Activity actual) {
+        assertEquals(expected.activityPurpose, actual.activityPurpose);
+        assertEquals(expected.activityType, actual.activityType);
+        assertEquals(expected.startTime, actual.startTime);
+        assertEquals(expected.location.zoneNumber, actual.location.zoneNumber);
+    }
+}
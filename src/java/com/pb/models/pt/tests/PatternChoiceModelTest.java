@@ -0,0 +1,280 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import static com.pb.models.pt.tests.MockDataBuilder.householdFactory;
+import static com.pb.models.pt.tests.MockDataBuilder.personFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.common.model.ConcreteAlternative;
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.PatternChoiceModel;
+import com.pb.models.pt.PatternParameters;
+import com.pb.models.pt.PatternVariables;
+import com.pb.models.pt.PersonType;
+import com.pb.models.pt.TourDestinationChoiceLogsums;
+import com.pb.models.pt.TourModeChoiceLogsumManager;
+
+/**
+ * Compare the pattern utilities of the matrix-vector product with those
+ * calculated one pattern at a time, for mock households and made up
+ * patterns and parameters, and check the choice against a scan of the
+ * probabilities.
+ */
+public class PatternChoiceModelTest extends TestCase {
+
+    private static final int PATTERNS = 600;
+
+    private static final int ZONES = 20;
+
+    private static final String ACTIVITIES = "wsrocg";
+
+    private File patternFile = new File("testPatterns.csv");
+
+    private File parameterFile = new File("testPatternParameters.csv");
+
+    private Random random = new Random(19);
+
+    // [type][alternative], the pattern numbers available to each person type
+    private int[][] typePatterns = new int[PersonType.values().length][];
+
+    private PatternChoiceModel model;
+
+    private Matrix distance;
+
+    protected void setUp() throws IOException {
+        writePatterns();
+        writeParameters();
+
+        final Properties properties = new Properties();
+        properties.setProperty("sdt.activity.patterns", patternFile.getPath());
+        properties.setProperty("sdt.pattern.choice.parameters", parameterFile.getPath());
+        ResourceBundle rb = new ResourceBundle() {
+            protected Object handleGetObject(String key) {
+                return properties.getProperty(key);
+            }
+
+            @SuppressWarnings("unchecked")
+            public Enumeration<String> getKeys() {
+                return (Enumeration<String>) properties.propertyNames();
+            }
+        };
+
+        model = new PatternChoiceModel(rb);
+        model.buildModel();
+
+        int[] zones = new int[ZONES];
+        float[][] distances = new float[ZONES][ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            zones[i] = i + 1;
+            for (int j = 0; j < ZONES; ++j) {
+                distances[i][j] = 60 * random.nextFloat();
+            }
+        }
+        distance = new Matrix("distance", "made up", distances);
+
+        // destination choice logsums of the home zones
+        TourDestinationChoiceLogsums.createTourDestinationChoiceLogsumsTable(zones, "TAZ");
+        ActivityPurpose[] purposes = { ActivityPurpose.COLLEGE,
+                ActivityPurpose.SHOP, ActivityPurpose.RECREATE,
+                ActivityPurpose.OTHER };
+        for (ActivityPurpose purpose : purposes) {
+            for (int segment = 0; segment < TourModeChoiceLogsumManager.TOTALSEGMENTS; ++segment) {
+                float[] logsums = new float[ZONES];
+                for (int i = 0; i < ZONES; ++i) {
+                    logsums[i] = 5 * random.nextFloat();
+                }
+                TourDestinationChoiceLogsums.setLogsumsInTable(purpose, segment, logsums);
+            }
+        }
+    }
+
+    protected void tearDown() {
+        patternFile.delete();
+        parameterFile.delete();
+    }
+
+    public void testUtilitiesMatchPatternByPattern() {
+        new MockDataBuilder();
+        int persons = 0;
+
+        for (int h = 0; h < 200; ++h) {
+            PTHousehold household = createHousehold();
+
+            for (PTPerson person : household.persons) {
+                double logsum = model.getUtility(household, person, distance);
+                double[] utilities = model.getUtilities();
+                double[] expected = model.calculatePatternUtilities();
+                assertEquals(expected.length, utilities.length);
+
+                // the terms of calculateUtility are float products
+                double sum = 0;
+                for (int i = 0; i < expected.length; ++i) {
+                    assertEquals("pattern " + i, expected[i], utilities[i],
+                            1e-5 * Math.max(1, Math.abs(expected[i])));
+                    sum += Math.exp(utilities[i]);
+                }
+                assertEquals(sum > 0 ? Math.log(sum) : -999, logsum, 1e-9);
+
+                // the pattern a scan of the cumulative probabilities finds
+                long seed = random.nextLong();
+                double target = new Random(seed).nextDouble() * sum;
+                double cumulative = 0;
+                int chosen = -1;
+                for (int i = 0; i < expected.length && chosen < 0; ++i) {
+                    cumulative += Math.exp(utilities[i]);
+                    if (cumulative > target) {
+                        chosen = i;
+                    }
+                }
+                ConcreteAlternative pattern = model.choosePattern(new Random(seed));
+                int[] numbers = null;
+                for (int[] n : typePatterns) {
+                    if (n.length == utilities.length) {
+                        numbers = n;
+                    }
+                }
+                assertEquals(numbers[chosen], pattern.getAlternativeObject());
+
+                ++persons;
+            }
+        }
+        assertTrue(persons > 0);
+    }
+
+    /**
+     * Households of one to four persons: workers, students and others of all
+     * ages.
+     */
+    private PTHousehold createHousehold() {
+        int size = 1 + random.nextInt(4);
+        PTHousehold household = householdFactory(random.nextInt(4),
+                5000 + random.nextInt(100000), size);
+        household.size = (byte) size;
+        household.homeTaz = (short) (1 + random.nextInt(ZONES));
+
+        for (int m = 0; m < size; ++m) {
+            int age = random.nextInt(80);
+            boolean employed = age >= 16 && random.nextBoolean();
+            if (employed) {
+                ++household.workers;
+            }
+            PTPerson person = personFactory(household, age,
+                    random.nextBoolean(), employed, "HWH");
+            person.memberID = m + 1;
+            person.hhID = household.ID;
+            person.student = age >= 5 && age < 25 && random.nextBoolean();
+            person.homeTaz = household.homeTaz;
+            person.workTaz = (short) (1 + random.nextInt(ZONES));
+            household.persons[m] = person;
+        }
+        return household;
+    }
+
+    /**
+     * Patterns of up to three tours with made up pattern variables. Fewer
+     * patterns are available to the lower person types, so the number of
+     * patterns tells the type of a person.
+     */
+    private void writePatterns() throws IOException {
+        int columns = PatternVariables.PRESENCEWORKSTOPSONLYONSCHOOLTOURS + 1;
+        FileWriter writer = new FileWriter(patternFile);
+        for (int k = 0; k < columns; ++k) {
+            writer.write((k > 0 ? "," : "") + "v" + k);
+        }
+        writer.write("\n");
+
+        int[] counts = new int[typePatterns.length];
+        for (int t = 0; t < typePatterns.length; ++t) {
+            typePatterns[t] = new int[PATTERNS];
+        }
+        for (int p = 1; p <= PATTERNS; ++p) {
+            StringBuilder pattern = new StringBuilder("H");
+            boolean work = false;
+            int tours = random.nextInt(4);
+            for (int t = 0; t < tours; ++t) {
+                int activities = 1 + random.nextInt(3);
+                for (int a = 0; a < activities; ++a) {
+                    char activity = ACTIVITIES.charAt(random.nextInt(ACTIVITIES.length()));
+                    work |= activity == 'w';
+                    pattern.append(Character.toUpperCase(activity));
+                }
+                pattern.append("H");
+            }
+
+            for (int k = 0; k < columns; ++k) {
+                String value;
+                if (k == PatternVariables.PATTERNNUMBER) {
+                    value = Integer.toString(p);
+                } else if (k == PatternVariables.DAYPATTERN) {
+                    value = pattern.toString();
+                } else if (k >= PatternVariables.PTYPE1 && k <= PatternVariables.PTYPE5) {
+                    int t = k - PatternVariables.PTYPE1;
+                    boolean available = (p + t) % (t + 2) != 0;
+                    if (available) {
+                        typePatterns[t][counts[t]++] = p;
+                    }
+                    value = available ? "1" : "0";
+                } else if (k == PatternVariables.PRESENCEWORKACTIVITIES) {
+                    value = work ? "1" : "0";
+                } else {
+                    value = random.nextInt(3) == 0 ? Integer.toString(random.nextInt(4)) : "0";
+                }
+                writer.write((k > 0 ? "," : "") + value);
+            }
+            writer.write("\n");
+        }
+        writer.close();
+
+        for (int t = 0; t < typePatterns.length; ++t) {
+            typePatterns[t] = Arrays.copyOf(typePatterns[t], counts[t]);
+        }
+    }
+
+    /**
+     * A row of parameters for each person type, half of them 0.
+     */
+    private void writeParameters() throws IOException {
+        int columns = PatternParameters.CHOMEWORKHOME + 1;
+        FileWriter writer = new FileWriter(parameterFile);
+        for (int k = 0; k < columns; ++k) {
+            writer.write((k > 0 ? "," : "") + "c" + k);
+        }
+        writer.write("\n");
+        for (int t = 0; t < PersonType.values().length; ++t) {
+            for (int k = 0; k < columns; ++k) {
+                double value = random.nextBoolean() ? 0 : 0.3 * random.nextGaussian();
+                writer.write((k > 0 ? "," : "") + (float) value);
+            }
+            writer.write("\n");
+        }
+        writer.close();
+    }
+}
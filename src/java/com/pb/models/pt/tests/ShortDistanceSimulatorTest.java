@@ -0,0 +1,210 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import static com.pb.models.pt.tests.MockDataBuilder.householdFactory;
+import static com.pb.models.pt.tests.MockDataBuilder.personFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.common.util.ResourceUtil;
+import com.pb.models.pt.Activity;
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.PersonType;
+import com.pb.models.pt.PriceConverter;
+import com.pb.models.pt.TazManager;
+import com.pb.models.pt.Tour;
+import com.pb.models.pt.TourModeChoiceLogsumManager;
+import com.pb.models.pt.daf.ShortDistanceSimulator;
+import com.pb.models.pt.util.MCLogsumsInMemory;
+import com.pb.models.pt.util.SkimsInMemory;
+
+/**
+ * Run a block of mock households through the short-distance models on one
+ * thread and on several threads sharing the zones, and compare the
+ * patterns, tours, destinations, modes and stops.
+ *
+ * The model parameters are read through the pt and global properties on the
+ * classpath, as in PTBenchmarks.
+ */
+public class ShortDistanceSimulatorTest extends TestCase {
+
+    private static final int ZONES = 200;
+
+    private static final int HOUSEHOLDS = 300;
+
+    private static final int THREADS = 4;
+
+    private ResourceBundle ptRb = ResourceUtil.getResourceBundle("pt");
+
+    private ResourceBundle globalRb = ResourceUtil.getResourceBundle("global");
+
+    private TazManager tazManager;
+
+    private SkimsInMemory skims;
+
+    protected void setUp() {
+        PriceConverter.getInstance(ptRb, globalRb);
+        tazManager = MockTazFactory.tazManagerFactory(ptRb, ZONES, new Random(1));
+        skims = MockSkimsFactory.syntheticSkimsFactory(globalRb, ZONES);
+
+        // mode choice logsums falling with peak time, the same for every
+        // purpose and segment
+        float[][] values = new float[ZONES][ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            for (int j = 0; j < ZONES; ++j) {
+                values[i][j] = -0.05f * skims.pkTime.getValueAt(i + 1, j + 1);
+            }
+        }
+        Matrix logsums = new Matrix("logsums", "synthetic", values);
+        MCLogsumsInMemory.mcLogsumsInMemory = new Matrix[ActivityPurpose
+                .values().length][TourModeChoiceLogsumManager.TOTALSEGMENTS];
+        for (Matrix[] purpose : MCLogsumsInMemory.mcLogsumsInMemory) {
+            for (int segment = 0; segment < purpose.length; ++segment) {
+                purpose[segment] = logsums;
+            }
+        }
+    }
+
+    public void testThreadsMatchSerial() {
+        List<String> serial = simulate(1);
+        List<String> threaded = simulate(THREADS);
+
+        int tours = 0;
+        int workBasedTours = 0;
+        for (String line : serial) {
+            if (line.contains(" work-based tour ")) {
+                ++workBasedTours;
+            } else if (line.contains(" tour ")) {
+                ++tours;
+            }
+        }
+        assertTrue("No tours were made", tours > 0);
+        // their durations are drawn too, and must not depend on the threads
+        assertTrue("No work-based tours were made", workBasedTours > 0);
+
+        assertEquals(serial.size(), threaded.size());
+        for (int i = 0; i < serial.size(); ++i) {
+            assertEquals(serial.get(i), threaded.get(i));
+        }
+    }
+
+    /**
+     * Run the same block of households on a number of threads.
+     *
+     * @return a line for each person and tour
+     */
+    private List<String> simulate(int threads) {
+        PTHousehold[] households = createHouseholds();
+
+        ShortDistanceSimulator simulator = new ShortDistanceSimulator("test",
+                ptRb, globalRb, PTOccupation.NO_OCCUPATION, skims, tazManager);
+        simulator.buildModels(threads);
+        try {
+            simulator.simulate(households);
+        } finally {
+            simulator.shutdown();
+        }
+
+        return describe(households);
+    }
+
+    /**
+     * Households of one to three persons, a worker, a student and a
+     * non-worker, drawn from a fixed seed so that each call gives the same
+     * block.
+     */
+    private PTHousehold[] createHouseholds() {
+        Random random = new Random(7);
+        new MockDataBuilder();
+        PTHousehold[] households = new PTHousehold[HOUSEHOLDS];
+
+        for (int h = 0; h < HOUSEHOLDS; ++h) {
+            int size = 1 + random.nextInt(3);
+            PTHousehold household = householdFactory(random.nextInt(4),
+                    10000 + random.nextInt(90000), size);
+            household.size = (byte) size;
+            household.workers = 1;
+            short homeTaz = (short) (1 + random.nextInt(ZONES));
+
+            for (int p = 0; p < size; ++p) {
+                boolean worker = p == 0;
+                int age = p == 1 ? 6 + random.nextInt(12) : 25 + random.nextInt(40);
+                PTPerson person = personFactory(household, age,
+                        random.nextBoolean(), worker, "h");
+                if (p == 1) {
+                    person.student = true;
+                } else if (p == 2) {
+                    person.personType = PersonType.NONWORKER;
+                }
+                person.memberID = p + 1;
+                person.hhID = household.ID;
+                person.homeTaz = homeTaz;
+                person.workTaz = (short) (1 + random.nextInt(ZONES));
+                person.randomSeed = random.nextLong();
+                household.persons[p] = person;
+            }
+            household.homeTaz = homeTaz;
+            households[h] = household;
+        }
+        return households;
+    }
+
+    private static List<String> describe(PTHousehold[] households) {
+        List<String> lines = new ArrayList<String>();
+        for (int h = 0; h < households.length; ++h) {
+            for (PTPerson person : households[h].persons) {
+                String prefix = h + "_" + person.memberID;
+                lines.add(prefix + " pattern " + person.weekdayPattern);
+                describe(lines, prefix, person.weekdayTours);
+                describe(lines, prefix + " work-based", person.weekdayWorkBasedTours);
+            }
+        }
+        return lines;
+    }
+
+    private static void describe(List<String> lines, String prefix, Tour[] tours) {
+        if (tours == null) {
+            return;
+        }
+        for (Tour tour : tours) {
+            lines.add(prefix + " tour " + tour.tourNumber + " "
+                    + (tour.primaryMode == null ? null : tour.primaryMode.type)
+                    + ": " + describe(tour.begin) + ", "
+                    + describe(tour.intermediateStop1) + ", "
+                    + describe(tour.primaryDestination) + ", "
+                    + describe(tour.intermediateStop2) + ", "
+                    + describe(tour.end));
+        }
+    }
+
+    private static String describe(Activity activity) {
+        if (activity == null) {
+            return "-";
+        }
+        return activity.location.zoneNumber + " " + activity.startTime + "-"
+                + activity.endTime + " " + activity.tripMode;
+    }
+}
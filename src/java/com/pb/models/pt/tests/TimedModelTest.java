@@ -22,6 +22,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
+import com.pb.models.pt.LatencyHistogram;
 import com.pb.models.pt.TimedModel;
 
 import junit.framework.TestCase;
@@ -74,5 +75,29 @@ public class TimedModelTest extends TestCase {
         logger.info("Expcting " + expect + " and it took " + time);
         
         assertEquals(true, expect + tol > time && expect - tol < time);
+        assertEquals(1, model.getCallCount());
+    }
+
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000; ++nanos) {
+            histogram.record(nanos * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(1000, histogram.getMin());
+
+        // buckets are within 1/16 of their values
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 500000 && p50 <= 500000 + 500000 / 16);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 990000 && p99 <= 1000000);
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(5);
+        other.add(histogram);
+        assertEquals(1001, other.getCount());
+        assertEquals(5, other.getMin());
+        assertEquals(5, other.getValueAtPercentile(0));
     }
 }
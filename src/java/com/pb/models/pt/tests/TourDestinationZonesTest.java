@@ -0,0 +1,203 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.AreaType;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.Taz;
+import com.pb.models.pt.TazManager;
+import com.pb.models.pt.Tour;
+import com.pb.models.pt.TourDestinationParameters;
+import com.pb.models.pt.TourDestinationPersonAttributes;
+import com.pb.models.pt.TourDestinationZones;
+
+/**
+ * Compare the tour destination utilities built from the zone arrays and an
+ * origin row with those Taz.calcTourDestinationUtility calculates, for made
+ * up zones, parameters and persons.
+ */
+public class TourDestinationZonesTest extends TestCase {
+
+    private static final int ZONES = 60;
+
+    private static final int PARAMETERS = TourDestinationParameters.DISTANCECBD + 1;
+
+    private static final String[] TOURS = { "hwh", "hswh", "hwsh", "hswoh" };
+
+    private Random random = new Random(13);
+
+    private TazManager tazManager;
+
+    private Matrix distanceMatrix;
+
+    private float[][] parameters;
+
+    protected void setUp() {
+        tazManager = new TazManager() {
+            public void setParkingCost(ResourceBundle appRb,
+                    ResourceBundle globalRb, String fileName) {
+            }
+        };
+
+        // zone numbers with gaps, so the zone index and number differ
+        int[] zoneNumbers = new int[ZONES + 1];
+        for (int i = 1; i <= ZONES; ++i) {
+            zoneNumbers[i] = zoneNumbers[i - 1] + 1 + random.nextInt(3);
+
+            Taz taz = new Taz() {
+                public void setTourSizeTerms(float[][] tdpd) {
+                }
+
+                public void setStopSizeTerms(float[][] params) {
+                }
+            };
+            taz.zoneNumber = zoneNumbers[i];
+            taz.acres = random.nextInt(5) == 0 ? 0 : 10 + random.nextInt(2000);
+            taz.areatype = AreaType.values()[random.nextInt(AreaType.values().length)];
+            taz.northOfColumbiaRiver = random.nextInt(2);
+            taz.dcDistrict = 1 + random.nextInt(4);
+            for (int p = 0; p < taz.tourSizeTerm.length; ++p) {
+                if (random.nextInt(6) > 0) {
+                    taz.tourSizeTerm[p] = 1 + random.nextInt(1000);
+                    taz.tourLnSizeTerm[p] = Math.log(taz.tourSizeTerm[p]);
+                }
+            }
+            tazManager.getTazData().put(taz.zoneNumber, taz);
+        }
+
+        float[][] distances = new float[ZONES][ZONES];
+        for (int i = 0; i < ZONES; ++i) {
+            for (int j = 0; j < ZONES; ++j) {
+                distances[i][j] = i == j ? 0.5f : 1 + 80 * random.nextFloat();
+            }
+        }
+        distanceMatrix = new Matrix("distance", "made up", distances);
+        distanceMatrix.setExternalNumbers(zoneNumbers);
+
+        parameters = new float[ActivityPurpose.values().length][PARAMETERS];
+        for (float[] tdp : parameters) {
+            for (int k = 0; k < PARAMETERS; ++k) {
+                tdp[k] = (float) (0.1 * random.nextGaussian());
+            }
+            tdp[TourDestinationParameters.MAXDIST] = 30 + random.nextInt(40);
+        }
+    }
+
+    public void testUtilitiesMatchTaz() {
+        TourDestinationZones zones = new TourDestinationZones(tazManager);
+        zones.setParameters(parameters);
+        TourDestinationZones.OriginRow row = zones.createOriginRow();
+        TourDestinationPersonAttributes attributes = new TourDestinationPersonAttributes();
+
+        int available = 0;
+        for (int k = 0; k < 40; ++k) {
+            Taz origin = zones.getTaz(random.nextInt(ZONES));
+            setAttributes(attributes, origin.zoneNumber);
+
+            for (ActivityPurpose purpose : ActivityPurpose.values()) {
+                int parameterRow = purpose.ordinal();
+                float[] tdp = parameters[parameterRow];
+                double personCoefficient = TourDestinationZones
+                        .personDistanceCoefficient(tdp, attributes);
+                zones.fillOriginRow(row, tdp, distanceMatrix, origin.zoneNumber);
+
+                for (int i = 0; i < ZONES; ++i) {
+                    Taz taz = zones.getTaz(i);
+                    assertEquals(taz.zoneNumber, zones.getZoneNumber(i));
+                    double logsum = -3 * random.nextDouble();
+                    float calibConstant = (float) random.nextGaussian();
+                    float distance = distanceMatrix.getValueAt(
+                            origin.zoneNumber, taz.zoneNumber);
+
+                    taz.calcTourDestinationUtility(purpose, tdp, logsum,
+                            distance, attributes, origin, calibConstant);
+                    double utility = zones.calcTourDestinationUtility(i,
+                            purpose, parameterRow, tdp, logsum,
+                            row.getDistance(i), row.getDistanceUtility(i),
+                            personCoefficient, origin.zoneNumber,
+                            origin.northOfColumbiaRiver, calibConstant);
+
+                    String name = purpose + " " + origin.zoneNumber + "-"
+                            + taz.zoneNumber;
+                    assertEquals(name, distance, row.getDistance(i), 0);
+                    assertEquals(name, taz.isAvailable, !Double.isNaN(utility));
+                    if (taz.isAvailable) {
+                        assertEquals(name, taz.utility, utility,
+                                1e-9 * Math.max(1, Math.abs(taz.utility)));
+                        ++available;
+                    }
+                }
+            }
+        }
+        assertTrue(available > 0);
+    }
+
+    /**
+     * The row is filled again when the origin or the parameters change.
+     */
+    public void testOriginRow() {
+        TourDestinationZones zones = new TourDestinationZones(tazManager);
+        zones.setParameters(parameters);
+        TourDestinationZones.OriginRow row = zones.createOriginRow();
+
+        int[] origins = { zones.getZoneNumber(3), zones.getZoneNumber(3),
+                zones.getZoneNumber(7) };
+        int[] rows = { 0, 1, 1 };
+        for (int k = 0; k < origins.length; ++k) {
+            float[] tdp = parameters[rows[k]];
+            zones.fillOriginRow(row, tdp, distanceMatrix, origins[k]);
+            for (int i = 0; i < ZONES; ++i) {
+                float distance = distanceMatrix.getValueAt(origins[k],
+                        zones.getZoneNumber(i));
+                assertEquals(distance, row.getDistance(i), 0);
+                assertEquals(TourDestinationZones.distanceUtility(tdp,
+                        distance), row.getDistanceUtility(i), 0);
+            }
+        }
+    }
+
+    /**
+     * Attributes of a person from a household with a pre-schooler now and
+     * then, on one to three tours with up to two stops.
+     */
+    private void setAttributes(TourDestinationPersonAttributes attributes,
+            int originTaz) {
+        PTHousehold household = new PTHousehold();
+        PTPerson person = new PTPerson();
+        person.age = 35;
+        PTPerson child = new PTPerson();
+        child.age = (byte) (2 + random.nextInt(10));
+        household.persons = new PTPerson[] { person, child };
+
+        person.weekdayTours = new Tour[1 + random.nextInt(3)];
+        for (int t = 0; t < person.weekdayTours.length; ++t) {
+            person.weekdayTours[t] = new Tour(TOURS[random.nextInt(TOURS.length)], null);
+        }
+        Tour tour = person.weekdayTours[0];
+        tour.begin.location.zoneNumber = originTaz;
+
+        attributes.setAttributes(household, person, tour);
+    }
+}
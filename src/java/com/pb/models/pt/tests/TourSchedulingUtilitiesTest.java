@@ -0,0 +1,208 @@
+/*
+ * Copyright 2006 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.tests;
+
+import static com.pb.models.pt.tests.MockDataBuilder.householdFactory;
+import static com.pb.models.pt.tests.MockDataBuilder.personFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+import com.pb.models.pt.ActivityPurpose;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.PersonType;
+import com.pb.models.pt.TourSchedulingModel;
+import com.pb.models.pt.TourSchedulingParameters;
+import com.pb.models.utils.Tracer;
+
+/**
+ * Compare the tour scheduling utilities compiled per purpose with those of
+ * the loop over the alternatives, which calculateUtilities still runs for
+ * traced persons, for made up parameters and persons of every type.
+ *
+ * Each person has a traced twin in another household, and both schedule
+ * their tours with the same random numbers.
+ */
+public class TourSchedulingUtilitiesTest extends TestCase {
+
+    private static final int FIRST_HOUR = 5;
+
+    private static final int LAST_HOUR = 23;
+
+    private static final int COLUMNS = TourSchedulingParameters.CXYDSTDEP
+            + TourSchedulingParameters.DEPARTURE_PARAMETERS + 1;
+
+    private static final String[] PATTERNS = { "hwh", "hwhsh", "hgh",
+            "hghrh", "hchoh", "hwbwhoh", "hswhrh", "hshshsh", "hwhghch",
+            "hrohwh", "hcrhoh" };
+
+    private Tracer tracer = Tracer.getTracer();
+
+    private File parameterFile = new File("testTourSchedulingParameters.csv");
+
+    private Random random = new Random(23);
+
+    private TourSchedulingModel model;
+
+    protected void setUp() throws IOException {
+        writeParameters();
+
+        final Properties properties = new Properties();
+        properties.setProperty("sdt.start.hour", Integer.toString(FIRST_HOUR));
+        properties.setProperty("sdt.end.hour", Integer.toString(LAST_HOUR));
+        properties.setProperty("sdt.tour.duration.parameters", parameterFile
+                .getPath());
+        ResourceBundle rb = new ResourceBundle() {
+            protected Object handleGetObject(String key) {
+                return properties.getProperty(key);
+            }
+
+            @SuppressWarnings("unchecked")
+            public Enumeration<String> getKeys() {
+                return (Enumeration<String>) properties.propertyNames();
+            }
+        };
+
+        model = new TourSchedulingModel(rb, PTOccupation.NO_OCCUPATION);
+        model.buildModel();
+        tracer.setTrace(true);
+    }
+
+    protected void tearDown() {
+        parameterFile.delete();
+    }
+
+    public void testCompiledUtilitiesMatchLoop() {
+        new MockDataBuilder();
+        int[] purposes = new int[ActivityPurpose.values().length];
+
+        for (int k = 0; k < 150; ++k) {
+            int age = random.nextInt(80);
+            boolean female = random.nextBoolean();
+            boolean employed = age >= 16 && random.nextBoolean();
+            PersonType type = PersonType.values()[random.nextInt(PersonType
+                    .values().length)];
+            String pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+            int autos = random.nextInt(4);
+            int income = 5000 + random.nextInt(100000);
+
+            PTHousehold household = createHousehold(autos, income, age,
+                    female, employed, type, pattern);
+            PTHousehold twinHousehold = createHousehold(autos, income, age,
+                    female, employed, type, pattern);
+            PTPerson person = household.persons[0];
+            PTPerson twin = twinHousehold.persons[0];
+            tracer.tracePerson(twin.hhID + "_" + twin.memberID);
+
+            person.initScheduler(LAST_HOUR - FIRST_HOUR + 1);
+            twin.initScheduler(LAST_HOUR - FIRST_HOUR + 1);
+            for (int i = 0; i < person.getTourCount(); ++i) {
+                long seed = random.nextLong();
+
+                model.calculateUtilities(household, person, person
+                        .getTourByPriority(i), null);
+                double[] compiled = model.getUtilities();
+                int chosen = model.chooseSchedule(new Random(seed));
+
+                model.calculateUtilities(twinHousehold, twin, twin
+                        .getTourByPriority(i), null);
+                double[] loop = model.getUtilities();
+                int twinChosen = model.chooseSchedule(new Random(seed));
+
+                String name = pattern + " tour " + i;
+                assertEquals(name, loop.length, compiled.length);
+                for (int alt = 0; alt < loop.length; ++alt) {
+                    assertEquals(name + " alternative " + alt, loop[alt],
+                            compiled[alt], 1e-9 * Math.max(1, Math
+                                    .abs(loop[alt])));
+                }
+                assertEquals(name, twinChosen, chosen);
+                purposes[person.getTourByPriority(i).primaryDestination.activityPurpose
+                        .ordinal()]++;
+            }
+        }
+
+        assertTrue(purposes[ActivityPurpose.WORK.ordinal()] > 0);
+        assertTrue(purposes[ActivityPurpose.GRADESCHOOL.ordinal()] > 0);
+        assertTrue(purposes[ActivityPurpose.SHOP.ordinal()] > 0);
+    }
+
+    /**
+     * A household of the person and one other member.
+     */
+    private PTHousehold createHousehold(int autos, int income, int age,
+            boolean female, boolean employed, PersonType type, String pattern) {
+        PTHousehold household = householdFactory(autos, income, 2);
+        household.size = 2;
+        household.workers = (byte) (employed ? 1 : 0);
+
+        PTPerson person = personFactory(household, age, female, employed,
+                pattern);
+        person.hhID = household.ID;
+        person.memberID = 1;
+        person.personType = type;
+
+        PTPerson other = personFactory(household, 40, !female, false, "hsh");
+        other.hhID = household.ID;
+        other.memberID = 2;
+        other.personType = PersonType.NONWORKER;
+
+        household.persons[0] = person;
+        household.persons[1] = other;
+        return household;
+    }
+
+    /**
+     * A row of parameters for each purpose. The shift parameters are small
+     * and half of them 0. The distance parameters are 0, as the distance is
+     * only traced.
+     */
+    private void writeParameters() throws IOException {
+        FileWriter writer = new FileWriter(parameterFile);
+        for (int k = 0; k < COLUMNS; ++k) {
+            writer.write((k > 0 ? "," : "") + "c" + k);
+        }
+        writer.write("\n");
+        for (int purpose = 0; purpose < ActivityPurpose.values().length; ++purpose) {
+            writer.write(Integer.toString(purpose));
+            for (int k = 1; k < COLUMNS; ++k) {
+                double value;
+                if (k < TourSchedulingParameters.CSCH2PDEP) {
+                    value = random.nextGaussian();
+                } else if (k == TourSchedulingParameters.CXYDSTDEP
+                        || k == TourSchedulingParameters.CXYDSTDEP
+                                + TourSchedulingParameters.DEPARTURE_PARAMETERS) {
+                    value = 0;
+                } else {
+                    value = random.nextBoolean() ? 0 : 0.1 * random
+                            .nextGaussian();
+                }
+                writer.write("," + (float) value);
+            }
+            writer.write("\n");
+        }
+        writer.close();
+    }
+}
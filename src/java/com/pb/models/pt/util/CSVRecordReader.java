@@ -0,0 +1,436 @@
+/*
+ * Copyright  2005 PB Consult Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Reads a simple comma separated file one record at a time.
+ *
+ * Records are split on commas in place, in a byte buffer that is reused for
+ * every line, and numeric fields are parsed straight from the bytes.  Nothing
+ * is allocated per record unless a field is asked for as a String.  Like
+ * <code>String.split(",")</code>, quotes are not interpreted.
+ *
+ * Column positions are looked up by name once, from the header, and the
+ * fields of each record are then read by position.
+ *
+ * A reader opened on a file can also seek to the byte offset of a record,
+ * as given by <code>getRecordOffset</code>.
+ */
+public class CSVRecordReader {
+
+    private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+    // powers of ten that are exact doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final InputStream in;
+
+    // set when reading a file, for seek
+    private final FileChannel channel;
+
+    private byte[] buffer = new byte[1 << 16];
+
+    // offset in the stream of buffer[0]
+    private long bufferOffset;
+
+    // valid bytes in the buffer are [position, limit)
+    private int position;
+
+    private int limit;
+
+    private boolean endOfStream;
+
+    // the current record
+    private int recordStart;
+
+    private int[] fieldStart = new int[64];
+
+    private int[] fieldEnd = new int[64];
+
+    private int fieldCount;
+
+    private String[] header;
+
+    private HashMap<String, Integer> columns;
+
+    /**
+     * @param in The stream to read; closed by <code>close</code>.
+     */
+    public CSVRecordReader(InputStream in) {
+        this.in = in;
+        channel = in instanceof FileInputStream ? ((FileInputStream) in)
+                .getChannel() : null;
+    }
+
+    /**
+     * @param fileName The file to read.
+     */
+    public CSVRecordReader(String fileName) throws IOException {
+        this(new FileInputStream(fileName));
+    }
+
+    /**
+     * Read the first record as the column names.
+     *
+     * @return The column names.
+     */
+    public String[] readHeader() throws IOException {
+        if (!next()) {
+            throw new IOException("File has no header row.");
+        }
+        header = new String[fieldCount];
+        columns = new HashMap<String, Integer>();
+        for (int i = 0; i < fieldCount; ++i) {
+            header[i] = getString(i);
+            columns.put(header[i], i);
+        }
+        return header.clone();
+    }
+
+    /**
+     * @param name Column name.
+     * @return The position of the column, or -1 if the header does not have it.
+     */
+    public int getColumn(String name) {
+        Integer column = columns.get(name);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * @param name Column name.
+     * @return The position of the column.
+     * @throws RuntimeException if the header does not have the column.
+     */
+    public int getRequiredColumn(String name) {
+        int column = getColumn(name);
+        if (column < 0) {
+            throw new RuntimeException("Column " + name + " is not in the header "
+                    + Arrays.toString(header));
+        }
+        return column;
+    }
+
+    /**
+     * Move to the next record and split it into fields.
+     *
+     * @return false at the end of the file.
+     */
+    public boolean next() throws IOException {
+        int end = findLineEnd();
+        if (end < 0) {
+            fieldCount = 0;
+            return false;
+        }
+
+        recordStart = position;
+        int lineEnd = end;
+        if (lineEnd > recordStart && buffer[lineEnd - 1] == '\r') {
+            --lineEnd;
+        }
+
+        fieldCount = 0;
+        int start = recordStart;
+        for (int i = recordStart; i < lineEnd; ++i) {
+            if (buffer[i] == ',') {
+                addField(start, i);
+                start = i + 1;
+            }
+        }
+        addField(start, lineEnd);
+
+        position = end < limit ? end + 1 : end;
+        return true;
+    }
+
+    /**
+     * Move past the next record without splitting it.
+     *
+     * @return false at the end of the file.
+     */
+    public boolean skip() throws IOException {
+        int end = findLineEnd();
+        if (end < 0) {
+            return false;
+        }
+        fieldCount = 0;
+        position = end < limit ? end + 1 : end;
+        return true;
+    }
+
+    /**
+     * Move to a record by its byte offset.  The next call to
+     * <code>next</code> reads the record that starts there.
+     *
+     * @param offset Byte offset of a record, from <code>getRecordOffset</code>.
+     */
+    public void seek(long offset) throws IOException {
+        if (channel == null) {
+            throw new IOException("Can only seek in a file.");
+        }
+        fieldCount = 0;
+
+        // stay in the buffer if the record has been read already
+        if (offset >= bufferOffset && offset <= bufferOffset + limit) {
+            position = (int) (offset - bufferOffset);
+            return;
+        }
+
+        channel.position(offset);
+        bufferOffset = offset;
+        position = 0;
+        limit = 0;
+        endOfStream = false;
+    }
+
+    /**
+     * @return The byte offset of the current record in the stream.
+     */
+    public long getRecordOffset() {
+        return bufferOffset + recordStart;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public String getString(int field) {
+        checkField(field);
+        return new String(buffer, fieldStart[field], fieldEnd[field]
+                - fieldStart[field], ASCII);
+    }
+
+    /**
+     * Parse a field as <code>Integer.parseInt</code> would.
+     */
+    public int getInt(int field) {
+        long value = getLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(field);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse a field as <code>Short.parseShort</code> would.
+     */
+    public short getShort(int field) {
+        long value = getLong(field);
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw numberFormatException(field);
+        }
+        return (short) value;
+    }
+
+    /**
+     * Parse a field as <code>Byte.parseByte</code> would.
+     */
+    public byte getByte(int field) {
+        long value = getLong(field);
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw numberFormatException(field);
+        }
+        return (byte) value;
+    }
+
+    /**
+     * Parse a field as <code>Long.parseLong</code> would, except that a value
+     * of more than 18 digits is rejected.
+     */
+    public long getLong(int field) {
+        checkField(field);
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            ++i;
+        }
+        if (i == end || end - i > 18) {
+            throw numberFormatException(field);
+        }
+
+        long value = 0;
+        for (; i < end; ++i) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw numberFormatException(field);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a field as <code>Double.parseDouble</code> would.  Plain decimal
+     * numbers of up to 15 significant digits are parsed from the bytes, which
+     * gives the same, correctly rounded, value; anything else is handed to
+     * <code>Double.parseDouble</code>.
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            ++i;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean point = false;
+        boolean simple = i < end;
+        for (; i < end && simple; ++i) {
+            byte b = buffer[i];
+            if (b == '.' && !point) {
+                point = true;
+            } else if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0') {
+                    ++digits;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (point) {
+                    ++decimals;
+                }
+                simple = digits <= 15 && decimals < POWERS_OF_TEN.length;
+            } else {
+                simple = false;
+            }
+        }
+
+        if (!simple || (point && end - fieldStart[field] == 1 + (negative ? 1 : 0))) {
+            try {
+                return Double.parseDouble(getString(field).trim());
+            } catch (NumberFormatException e) {
+                throw numberFormatException(field);
+            }
+        }
+
+        double value = (double) mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a field as <code>Boolean.parseBoolean</code> would.
+     */
+    public boolean getBoolean(int field) {
+        checkField(field);
+        int start = fieldStart[field];
+        if (fieldEnd[field] - start != 4) {
+            return false;
+        }
+        return (buffer[start] | 0x20) == 't' && (buffer[start + 1] | 0x20) == 'r'
+                && (buffer[start + 2] | 0x20) == 'u'
+                && (buffer[start + 3] | 0x20) == 'e';
+    }
+
+    /**
+     * @return The current record, for error messages.
+     */
+    public String getRecord() {
+        if (fieldCount == 0) {
+            return "";
+        }
+        return new String(buffer, recordStart, fieldEnd[fieldCount - 1]
+                - recordStart, ASCII);
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Find the end of the line starting at position, reading more of the
+     * stream as needed.
+     *
+     * @return the index of the newline, limit if the last line has no
+     *         newline, or -1 at the end of the stream.
+     */
+    private int findLineEnd() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; ++i) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            scanned = limit;
+
+            if (endOfStream) {
+                return position < limit ? limit : -1;
+            }
+
+            // move the partial line to the front and read more
+            int remaining = limit - position;
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+                bufferOffset += position;
+                scanned -= position;
+                position = 0;
+                limit = remaining;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfStream = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        ++fieldCount;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("Field " + field
+                    + " is not in record: " + getRecord());
+        }
+    }
+
+    private NumberFormatException numberFormatException(int field) {
+        return new NumberFormatException("For input string: \""
+                + getString(field) + "\"");
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import com.pb.common.matrix.Matrix;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+
+/**
+ * A read-only, memory-mapped store of square skim matrices.
+ *
+ * The matrices are converted once into a flat binary file: a small header
+ * (zone system, core names and the length and modification time of each
+ * source skim file) followed by one row-major block of floats per
+ * core, in native byte order.  Each block is mapped with
+ * <code>FileChannel.map</code>, so every JVM on a host shares the same page
+ * cache copy of the skims and nothing is parsed when a node starts.
+ *
+ * Values are read with absolute gets, so one instance can be shared by any
+ * number of threads.
+ *
+ * Nodes on several hosts may start against the same file, so a node checks
+ * and rebuilds the file while holding <code>lock</code>: the first one
+ * rewrites a stale file and the others wait for it and map the result.
+ */
+public class MappedSkimCache {
+    protected static Logger logger = Logger.getLogger(MappedSkimCache.class);
+
+    private static final int MAGIC = 0x50544b53; // "PTKS"
+
+    private static final int VERSION = 2;
+
+    private static final int PAGE_SIZE = 4096;
+
+    private final File file;
+
+    private final int zones;
+
+    private final int[] externalNumbers;
+
+    private final int[] internalNumbers;
+
+    private final String[] coreNames;
+
+    private final FloatBuffer[] cores;
+
+    /**
+     * Map an existing skim cache file.
+     *
+     * @param file The cache file written by <code>write</code>.
+     */
+    public MappedSkimCache(File file) {
+        this.file = file;
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+
+            ByteBuffer fixed = ByteBuffer.allocate(24);
+            readFully(channel, fixed, 0);
+            fixed.flip();
+
+            if (fixed.getInt() != MAGIC) {
+                throw new RuntimeException(file + " is not a skim cache file.");
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new RuntimeException("Skim cache " + file + " has version "
+                        + version + ", expected " + VERSION);
+            }
+            ByteOrder order = fixed.getInt() == 1 ? ByteOrder.LITTLE_ENDIAN
+                    : ByteOrder.BIG_ENDIAN;
+            zones = fixed.getInt();
+            int coreCount = fixed.getInt();
+            int headerLength = fixed.getInt();
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength);
+            readFully(channel, header, 24);
+            header.flip();
+
+            externalNumbers = new int[zones + 1];
+            int maxExternal = 0;
+            for (int i = 1; i <= zones; ++i) {
+                externalNumbers[i] = header.getInt();
+                maxExternal = Math.max(maxExternal, externalNumbers[i]);
+            }
+            internalNumbers = createInternalNumbers(externalNumbers, maxExternal);
+
+            coreNames = readCoreNames(header, coreCount);
+
+            long coreBytes = coreBytes(zones);
+            long dataOffset = dataOffset(24 + headerLength);
+            cores = new FloatBuffer[coreCount];
+            for (int c = 0; c < coreCount; ++c) {
+                cores[c] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        dataOffset + c * coreBytes, coreBytes).order(order)
+                        .asFloatBuffer();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error mapping skim cache " + file, e);
+        } finally {
+            // the mappings stay valid after the channel is closed
+            close(raf);
+        }
+
+        logger.info("Mapped " + coreNames.length + " skim cores for " + zones
+                + " zones from " + file);
+    }
+
+    /**
+     * Check that a cache file exists and was written from the current source
+     * files, by the length and modification time of each.  Only the header is
+     * read, so a stale file is not left mapped when it is rewritten.
+     *
+     * @param file The cache file.
+     * @param sources The skim files the cache was made from, in the order
+     *            they were passed to <code>write</code>.
+     * @return false if the file does not exist, has an older version, or
+     *         does not match the source files.
+     */
+    public static boolean isCurrent(File file, File[] sources) {
+        if (!file.exists()) {
+            return false;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+
+            ByteBuffer fixed = ByteBuffer.allocate(24);
+            readFully(channel, fixed, 0);
+            fixed.flip();
+
+            if (fixed.getInt() != MAGIC) {
+                throw new RuntimeException(file + " is not a skim cache file.");
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                logger.info("Skim cache " + file + " has version " + version
+                        + ", expected " + VERSION);
+                return false;
+            }
+            fixed.getInt();
+            int zones = fixed.getInt();
+            int coreCount = fixed.getInt();
+            int headerLength = fixed.getInt();
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength);
+            readFully(channel, header, 24);
+            header.flip();
+            header.position(4 * zones);
+            readCoreNames(header, coreCount);
+
+            boolean current = header.getInt() == sources.length;
+            for (int s = 0; current && s < sources.length; ++s) {
+                current = header.getLong() == sources[s].length()
+                        && header.getLong() == sources[s].lastModified();
+            }
+            if (!current) {
+                logger.info("Skim cache " + file
+                        + " does not match the skim files.");
+            }
+            return current;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading skim cache " + file, e);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Write a set of square matrices sharing one zone system to a cache file.
+     *
+     * @param file The cache file.
+     * @param names The core names, in the order the cores are indexed.
+     * @param matrices The matrices, one per core name.
+     */
+    public static void write(File file, String[] names, Matrix[] matrices) {
+        write(file, names, matrices, new File[0]);
+    }
+
+    /**
+     * Take an exclusive lock on a cache file, waiting until no other JVM
+     * holds it.  The lock is held on a separate <code>.lock</code> file next
+     * to the cache, as the cache file itself is replaced by
+     * <code>write</code>.
+     *
+     * A FileLock is held by the whole JVM, so threads of one JVM must not
+     * lock the same file at the same time.
+     *
+     * @param file The cache file.
+     * @return the lock, to be released with <code>unlock</code>.
+     */
+    public static FileLock lock(File file) {
+        File lockFile = new File(file.getPath() + ".lock");
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(lockFile, "rw");
+            return raf.getChannel().lock();
+        } catch (IOException e) {
+            close(raf);
+            throw new RuntimeException("Unable to lock skim cache " + file, e);
+        }
+    }
+
+    /**
+     * Release a lock taken by <code>lock</code>.
+     */
+    public static void unlock(FileLock lock) {
+        try {
+            // closing the channel releases the lock
+            lock.channel().close();
+        } catch (IOException e) {
+            logger.warn("Unable to release skim cache lock.", e);
+        }
+    }
+
+    /**
+     * Write a set of square matrices sharing one zone system to a cache file.
+     *
+     * The file is written under a temporary name and moved into place when
+     * complete.  The old file is deleted first, as renameTo does not replace
+     * an existing file on every platform, so the caller must hold
+     * <code>lock</code> to keep other nodes from looking for the file in
+     * between.
+     *
+     * @param file The cache file.
+     * @param names The core names, in the order the cores are indexed.
+     * @param matrices The matrices, one per core name.
+     * @param sources The skim files the matrices were read from; their
+     *            lengths and modification times are kept for
+     *            <code>isCurrent</code>.
+     */
+    public static void write(File file, String[] names, Matrix[] matrices,
+            File[] sources) {
+        long start = System.currentTimeMillis();
+        int[] ext = matrices[0].getExternalRowNumbers();
+        int zones = ext.length - 1;
+
+        coreBytes(zones);
+        for (int c = 0; c < matrices.length; ++c) {
+            if (!Arrays.equals(ext, matrices[c].getExternalRowNumbers())
+                    || !Arrays.equals(ext, matrices[c].getExternalColumnNumbers())) {
+                throw new RuntimeException("Skim core " + names[c]
+                        + " does not share the zone system of " + names[0]
+                        + " and can not be cached.");
+            }
+        }
+
+        int headerLength = 4 * zones;
+        for (String name : names) {
+            headerLength += 2 + 2 * name.length();
+        }
+        headerLength += 4 + 16 * sources.length;
+
+        ByteBuffer header = ByteBuffer.allocate(24 + headerLength);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0);
+        header.putInt(zones);
+        header.putInt(names.length);
+        header.putInt(headerLength);
+        for (int i = 1; i <= zones; ++i) {
+            header.putInt(ext[i]);
+        }
+        for (String name : names) {
+            header.putShort((short) name.length());
+            for (int k = 0; k < name.length(); ++k) {
+                header.putChar(name.charAt(k));
+            }
+        }
+        header.putInt(sources.length);
+        for (File source : sources) {
+            header.putLong(source.length());
+            header.putLong(source.lastModified());
+        }
+        header.flip();
+
+        File temp = null;
+        RandomAccessFile raf = null;
+        try {
+            temp = File.createTempFile(file.getName(), ".tmp",
+                    file.getAbsoluteFile().getParentFile());
+            raf = new RandomAccessFile(temp, "rw");
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            writeFully(channel, header, 0);
+
+            long position = dataOffset(24 + headerLength);
+            ByteBuffer row = ByteBuffer.allocateDirect(4 * zones).order(
+                    ByteOrder.nativeOrder());
+            for (int c = 0; c < matrices.length; ++c) {
+                Matrix matrix = matrices[c];
+                for (int i = 1; i <= zones; ++i) {
+                    row.clear();
+                    for (int j = 1; j <= zones; ++j) {
+                        row.putFloat(matrix.getValueAt(ext[i], ext[j]));
+                    }
+                    row.flip();
+                    position += writeFully(channel, row, position);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing skim cache " + file, e);
+        } finally {
+            close(raf);
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new RuntimeException("Unable to replace skim cache " + file);
+        }
+        if (!temp.renameTo(file)) {
+            throw new RuntimeException("Unable to rename " + temp + " to " + file);
+        }
+
+        logger.info("Wrote " + names.length + " skim cores to " + file + " in "
+                + (System.currentTimeMillis() - start) / 1000 + " seconds.");
+    }
+
+    /**
+     * Get the position of a core.
+     *
+     * @param name Core name.
+     * @return the core index, or -1 if the cache does not hold the core.
+     */
+    public int getCoreIndex(String name) {
+        for (int c = 0; c < coreNames.length; ++c) {
+            if (coreNames[c].equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    public String[] getCoreNames() {
+        return coreNames.clone();
+    }
+
+    public int getZoneCount() {
+        return zones;
+    }
+
+    /**
+     * @return the external zone numbers, 1-based as in a <code>Matrix</code>.
+     */
+    public int[] getExternalNumbers() {
+        return externalNumbers.clone();
+    }
+
+    /**
+     * Get a skim value by external zone numbers.
+     *
+     * @param core Core index.
+     * @param originTaz Origin external zone number.
+     * @param destinationTaz Destination external zone number.
+     */
+    public float getValueAt(int core, int originTaz, int destinationTaz) {
+        return cores[core].get(internalNumbers[originTaz] * zones
+                + internalNumbers[destinationTaz]);
+    }
+
+    /**
+     * Copy a core into a heap matrix, for callers that need its value array.
+     * A <code>MappedSkimMatrix</code> reads the core without a copy.
+     *
+     * @param core Core index.
+     */
+    public Matrix getMatrix(int core) {
+        Matrix matrix = new Matrix(coreNames[core], file.getName(), zones, zones);
+        matrix.setExternalNumbers(externalNumbers.clone(), externalNumbers.clone());
+
+        FloatBuffer values = cores[core];
+        for (int i = 1; i <= zones; ++i) {
+            int row = (i - 1) * zones;
+            for (int j = 1; j <= zones; ++j) {
+                matrix.setValueAt(externalNumbers[i], externalNumbers[j],
+                        values.get(row + j - 1));
+            }
+        }
+        return matrix;
+    }
+
+    private static String[] readCoreNames(ByteBuffer header, int coreCount) {
+        String[] names = new String[coreCount];
+        for (int c = 0; c < coreCount; ++c) {
+            char[] name = new char[header.getShort()];
+            for (int k = 0; k < name.length; ++k) {
+                name[k] = header.getChar();
+            }
+            names[c] = new String(name);
+        }
+        return names;
+    }
+
+    private static int[] createInternalNumbers(int[] ext, int maxExternal) {
+        int[] internal = new int[maxExternal + 1];
+        Arrays.fill(internal, -1);
+        for (int i = 1; i < ext.length; ++i) {
+            internal[ext[i]] = i - 1;
+        }
+        return internal;
+    }
+
+    private static long coreBytes(int zones) {
+        long bytes = 4L * zones * zones;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new RuntimeException("A skim core for " + zones
+                    + " zones is too large to map.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Cores start on a page boundary after the header.
+     */
+    private static long dataOffset(long headerEnd) {
+        return ((headerEnd + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of skim cache file.");
+            }
+            position += read;
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static void close(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close skim cache file.", e);
+            }
+        }
+    }
+}
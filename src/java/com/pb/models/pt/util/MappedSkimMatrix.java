@@ -0,0 +1,199 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import com.pb.common.matrix.Matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A read-only <code>Matrix</code> over one core of a memory-mapped skim
+ * cache.
+ *
+ * The values stay in the mapped file; the matrix itself holds no value
+ * array, so the models that take a Matrix read the shared page cache copy
+ * rather than a heap copy per node.  Only the read methods are supported.
+ */
+public class MappedSkimMatrix extends Matrix {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient MappedSkimCache cache;
+
+    private final int core;
+
+    private final int zones;
+
+    private final int[] externalNumbers;
+
+    private final int[] internalNumbers;
+
+    /**
+     * @param cache The mapped skim cache.
+     * @param core Core index; the matrix takes the core name.
+     */
+    public MappedSkimMatrix(MappedSkimCache cache, int core) {
+        super(cache.getCoreNames()[core], "mapped skim cache", 0, 0);
+        this.cache = cache;
+        this.core = core;
+        this.zones = cache.getZoneCount();
+        this.externalNumbers = cache.getExternalNumbers();
+
+        int maxExternal = 0;
+        for (int i = 1; i <= zones; ++i) {
+            maxExternal = Math.max(maxExternal, externalNumbers[i]);
+        }
+        internalNumbers = new int[maxExternal + 1];
+        Arrays.fill(internalNumbers, -1);
+        for (int i = 1; i <= zones; ++i) {
+            internalNumbers[externalNumbers[i]] = i - 1;
+        }
+    }
+
+    public float getValueAt(int row, int column) {
+        return cache.getValueAt(core, row, column);
+    }
+
+    public float getValueAtInternal(int row, int column) {
+        return cache.getValueAt(core, externalNumbers[row + 1],
+                externalNumbers[column + 1]);
+    }
+
+    public int getRowCount() {
+        return zones;
+    }
+
+    public int getColumnCount() {
+        return zones;
+    }
+
+    public int[] getExternalNumbers() {
+        return externalNumbers;
+    }
+
+    public int[] getExternalRowNumbers() {
+        return externalNumbers;
+    }
+
+    public int[] getExternalColumnNumbers() {
+        return externalNumbers;
+    }
+
+    public int[] getInternalNumbers() {
+        return internalNumbers;
+    }
+
+    public int getInternalRowNumber(int externalNumber) {
+        return internalNumbers[externalNumber];
+    }
+
+    public int getInternalColumnNumber(int externalNumber) {
+        return internalNumbers[externalNumber];
+    }
+
+    public int getExternalNumber(int internalNumber) {
+        return externalNumbers[internalNumber + 1];
+    }
+
+    public Iterator<Integer> getExternalNumberIterator() {
+        List<Integer> numbers = new ArrayList<Integer>(zones);
+        for (int i = 1; i <= zones; ++i) {
+            numbers.add(externalNumbers[i]);
+        }
+        return numbers.iterator();
+    }
+
+    public float[] getRow(int row) {
+        float[] values = new float[zones];
+        for (int j = 1; j <= zones; ++j) {
+            values[j - 1] = cache.getValueAt(core, row, externalNumbers[j]);
+        }
+        return values;
+    }
+
+    public float[] getColumn(int column) {
+        float[] values = new float[zones];
+        for (int i = 1; i <= zones; ++i) {
+            values[i - 1] = cache.getValueAt(core, externalNumbers[i], column);
+        }
+        return values;
+    }
+
+    public float getRowSum(int row) {
+        float sum = 0;
+        for (float value : getRow(row)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public float getColumnSum(int column) {
+        float sum = 0;
+        for (float value : getColumn(column)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public float getSum() {
+        float sum = 0;
+        for (int i = 1; i <= zones; ++i) {
+            sum += getRowSum(externalNumbers[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Copy the matrix to the heap, for callers that need the value array.
+     */
+    public Matrix copy() {
+        return cache.getMatrix(core);
+    }
+
+    public float[][] getValues() {
+        throw new UnsupportedOperationException(
+                "A mapped skim matrix has no value array; use copy().");
+    }
+
+    public Matrix getSubMatrix(int[] subNumbers) {
+        int size = subNumbers.length - 1;
+        Matrix matrix = new Matrix(getName(), "mapped skim cache", size, size);
+        matrix.setExternalNumbers(subNumbers.clone(), subNumbers.clone());
+        for (int i = 1; i <= size; ++i) {
+            for (int j = 1; j <= size; ++j) {
+                matrix.setValueAt(subNumbers[i], subNumbers[j], getValueAt(
+                        subNumbers[i], subNumbers[j]));
+            }
+        }
+        return matrix;
+    }
+
+    public void setValueAt(int row, int column, float value) {
+        throw new UnsupportedOperationException("Mapped skims are read-only.");
+    }
+
+    public void setValues(float[][] values) {
+        throw new UnsupportedOperationException("Mapped skims are read-only.");
+    }
+
+    public void scale(float factor) {
+        throw new UnsupportedOperationException("Mapped skims are read-only.");
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Locates the persons of a household in a person file.
+ *
+ * For every household id the index holds the byte offset of the household's
+ * first person and the number of persons, so a reader can seek straight to
+ * them in any order.  The persons of a household must be on consecutive
+ * rows.
+ *
+ * The index is built once by scanning the person file and is kept next to
+ * it, with the file's length and modification time so that an index made
+ * from another version of the file is never used.
+ */
+public class PersonFileIndex {
+    protected static Logger logger = Logger.getLogger(PersonFileIndex.class);
+
+    private static final int MAGIC = 0x50545049; // "PTPI"
+
+    private static final int VERSION = 1;
+
+    // magic, version, file length, modification time, lowest id, ids
+    private static final int HEADER_SIZE = 8 + 16 + 8;
+
+    private final int lowestId;
+
+    // by household id - lowestId
+    private final long[] offsets;
+
+    private final int[] counts;
+
+    private PersonFileIndex(int lowestId, long[] offsets, int[] counts) {
+        this.lowestId = lowestId;
+        this.offsets = offsets;
+        this.counts = counts;
+    }
+
+    /**
+     * @param personFile A person file.
+     * @return The file the index of the person file is kept in.
+     */
+    public static File getIndexFile(File personFile) {
+        return new File(personFile.getPath() + ".idx");
+    }
+
+    /**
+     * Read the index of a person file.
+     *
+     * @param personFile The person file.
+     * @return The index, or null if there is none or it was made from another
+     *         version of the person file.
+     */
+    public static PersonFileIndex open(File personFile) {
+        File file = getIndexFile(personFile);
+        if (!file.exists()) {
+            return null;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new RuntimeException(file + " is not a person file index.");
+            }
+            if (header.getInt() != VERSION
+                    || header.getLong() != personFile.length()
+                    || header.getLong() != personFile.lastModified()) {
+                logger.info("Person file index " + file + " does not match "
+                        + personFile);
+                return null;
+            }
+            int lowestId = header.getInt();
+            int ids = header.getInt();
+
+            ByteBuffer body = ByteBuffer.allocate(12 * ids);
+            readFully(channel, body, HEADER_SIZE);
+            body.flip();
+            long[] offsets = new long[ids];
+            int[] counts = new int[ids];
+            body.asLongBuffer().get(offsets);
+            body.position(8 * ids);
+            body.asIntBuffer().get(counts);
+
+            logger.info("Read person file index " + file);
+            return new PersonFileIndex(lowestId, offsets, counts);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading person file index " + file, e);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Scan a person file and write its index.
+     *
+     * The index is written under a temporary name and renamed when complete,
+     * so nodes starting at the same time never read a partial index.
+     *
+     * @param personFile The person file.
+     * @param hhIdField Name of the household id column.
+     * @return The index.
+     */
+    public static PersonFileIndex create(File personFile, String hhIdField) {
+        long start = System.currentTimeMillis();
+        File file = getIndexFile(personFile);
+        long length = personFile.length();
+        long modified = personFile.lastModified();
+
+        // one run of consecutive rows per household, in file order
+        int runs = 0;
+        int[] runIds = new int[1024];
+        long[] runOffsets = new long[1024];
+        int[] runCounts = new int[1024];
+        int lowestId = Integer.MAX_VALUE;
+        int highestId = Integer.MIN_VALUE;
+
+        CSVRecordReader reader = null;
+        try {
+            reader = new CSVRecordReader(personFile.getPath());
+            reader.readHeader();
+            int hhIdPos = reader.getRequiredColumn(hhIdField);
+
+            while (reader.next()) {
+                int hhId = reader.getInt(hhIdPos);
+                if (runs > 0 && runIds[runs - 1] == hhId) {
+                    runCounts[runs - 1]++;
+                    continue;
+                }
+                if (runs == runIds.length) {
+                    runIds = Arrays.copyOf(runIds, 2 * runs);
+                    runOffsets = Arrays.copyOf(runOffsets, 2 * runs);
+                    runCounts = Arrays.copyOf(runCounts, 2 * runs);
+                }
+                runIds[runs] = hhId;
+                runOffsets[runs] = reader.getRecordOffset();
+                runCounts[runs] = 1;
+                runs++;
+                lowestId = Math.min(lowestId, hhId);
+                highestId = Math.max(highestId, hhId);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error indexing person file " + personFile, e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close " + personFile, e);
+                }
+            }
+        }
+
+        if (runs == 0) {
+            lowestId = 0;
+            highestId = -1;
+        }
+        int ids = highestId - lowestId + 1;
+        long[] offsets = new long[ids];
+        int[] counts = new int[ids];
+        for (int r = 0; r < runs; ++r) {
+            int i = runIds[r] - lowestId;
+            if (counts[i] > 0) {
+                throw new RuntimeException("Persons of household " + runIds[r]
+                        + " are not on consecutive rows of " + personFile);
+            }
+            offsets[i] = runOffsets[r];
+            counts[i] = runCounts[r];
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 12 * ids);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(length);
+        buffer.putLong(modified);
+        buffer.putInt(lowestId);
+        buffer.putInt(ids);
+        for (long offset : offsets) {
+            buffer.putLong(offset);
+        }
+        for (int count : counts) {
+            buffer.putInt(count);
+        }
+        buffer.flip();
+
+        File temp = null;
+        RandomAccessFile raf = null;
+        try {
+            temp = File.createTempFile(file.getName(), ".tmp",
+                    file.getAbsoluteFile().getParentFile());
+            raf = new RandomAccessFile(temp, "rw");
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing person file index " + file, e);
+        } finally {
+            close(raf);
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new RuntimeException("Unable to replace person file index " + file);
+        }
+        if (!temp.renameTo(file)) {
+            throw new RuntimeException("Unable to rename " + temp + " to " + file);
+        }
+
+        logger.info("Indexed " + runs + " households of " + personFile + " in "
+                + (System.currentTimeMillis() - start) / 1000 + " seconds.");
+        return new PersonFileIndex(lowestId, offsets, counts);
+    }
+
+    /**
+     * @param hhId Household id.
+     * @return The byte offset of the household's first person, or -1 if the
+     *         household has no persons in the file.
+     */
+    public long getOffset(int hhId) {
+        int i = hhId - lowestId;
+        if (i < 0 || i >= counts.length || counts[i] == 0) {
+            return -1;
+        }
+        return offsets[i];
+    }
+
+    /**
+     * @param hhId Household id.
+     * @return The number of persons of the household in the file.
+     */
+    public int getCount(int hhId) {
+        int i = hhId - lowestId;
+        if (i < 0 || i >= counts.length) {
+            return 0;
+        }
+        return counts[i];
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of person file index.");
+            }
+            position += read;
+        }
+    }
+
+    private static void close(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close person file index.", e);
+            }
+        }
+    }
+}
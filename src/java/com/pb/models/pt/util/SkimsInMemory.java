@@ -29,6 +29,7 @@ import org.apache.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.channels.FileLock;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -56,6 +57,30 @@ public class SkimsInMemory implements Serializable {
     public Matrix opAirFwt, opAirIvt, opAirDrv, opAirFar;
     public Matrix pkTime, pkDist, pkToll, opTime, opDist, opToll;
 
+    // core positions in the skim cache; walk transit cores start at the
+    // period offsets and follow WALK_TRANSIT_CORES
+    static final int PK_TIME = 0, PK_DIST = 1, PK_TOLL = 2;
+    static final int OP_TIME = 3, OP_DIST = 4, OP_TOLL = 5;
+    static final int PK_AIR_IVT = 6, PK_AIR_FWT = 7, PK_AIR_DRV = 8, PK_AIR_FAR = 9;
+    static final int OP_AIR_IVT = 10, OP_AIR_FWT = 11, OP_AIR_DRV = 12, OP_AIR_FAR = 13;
+    static final int PK_WALK_TRANSIT = 14, OP_WALK_TRANSIT = 22;
+    static final int IVT = 0, FWT = 1, TWT = 2, BRD = 3, FAR = 4, AWK = 5, XWK = 6, EWK = 7;
+
+    static final String[] SKIM_CORES = {"pkTime", "pkDist", "pkToll",
+            "opTime", "opDist", "opToll",
+            "pkAirIvt", "pkAirFwt", "pkAirDrv", "pkAirFar",
+            "opAirIvt", "opAirFwt", "opAirDrv", "opAirFar",
+            "WtPkIvt", "WtPkFwt", "WtPkTwt", "WtPkBrd", "WtPkFar", "WtPkAwk", "WtPkXwk", "WtPkEwk",
+            "WtOpIvt", "WtOpFwt", "WtOpTwt", "WtOpBrd", "WtOpFar", "WtOpAwk", "WtOpXwk", "WtOpEwk"};
+
+    static final String[] WALK_TRANSIT_CORES = {"Ivt", "Fwt", "Twt", "Brd", "Far", "Awk", "Xwk", "Ewk"};
+
+    // memory-mapped skims, when pt.skim.cache.file is set
+    private transient MappedSkimCache skimCache;
+
+    // walk transit cores resolved to handles, indexed by IVT..EWK
+    private transient TransitSkimView pkWalkTransit, opWalkTransit;
+
     // the array of modes
     private LDTourModeType[] mode; 
     
@@ -243,15 +268,166 @@ public class SkimsInMemory implements Serializable {
      * @param rb
      */
     public void readSkims(ResourceBundle rb) {
-    	readHighwaySkims(rb);
-		readAirSkims(rb);
-		readTransitSkims(rb);
+        String cacheFile = ResourceUtil.getProperty(rb, "pt.skim.cache.file", null);
+
+        if (cacheFile != null) {
+            mapSkimCache(rb, new File(cacheFile));
+        } else {
+            readHighwaySkims(rb);
+            readAirSkims(rb);
+            readTransitSkims(rb);
+        }
 
 		skimsRead = true;
 		logger.info("Finished reading skims into memory");
 
     }
 
+    /**
+     * Serve the skims from a memory-mapped cache file, creating the file from
+     * the skim matrices if it does not exist yet or any skim file has changed
+     * since it was written.  The check and the rebuild are made under the
+     * cache's file lock, so when several nodes start at once only the first
+     * rewrites the file and the others map the file it wrote.
+     * 
+     * All of the skims stay in the mapped file.  The highway Matrix fields,
+     * which several models use directly, are read-only views of their
+     * cores.
+     * 
+     * @param rb
+     * @param cacheFile
+     */
+    private void mapSkimCache(ResourceBundle rb, File cacheFile) {
+        // the file lock is held by the JVM, so threads take turns first
+        synchronized (MappedSkimCache.class) {
+            FileLock lock = MappedSkimCache.lock(cacheFile);
+            try {
+                writeSkimCache(rb, cacheFile);
+                skimCache = new MappedSkimCache(cacheFile);
+            } finally {
+                MappedSkimCache.unlock(lock);
+            }
+        }
+
+        for (int i = 0; i < SKIM_CORES.length; ++i) {
+            if (skimCache.getCoreIndex(SKIM_CORES[i]) != i) {
+                throw new RuntimeException("Skim cache " + cacheFile
+                        + " does not match this version; delete it to rebuild.");
+            }
+        }
+
+        pkTime = new MappedSkimMatrix(skimCache, PK_TIME);
+        pkDist = new MappedSkimMatrix(skimCache, PK_DIST);
+        pkToll = new MappedSkimMatrix(skimCache, PK_TOLL);
+        opTime = new MappedSkimMatrix(skimCache, OP_TIME);
+        opDist = new MappedSkimMatrix(skimCache, OP_DIST);
+        opToll = new MappedSkimMatrix(skimCache, OP_TOLL);
+
+        pkWalkTransit = new TransitSkimView(skimCache, walkTransitCoreNames("WtPk"));
+        opWalkTransit = new TransitSkimView(skimCache, walkTransitCoreNames("WtOp"));
+
+        pkwlk = opwlk = null;
+        pkAirFwt = pkAirIvt = pkAirDrv = pkAirFar = null;
+        opAirFwt = opAirIvt = opAirDrv = opAirFar = null;
+
+        logger.info("Finished mapping skims from " + cacheFile);
+    }
+
+    /**
+     * Read the skims and write them to the cache file, unless it is current.
+     */
+    private void writeSkimCache(ResourceBundle rb, File cacheFile) {
+        File[] sources = getSkimFiles(rb);
+        if (MappedSkimCache.isCurrent(cacheFile, sources)) {
+            return;
+        }
+
+        logger.info("Creating skim cache " + cacheFile);
+        readHighwaySkims(rb);
+        readAirSkims(rb);
+        readTransitSkims(rb);
+
+        Matrix[] matrices = new Matrix[SKIM_CORES.length];
+        matrices[PK_TIME] = pkTime;
+        matrices[PK_DIST] = pkDist;
+        matrices[PK_TOLL] = pkToll;
+        matrices[OP_TIME] = opTime;
+        matrices[OP_DIST] = opDist;
+        matrices[OP_TOLL] = opToll;
+        matrices[PK_AIR_IVT] = pkAirIvt;
+        matrices[PK_AIR_FWT] = pkAirFwt;
+        matrices[PK_AIR_DRV] = pkAirDrv;
+        matrices[PK_AIR_FAR] = pkAirFar;
+        matrices[OP_AIR_IVT] = opAirIvt;
+        matrices[OP_AIR_FWT] = opAirFwt;
+        matrices[OP_AIR_DRV] = opAirDrv;
+        matrices[OP_AIR_FAR] = opAirFar;
+        for (int i = PK_WALK_TRANSIT; i < SKIM_CORES.length; ++i) {
+            MatrixCollection mc = i < OP_WALK_TRANSIT ? pkwlk : opwlk;
+            matrices[i] = mc.getMatrix(SKIM_CORES[i]);
+        }
+
+        MappedSkimCache.write(cacheFile, SKIM_CORES, matrices, sources);
+    }
+
+    /**
+     * @return the skim files the cached cores are read from.
+     */
+    private static File[] getSkimFiles(ResourceBundle rb) {
+        String hwyPath = ResourceUtil.getProperty(rb, "highway.assign.previous.skim.path");
+        String transitPath = ResourceUtil.getProperty(rb, "transit.assign.previous.skim.path");
+        return new File[] {
+                new File(hwyPath + ResourceUtil.getProperty(rb, "pt.Car.Pk.skims.file")),
+                new File(hwyPath + ResourceUtil.getProperty(rb, "pt.Car.Op.skims.file")),
+                new File(transitPath + ResourceUtil.getProperty(rb, "pt.Air.Pk.skims.file")),
+                new File(transitPath + ResourceUtil.getProperty(rb, "pt.Air.Op.skims.file")),
+                new File(transitPath + ResourceUtil.getProperty(rb, "pt.wt.Pk.skims.file")),
+                new File(transitPath + ResourceUtil.getProperty(rb, "pt.wt.Op.skims.file")) };
+    }
+
+    /**
+     * Get a skim value from the mapped cache if there is one, otherwise from
+     * the heap matrices.
+     * 
+     * @param core Core position, one of the SKIM_CORES constants.
+     */
+    private float value(int core, int originTaz, int destinationTaz) {
+        if (skimCache != null) {
+            return skimCache.getValueAt(core, originTaz, destinationTaz);
+        }
+
+        switch (core) {
+        case PK_TIME: return pkTime.getValueAt(originTaz, destinationTaz);
+        case PK_DIST: return pkDist.getValueAt(originTaz, destinationTaz);
+        case PK_TOLL: return pkToll.getValueAt(originTaz, destinationTaz);
+        case OP_TIME: return opTime.getValueAt(originTaz, destinationTaz);
+        case OP_DIST: return opDist.getValueAt(originTaz, destinationTaz);
+        case OP_TOLL: return opToll.getValueAt(originTaz, destinationTaz);
+        case PK_AIR_IVT: return pkAirIvt.getValueAt(originTaz, destinationTaz);
+        case PK_AIR_FWT: return pkAirFwt.getValueAt(originTaz, destinationTaz);
+        case PK_AIR_DRV: return pkAirDrv.getValueAt(originTaz, destinationTaz);
+        case PK_AIR_FAR: return pkAirFar.getValueAt(originTaz, destinationTaz);
+        case OP_AIR_IVT: return opAirIvt.getValueAt(originTaz, destinationTaz);
+        case OP_AIR_FWT: return opAirFwt.getValueAt(originTaz, destinationTaz);
+        case OP_AIR_DRV: return opAirDrv.getValueAt(originTaz, destinationTaz);
+        case OP_AIR_FAR: return opAirFar.getValueAt(originTaz, destinationTaz);
+        default:
+            throw new RuntimeException("Transit skims are read through the walk transit views.");
+        }
+    }
+
+    /**
+     * @param prefix Time period prefix, WtPk or WtOp.
+     * @return the walk transit matrix names, in handle order.
+     */
+    private static String[] walkTransitCoreNames(String prefix) {
+        String[] names = new String[WALK_TRANSIT_CORES.length];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = prefix + WALK_TRANSIT_CORES[i];
+        }
+        return names;
+    }
+
     private void readTransitSkims(ResourceBundle rb) {
         readPeakTransitSkims(rb);
         readOffPeakTransitSkims(rb);
@@ -274,7 +450,7 @@ public class SkimsInMemory implements Serializable {
 
 			matReader = MatrixReader.createReader(transitPath + fileName); 
 			//Skim Order is Ivt, Fwt, Twt, Brd, Far, Awk, Xwk, Ewk
-			String[] matNames = {"Ivt", "Fwt", "Twt", "Brd", "Far", "Awk", "Xwk", "Ewk"};
+			String[] matNames = WALK_TRANSIT_CORES;
 			for(int i = 0; i < coreNames.length; i++){
 				Matrix m = matReader.readMatrix(coreNames[i]);
 				m.setName("WtOp" + matNames[i]);
@@ -286,6 +462,7 @@ public class SkimsInMemory implements Serializable {
 				}
 				opwlk.addMatrix(m);
 			}
+			opWalkTransit = new TransitSkimView(opwlk, walkTransitCoreNames("WtOp"));
 		} catch (Exception e) {
 			logger.fatal("Error reading off-peak transit skims.");
 			throw new RuntimeException(e);
@@ -304,7 +481,7 @@ public class SkimsInMemory implements Serializable {
 
 			String[] coreNames;
 			coreNames = ResourceUtil.getArray(rb, "pt.wt.Pk.core.names");
-			String[] matNames = {"Ivt", "Fwt", "Twt", "Brd", "Far", "Awk", "Xwk", "Ewk"};
+			String[] matNames = WALK_TRANSIT_CORES;
 			matReader = MatrixReader.createReader(transitPath + fileName); 
 			//Skim Order is Ivt, Fwt, Twt, Brd, Far, Awk, Xwk, Ewk
 			for(int i = 0; i < coreNames.length; i++){
@@ -318,6 +495,7 @@ public class SkimsInMemory implements Serializable {
 				}
 				pkwlk.addMatrix(m);
 			}
+			pkWalkTransit = new TransitSkimView(pkwlk, walkTransitCoreNames("WtPk"));
 		} catch (Exception e) {
 			logger.fatal("Error reading peak transit skims.");
 			throw new RuntimeException(e);
@@ -453,6 +631,19 @@ public class SkimsInMemory implements Serializable {
         return skimsRead && propertiesRead;
     }
 
+    /**
+     * Use skims that were put in the public matrix fields and walk transit
+     * collections directly, such as the synthetic skims of the benchmarks,
+     * instead of reading them.  The walk transit collections must hold the
+     * WtPk and WtOp matrices.
+     */
+    public void useSkimMatrices() {
+        skimCache = null;
+        pkWalkTransit = new TransitSkimView(pkwlk, walkTransitCoreNames("WtPk"));
+        opWalkTransit = new TransitSkimView(opwlk, walkTransitCoreNames("WtOp"));
+        skimsRead = true;
+    }
+
     /**
      * 
      * @param endTime
@@ -465,20 +656,20 @@ public class SkimsInMemory implements Serializable {
                 || (endTime >= PM_PEAK_START && endTime <= PM_PEAK_END)) { // peak
             // if PM Peak, then reverse origin and destination to get peak skims
             if (endTime >= PM_PEAK_START && endTime <= PM_PEAK_END)
-                return pkDist.getValueAt(destinationTaz, originTaz);
+                return value(PK_DIST, destinationTaz, originTaz);
             else
-                return pkDist.getValueAt(originTaz, destinationTaz);
+                return value(PK_DIST, originTaz, destinationTaz);
         } else
-            return opDist.getValueAt(originTaz, destinationTaz);
+            return value(OP_DIST, originTaz, destinationTaz);
     }
 
     // used by the CreateDestinationChoiceLogsums method in calculating the
     // utilities of each OD pair.
     public double getDistance(char purpose, int originTaz, int destinationTaz) {
         if (purpose == 'w') {
-            return (double) pkDist.getValueAt(originTaz, destinationTaz);
+            return (double) value(PK_DIST, originTaz, destinationTaz);
         } else {
-            return (double) opDist.getValueAt(originTaz, destinationTaz);
+            return (double) value(OP_DIST, originTaz, destinationTaz);
         }
     }
 
@@ -492,9 +683,9 @@ public class SkimsInMemory implements Serializable {
      */
     public double getDistance(ActivityPurpose purpose, int originTaz, int destinationTaz) {
         if (purpose == ActivityPurpose.WORK || purpose == ActivityPurpose.WORK_BASED) {
-            return (double) pkDist.getValueAt(originTaz, destinationTaz);
+            return (double) value(PK_DIST, originTaz, destinationTaz);
         } else {
-            return (double) opDist.getValueAt(originTaz, destinationTaz);
+            return (double) value(OP_DIST, originTaz, destinationTaz);
         }
     }
 
@@ -535,9 +726,9 @@ public class SkimsInMemory implements Serializable {
      */
     public double getTime(ActivityPurpose purpose, int originTaz, int destinationTaz) {
         if (purpose == ActivityPurpose.WORK || purpose == ActivityPurpose.WORK_BASED) {
-            return (double) pkTime.getValueAt(originTaz, destinationTaz);
+            return (double) value(PK_TIME, originTaz, destinationTaz);
         } else {
-            return (double) opTime.getValueAt(originTaz, destinationTaz);
+            return (double) value(OP_TIME, originTaz, destinationTaz);
         }
     }
 
@@ -572,62 +763,62 @@ public class SkimsInMemory implements Serializable {
             // if PM Peak, then reverse origin and destination to get peak skims
             if (time >= PM_PEAK_START && time <= PM_PEAK_END) {
 
-                tc.driveAloneTime     = pkTime.getValueAt(destinationTaz, originTaz);
-                tc.driveAloneDistance = pkDist.getValueAt(destinationTaz, originTaz);
-                tc.driveAloneCost     = pkDist.getValueAt(destinationTaz, originTaz) * AOC
-                                      + pkToll.getValueAt(destinationTaz, originTaz);
+                tc.driveAloneTime     = value(PK_TIME, destinationTaz, originTaz);
+                tc.driveAloneDistance = value(PK_DIST, destinationTaz, originTaz);
+                tc.driveAloneCost     = value(PK_DIST, destinationTaz, originTaz) * AOC
+                                      + value(PK_TOLL, destinationTaz, originTaz);
                 
-                tc.sharedRide2Time     = pkTime.getValueAt(destinationTaz, originTaz);
-                tc.sharedRide2Distance = pkDist.getValueAt(destinationTaz, originTaz);
-                tc.sharedRide2Cost     = pkDist.getValueAt(destinationTaz, originTaz) * AOC
-                                       + pkToll.getValueAt(destinationTaz, originTaz) / 2f;
+                tc.sharedRide2Time     = value(PK_TIME, destinationTaz, originTaz);
+                tc.sharedRide2Distance = value(PK_DIST, destinationTaz, originTaz);
+                tc.sharedRide2Cost     = value(PK_DIST, destinationTaz, originTaz) * AOC
+                                       + value(PK_TOLL, destinationTaz, originTaz) / 2f;
                 
-                tc.sharedRide3Time     = pkTime.getValueAt(destinationTaz, originTaz);
-                tc.sharedRide3Distance = pkDist.getValueAt(destinationTaz, originTaz);
-                tc.sharedRide3Cost     = pkDist.getValueAt(destinationTaz, originTaz) * AOC
-                                       + pkToll.getValueAt(destinationTaz, originTaz) / 3.5f;
+                tc.sharedRide3Time     = value(PK_TIME, destinationTaz, originTaz);
+                tc.sharedRide3Distance = value(PK_DIST, destinationTaz, originTaz);
+                tc.sharedRide3Cost     = value(PK_DIST, destinationTaz, originTaz) * AOC
+                                       + value(PK_TOLL, destinationTaz, originTaz) / 3.5f;
                                 
-                tc.walkTime = ((pkDist.getValueAt(destinationTaz, originTaz) * 60 / WALK_MPH));
-                tc.bikeTime = ((pkDist.getValueAt(destinationTaz, originTaz) * 60 / BIKE_MPH));
+                tc.walkTime = ((value(PK_DIST, destinationTaz, originTaz) * 60 / WALK_MPH));
+                tc.bikeTime = ((value(PK_DIST, destinationTaz, originTaz) * 60 / BIKE_MPH));
                 // else it is AM peak
             } else {
 
-                tc.driveAloneTime     = pkTime.getValueAt(originTaz, destinationTaz);
-                tc.driveAloneDistance = pkDist.getValueAt(originTaz, destinationTaz);
-                tc.driveAloneCost     = pkDist.getValueAt(originTaz, destinationTaz) * AOC
-                                      + pkToll.getValueAt(originTaz, destinationTaz);
+                tc.driveAloneTime     = value(PK_TIME, originTaz, destinationTaz);
+                tc.driveAloneDistance = value(PK_DIST, originTaz, destinationTaz);
+                tc.driveAloneCost     = value(PK_DIST, originTaz, destinationTaz) * AOC
+                                      + value(PK_TOLL, originTaz, destinationTaz);
                 
-                tc.sharedRide2Time     = pkTime.getValueAt(originTaz, destinationTaz);
-                tc.sharedRide2Distance = pkDist.getValueAt(originTaz, destinationTaz);
-                tc.sharedRide2Cost     = pkDist.getValueAt(originTaz, destinationTaz) * AOC
-                                       + pkToll.getValueAt(originTaz, destinationTaz) / 2f;
+                tc.sharedRide2Time     = value(PK_TIME, originTaz, destinationTaz);
+                tc.sharedRide2Distance = value(PK_DIST, originTaz, destinationTaz);
+                tc.sharedRide2Cost     = value(PK_DIST, originTaz, destinationTaz) * AOC
+                                       + value(PK_TOLL, originTaz, destinationTaz) / 2f;
                 
-                tc.sharedRide3Time     = pkTime.getValueAt(originTaz, destinationTaz);
-                tc.sharedRide3Distance = pkDist.getValueAt(originTaz, destinationTaz);
-                tc.sharedRide3Cost     = pkDist.getValueAt(originTaz, destinationTaz) * AOC
-                                       + pkToll.getValueAt(originTaz, destinationTaz) / 3.5f;
+                tc.sharedRide3Time     = value(PK_TIME, originTaz, destinationTaz);
+                tc.sharedRide3Distance = value(PK_DIST, originTaz, destinationTaz);
+                tc.sharedRide3Cost     = value(PK_DIST, originTaz, destinationTaz) * AOC
+                                       + value(PK_TOLL, originTaz, destinationTaz) / 3.5f;
                 
-                tc.walkTime = ((pkDist.getValueAt(originTaz, destinationTaz) * 60 / WALK_MPH));
-                tc.bikeTime = ((pkDist.getValueAt(originTaz, destinationTaz) * 60 / BIKE_MPH));
+                tc.walkTime = ((value(PK_DIST, originTaz, destinationTaz) * 60 / WALK_MPH));
+                tc.bikeTime = ((value(PK_DIST, originTaz, destinationTaz) * 60 / BIKE_MPH));
             }
-            tc.walkDistance = pkDist.getValueAt(originTaz, destinationTaz);
-            tc.bikeDistance = pkDist.getValueAt(originTaz, destinationTaz);
+            tc.walkDistance = value(PK_DIST, originTaz, destinationTaz);
+            tc.bikeDistance = value(PK_DIST, originTaz, destinationTaz);
 
             // if PM Peak, then reverse origin and destination to get peak skims
             if (time >= PM_PEAK_START && time <= PM_PEAK_END) {
-                tc.walkTransitInVehicleTime = pkwlk.getValue(destinationTaz, originTaz, "WtPkIvt");
+                tc.walkTransitInVehicleTime = pkWalkTransit.getValue(IVT, destinationTaz, originTaz);
                 if (tc.walkTransitInVehicleTime > 0) {
-                    tc.walkTransitFirstWaitTime = pkwlk.getValue(destinationTaz, originTaz, "WtPkFwt");
+                    tc.walkTransitFirstWaitTime = pkWalkTransit.getValue(FWT, destinationTaz, originTaz);
                     tc.walkTransitShortFirstWaitTime = min(tc.walkTransitFirstWaitTime, FIRST_WAIT_SEGMENT);
                     tc.walkTransitLongFirstWaitTime = max((tc.walkTransitFirstWaitTime - FIRST_WAIT_SEGMENT), 0);
-                    tc.walkTransitTotalWaitTime = pkwlk.getValue(destinationTaz, originTaz, "WtPkTwt");
+                    tc.walkTransitTotalWaitTime = pkWalkTransit.getValue(TWT, destinationTaz, originTaz);
                     tc.walkTransitTransferWaitTime = Math.max(
                             (tc.walkTransitTotalWaitTime - tc.walkTransitFirstWaitTime), 0);
-                    tc.walkTransitNumberBoardings = pkwlk.getValue(destinationTaz, originTaz, "WtPkBrd");
-                    tc.walkTransitWalkTime = pkwlk.getValue(destinationTaz, originTaz, "WtPkAwk")
-                            + pkwlk.getValue(destinationTaz, originTaz, "WtPkXwk")
-                            + pkwlk.getValue(destinationTaz, originTaz, "WtPkEwk");
-                    tc.walkTransitFare = pkwlk.getValue(destinationTaz, originTaz, "WtPkFar");
+                    tc.walkTransitNumberBoardings = pkWalkTransit.getValue(BRD, destinationTaz, originTaz);
+                    tc.walkTransitWalkTime = pkWalkTransit.getValue(AWK, destinationTaz, originTaz)
+                            + pkWalkTransit.getValue(XWK, destinationTaz, originTaz)
+                            + pkWalkTransit.getValue(EWK, destinationTaz, originTaz);
+                    tc.walkTransitFare = pkWalkTransit.getValue(FAR, destinationTaz, originTaz);
 
                     //tc.transitOvt = pkwlk.getValue(destinationTaz,originTaz, "WtPkOvt");				[AK]
                 } else {
@@ -660,19 +851,19 @@ public class SkimsInMemory implements Serializable {
 //                }
                 // else it is AM peak
             } else {
-                tc.walkTransitInVehicleTime = pkwlk.getValue(originTaz, destinationTaz, "WtPkIvt");
+                tc.walkTransitInVehicleTime = pkWalkTransit.getValue(IVT, originTaz, destinationTaz);
                 if (tc.walkTransitInVehicleTime > 0) {
 
-                    tc.walkTransitFirstWaitTime = pkwlk.getValue(originTaz, destinationTaz, "WtPkFwt");
+                    tc.walkTransitFirstWaitTime = pkWalkTransit.getValue(FWT, originTaz, destinationTaz);
                     tc.walkTransitShortFirstWaitTime = min(tc.walkTransitFirstWaitTime, FIRST_WAIT_SEGMENT);
                     tc.walkTransitLongFirstWaitTime = max((tc.walkTransitFirstWaitTime - FIRST_WAIT_SEGMENT), 0);
-                    tc.walkTransitTotalWaitTime = pkwlk.getValue(originTaz, destinationTaz, "WtPkTwt");
+                    tc.walkTransitTotalWaitTime = pkWalkTransit.getValue(TWT, originTaz, destinationTaz);
                     tc.walkTransitTransferWaitTime = max((tc.walkTransitTotalWaitTime - tc.walkTransitFirstWaitTime), 0);
-                    tc.walkTransitNumberBoardings = pkwlk.getValue(originTaz, destinationTaz, "WtPkBrd");
-                    tc.walkTransitWalkTime = pkwlk.getValue(originTaz, destinationTaz, "WtPkAwk")
-                            + pkwlk.getValue(originTaz, destinationTaz, "WtPkXwk")
-                            + pkwlk.getValue(originTaz, destinationTaz, "WtPkEwk");
-                    tc.walkTransitFare = pkwlk.getValue(originTaz, destinationTaz, "WtPkFar");
+                    tc.walkTransitNumberBoardings = pkWalkTransit.getValue(BRD, originTaz, destinationTaz);
+                    tc.walkTransitWalkTime = pkWalkTransit.getValue(AWK, originTaz, destinationTaz)
+                            + pkWalkTransit.getValue(XWK, originTaz, destinationTaz)
+                            + pkWalkTransit.getValue(EWK, originTaz, destinationTaz);
+                    tc.walkTransitFare = pkWalkTransit.getValue(FAR, originTaz, destinationTaz);
                     
                     //tc.transitOvt = pkwlk.getValue(originTaz, destinationTaz, "WtPkOvt");						[AK]
                 } else {
@@ -705,58 +896,58 @@ public class SkimsInMemory implements Serializable {
 //                }
             }
             
-            tc.airInVehicleTime = pkAirIvt.getValueAt(originTaz, destinationTaz);
+            tc.airInVehicleTime = value(PK_AIR_IVT, originTaz, destinationTaz);
             if (tc.airInVehicleTime > 0) {            
-                tc.airFirstWaitTime = pkAirFwt.getValueAt(originTaz, destinationTaz);
+                tc.airFirstWaitTime = value(PK_AIR_FWT, originTaz, destinationTaz);
                 tc.airTotalWaitTime = tc.airFirstWaitTime;
                 tc.airWalkTime = 0;
-                tc.airDriveTime = pkAirDrv.getValueAt(originTaz, destinationTaz);
-                tc.airFare = pkAirFar.getValueAt(originTaz, destinationTaz);                
+                tc.airDriveTime = value(PK_AIR_DRV, originTaz, destinationTaz);
+                tc.airFare = value(PK_AIR_FAR, originTaz, destinationTaz);                
             } else {
-                tc.airFirstWaitTime = pkAirFwt.getValueAt(originTaz, destinationTaz);
+                tc.airFirstWaitTime = value(PK_AIR_FWT, originTaz, destinationTaz);
                 tc.airTotalWaitTime = tc.airFirstWaitTime;
                 tc.airWalkTime = 0;
-                tc.airDriveTime = pkAirDrv.getValueAt(originTaz, destinationTaz);
-                tc.airFare = pkAirFar.getValueAt(originTaz, destinationTaz);  
+                tc.airDriveTime = value(PK_AIR_DRV, originTaz, destinationTaz);
+                tc.airFare = value(PK_AIR_FAR, originTaz, destinationTaz);  
             }
             
             // else it is offpeak
         } else {
-            tc.driveAloneTime     = opTime.getValueAt(originTaz, destinationTaz);
-            tc.driveAloneDistance = opDist.getValueAt(originTaz, destinationTaz);
-            tc.driveAloneCost     = opDist.getValueAt(originTaz, destinationTaz) * AOC
-                                  + opToll.getValueAt(originTaz, destinationTaz);
+            tc.driveAloneTime     = value(OP_TIME, originTaz, destinationTaz);
+            tc.driveAloneDistance = value(OP_DIST, originTaz, destinationTaz);
+            tc.driveAloneCost     = value(OP_DIST, originTaz, destinationTaz) * AOC
+                                  + value(OP_TOLL, originTaz, destinationTaz);
 
-            tc.sharedRide2Time     = opTime.getValueAt(originTaz, destinationTaz);
-            tc.sharedRide2Distance = opDist.getValueAt(originTaz, destinationTaz);
-            tc.sharedRide2Cost     = opDist.getValueAt(originTaz, destinationTaz) * AOC
-                                   + opToll.getValueAt(originTaz, destinationTaz) / 2f;
+            tc.sharedRide2Time     = value(OP_TIME, originTaz, destinationTaz);
+            tc.sharedRide2Distance = value(OP_DIST, originTaz, destinationTaz);
+            tc.sharedRide2Cost     = value(OP_DIST, originTaz, destinationTaz) * AOC
+                                   + value(OP_TOLL, originTaz, destinationTaz) / 2f;
 
-            tc.sharedRide3Time     = opTime.getValueAt(originTaz, destinationTaz);
-            tc.sharedRide3Distance = opDist.getValueAt(originTaz, destinationTaz);
-            tc.sharedRide3Cost     = opDist.getValueAt(originTaz, destinationTaz) * AOC
-                                   + opToll.getValueAt(originTaz, destinationTaz) / 3.5f;
+            tc.sharedRide3Time     = value(OP_TIME, originTaz, destinationTaz);
+            tc.sharedRide3Distance = value(OP_DIST, originTaz, destinationTaz);
+            tc.sharedRide3Cost     = value(OP_DIST, originTaz, destinationTaz) * AOC
+                                   + value(OP_TOLL, originTaz, destinationTaz) / 3.5f;
 
             
-            tc.walkTime = ((opDist.getValueAt(originTaz, destinationTaz) * 60 / WALK_MPH));
-            tc.walkDistance = opDist.getValueAt(originTaz, destinationTaz);
+            tc.walkTime = ((value(OP_DIST, originTaz, destinationTaz) * 60 / WALK_MPH));
+            tc.walkDistance = value(OP_DIST, originTaz, destinationTaz);
 
-            tc.bikeTime = ((opDist.getValueAt(originTaz, destinationTaz) * 60 / BIKE_MPH));
-            tc.bikeDistance = opDist.getValueAt(originTaz, destinationTaz);
+            tc.bikeTime = ((value(OP_DIST, originTaz, destinationTaz) * 60 / BIKE_MPH));
+            tc.bikeDistance = value(OP_DIST, originTaz, destinationTaz);
 
-            tc.walkTransitInVehicleTime = opwlk.getValue(originTaz, destinationTaz, "WtOpIvt");
+            tc.walkTransitInVehicleTime = opWalkTransit.getValue(IVT, originTaz, destinationTaz);
 
             if (tc.walkTransitInVehicleTime > 0) {
-                tc.walkTransitFirstWaitTime = opwlk.getValue(originTaz, destinationTaz, "WtOpFwt");
+                tc.walkTransitFirstWaitTime = opWalkTransit.getValue(FWT, originTaz, destinationTaz);
                 tc.walkTransitShortFirstWaitTime = min(tc.walkTransitFirstWaitTime, FIRST_WAIT_SEGMENT);
                 tc.walkTransitLongFirstWaitTime = max((tc.walkTransitFirstWaitTime - FIRST_WAIT_SEGMENT), 0);
-                tc.walkTransitTotalWaitTime = opwlk.getValue(originTaz, destinationTaz, "WtOpTwt");
+                tc.walkTransitTotalWaitTime = opWalkTransit.getValue(TWT, originTaz, destinationTaz);
                 tc.walkTransitTransferWaitTime = max((tc.walkTransitTotalWaitTime - tc.walkTransitFirstWaitTime), 0);
-                tc.walkTransitNumberBoardings = opwlk.getValue(originTaz, destinationTaz, "WtOpBrd");
-                tc.walkTransitWalkTime = opwlk.getValue(originTaz, destinationTaz, "WtOpAwk")
-                        + opwlk.getValue(originTaz, destinationTaz, "WtOpXwk")
-                        + opwlk.getValue(originTaz, destinationTaz, "WtOpEwk");
-                tc.walkTransitFare = opwlk.getValue(originTaz, destinationTaz, "WtOpFar");
+                tc.walkTransitNumberBoardings = opWalkTransit.getValue(BRD, originTaz, destinationTaz);
+                tc.walkTransitWalkTime = opWalkTransit.getValue(AWK, originTaz, destinationTaz)
+                        + opWalkTransit.getValue(XWK, originTaz, destinationTaz)
+                        + opWalkTransit.getValue(EWK, originTaz, destinationTaz);
+                tc.walkTransitFare = opWalkTransit.getValue(FAR, originTaz, destinationTaz);
                 
                 //tc.transitOvt = opwlk.getValue(originTaz, destinationTaz,"WtOpOvt");							[AK]
             } else {
@@ -788,19 +979,19 @@ public class SkimsInMemory implements Serializable {
 //            }
         }
         
-        tc.airInVehicleTime = opAirIvt.getValueAt(originTaz, destinationTaz);
+        tc.airInVehicleTime = value(OP_AIR_IVT, originTaz, destinationTaz);
         if (tc.airInVehicleTime > 0) {            
-            tc.airFirstWaitTime = opAirFwt.getValueAt(originTaz, destinationTaz);
+            tc.airFirstWaitTime = value(OP_AIR_FWT, originTaz, destinationTaz);
             tc.airTotalWaitTime = tc.airFirstWaitTime;
             tc.airWalkTime = 0;
-            tc.airDriveTime = opAirDrv.getValueAt(originTaz, destinationTaz);
-            tc.airFare = opAirFar.getValueAt(originTaz, destinationTaz);                
+            tc.airDriveTime = value(OP_AIR_DRV, originTaz, destinationTaz);
+            tc.airFare = value(OP_AIR_FAR, originTaz, destinationTaz);                
         } else {
-            tc.airFirstWaitTime = opAirFwt.getValueAt(originTaz, destinationTaz);
+            tc.airFirstWaitTime = value(OP_AIR_FWT, originTaz, destinationTaz);
             tc.airTotalWaitTime = tc.airFirstWaitTime;
             tc.airWalkTime = 0;
-            tc.airDriveTime = opAirDrv.getValueAt(originTaz, destinationTaz);
-            tc.airFare = opAirFar.getValueAt(originTaz, destinationTaz);  
+            tc.airDriveTime = value(OP_AIR_DRV, originTaz, destinationTaz);
+            tc.airFare = value(OP_AIR_FAR, originTaz, destinationTaz);  
         }
         
         
@@ -846,11 +1037,11 @@ public class SkimsInMemory implements Serializable {
         float totalTime = 0;
 
         if ((time >= AM_PEAK_START && time <= AM_PEAK_END) || (time >= PM_PEAK_START && time <= PM_PEAK_END)) { // peak
-            directTime = pkTime.getValueAt(fromTaz, toTaz);
-            totalTime = pkTime.getValueAt(fromTaz, stopTaz) + pkTime.getValueAt(stopTaz, toTaz);
+            directTime = value(PK_TIME, fromTaz, toTaz);
+            totalTime = value(PK_TIME, fromTaz, stopTaz) + value(PK_TIME, stopTaz, toTaz);
         } else {
-            directTime = opTime.getValueAt(fromTaz, toTaz);
-            totalTime = opTime.getValueAt(fromTaz, stopTaz) + opTime.getValueAt(stopTaz, toTaz);
+            directTime = value(OP_TIME, fromTaz, toTaz);
+            totalTime = value(OP_TIME, fromTaz, stopTaz) + value(OP_TIME, stopTaz, toTaz);
         }
 
         return max((totalTime - directTime), 0);
@@ -868,13 +1059,13 @@ public class SkimsInMemory implements Serializable {
         float totalTime = 0;
 
         if ((time >= AM_PEAK_START && time <= AM_PEAK_END) || (time >= PM_PEAK_START && time <= PM_PEAK_END)) { // peak
-            directTime = (pkDist.getValueAt(fromTaz, toTaz) * 60 / WALK_MPH);
-            totalTime = (pkDist.getValueAt(fromTaz, stopTaz) * 60 / WALK_MPH)
-                    + (pkDist.getValueAt(stopTaz, toTaz) * 60 / WALK_MPH);
+            directTime = (value(PK_DIST, fromTaz, toTaz) * 60 / WALK_MPH);
+            totalTime = (value(PK_DIST, fromTaz, stopTaz) * 60 / WALK_MPH)
+                    + (value(PK_DIST, stopTaz, toTaz) * 60 / WALK_MPH);
         } else {
-            directTime = (opDist.getValueAt(fromTaz, toTaz) * 60 / WALK_MPH);
-            totalTime = (opDist.getValueAt(fromTaz, stopTaz) * 60 / WALK_MPH)
-                    + (opDist.getValueAt(stopTaz, toTaz) * 60 / WALK_MPH);
+            directTime = (value(OP_DIST, fromTaz, toTaz) * 60 / WALK_MPH);
+            totalTime = (value(OP_DIST, fromTaz, stopTaz) * 60 / WALK_MPH)
+                    + (value(OP_DIST, stopTaz, toTaz) * 60 / WALK_MPH);
         }
 
         return max((totalTime - directTime), 0);
@@ -892,13 +1083,13 @@ public class SkimsInMemory implements Serializable {
         float totalTime = 0;
 
         if ((time >= AM_PEAK_START && time <= AM_PEAK_END) || (time >= PM_PEAK_START && time <= PM_PEAK_END)) { // peak
-            directTime = (pkDist.getValueAt(fromTaz, toTaz) * 60 / BIKE_MPH);
-            totalTime = (pkDist.getValueAt(fromTaz, stopTaz) * 60 / BIKE_MPH)
-                    + (pkDist.getValueAt(stopTaz, toTaz) * 60 / BIKE_MPH);
+            directTime = (value(PK_DIST, fromTaz, toTaz) * 60 / BIKE_MPH);
+            totalTime = (value(PK_DIST, fromTaz, stopTaz) * 60 / BIKE_MPH)
+                    + (value(PK_DIST, stopTaz, toTaz) * 60 / BIKE_MPH);
         } else {
-            directTime = (opDist.getValueAt(fromTaz, toTaz) * 60 / BIKE_MPH);
-            totalTime = (opDist.getValueAt(fromTaz, stopTaz) * 60 / BIKE_MPH)
-                    + (opDist.getValueAt(stopTaz, toTaz) * 60 / BIKE_MPH);
+            directTime = (value(OP_DIST, fromTaz, toTaz) * 60 / BIKE_MPH);
+            totalTime = (value(OP_DIST, fromTaz, stopTaz) * 60 / BIKE_MPH)
+                    + (value(OP_DIST, stopTaz, toTaz) * 60 / BIKE_MPH);
         }
 
         return max((totalTime - directTime), 0);
@@ -931,86 +1122,86 @@ public class SkimsInMemory implements Serializable {
         if ((time >= AM_PEAK_START && time <= AM_PEAK_END) || (time >= PM_PEAK_START && time <= PM_PEAK_END)) { // peak
 
             // fromTaz->toTaz
-            inVehicleTime = pkwlk.getValue(fromTaz, toTaz, "WtPkIvt");
+            inVehicleTime = pkWalkTransit.getValue(IVT, fromTaz, toTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = pkwlk.getValue(fromTaz, toTaz, "WtPkFwt");
-            totalWaitTime = pkwlk.getValue(fromTaz, toTaz, "WtPkTwt");
+            firstWaitTime = pkWalkTransit.getValue(FWT, fromTaz, toTaz);
+            totalWaitTime = pkWalkTransit.getValue(TWT, fromTaz, toTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = pkwlk.getValue(fromTaz, toTaz, "WtPkAwk") + pkwlk.getValue(fromTaz, toTaz, "WtPkXwk")
-                    + pkwlk.getValue(fromTaz, toTaz, "WtPkEwk");
+            walkTime = pkWalkTransit.getValue(AWK, fromTaz, toTaz) + pkWalkTransit.getValue(XWK, fromTaz, toTaz)
+                    + pkWalkTransit.getValue(EWK, fromTaz, toTaz);
 
             directCost = inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
 
             // fromTaz->stopTaz
-            inVehicleTime = pkwlk.getValue(fromTaz, stopTaz, "WtPkIvt");
+            inVehicleTime = pkWalkTransit.getValue(IVT, fromTaz, stopTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = pkwlk.getValue(fromTaz, stopTaz, "WtPkFwt");
-            totalWaitTime = pkwlk.getValue(fromTaz, stopTaz, "WtPkTwt");
+            firstWaitTime = pkWalkTransit.getValue(FWT, fromTaz, stopTaz);
+            totalWaitTime = pkWalkTransit.getValue(TWT, fromTaz, stopTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = pkwlk.getValue(fromTaz, stopTaz, "WtPkAwk") + pkwlk.getValue(fromTaz, stopTaz, "WtPkXwk")
-                    + pkwlk.getValue(fromTaz, stopTaz, "WtPkEwk");
+            walkTime = pkWalkTransit.getValue(AWK, fromTaz, stopTaz) + pkWalkTransit.getValue(XWK, fromTaz, stopTaz)
+                    + pkWalkTransit.getValue(EWK, fromTaz, stopTaz);
 
             totalCost = inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
 
             // stopTaz->toTaz
-            inVehicleTime = pkwlk.getValue(stopTaz, toTaz, "WtPkIvt");
+            inVehicleTime = pkWalkTransit.getValue(IVT, stopTaz, toTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = pkwlk.getValue(stopTaz, toTaz, "WtPkFwt");
-            totalWaitTime = pkwlk.getValue(stopTaz, toTaz, "WtPkTwt");
+            firstWaitTime = pkWalkTransit.getValue(FWT, stopTaz, toTaz);
+            totalWaitTime = pkWalkTransit.getValue(TWT, stopTaz, toTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = pkwlk.getValue(stopTaz, toTaz, "WtPkAwk") + pkwlk.getValue(stopTaz, toTaz, "WtPkXwk")
-                    + pkwlk.getValue(stopTaz, toTaz, "WtPkEwk");
+            walkTime = pkWalkTransit.getValue(AWK, stopTaz, toTaz) + pkWalkTransit.getValue(XWK, stopTaz, toTaz)
+                    + pkWalkTransit.getValue(EWK, stopTaz, toTaz);
 
             totalCost += inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
 
         } else {
             // fromTaz->toTaz
-            inVehicleTime = opwlk.getValue(fromTaz, toTaz, "WtOpIvt");
+            inVehicleTime = opWalkTransit.getValue(IVT, fromTaz, toTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = opwlk.getValue(fromTaz, toTaz, "WtOpFwt");
-            totalWaitTime = opwlk.getValue(fromTaz, toTaz, "WtOpTwt");
+            firstWaitTime = opWalkTransit.getValue(FWT, fromTaz, toTaz);
+            totalWaitTime = opWalkTransit.getValue(TWT, fromTaz, toTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = opwlk.getValue(fromTaz, toTaz, "WtOpAwk") + opwlk.getValue(fromTaz, toTaz, "WtOpXwk")
-                    + opwlk.getValue(fromTaz, toTaz, "WtOpEwk");
+            walkTime = opWalkTransit.getValue(AWK, fromTaz, toTaz) + opWalkTransit.getValue(XWK, fromTaz, toTaz)
+                    + opWalkTransit.getValue(EWK, fromTaz, toTaz);
 
             directCost = inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
 
             // fromTaz->stopTaz
-            inVehicleTime = opwlk.getValue(fromTaz, stopTaz, "WtOpIvt");
+            inVehicleTime = opWalkTransit.getValue(IVT, fromTaz, stopTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = opwlk.getValue(fromTaz, stopTaz, "WtOpFwt");
-            totalWaitTime = opwlk.getValue(fromTaz, stopTaz, "WtOpTwt");
+            firstWaitTime = opWalkTransit.getValue(FWT, fromTaz, stopTaz);
+            totalWaitTime = opWalkTransit.getValue(TWT, fromTaz, stopTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = opwlk.getValue(fromTaz, stopTaz, "WtOpAwk") + opwlk.getValue(fromTaz, stopTaz, "WtOpXwk")
-                    + opwlk.getValue(fromTaz, stopTaz, "WtOpEwk");
+            walkTime = opWalkTransit.getValue(AWK, fromTaz, stopTaz) + opWalkTransit.getValue(XWK, fromTaz, stopTaz)
+                    + opWalkTransit.getValue(EWK, fromTaz, stopTaz);
 
             totalCost = inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
 
             // stopTaz->toTaz
-            inVehicleTime = opwlk.getValue(stopTaz, toTaz, "WtOpIvt");
+            inVehicleTime = opWalkTransit.getValue(IVT, stopTaz, toTaz);
             if (inVehicleTime <= 0)
                 return 0;
 
-            firstWaitTime = opwlk.getValue(stopTaz, toTaz, "WtOpFwt");
-            totalWaitTime = opwlk.getValue(stopTaz, toTaz, "WtOpTwt");
+            firstWaitTime = opWalkTransit.getValue(FWT, stopTaz, toTaz);
+            totalWaitTime = opWalkTransit.getValue(TWT, stopTaz, toTaz);
             transferWaitTime = max((totalWaitTime - firstWaitTime), 0);
-            walkTime = opwlk.getValue(stopTaz, toTaz, "WtOpAwk") + opwlk.getValue(stopTaz, toTaz, "WtOpXwk")
-                    + opwlk.getValue(stopTaz, toTaz, "WtOpEwk");
+            walkTime = opWalkTransit.getValue(AWK, stopTaz, toTaz) + opWalkTransit.getValue(XWK, stopTaz, toTaz)
+                    + opWalkTransit.getValue(EWK, stopTaz, toTaz);
 
             totalCost += inVehicleTime + firstWaitFactor * firstWaitTime + transferWaitFactor * transferWaitTime
                     + walkFactor * walkTime;
@@ -1038,12 +1229,12 @@ public class SkimsInMemory implements Serializable {
         float[] autoDists = new float[2];
 
         if ((time >= AM_PEAK_START && time <= AM_PEAK_END) || (time >= PM_PEAK_START && time <= PM_PEAK_END)) { // peak
-            autoDists[0] = pkDist.getValueAt(fromTaz, toTaz);
-            autoDists[1] = pkDist.getValueAt(fromTaz, stopTaz) + pkDist.getValueAt(stopTaz, toTaz);
+            autoDists[0] = value(PK_DIST, fromTaz, toTaz);
+            autoDists[1] = value(PK_DIST, fromTaz, stopTaz) + value(PK_DIST, stopTaz, toTaz);
 
         } else {
-            autoDists[0] = opDist.getValueAt(fromTaz, toTaz);
-            autoDists[1] = opDist.getValueAt(fromTaz, stopTaz) + opDist.getValueAt(stopTaz, toTaz);
+            autoDists[0] = value(OP_DIST, fromTaz, toTaz);
+            autoDists[1] = value(OP_DIST, fromTaz, stopTaz) + value(OP_DIST, stopTaz, toTaz);
         }
 
         return autoDists;
@@ -1054,6 +1245,8 @@ public class SkimsInMemory implements Serializable {
         pkwlk = null;
 //        pkdrv = null;
         opwlk = null;
+        pkWalkTransit = null;
+        opWalkTransit = null;
 //        opdrv = null;
         pkTime = null;
         opTime = null;
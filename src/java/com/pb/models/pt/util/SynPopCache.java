@@ -0,0 +1,529 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A columnar binary copy of the synthetic population.
+ *
+ * SynPopH and SynPopP are converted once into one file holding a column of
+ * primitives per attribute, households first and then persons, each in the
+ * order of its text file.  A household column of person offsets gives the
+ * first person row of every household, so the persons of a block of
+ * households are one contiguous range of person rows.
+ *
+ * Any range of rows is read with positional reads, so a worker goes straight
+ * to its block instead of scanning the text files from the top.  Codes are
+ * stored as they appear in the text files; the meaning of each code is left
+ * to the reader.
+ *
+ * The header records the length and modification time of both text files,
+ * and <code>open</code> refuses a cache that no longer matches them.
+ */
+public class SynPopCache {
+    protected static Logger logger = Logger.getLogger(SynPopCache.class);
+
+    private static final int MAGIC = 0x50545350; // "PTSP"
+
+    private static final int VERSION = 1;
+
+    // magic, version, 4 file stamps, counts, flags, LD purposes
+    private static final int HEADER_SIZE = 8 + 32 + 16;
+
+    /** Households have an auto ownership column. */
+    public static final int AUTOS = 1;
+
+    /** Households have long distance tour columns. */
+    public static final int HOUSEHOLD_LD = 2;
+
+    /** Persons have long distance indicator and pattern columns. */
+    public static final int PERSON_LD = 4;
+
+    /** Persons have a work taz column. */
+    public static final int WORK_TAZ = 8;
+
+    /** Persons have a work occupation column. */
+    public static final int WORK_OCCUPATION = 16;
+
+    // household column widths in bytes: id, size, unit, income, taz, autos,
+    // ld tour, ld pattern; the person offsets follow with nHouseholds + 1 ints
+    private static final int[] HOUSEHOLD_WIDTHS = { 4, 1, 4, 4, 2, 1, 1, 1 };
+
+    // person column widths in bytes: household id, member, sex, age, school,
+    // employment, occupation, work occupation, work taz; one indicator and
+    // one pattern column per long distance purpose follow
+    private static final int[] PERSON_WIDTHS = { 4, 4, 1, 1, 1, 1, 4, 4, 2 };
+
+    private final File file;
+
+    private final RandomAccessFile raf;
+
+    private final FileChannel channel;
+
+    private final int householdCount;
+
+    private final int personCount;
+
+    private final int flags;
+
+    private final int ldPurposes;
+
+    private final long[] householdColumns;
+
+    private final long[] personColumns;
+
+    /**
+     * The rows of a range of households.  Columns that the population
+     * does not have are left as zeros.
+     */
+    public static class Households {
+        public final int first;
+        public final int count;
+        public final int[] id;
+        public final byte[] size;
+        public final int[] unit;
+        public final int[] income;
+        public final short[] homeTaz;
+        public final byte[] autos;
+        public final boolean[] ldTour;
+        public final byte[] ldPattern;
+        // first person row of each household, with one extra entry for
+        // the end of the last household
+        public final int[] personStart;
+
+        public Households(int first, int count) {
+            this.first = first;
+            this.count = count;
+            id = new int[count];
+            size = new byte[count];
+            unit = new int[count];
+            income = new int[count];
+            homeTaz = new short[count];
+            autos = new byte[count];
+            ldTour = new boolean[count];
+            ldPattern = new byte[count];
+            personStart = new int[count + 1];
+        }
+
+        /**
+         * @param h Household index in this range.
+         * @return The number of persons in the household.
+         */
+        public int getPersonCount(int h) {
+            return personStart[h + 1] - personStart[h];
+        }
+    }
+
+    /**
+     * The rows of a range of persons.  Columns that the population does not
+     * have are left as zeros.
+     */
+    public static class Persons {
+        public final int first;
+        public final int count;
+        public final int[] hhId;
+        public final int[] member;
+        public final byte[] sex;
+        public final byte[] age;
+        public final byte[] school;
+        public final byte[] employment;
+        public final int[] occupation;
+        public final int[] workOccupation;
+        public final short[] workTaz;
+        // [purpose][person]
+        public final boolean[][] ldIndicator;
+        // [purpose][person], LDTourPatternType ordinals
+        public final byte[][] ldPattern;
+
+        public Persons(int first, int count, int ldPurposes) {
+            this.first = first;
+            this.count = count;
+            hhId = new int[count];
+            member = new int[count];
+            sex = new byte[count];
+            age = new byte[count];
+            school = new byte[count];
+            employment = new byte[count];
+            occupation = new int[count];
+            workOccupation = new int[count];
+            workTaz = new short[count];
+            ldIndicator = new boolean[ldPurposes][count];
+            ldPattern = new byte[ldPurposes][count];
+        }
+    }
+
+    private SynPopCache(File file, RandomAccessFile raf, ByteBuffer header) {
+        this.file = file;
+        this.raf = raf;
+        channel = raf.getChannel();
+        householdCount = header.getInt();
+        personCount = header.getInt();
+        flags = header.getInt();
+        ldPurposes = header.getInt();
+        householdColumns = householdColumnOffsets(householdCount);
+        personColumns = personColumnOffsets(householdCount, personCount,
+                ldPurposes);
+    }
+
+    /**
+     * Open a cache file for reading.
+     *
+     * @param file The cache file written by <code>write</code>.
+     * @param householdFile The household text file the cache was made from.
+     * @param personFile The person text file the cache was made from.
+     * @return The cache, or null if the file does not exist or no longer
+     *         matches the text files.
+     */
+    public static SynPopCache open(File file, File householdFile,
+            File personFile) {
+        if (!file.exists()) {
+            return null;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(raf.getChannel(), header, 0);
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new RuntimeException(file + " is not a population cache file.");
+            }
+            int version = header.getInt();
+            if (version != VERSION
+                    || header.getLong() != householdFile.length()
+                    || header.getLong() != householdFile.lastModified()
+                    || header.getLong() != personFile.length()
+                    || header.getLong() != personFile.lastModified()) {
+                logger.info("Population cache " + file
+                        + " does not match the population files.");
+                close(raf);
+                return null;
+            }
+
+            SynPopCache cache = new SynPopCache(file, raf, header);
+            logger.info("Opened population cache " + file + " with "
+                    + cache.householdCount + " households and "
+                    + cache.personCount + " persons");
+            return cache;
+        } catch (IOException e) {
+            close(raf);
+            throw new RuntimeException("Error opening population cache " + file, e);
+        }
+    }
+
+    /**
+     * Write a population to a cache file.
+     *
+     * The file is written under a temporary name and renamed when complete,
+     * so nodes starting at the same time never open a partial file.
+     *
+     * @param file The cache file.
+     * @param householdFile The household text file, for the staleness check.
+     * @param personFile The person text file, for the staleness check.
+     * @param flags The optional columns the population has.
+     * @param households Every household, starting at row 0.
+     * @param persons Every person, starting at row 0.
+     */
+    public static void write(File file, File householdFile, File personFile,
+            int flags, Households households, Persons persons) {
+        long start = System.currentTimeMillis();
+        int nHouseholds = households.count;
+        int nPersons = persons.count;
+        int ldPurposes = persons.ldIndicator.length;
+
+        if (households.personStart[nHouseholds] != nPersons) {
+            throw new RuntimeException("Household person offsets end at row "
+                    + households.personStart[nHouseholds] + " but there are "
+                    + nPersons + " persons.");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(householdFile.length());
+        header.putLong(householdFile.lastModified());
+        header.putLong(personFile.length());
+        header.putLong(personFile.lastModified());
+        header.putInt(nHouseholds);
+        header.putInt(nPersons);
+        header.putInt(flags);
+        header.putInt(ldPurposes);
+        header.flip();
+
+        File temp = null;
+        RandomAccessFile raf = null;
+        try {
+            temp = File.createTempFile(file.getName(), ".tmp",
+                    file.getAbsoluteFile().getParentFile());
+            raf = new RandomAccessFile(temp, "rw");
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            long position = writeFully(channel, header, 0);
+
+            position += writeInts(channel, position, households.id);
+            position += writeBytes(channel, position, households.size);
+            position += writeInts(channel, position, households.unit);
+            position += writeInts(channel, position, households.income);
+            position += writeShorts(channel, position, households.homeTaz);
+            position += writeBytes(channel, position, households.autos);
+            position += writeBooleans(channel, position, households.ldTour);
+            position += writeBytes(channel, position, households.ldPattern);
+            position += writeInts(channel, position, households.personStart);
+
+            position += writeInts(channel, position, persons.hhId);
+            position += writeInts(channel, position, persons.member);
+            position += writeBytes(channel, position, persons.sex);
+            position += writeBytes(channel, position, persons.age);
+            position += writeBytes(channel, position, persons.school);
+            position += writeBytes(channel, position, persons.employment);
+            position += writeInts(channel, position, persons.occupation);
+            position += writeInts(channel, position, persons.workOccupation);
+            position += writeShorts(channel, position, persons.workTaz);
+            for (int p = 0; p < ldPurposes; ++p) {
+                position += writeBooleans(channel, position, persons.ldIndicator[p]);
+            }
+            for (int p = 0; p < ldPurposes; ++p) {
+                position += writeBytes(channel, position, persons.ldPattern[p]);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing population cache " + file, e);
+        } finally {
+            close(raf);
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new RuntimeException("Unable to replace population cache " + file);
+        }
+        if (!temp.renameTo(file)) {
+            throw new RuntimeException("Unable to rename " + temp + " to " + file);
+        }
+
+        logger.info("Wrote " + nHouseholds + " households and " + nPersons
+                + " persons to " + file + " in "
+                + (System.currentTimeMillis() - start) / 1000 + " seconds.");
+    }
+
+    public int getHouseholdCount() {
+        return householdCount;
+    }
+
+    public int getPersonCount() {
+        return personCount;
+    }
+
+    /**
+     * @param flag One of the column flags.
+     * @return Whether the population has the optional columns.
+     */
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * Read a range of household rows.
+     *
+     * @param first First household row, 0-based.
+     * @param count Number of households; cut off at the last household.
+     */
+    public Households readHouseholds(int first, int count) {
+        first = Math.min(first, householdCount);
+        count = Math.max(0, Math.min(count, householdCount - first));
+        Households households = new Households(first, count);
+        try {
+            readInts(householdColumns[0], first, households.id);
+            readBytes(householdColumns[1], first, households.size);
+            readInts(householdColumns[2], first, households.unit);
+            readInts(householdColumns[3], first, households.income);
+            readShorts(householdColumns[4], first, households.homeTaz);
+            readBytes(householdColumns[5], first, households.autos);
+            readBooleans(householdColumns[6], first, households.ldTour);
+            readBytes(householdColumns[7], first, households.ldPattern);
+            readInts(householdColumns[8], first, households.personStart);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading households from " + file, e);
+        }
+        return households;
+    }
+
+    /**
+     * Read the id of every household.
+     */
+    public int[] readHouseholdIds() {
+        int[] ids = new int[householdCount];
+        try {
+            readInts(householdColumns[0], 0, ids);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading households from " + file, e);
+        }
+        return ids;
+    }
+
+    /**
+     * Read a range of person rows.
+     *
+     * @param first First person row, 0-based.
+     * @param count Number of persons; cut off at the last person.
+     */
+    public Persons readPersons(int first, int count) {
+        first = Math.min(first, personCount);
+        count = Math.max(0, Math.min(count, personCount - first));
+        Persons persons = new Persons(first, count, ldPurposes);
+        try {
+            readInts(personColumns[0], first, persons.hhId);
+            readInts(personColumns[1], first, persons.member);
+            readBytes(personColumns[2], first, persons.sex);
+            readBytes(personColumns[3], first, persons.age);
+            readBytes(personColumns[4], first, persons.school);
+            readBytes(personColumns[5], first, persons.employment);
+            readInts(personColumns[6], first, persons.occupation);
+            readInts(personColumns[7], first, persons.workOccupation);
+            readShorts(personColumns[8], first, persons.workTaz);
+            int column = PERSON_WIDTHS.length;
+            for (int p = 0; p < ldPurposes; ++p) {
+                readBooleans(personColumns[column++], first, persons.ldIndicator[p]);
+            }
+            for (int p = 0; p < ldPurposes; ++p) {
+                readBytes(personColumns[column++], first, persons.ldPattern[p]);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading persons from " + file, e);
+        }
+        return persons;
+    }
+
+    public void close() {
+        close(raf);
+    }
+
+    private static long[] householdColumnOffsets(int nHouseholds) {
+        long[] offsets = new long[HOUSEHOLD_WIDTHS.length + 1];
+        long position = HEADER_SIZE;
+        for (int c = 0; c < HOUSEHOLD_WIDTHS.length; ++c) {
+            offsets[c] = position;
+            position += (long) HOUSEHOLD_WIDTHS[c] * nHouseholds;
+        }
+        offsets[HOUSEHOLD_WIDTHS.length] = position;
+        return offsets;
+    }
+
+    private static long[] personColumnOffsets(int nHouseholds, int nPersons,
+            int ldPurposes) {
+        long[] offsets = new long[PERSON_WIDTHS.length + 2 * ldPurposes];
+        long[] households = householdColumnOffsets(nHouseholds);
+        long position = households[households.length - 1] + 4L * (nHouseholds + 1);
+        for (int c = 0; c < offsets.length; ++c) {
+            offsets[c] = position;
+            position += (long) (c < PERSON_WIDTHS.length ? PERSON_WIDTHS[c] : 1) * nPersons;
+        }
+        return offsets;
+    }
+
+    private ByteBuffer read(long column, int width, int first, int count)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(width * count);
+        readFully(channel, buffer, column + (long) width * first);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void readInts(long column, int first, int[] values) throws IOException {
+        read(column, 4, first, values.length).asIntBuffer().get(values);
+    }
+
+    private void readShorts(long column, int first, short[] values) throws IOException {
+        read(column, 2, first, values.length).asShortBuffer().get(values);
+    }
+
+    private void readBytes(long column, int first, byte[] values) throws IOException {
+        read(column, 1, first, values.length).get(values);
+    }
+
+    private void readBooleans(long column, int first, boolean[] values) throws IOException {
+        ByteBuffer buffer = read(column, 1, first, values.length);
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = buffer.get(i) != 0;
+        }
+    }
+
+    private static long writeInts(FileChannel channel, long position,
+            int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * values.length);
+        buffer.asIntBuffer().put(values);
+        return writeFully(channel, buffer, position);
+    }
+
+    private static long writeShorts(FileChannel channel, long position,
+            short[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * values.length);
+        buffer.asShortBuffer().put(values);
+        return writeFully(channel, buffer, position);
+    }
+
+    private static long writeBytes(FileChannel channel, long position,
+            byte[] values) throws IOException {
+        return writeFully(channel, ByteBuffer.wrap(values), position);
+    }
+
+    private static long writeBooleans(FileChannel channel, long position,
+            boolean[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length);
+        for (int i = 0; i < values.length; ++i) {
+            buffer.put(i, values[i] ? (byte) 1 : (byte) 0);
+        }
+        return writeFully(channel, buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of population cache file.");
+            }
+            position += read;
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer,
+            long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static void close(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close population cache file.", e);
+            }
+        }
+    }
+}
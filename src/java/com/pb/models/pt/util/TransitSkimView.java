@@ -0,0 +1,139 @@
+/*
+ * Copyright 2005 PB Consult Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util;
+
+import com.pb.common.matrix.CollapsedMatrixCollection;
+import com.pb.common.matrix.Matrix;
+import com.pb.common.matrix.MatrixCollection;
+
+/**
+ * A set of skim cores resolved once to integer handles.
+ *
+ * MatrixCollection looks a core up by name on every getValue call.  This view
+ * resolves the names when it is built, so callers in the travel time and cost
+ * loops index the cores by position instead.  The cores can come from a heap
+ * MatrixCollection or from a memory-mapped skim cache.
+ *
+ * A CollapsedMatrixCollection only stores the cells of its index matrix that
+ * have a value, and getMatrix expands a core into a new full matrix.  The
+ * view therefore reads such a collection through getValue, by the name held
+ * for each handle, and keeps the collapsed storage.
+ */
+public class TransitSkimView {
+
+    private final Matrix[] matrices;
+
+    private final MatrixCollection collapsed;
+
+    private final String[] collapsedCores;
+
+    private final MappedSkimCache cache;
+
+    private final int[] cacheCores;
+
+    /**
+     * Resolve cores in a matrix collection.
+     *
+     * @param mc The matrix collection.
+     * @param coreNames Matrix names, by handle.  A null name marks a core
+     *            that the collection does not hold.
+     */
+    public TransitSkimView(MatrixCollection mc, String[] coreNames) {
+        cache = null;
+        cacheCores = null;
+        if (mc instanceof CollapsedMatrixCollection) {
+            collapsed = mc;
+            collapsedCores = coreNames.clone();
+            matrices = null;
+            return;
+        }
+        collapsed = null;
+        collapsedCores = null;
+
+        matrices = new Matrix[coreNames.length];
+        for (int i = 0; i < coreNames.length; ++i) {
+            if (coreNames[i] != null) {
+                matrices[i] = mc.getMatrix(coreNames[i]);
+                if (matrices[i] == null) {
+                    throw new RuntimeException("Skim core " + coreNames[i]
+                            + " is not in the matrix collection.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve cores in a memory-mapped skim cache.
+     *
+     * @param cache The skim cache.
+     * @param coreNames Core names, by handle.  A null name marks a core that
+     *            the cache does not hold.
+     */
+    public TransitSkimView(MappedSkimCache cache, String[] coreNames) {
+        this.cache = cache;
+        cacheCores = new int[coreNames.length];
+        for (int i = 0; i < coreNames.length; ++i) {
+            cacheCores[i] = coreNames[i] == null ? -1 : cache.getCoreIndex(coreNames[i]);
+            if (coreNames[i] != null && cacheCores[i] < 0) {
+                throw new RuntimeException("Skim core " + coreNames[i]
+                        + " is not in the skim cache.");
+            }
+        }
+        matrices = null;
+        collapsed = null;
+        collapsedCores = null;
+    }
+
+    /**
+     * @param core Core handle.
+     * @return true if the view holds the core.
+     */
+    public boolean contains(int core) {
+        if (matrices != null) {
+            return matrices[core] != null;
+        }
+        if (collapsed != null) {
+            return collapsedCores[core] != null;
+        }
+        return cacheCores[core] >= 0;
+    }
+
+    /**
+     * Get a skim value.
+     *
+     * @param core Core handle.
+     * @param originTaz Origin zone.
+     * @param destinationTaz Destination zone.
+     */
+    public float getValue(int core, int originTaz, int destinationTaz) {
+        if (matrices != null) {
+            return matrices[core].getValueAt(originTaz, destinationTaz);
+        }
+        if (collapsed != null) {
+            return collapsed.getValue(originTaz, destinationTaz,
+                    collapsedCores[core]);
+        }
+        return cache.getValueAt(cacheCores[core], originTaz, destinationTaz);
+    }
+
+    /**
+     * Get the value of a core, or zero if the view does not hold it.
+     */
+    public float getValueOrZero(int core, int originTaz, int destinationTaz) {
+        return contains(core) ? getValue(core, originTaz, destinationTaz) : 0;
+    }
+}
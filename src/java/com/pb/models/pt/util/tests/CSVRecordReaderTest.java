@@ -0,0 +1,256 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.pb.models.pt.util.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.pb.models.pt.util.CSVRecordReader;
+
+/**
+ * Parse made up records and compare the fields with what String.split and
+ * the parse methods of the number classes give.
+ */
+public class CSVRecordReaderTest {
+
+    private File file = new File("testCSVRecordReader.csv");
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Integers and doubles, with signs, exponents, quotes and empty fields,
+     * parse as the number classes parse them, or fail as they fail.
+     */
+    @Test
+    public void testNumbers() throws IOException {
+        String[] fields = { "0", "-12", "+7", "2147483647", "-2147483648",
+                "2147483648", "0.1", "-0.5", "+3.25", ".5", "-.5", "5.",
+                ".", "-", "", "1e5", "-2.5E-3", "6.02e23", "1E", "\"5\"",
+                "\"1.5\"", "'2'", " 1.5", "1.5 ", "123456789012345",
+                "1234567890123456", "0.000000000000000000001", "12a",
+                "NaN", "-Infinity", "00012", "1.2.3" };
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < fields.length; ++i) {
+            csv.append(i > 0 ? "," : "").append(fields[i]);
+        }
+        csv.append("\n");
+
+        CSVRecordReader reader = new CSVRecordReader(stream(csv.toString()));
+        assertTrue(reader.next());
+        assertEquals(fields.length, reader.getFieldCount());
+        for (int i = 0; i < fields.length; ++i) {
+            assertEquals(fields[i], reader.getString(i));
+            assertInt(fields[i], reader, i);
+            assertDouble(fields[i], reader, i);
+        }
+        assertFalse(reader.next());
+    }
+
+    /**
+     * Empty fields, including at the ends of a record, and lines ending in
+     * CRLF.
+     */
+    @Test
+    public void testEmptyFieldsAndCRLF() throws IOException {
+        CSVRecordReader reader = new CSVRecordReader(
+                stream("a,b,c\r\n,2,\r\n1,,-3\r\n\r\n4,5,6"));
+        String[] header = reader.readHeader();
+        assertEquals("c", header[2]);
+        assertEquals(2, reader.getRequiredColumn("c"));
+        assertEquals(-1, reader.getColumn("d"));
+
+        assertTrue(reader.next());
+        assertEquals(3, reader.getFieldCount());
+        assertEquals("", reader.getString(0));
+        assertEquals(2, reader.getInt(1));
+        assertEquals("", reader.getString(2));
+        assertInt("", reader, 2);
+        assertDouble("", reader, 2);
+
+        assertTrue(reader.next());
+        assertEquals(1, reader.getInt(0));
+        assertEquals(-3, reader.getInt(2));
+        assertEquals(-3.0, reader.getDouble(2), 0);
+
+        // a blank line is one empty field
+        assertTrue(reader.next());
+        assertEquals(1, reader.getFieldCount());
+        assertEquals("", reader.getString(0));
+
+        // the last line has no newline
+        assertTrue(reader.next());
+        assertEquals(6, reader.getInt(2));
+        assertEquals("4,5,6", reader.getRecord());
+        assertFalse(reader.next());
+    }
+
+    /**
+     * Records read across the compaction of the buffer, from a stream that
+     * returns a few bytes at a time and from one that fills the buffer, and
+     * a record longer than the buffer.
+     */
+    @Test
+    public void testBufferCompaction() throws IOException {
+        List<String> lines = createLines(5000, new Random(3));
+        // longer than the initial buffer of 64 kB
+        StringBuilder longLine = new StringBuilder("-1");
+        for (int i = 0; i < 20000; ++i) {
+            longLine.append(",").append(i).append(".25");
+        }
+        lines.add(2500, longLine.toString());
+
+        StringBuilder csv = new StringBuilder();
+        for (String line : lines) {
+            csv.append(line).append("\r\n");
+        }
+
+        assertLines(lines, new CSVRecordReader(stream(csv.toString())));
+        assertLines(lines, new CSVRecordReader(new FilterInputStream(
+                stream(csv.toString())) {
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        }));
+    }
+
+    /**
+     * Seek back and forth to the offsets of records in a file longer than
+     * the buffer.
+     */
+    @Test
+    public void testSeek() throws IOException {
+        List<String> lines = createLines(20000, new Random(5));
+        FileWriter writer = new FileWriter(file);
+        writer.write("id,value,ratio\n");
+        for (String line : lines) {
+            writer.write(line + "\n");
+        }
+        writer.close();
+
+        CSVRecordReader reader = new CSVRecordReader(file.getPath());
+        reader.readHeader();
+        long[] offsets = new long[lines.size()];
+        for (int i = 0; i < lines.size(); ++i) {
+            assertTrue(reader.next());
+            offsets[i] = reader.getRecordOffset();
+        }
+        assertFalse(reader.next());
+
+        Random random = new Random(9);
+        for (int k = 0; k < 500; ++k) {
+            int i = random.nextInt(lines.size());
+            reader.seek(offsets[i]);
+            assertTrue(reader.next());
+            assertEquals(lines.get(i), reader.getRecord());
+            assertEquals(offsets[i], reader.getRecordOffset());
+
+            // and carry on from there
+            if (i + 1 < lines.size()) {
+                assertTrue(reader.next());
+                assertEquals(lines.get(i + 1), reader.getRecord());
+            }
+        }
+        reader.close();
+
+        try {
+            new CSVRecordReader(stream("a\n")).seek(0);
+            fail("Seek in a stream");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Lines of an integer, a signed decimal and a number with an exponent.
+     */
+    private static List<String> createLines(int count, Random random) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < count; ++i) {
+            lines.add(i + "," + (random.nextInt(2000000) - 1000000) / 1000.0
+                    + "," + random.nextGaussian() * 1e-5);
+        }
+        return lines;
+    }
+
+    private static void assertLines(List<String> lines, CSVRecordReader reader)
+            throws IOException {
+        for (String line : lines) {
+            assertTrue(reader.next());
+            assertEquals(line, reader.getRecord());
+            String[] fields = line.split(",");
+            assertEquals(fields.length, reader.getFieldCount());
+            assertEquals(Integer.parseInt(fields[0]), reader.getInt(0));
+            for (int f = 1; f < fields.length; ++f) {
+                assertEquals(Double.parseDouble(fields[f]),
+                        reader.getDouble(f), 0);
+            }
+        }
+        assertFalse(reader.next());
+        reader.close();
+    }
+
+    private static void assertInt(String field, CSVRecordReader reader, int i) {
+        Integer expected;
+        try {
+            expected = Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+        try {
+            int value = reader.getInt(i);
+            assertEquals("Field " + field, expected, Integer.valueOf(value));
+        } catch (NumberFormatException e) {
+            assertNull("Field " + field + " " + e, expected);
+        }
+    }
+
+    private static void assertDouble(String field, CSVRecordReader reader, int i) {
+        Double expected;
+        try {
+            expected = Double.parseDouble(field);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+        try {
+            double value = reader.getDouble(i);
+            assertEquals("Field " + field, expected, Double.valueOf(value));
+        } catch (NumberFormatException e) {
+            assertNull("Field " + field + " " + e, expected);
+        }
+    }
+
+    private static InputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes());
+    }
+}
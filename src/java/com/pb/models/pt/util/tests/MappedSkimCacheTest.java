@@ -0,0 +1,207 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.pb.models.pt.util.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pb.common.matrix.Matrix;
+import com.pb.models.pt.util.MappedSkimCache;
+import com.pb.models.pt.util.MappedSkimMatrix;
+
+/**
+ * Round trip a few matrices through the memory-mapped skim cache.
+ */
+public class MappedSkimCacheTest {
+    private final int ZONES = 10;
+
+    private File cacheFile;
+
+    private Matrix time;
+
+    private Matrix distance;
+
+    @Before
+    public void setUp() throws Exception {
+        time = createMatrix("time", 1);
+        distance = createMatrix("distance", 100);
+
+        cacheFile = new File("testSkimCache.bin");
+        cacheFile.deleteOnExit();
+        MappedSkimCache.write(cacheFile, new String[] { "time", "distance" },
+                new Matrix[] { time, distance });
+    }
+
+    @After
+    public void tearDown() {
+        if (cacheFile != null) {
+            cacheFile.delete();
+        }
+    }
+
+    /**
+     * Create a matrix with external numbers that have gaps.
+     */
+    private Matrix createMatrix(String name, int scale) {
+        Matrix matrix = new Matrix(name, name, ZONES, ZONES);
+        int[] extNumbers = new int[ZONES + 1];
+
+        for (int i = 1; i < extNumbers.length; ++i) {
+            extNumbers[i] = 2 * i - 1;
+        }
+        matrix.setExternalNumbers(extNumbers, extNumbers);
+
+        for (int r = 1; r < extNumbers.length; ++r) {
+            for (int c = 1; c < extNumbers.length; ++c) {
+                matrix.setValueAt(extNumbers[r], extNumbers[c],
+                        scale * extNumbers[r] + extNumbers[c]);
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    public void testHeader() {
+        MappedSkimCache cache = new MappedSkimCache(cacheFile);
+
+        assertEquals(ZONES, cache.getZoneCount());
+        assertEquals(0, cache.getCoreIndex("time"));
+        assertEquals(1, cache.getCoreIndex("distance"));
+        assertEquals(-1, cache.getCoreIndex("toll"));
+    }
+
+    @Test
+    public void testValues() {
+        MappedSkimCache cache = new MappedSkimCache(cacheFile);
+        int[] extNumbers = cache.getExternalNumbers();
+
+        for (int r = 1; r < extNumbers.length; ++r) {
+            for (int c = 1; c < extNumbers.length; ++c) {
+                int row = extNumbers[r];
+                int col = extNumbers[c];
+
+                assertEquals(time.getValueAt(row, col),
+                        cache.getValueAt(0, row, col), 0.0f);
+                assertEquals(distance.getValueAt(row, col),
+                        cache.getValueAt(1, row, col), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testGetMatrix() {
+        MappedSkimCache cache = new MappedSkimCache(cacheFile);
+        Matrix copy = cache.getMatrix(1);
+
+        assertEquals("distance", copy.getName());
+        assertEquals(distance.getValueAt(3, 7), copy.getValueAt(3, 7), 0.0f);
+        assertEquals(distance.getValueAt(19, 1), copy.getValueAt(19, 1), 0.0f);
+    }
+
+    @Test
+    public void testMatrixView() {
+        MappedSkimCache cache = new MappedSkimCache(cacheFile);
+        Matrix view = new MappedSkimMatrix(cache, 1);
+        int[] extNumbers = distance.getExternalRowNumbers();
+
+        assertEquals("distance", view.getName());
+        assertEquals(ZONES, view.getRowCount());
+        assertEquals(ZONES, view.getColumnCount());
+        assertArrayEquals(extNumbers, view.getExternalNumbers());
+        assertEquals(distance.getSum(), view.getSum(), 0.0f);
+        for (int r = 1; r < extNumbers.length; ++r) {
+            int row = extNumbers[r];
+            assertEquals(r - 1, view.getInternalRowNumber(row));
+            assertArrayEquals(distance.getRow(row), view.getRow(row), 0.0f);
+            for (int c = 1; c < extNumbers.length; ++c) {
+                int col = extNumbers[c];
+                assertEquals(distance.getValueAt(row, col),
+                        view.getValueAt(row, col), 0.0f);
+            }
+        }
+
+        try {
+            view.setValueAt(1, 1, 0);
+            fail("A mapped skim matrix was changed.");
+        } catch (UnsupportedOperationException e) {
+            // read-only
+        }
+    }
+
+    @Test
+    public void testIsCurrent() throws IOException {
+        File source = new File("testSkimCacheSource.csv");
+        source.deleteOnExit();
+        try {
+            writeSource(source, "1,2,3\n");
+            File[] sources = new File[] { source };
+            MappedSkimCache.write(cacheFile, new String[] { "time" },
+                    new Matrix[] { time }, sources);
+            assertTrue(MappedSkimCache.isCurrent(cacheFile, sources));
+
+            // a rewritten skim file makes the cache stale
+            writeSource(source, "1,2,3,4\n");
+            assertFalse(MappedSkimCache.isCurrent(cacheFile, sources));
+
+            // and so does a different set of skim files
+            assertFalse(MappedSkimCache.isCurrent(cacheFile, new File[0]));
+            assertFalse(MappedSkimCache.isCurrent(new File("noSkimCache.bin"),
+                    sources));
+        } finally {
+            source.delete();
+        }
+    }
+
+    @Test
+    public void testLock() {
+        File lockFile = new File(cacheFile.getPath() + ".lock");
+        lockFile.deleteOnExit();
+
+        FileLock lock = MappedSkimCache.lock(cacheFile);
+        try {
+            assertTrue(lock.isValid());
+
+            // the cache is replaced while the lock is held
+            MappedSkimCache.write(cacheFile, new String[] { "distance" },
+                    new Matrix[] { distance });
+            assertEquals(0, new MappedSkimCache(cacheFile)
+                    .getCoreIndex("distance"));
+        } finally {
+            MappedSkimCache.unlock(lock);
+        }
+        assertFalse(lock.isValid());
+
+        // and the lock can be taken again once released
+        MappedSkimCache.unlock(MappedSkimCache.lock(cacheFile));
+        lockFile.delete();
+    }
+
+    private void writeSource(File source, String text) throws IOException {
+        FileWriter writer = new FileWriter(source);
+        writer.write(text);
+        writer.close();
+    }
+}
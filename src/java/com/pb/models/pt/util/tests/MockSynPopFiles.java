@@ -0,0 +1,149 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.pb.models.pt.util.tests;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import com.pb.models.pt.PTDataReader;
+import com.pb.models.pt.tests.PTOccupation;
+
+/**
+ * A small SynPopH and SynPopP, and the pt and global properties a
+ * PTDataReader needs to read them.
+ *
+ * Household ids start above 1 and skip a few numbers, and every household
+ * has its persons on consecutive rows, as the population synthesizer writes
+ * them.
+ */
+public class MockSynPopFiles {
+
+    public final File householdFile;
+
+    public final File personFile;
+
+    // in file order
+    public final int[] householdIds;
+
+    public final int[] householdSizes;
+
+    public final int personCount;
+
+    private final Properties ptProperties = new Properties();
+
+    private final Properties globalProperties = new Properties();
+
+    public final ResourceBundle ptRb = createBundle(ptProperties);
+
+    public final ResourceBundle globalRb = createBundle(globalProperties);
+
+    /**
+     * Write the files.
+     *
+     * @param name Prefix of the file names.
+     * @param households Number of households.
+     * @param seed Seed of the household and person attributes.
+     */
+    public MockSynPopFiles(String name, int households, long seed)
+            throws IOException {
+        householdFile = new File(name + "H.csv");
+        personFile = new File(name + "P.csv");
+
+        globalProperties.setProperty("pums.autoField.name", "AUTOS");
+        globalProperties.setProperty("pums.houseTypeField.name", "UNITTYPE");
+        globalProperties.setProperty("pums.hhIncomeField.name", "HINC");
+        globalProperties.setProperty("alpha.name", "AZONE");
+        globalProperties.setProperty("pums.studentStatField.name", "SCHOOL");
+        globalProperties.setProperty("pums.empStatField.name", "ESR");
+        globalProperties.setProperty("pums.workOccupation.name", "WORK_OCC");
+        ptProperties.setProperty("spg2.synpopH", householdFile.getPath());
+        ptProperties.setProperty("spg2.synpopP", personFile.getPath());
+
+        Random random = new Random(seed);
+        householdIds = new int[households];
+        householdSizes = new int[households];
+        int persons = 0;
+
+        FileWriter hhWriter = new FileWriter(householdFile);
+        FileWriter perWriter = new FileWriter(personFile);
+        hhWriter.write("HH_ID,PERSONS,UNITTYPE,HINC,AZONE,AUTOS\n");
+        perWriter.write("HH_ID,PERS_ID,SEX,AGE,SCHOOL,ESR,INDUSTRY,SW_OCCUP,WORK_OCC,WORK_TAZ\n");
+        int id = 1000;
+        for (int h = 0; h < households; ++h) {
+            id += 1 + (random.nextInt(5) == 0 ? random.nextInt(3) : 0);
+            int size = 1 + random.nextInt(4);
+            householdIds[h] = id;
+            householdSizes[h] = size;
+            hhWriter.write(id + "," + size + "," + (1 + random.nextInt(10))
+                    + "," + random.nextInt(150000) + ".0,"
+                    + (1 + random.nextInt(300)) + "," + random.nextInt(4)
+                    + "\n");
+
+            for (int m = 1; m <= size; ++m) {
+                perWriter.write(id + "," + m + "," + (1 + random.nextInt(2))
+                        + "," + random.nextInt(90) + ","
+                        + (1 + random.nextInt(3)) + "," + random.nextInt(7)
+                        + "," + random.nextInt(20) + "," + random.nextInt(9)
+                        + "," + random.nextInt(9) + ","
+                        + (1 + random.nextInt(300)) + "\n");
+                persons++;
+            }
+        }
+        hhWriter.close();
+        perWriter.close();
+        personCount = persons;
+    }
+
+    /**
+     * Set a pt property, such as sdt.synpop.cache or sdt.person.index.
+     */
+    public void setProperty(String key, String value) {
+        ptProperties.setProperty(key, value);
+    }
+
+    public PTDataReader createReader() {
+        return new PTDataReader(ptRb, globalRb, PTOccupation.NO_OCCUPATION, 2000);
+    }
+
+    /**
+     * Delete the files and the person file index.
+     */
+    public void delete() {
+        householdFile.delete();
+        personFile.delete();
+        new File(personFile.getPath() + ".idx").delete();
+    }
+
+    private static ResourceBundle createBundle(final Properties properties) {
+        return new ResourceBundle() {
+            protected Object handleGetObject(String key) {
+                return properties.getProperty(key);
+            }
+
+            @SuppressWarnings("unchecked")
+            public Enumeration<String> getKeys() {
+                return (Enumeration<String>) properties.propertyNames();
+            }
+        };
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.pb.models.pt.util.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pb.models.pt.PTDataReader;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.util.CSVRecordReader;
+import com.pb.models.pt.util.PersonFileIndex;
+
+/**
+ * Index a made up person file, and read the persons of each household
+ * through the index.
+ */
+public class PersonFileIndexTest {
+    private static final int HOUSEHOLDS = 400;
+
+    private MockSynPopFiles files;
+
+    private File file = new File("testPersonFileIndex.csv");
+
+    @Before
+    public void setUp() throws IOException {
+        files = new MockSynPopFiles("testPersonFileIndex", HOUSEHOLDS, 17);
+    }
+
+    @After
+    public void tearDown() {
+        files.delete();
+        file.delete();
+        PersonFileIndex.getIndexFile(file).delete();
+    }
+
+    /**
+     * Each household points at its first person row and counts its persons,
+     * and the index reads back as it was written.
+     */
+    @Test
+    public void testCreateAndOpen() throws IOException {
+        PersonFileIndex created = PersonFileIndex.create(files.personFile, "HH_ID");
+        PersonFileIndex opened = PersonFileIndex.open(files.personFile);
+        assertNotNull(opened);
+
+        CSVRecordReader reader = new CSVRecordReader(files.personFile.getPath());
+        reader.readHeader();
+        for (int h = 0; h < HOUSEHOLDS; ++h) {
+            int id = files.householdIds[h];
+            assertEquals(created.getOffset(id), opened.getOffset(id));
+            assertEquals(files.householdSizes[h], created.getCount(id));
+            assertEquals(files.householdSizes[h], opened.getCount(id));
+
+            reader.seek(opened.getOffset(id));
+            for (int m = 1; m <= files.householdSizes[h]; ++m) {
+                assertTrue(reader.next());
+                assertEquals(id, reader.getInt(0));
+                assertEquals(m, reader.getInt(1));
+            }
+        }
+        reader.close();
+
+        // below, between and above the households in the file
+        int last = files.householdIds[HOUSEHOLDS - 1];
+        assertEquals(-1, opened.getOffset(1));
+        assertEquals(-1, opened.getOffset(last + 1));
+        assertEquals(0, opened.getCount(last + 1));
+        for (int h = 1; h < HOUSEHOLDS; ++h) {
+            if (files.householdIds[h] > files.householdIds[h - 1] + 1) {
+                assertEquals(-1, opened.getOffset(files.householdIds[h] - 1));
+            }
+        }
+    }
+
+    /**
+     * The reader indexes the person file the first time, and uses the
+     * index after that.
+     */
+    @Test
+    public void testReuse() {
+        files.setProperty("sdt.person.index", "true");
+        File indexFile = PersonFileIndex.getIndexFile(files.personFile);
+
+        files.createReader().createPersonIndex();
+        assertTrue(indexFile.exists());
+        long written = indexFile.lastModified() - 60000;
+        assertTrue(indexFile.setLastModified(written));
+
+        files.createReader().createPersonIndex();
+        assertEquals(written, indexFile.lastModified());
+    }
+
+    /**
+     * An index of an older person file, of another length or modification
+     * time, is not used, and the reader indexes the file again.
+     */
+    @Test
+    public void testStale() throws IOException {
+        PersonFileIndex.create(files.personFile, "HH_ID");
+        long modified = files.personFile.lastModified();
+
+        // another person of the last household
+        int last = files.householdIds[HOUSEHOLDS - 1];
+        FileWriter writer = new FileWriter(files.personFile, true);
+        writer.write(last + ",9,1,30,1,1,5,2,2,7\n");
+        writer.close();
+        assertTrue(files.personFile.setLastModified(modified));
+        assertNull(PersonFileIndex.open(files.personFile));
+
+        files.setProperty("sdt.person.index", "true");
+        files.createReader().createPersonIndex();
+        PersonFileIndex index = PersonFileIndex.open(files.personFile);
+        assertNotNull(index);
+        assertEquals(files.householdSizes[HOUSEHOLDS - 1] + 1, index.getCount(last));
+
+        // the same length, modified later
+        assertTrue(files.personFile.setLastModified(modified + 60000));
+        assertNull(PersonFileIndex.open(files.personFile));
+    }
+
+    /**
+     * A household whose persons are not on consecutive rows cannot be
+     * indexed.
+     */
+    @Test
+    public void testNotConsecutive() throws IOException {
+        FileWriter writer = new FileWriter(file);
+        writer.write("HH_ID,PERS_ID\n1,1\n1,2\n2,1\n1,3\n");
+        writer.close();
+
+        try {
+            PersonFileIndex.create(file, "HH_ID");
+            fail("Indexed household 1 on rows 1, 2 and 4");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("consecutive"));
+        }
+        assertNull(PersonFileIndex.open(file));
+    }
+
+    /**
+     * readPersonsForTravelModels gives the persons readPersons gives, reading
+     * the person file in step with the households and, with the index, with
+     * the households in reverse order.
+     */
+    @Test
+    public void testReadPersonsForTravelModels() {
+        PTPerson[] all = files.createReader().readPersons();
+        assertEquals(files.personCount, all.length);
+
+        int[] start = new int[HOUSEHOLDS];
+        for (int h = 1; h < HOUSEHOLDS; ++h) {
+            start[h] = start[h - 1] + files.householdSizes[h - 1];
+        }
+
+        PTDataReader reader = files.createReader();
+        PTHousehold[] households = reader.readHouseholds();
+        assertEquals(HOUSEHOLDS, households.length);
+        reader.openPersonFile();
+        reader.readPersonHeader();
+        for (int h = 0; h < HOUSEHOLDS; ++h) {
+            assertPersons(all, start[h], reader.readPersonsForTravelModels(
+                    households[h].size, households[h].ID));
+        }
+        reader.closePersonFile();
+
+        files.setProperty("sdt.person.index", "true");
+        files.createReader().createPersonIndex();
+        reader = files.createReader();
+        reader.openPersonFile();
+        reader.readPersonHeader();
+        for (int h = HOUSEHOLDS - 1; h >= 0; --h) {
+            assertPersons(all, start[h], reader.readPersonsForTravelModels(
+                    households[h].size, households[h].ID));
+        }
+        reader.closePersonFile();
+    }
+
+    private static void assertPersons(PTPerson[] expected, int start,
+            PTPerson[] actual) {
+        for (int i = 0; i < actual.length; ++i) {
+            assertPerson(expected[start + i], actual[i]);
+        }
+    }
+
+    static void assertPerson(PTPerson expected, PTPerson actual) {
+        String name = expected.hhID + "_" + expected.memberID;
+        assertEquals(name, expected.hhID, actual.hhID);
+        assertEquals(name, expected.memberID, actual.memberID);
+        assertEquals(name, expected.female, actual.female);
+        assertEquals(name, expected.age, actual.age);
+        assertEquals(name, expected.student, actual.student);
+        assertEquals(name, expected.employed, actual.employed);
+        assertEquals(name, expected.occupation, actual.occupation);
+        assertEquals(name, expected.personType, actual.personType);
+        assertEquals(name, expected.workTaz, actual.workTaz);
+        assertEquals(name, actual.hhID * 100 + actual.memberID, actual.randomSeed);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.pb.models.pt.util.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pb.models.pt.PTDataReader;
+import com.pb.models.pt.PTHousehold;
+import com.pb.models.pt.PTPerson;
+import com.pb.models.pt.util.SynPopCache;
+
+/**
+ * Round trip a small population through the binary population cache.
+ */
+public class SynPopCacheTest {
+    private final int HOUSEHOLDS = 5;
+
+    private File cacheFile;
+
+    private File householdFile;
+
+    private File personFile;
+
+    // population files read through PTDataReader
+    private MockSynPopFiles files;
+
+    private File readerCacheFile = new File("testSynPopReaderCache.bin");
+
+    @Before
+    public void setUp() throws Exception {
+        householdFile = createFile("testSynPopH.csv");
+        personFile = createFile("testSynPopP.csv");
+        cacheFile = new File("testSynPopCache.bin");
+        cacheFile.deleteOnExit();
+
+        // household h has h persons
+        SynPopCache.Households households = new SynPopCache.Households(0, HOUSEHOLDS);
+        SynPopCache.Persons persons = new SynPopCache.Persons(0, 10, 2);
+        int p = 0;
+        for (int h = 0; h < HOUSEHOLDS; ++h) {
+            households.id[h] = h + 1;
+            households.size[h] = (byte) h;
+            households.income[h] = 1000 * h;
+            households.homeTaz[h] = (short) (100 + h);
+            households.personStart[h] = p;
+            for (int m = 1; m <= h; ++m) {
+                persons.hhId[p] = h + 1;
+                persons.member[p] = m;
+                persons.age[p] = (byte) (10 * m);
+                persons.ldIndicator[1][p] = m == 2;
+                p++;
+            }
+        }
+        households.personStart[HOUSEHOLDS] = p;
+
+        SynPopCache.write(cacheFile, householdFile, personFile,
+                SynPopCache.PERSON_LD, households, persons);
+    }
+
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+        householdFile.delete();
+        personFile.delete();
+        if (files != null) {
+            files.delete();
+        }
+        readerCacheFile.delete();
+    }
+
+    private File createFile(String name) throws Exception {
+        File file = new File(name);
+        file.deleteOnExit();
+        FileWriter writer = new FileWriter(file);
+        writer.write("HH_ID\n");
+        writer.close();
+        return file;
+    }
+
+    /**
+     * Read a range of households and the persons they point to.
+     */
+    @Test
+    public void testReadRange() {
+        SynPopCache cache = SynPopCache.open(cacheFile, householdFile, personFile);
+        assertNotNull(cache);
+        assertEquals(HOUSEHOLDS, cache.getHouseholdCount());
+        assertEquals(10, cache.getPersonCount());
+        assertTrue(cache.has(SynPopCache.PERSON_LD));
+        assertFalse(cache.has(SynPopCache.AUTOS));
+
+        SynPopCache.Households households = cache.readHouseholds(3, 10);
+        assertEquals(2, households.count);
+        assertEquals(4, households.id[0]);
+        assertEquals(4000, households.income[1]);
+        assertEquals(104, households.homeTaz[1]);
+        assertEquals(3, households.getPersonCount(0));
+        assertEquals(4, households.getPersonCount(1));
+
+        SynPopCache.Persons persons = cache.readPersons(households.personStart[0],
+                households.personStart[2] - households.personStart[0]);
+        assertEquals(7, persons.count);
+        assertEquals(4, persons.hhId[0]);
+        assertEquals(5, persons.hhId[6]);
+        assertEquals(40, persons.age[6]);
+        assertTrue(persons.ldIndicator[1][1]);
+        assertFalse(persons.ldIndicator[1][2]);
+        assertFalse(persons.ldIndicator[0][1]);
+
+        cache.close();
+    }
+
+    /**
+     * A cache made from other population files is not used.
+     */
+    @Test
+    public void testStale() throws Exception {
+        FileWriter writer = new FileWriter(personFile, true);
+        writer.write("1\n");
+        writer.close();
+
+        assertNull(SynPopCache.open(cacheFile, householdFile, personFile));
+    }
+
+    /**
+     * PTDataReader gives the same households and persons from the cache as
+     * from the population files, for the whole file, a range of rows and a
+     * sample.
+     */
+    @Test
+    public void testReaderMatchesFiles() throws IOException {
+        files = new MockSynPopFiles("testSynPopReader", 300, 23);
+        int[][] ranges = { { 2, Integer.MAX_VALUE - 1, 1 }, { 50, 120, 1 },
+                { 10, 200, 3 } };
+        int[][] personRanges = { { 2, files.personCount + 1 }, { 100, 400 } };
+
+        PTHousehold[][] expected = new PTHousehold[ranges.length][];
+        for (int r = 0; r < ranges.length; ++r) {
+            expected[r] = read(ranges[r]);
+        }
+        PTPerson[][] expectedWorkers = new PTPerson[personRanges.length][];
+        for (int r = 0; r < personRanges.length; ++r) {
+            expectedWorkers[r] = files.createReader().readPersonsForWorkplaceLocation(
+                    personRanges[r][0], personRanges[r][1]);
+        }
+
+        files.setProperty("sdt.synpop.cache", readerCacheFile.getPath());
+        files.createReader().createSynPopCache();
+        assertNotNull(SynPopCache.open(readerCacheFile, files.householdFile,
+                files.personFile));
+
+        for (int r = 0; r < ranges.length; ++r) {
+            PTHousehold[] actual = read(ranges[r]);
+            assertEquals(expected[r].length, actual.length);
+            for (int h = 0; h < actual.length; ++h) {
+                assertHousehold(expected[r][h], actual[h]);
+            }
+        }
+        for (int r = 0; r < personRanges.length; ++r) {
+            PTPerson[] actual = files.createReader().readPersonsForWorkplaceLocation(
+                    personRanges[r][0], personRanges[r][1]);
+            assertEquals(expectedWorkers[r].length, actual.length);
+            for (int i = 0; i < actual.length; ++i) {
+                assertEquals(expectedWorkers[r][i].hhID, actual[i].hhID);
+                assertEquals(expectedWorkers[r][i].memberID, actual[i].memberID);
+                assertEquals(expectedWorkers[r][i].employed, actual[i].employed);
+                assertEquals(expectedWorkers[r][i].workOccupation, actual[i].workOccupation);
+                assertEquals(expectedWorkers[r][i].randomSeed, actual[i].randomSeed);
+            }
+        }
+    }
+
+    /**
+     * A person file with persons and a household file without households do
+     * not make a cache.
+     */
+    @Test
+    public void testNoHouseholds() throws IOException {
+        files = new MockSynPopFiles("testSynPopReader", 5, 29);
+        FileWriter writer = new FileWriter(files.householdFile);
+        writer.write("HH_ID,PERSONS,UNITTYPE,HINC,AZONE,AUTOS\n");
+        writer.close();
+
+        files.setProperty("sdt.synpop.cache", readerCacheFile.getPath());
+        try {
+            files.createReader().createSynPopCache();
+            fail("Cached persons without households");
+        } catch (RuntimeException e) {
+            assertTrue(e.toString(), e.getMessage().contains("no households"));
+        }
+        assertFalse(readerCacheFile.exists());
+    }
+
+    /**
+     * Read households and their persons as a server reads its block.
+     *
+     * @param range start row, end row and sample rate
+     */
+    private PTHousehold[] read(int[] range) {
+        PTDataReader reader = files.createReader();
+        PTHousehold[] households = reader.readHouseholds(range[0], range[1], range[2]);
+        reader.openPersonFile();
+        reader.readPersonHeader();
+        for (PTHousehold household : households) {
+            household.persons = reader.readPersonsForTravelModels(household.size,
+                    household.ID);
+        }
+        reader.closePersonFile();
+        return households;
+    }
+
+    private static void assertHousehold(PTHousehold expected, PTHousehold actual) {
+        assertEquals(expected.ID, actual.ID);
+        assertEquals(expected.size, actual.size);
+        assertEquals(expected.autos, actual.autos);
+        assertEquals(expected.income, actual.income);
+        assertEquals(expected.singleFamily, actual.singleFamily);
+        assertEquals(expected.homeTaz, actual.homeTaz);
+        assertEquals(expected.persons.length, actual.persons.length);
+        for (int i = 0; i < actual.persons.length; ++i) {
+            PersonFileIndexTest.assertPerson(expected.persons[i], actual.persons[i]);
+        }
+    }
+}
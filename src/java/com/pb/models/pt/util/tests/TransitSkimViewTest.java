@@ -0,0 +1,94 @@
+/*
+ * Copyright 2006 PB Americas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.pb.models.pt.util.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.pb.common.matrix.CollapsedMatrixCollection;
+import com.pb.common.matrix.Matrix;
+import com.pb.common.matrix.MatrixCollection;
+import com.pb.models.pt.util.TransitSkimView;
+
+/**
+ * Compare the values of a skim view over a collapsed matrix collection with
+ * those the collection returns itself, for sparse made up skims.
+ */
+public class TransitSkimViewTest {
+    private static final int ZONES = 12;
+
+    private static final String[] CORES = { "WtPkIvt", "WtPkFwt", "WtPkFar" };
+
+    private Random random = new Random(31);
+
+    /**
+     * Create a matrix with external numbers that have gaps, with values in
+     * about half of the cells.
+     */
+    private Matrix createMatrix(String name) {
+        Matrix matrix = new Matrix(name, name, ZONES, ZONES);
+        int[] extNumbers = new int[ZONES + 1];
+        for (int i = 1; i < extNumbers.length; ++i) {
+            extNumbers[i] = 3 * i;
+        }
+        matrix.setExternalNumbers(extNumbers, extNumbers);
+
+        for (int r = 1; r < extNumbers.length; ++r) {
+            for (int c = 1; c < extNumbers.length; ++c) {
+                if (random.nextBoolean()) {
+                    matrix.setValueAt(extNumbers[r], extNumbers[c],
+                            1 + 100 * random.nextFloat());
+                }
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    public void testCollapsedValues() {
+        Matrix index = createMatrix(CORES[0]);
+        MatrixCollection mc = new CollapsedMatrixCollection(index, false);
+        for (int i = 1; i < CORES.length; ++i) {
+            mc.addMatrix(createMatrix(CORES[i]));
+        }
+
+        // a core the collection does not hold
+        String[] names = { CORES[0], null, CORES[1], CORES[2] };
+        TransitSkimView view = new TransitSkimView(mc, names);
+        assertFalse(view.contains(1));
+
+        int[] extNumbers = index.getExternalNumbers();
+        for (int h = 0; h < names.length; ++h) {
+            if (names[h] == null) {
+                continue;
+            }
+            assertTrue(view.contains(h));
+            for (int r = 1; r < extNumbers.length; ++r) {
+                for (int c = 1; c < extNumbers.length; ++c) {
+                    int row = extNumbers[r];
+                    int col = extNumbers[c];
+                    assertEquals(names[h] + " " + row + "-" + col, mc.getValue(
+                            row, col, names[h]), view.getValue(h, row, col),
+                            0.0f);
+                }
+            }
+        }
+    }
+}